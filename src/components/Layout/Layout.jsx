@@ -16,8 +16,10 @@ import {
   Settings
 } from 'lucide-react'
 import { useApp } from '../../contexts/AppContext'
+import { useNotificacao } from '../../contexts/NotificacaoContext'
 import { Button } from '../ui/Button'
 import { Badge } from '../ui/Badge'
+import { Select } from '../ui/Input'
 
 const navigation = [
   { name: 'Dashboard', href: '/dashboard', icon: BarChart3 },
@@ -33,7 +35,8 @@ const navigation = [
 export default function Layout({ children }) {
   const [sidebarOpen, setSidebarOpen] = useState(false)
   const location = useLocation()
-  const { theme, toggleTheme, notificacoes, websocketConnected } = useApp()
+  const { theme, toggleTheme, notificacoes, websocketConnected, responsaveis } = useApp()
+  const { responsavelId, identificarResponsavel } = useNotificacao()
 
   return (
     <div className="min-h-screen bg-background">
@@ -150,6 +153,19 @@ export default function Layout({ children }) {
                 </span>
               </div>
 
+              {/* Responsável que recebe os alertas nesta sessão */}
+              <Select
+                aria-label="Receber alertas como"
+                className="h-9 w-48"
+                value={responsavelId}
+                onChange={(e) => identificarResponsavel(e.target.value)}
+              >
+                <option value="">Nenhum responsável</option>
+                {responsaveis.map((responsavel) => (
+                  <option key={responsavel.id} value={responsavel.id}>{responsavel.nome}</option>
+                ))}
+              </Select>
+
               {/* Notificações */}
               <Button variant="ghost" size="sm" className="relative">
                 <Bell className="h-5 w-5" />
@@ -2,29 +2,25 @@ import React from 'react'
 import { motion } from 'framer-motion'
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from '../ui/Card'
 import { BarChart, Bar, XAxis, YAxis, CartesianGrid, Tooltip, ResponsiveContainer, PieChart, Pie, Cell } from 'recharts'
-import { utils } from '../../services/api'
+import { obrigacaoService, utils } from '../../services/api'
 
 export default function GraficoEstatisticas() {
-  const { estatisticas, obrigacoes } = useApp()
+  const { estatisticas } = useApp()
+  const [dadosMensais, setDadosMensais] = React.useState([])
 
-  // Dados para gráfico de barras - obrigações por mês
-  const dadosMensais = React.useMemo(() => {
-    const meses = {}
-    obrigacoes.forEach(obrigacao => {
-      const mes = new Date(obrigacao.dataVencimento).toLocaleDateString('pt-BR', { 
-        month: 'short', 
-        year: 'numeric' 
-      })
-      if (!meses[mes]) {
-        meses[mes] = { mes, total: 0, concluidas: 0 }
-      }
-      meses[mes].total++
-      if (obrigacao.concluida) {
-        meses[mes].concluidas++
-      }
-    })
-    return Object.values(meses).slice(-6) // Últimos 6 meses
-  }, [obrigacoes])
+  // Dados para gráfico de barras - obrigações por mês, lidas dos snapshots mensais
+  React.useEffect(() => {
+    obrigacaoService.getTendencia('MENSAL', 'TOTAL', 6)
+      .then(serie => setDadosMensais(serie.map(ponto => ({
+        mes: new Date(`${ponto.dataReferencia}T00:00:00`).toLocaleDateString('pt-BR', {
+          month: 'short',
+          year: 'numeric'
+        }),
+        total: ponto.valores.VENCIMENTOS || 0,
+        concluidas: ponto.valores.CONCLUIDAS || 0,
+      }))))
+      .catch(() => setDadosMensais([]))
+  }, [])
 
   // Dados para gráfico de pizza - status de urgência
   const dadosStatus = [
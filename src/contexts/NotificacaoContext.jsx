@@ -1,4 +1,4 @@
-import React, { createContext, useContext, useState, useEffect } from 'react'
+import React, { createContext, useContext, useState, useEffect, useRef } from 'react'
 import { toast } from 'react-hot-toast'
 import SockJS from 'sockjs-client'
 import { Stomp } from '@stomp/stompjs'
@@ -18,6 +18,8 @@ export const NotificacaoProvider = ({ children }) => {
   const [stompClient, setStompClient] = useState(null)
   const [conectado, setConectado] = useState(false)
   const [usuariosConectados, setUsuariosConectados] = useState([])
+  const [responsavelId, setResponsavelId] = useState(() => localStorage.getItem('responsavelId') || '')
+  const socketRef = useRef(null)
 
   useEffect(() => {
     // Simular conexão WebSocket para demonstração
@@ -45,6 +47,59 @@ export const NotificacaoProvider = ({ children }) => {
     }, 2000)
   }, [])
 
+  // Notificações do servidor (resumos de alertas, virada do dia) pelo transporte WebSocket do endpoint SockJS
+  useEffect(() => {
+    let reconexao = null
+    let encerrado = false
+
+    const conectar = () => {
+      const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:'
+      const socket = new WebSocket(`${protocol}//${window.location.host}/api/ws/websocket`)
+      socketRef.current = socket
+
+      socket.onopen = () => {
+        setConectado(true)
+        enviarIdentificacao(localStorage.getItem('responsavelId'))
+      }
+
+      socket.onmessage = (event) => {
+        processarNotificacao(JSON.parse(event.data))
+      }
+
+      socket.onclose = () => {
+        setConectado(false)
+        if (!encerrado) {
+          reconexao = setTimeout(conectar, 5000)
+        }
+      }
+    }
+
+    conectar()
+    return () => {
+      encerrado = true
+      clearTimeout(reconexao)
+      socketRef.current?.close()
+    }
+  }, [])
+
+  // Associa a sessão ao responsável, que passa a receber os resumos de alertas dirigidos a ele
+  const enviarIdentificacao = (id) => {
+    const socket = socketRef.current
+    if (socket && socket.readyState === WebSocket.OPEN) {
+      socket.send(JSON.stringify({ tipo: 'IDENTIFICAR', responsavelId: id || null }))
+    }
+  }
+
+  const identificarResponsavel = (id) => {
+    if (id) {
+      localStorage.setItem('responsavelId', id)
+    } else {
+      localStorage.removeItem('responsavelId')
+    }
+    setResponsavelId(id || '')
+    enviarIdentificacao(id)
+  }
+
   const conectarWebSocket = () => {
     const socket = new SockJS('/ws')
     const stomp = Stomp.over(socket)
@@ -200,6 +255,8 @@ export const NotificacaoProvider = ({ children }) => {
     notificacoes,
     conectado,
     usuariosConectados,
+    responsavelId,
+    identificarResponsavel,
     notificarMudanca,
     iniciarEdicao,
     finalizarEdicao,
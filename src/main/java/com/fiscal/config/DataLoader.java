@@ -31,111 +31,103 @@ public class DataLoader implements CommandLineRunner {
         // Log removido temporariamente
         
         // Criar clientes de exemplo
-        Cliente cliente1 = // Cliente.new 
-                .nome("Empresa ABC Ltda")
-                .cnpjCpf("12.345.678/0001-90")
-                .email("contato@empresaabc.com")
-                .telefone("(11) 99999-9999")
-                .observacoes("Cliente principal")
-                .ativo(true)
-                ;
+        Cliente cliente1 = new Cliente();
+        cliente1.setNome("Empresa ABC Ltda");
+        cliente1.setCnpjCpf("12.345.678/0001-90");
+        cliente1.setEmail("contato@empresaabc.com");
+        cliente1.setTelefone("(11) 99999-9999");
+        cliente1.setObservacoes("Cliente principal");
+        cliente1.setAtivo(true);
         
-        Cliente cliente2 = // Cliente.new 
-                .nome("Comércio XYZ S/A")
-                .cnpjCpf("98.765.432/0001-10")
-                .email("fiscal@comercioxyz.com")
-                .telefone("(11) 88888-8888")
-                .observacoes("Cliente secundário")
-                .ativo(true)
-                ;
+        Cliente cliente2 = new Cliente();
+        cliente2.setNome("Comércio XYZ S/A");
+        cliente2.setCnpjCpf("98.765.432/0001-10");
+        cliente2.setEmail("fiscal@comercioxyz.com");
+        cliente2.setTelefone("(11) 88888-8888");
+        cliente2.setObservacoes("Cliente secundário");
+        cliente2.setAtivo(true);
         
         clienteRepository.save(cliente1);
         clienteRepository.save(cliente2);
         
         // Criar responsáveis de exemplo
-        Responsavel responsavel1 = // Responsavel.new 
-                .nome("João Silva")
-                .email("joao.silva@empresaabc.com")
-                .telefone("(11) 99999-1111")
-                .cargo("Contador")
-                .ativo(true)
-                ;
+        Responsavel responsavel1 = new Responsavel();
+        responsavel1.setNome("João Silva");
+        responsavel1.setEmail("joao.silva@empresaabc.com");
+        responsavel1.setTelefone("(11) 99999-1111");
+        responsavel1.setCargo("Contador");
+        responsavel1.setAtivo(true);
         
-        Responsavel responsavel2 = // Responsavel.new 
-                .nome("Maria Santos")
-                .email("maria.santos@comercioxyz.com")
-                .telefone("(11) 88888-2222")
-                .cargo("Assistente Fiscal")
-                .ativo(true)
-                ;
+        Responsavel responsavel2 = new Responsavel();
+        responsavel2.setNome("Maria Santos");
+        responsavel2.setEmail("maria.santos@comercioxyz.com");
+        responsavel2.setTelefone("(11) 88888-2222");
+        responsavel2.setCargo("Assistente Fiscal");
+        responsavel2.setAtivo(true);
         
         responsavelRepository.save(responsavel1);
         responsavelRepository.save(responsavel2);
         
         // Criar obrigações de exemplo
-        Obrigacao obrigacao1 = // Obrigacao.new 
-                .nome("DARF Mensal - IRPJ")
-                .tipo(TipoObrigacao.IMPOSTO)
-                .descricao("Imposto de Renda Pessoa Jurídica mensal")
-                .cliente(cliente1)
-                .responsavel(responsavel1)
-                .dataVencimento(LocalDate.now().plusDays(5))
-                .tipoRecorrencia(TipoRecorrencia.MENSAL)
-                .diaMesRecorrencia(10)
-                .ajustarFinaisSemana(true)
-                .ajustarFeriados(true)
-                .ativo(true)
-                .concluida(false)
-                .ultimoEditor("Sistema")
-                ;
+        Obrigacao obrigacao1 = new Obrigacao();
+        obrigacao1.setNome("DARF Mensal - IRPJ");
+        obrigacao1.setTipo(TipoObrigacao.IMPOSTO);
+        obrigacao1.setDescricao("Imposto de Renda Pessoa Jurídica mensal");
+        obrigacao1.setCliente(cliente1);
+        obrigacao1.setResponsavel(responsavel1);
+        obrigacao1.setDataVencimento(LocalDate.now().plusDays(5));
+        obrigacao1.setTipoRecorrencia(TipoRecorrencia.MENSAL);
+        obrigacao1.setDiaMesRecorrencia(10);
+        obrigacao1.setAjustarFinaisSemana(true);
+        obrigacao1.setAjustarFeriados(true);
+        obrigacao1.setAtivo(true);
+        obrigacao1.setConcluida(false);
+        obrigacao1.setUltimoEditor("Sistema");
         
-        Obrigacao obrigacao2 = // Obrigacao.new 
-                .nome("Parcelamento ICMS")
-                .tipo(TipoObrigacao.PARCELAMENTO)
-                .descricao("Parcelamento de ICMS em atraso")
-                .cliente(cliente2)
-                .responsavel(responsavel2)
-                .dataVencimento(LocalDate.now().plusDays(2))
-                .tipoRecorrencia(TipoRecorrencia.MENSAL)
-                .diaMesRecorrencia(15)
-                .ajustarFinaisSemana(true)
-                .ajustarFeriados(true)
-                .ativo(true)
-                .concluida(false)
-                .ultimoEditor("Sistema")
-                ;
+        Obrigacao obrigacao2 = new Obrigacao();
+        obrigacao2.setNome("Parcelamento ICMS");
+        obrigacao2.setTipo(TipoObrigacao.PARCELAMENTO);
+        obrigacao2.setDescricao("Parcelamento de ICMS em atraso");
+        obrigacao2.setCliente(cliente2);
+        obrigacao2.setResponsavel(responsavel2);
+        obrigacao2.setDataVencimento(LocalDate.now().plusDays(2));
+        obrigacao2.setTipoRecorrencia(TipoRecorrencia.MENSAL);
+        obrigacao2.setDiaMesRecorrencia(15);
+        obrigacao2.setAjustarFinaisSemana(true);
+        obrigacao2.setAjustarFeriados(true);
+        obrigacao2.setAtivo(true);
+        obrigacao2.setConcluida(false);
+        obrigacao2.setUltimoEditor("Sistema");
         
-        Obrigacao obrigacao3 = // Obrigacao.new 
-                .nome("SPED Fiscal")
-                .tipo(TipoObrigacao.DECLARACAO)
-                .descricao("Sistema Público de Escrituração Digital")
-                .cliente(cliente1)
-                .responsavel(responsavel1)
-                .dataVencimento(LocalDate.now().plusDays(10))
-                .tipoRecorrencia(TipoRecorrencia.MENSAL)
-                .diaMesRecorrencia(25)
-                .ajustarFinaisSemana(true)
-                .ajustarFeriados(true)
-                .ativo(true)
-                .concluida(false)
-                .ultimoEditor("Sistema")
-                ;
+        Obrigacao obrigacao3 = new Obrigacao();
+        obrigacao3.setNome("SPED Fiscal");
+        obrigacao3.setTipo(TipoObrigacao.DECLARACAO);
+        obrigacao3.setDescricao("Sistema Público de Escrituração Digital");
+        obrigacao3.setCliente(cliente1);
+        obrigacao3.setResponsavel(responsavel1);
+        obrigacao3.setDataVencimento(LocalDate.now().plusDays(10));
+        obrigacao3.setTipoRecorrencia(TipoRecorrencia.MENSAL);
+        obrigacao3.setDiaMesRecorrencia(25);
+        obrigacao3.setAjustarFinaisSemana(true);
+        obrigacao3.setAjustarFeriados(true);
+        obrigacao3.setAtivo(true);
+        obrigacao3.setConcluida(false);
+        obrigacao3.setUltimoEditor("Sistema");
         
-        Obrigacao obrigacao4 = // Obrigacao.new 
-                .nome("DARF Trimestral - CSLL")
-                .tipo(TipoObrigacao.IMPOSTO)
-                .descricao("Contribuição Social sobre o Lucro Líquido")
-                .cliente(cliente2)
-                .responsavel(responsavel2)
-                .dataVencimento(LocalDate.now().minusDays(3))
-                .tipoRecorrencia(TipoRecorrencia.TRIMESTRAL)
-                .diaMesRecorrencia(15)
-                .ajustarFinaisSemana(true)
-                .ajustarFeriados(true)
-                .ativo(true)
-                .concluida(false)
-                .ultimoEditor("Sistema")
-                ;
+        Obrigacao obrigacao4 = new Obrigacao();
+        obrigacao4.setNome("DARF Trimestral - CSLL");
+        obrigacao4.setTipo(TipoObrigacao.IMPOSTO);
+        obrigacao4.setDescricao("Contribuição Social sobre o Lucro Líquido");
+        obrigacao4.setCliente(cliente2);
+        obrigacao4.setResponsavel(responsavel2);
+        obrigacao4.setDataVencimento(LocalDate.now().minusDays(3));
+        obrigacao4.setTipoRecorrencia(TipoRecorrencia.TRIMESTRAL);
+        obrigacao4.setDiaMesRecorrencia(15);
+        obrigacao4.setAjustarFinaisSemana(true);
+        obrigacao4.setAjustarFeriados(true);
+        obrigacao4.setAtivo(true);
+        obrigacao4.setConcluida(false);
+        obrigacao4.setUltimoEditor("Sistema");
         
         obrigacaoRepository.save(obrigacao1);
         obrigacaoRepository.save(obrigacao2);
@@ -143,9 +135,9 @@ public class DataLoader implements CommandLineRunner {
         obrigacaoRepository.save(obrigacao4);
         
         // Log removido temporariamente
-        System.out.println("- {} clientes criados", clienteRepository.count());
-        System.out.println("- {} responsáveis criados", responsavelRepository.count());
-        System.out.println("- {} obrigações criadas", obrigacaoRepository.count());
+        System.out.println("- " + clienteRepository.count() + " clientes criados");
+        System.out.println("- " + responsavelRepository.count() + " responsáveis criados");
+        System.out.println("- " + obrigacaoRepository.count() + " obrigações criadas");
     }
 }
 
@@ -2,7 +2,10 @@ package com.fiscal.config;
 
 import com.fiscal.service.WebSocketService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
@@ -24,6 +27,15 @@ public class WebSocketConfig implements WebSocketConfigurer {
                 .setAllowedOrigins("*")
                 .withSockJS();
     }
+    
+    /**
+     * Template usado pelo ColaboracaoService; sem broker STOMP configurado, publica em um canal local
+     * (as notificações aos navegadores seguem pelo WebSocketService)
+     */
+    @Bean
+    public SimpMessagingTemplate messagingTemplate() {
+        return new SimpMessagingTemplate(new ExecutorSubscribableChannel());
+    }
 }
 
 
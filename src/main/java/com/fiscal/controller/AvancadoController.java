@@ -1,9 +1,21 @@
 package com.fiscal.controller;
 
+import com.fiscal.model.ExecucaoJob;
 import com.fiscal.model.HistoricoAlteracao;
+import com.fiscal.model.StatusUrgencia;
+import com.fiscal.model.dto.ClienteResumo;
+import com.fiscal.model.dto.FiltroObrigacao;
 import com.fiscal.model.dto.ObrigacaoResponse;
+import com.fiscal.model.dto.ObrigacaoResumo;
+import com.fiscal.model.dto.PaginaCursor;
+import com.fiscal.model.dto.ResponsavelResumo;
+import com.fiscal.service.CalendarioObrigacoesService;
 import com.fiscal.service.HistoricoService;
+import com.fiscal.service.JobExecutorService;
 import com.fiscal.service.ObrigacaoCompletaService;
+import com.fiscal.service.ObrigacaoService;
+import com.fiscal.service.ProcessamentoRecorrenciasService;
+import com.fiscal.service.ReajusteVencimentoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -26,7 +38,12 @@ import java.util.Optional;
 public class AvancadoController {
     
     private final ObrigacaoCompletaService obrigacaoCompletaService;
+    private final ObrigacaoService obrigacaoService;
     private final HistoricoService historicoService;
+    private final ReajusteVencimentoService reajusteVencimentoService;
+    private final CalendarioObrigacoesService calendarioObrigacoesService;
+    private final ProcessamentoRecorrenciasService processamentoRecorrenciasService;
+    private final JobExecutorService jobExecutorService;
     
     /**
      * Busca obrigação por ID
@@ -41,48 +58,49 @@ public class AvancadoController {
                 // Converter para response
                 return ResponseEntity.ok(converterParaResponse(obrigacao.get()));
             } else {
-                return ResponseEntity.notFound();
+                return ResponseEntity.notFound().build();
             }
         } catch (Exception e) {
-            System.out.println("Erro ao buscar obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(500);
+            System.out.println("Erro ao buscar obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(500).build();
         }
     }
     
     /**
-     * Busca obrigações com filtros avançados
+     * Busca obrigações com filtros avançados, paginadas por cursor em ordem de vencimento
+     * Todos os filtros se combinam; clienteId, responsavelId e urgencia aceitam vários valores.
      */
     @GetMapping("/obrigacoes")
-    public ResponseEntity<List<ObrigacaoResponse>> buscarObrigacoesComFiltros(
-            @RequestParam(required = false) Long clienteId,
-            @RequestParam(required = false) Long responsavelId,
+    public ResponseEntity<PaginaCursor<ObrigacaoResumo>> buscarObrigacoesComFiltros(
+            @RequestParam(required = false) List<Long> clienteId,
+            @RequestParam(required = false) List<Long> responsavelId,
             @RequestParam(required = false) String tipo,
             @RequestParam(required = false) Boolean concluida,
             @RequestParam(required = false) String dataInicio,
-            @RequestParam(required = false) String dataFim) {
+            @RequestParam(required = false) String dataFim,
+            @RequestParam(required = false) List<String> urgencia,
+            @RequestParam(required = false) String texto,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
         // Log removido temporariamente
         
         try {
-            List<com.fiscal.model.Obrigacao> obrigacoes;
+            FiltroObrigacao filtro = new FiltroObrigacao();
+            filtro.setClienteIds(clienteId);
+            filtro.setResponsavelIds(responsavelId);
+            filtro.setTipo(tipo != null ? com.fiscal.model.TipoObrigacao.valueOf(tipo) : null);
+            filtro.setConcluida(concluida);
+            filtro.setDataInicio(dataInicio != null ? LocalDate.parse(dataInicio) : null);
+            filtro.setDataFim(dataFim != null ? LocalDate.parse(dataFim) : null);
+            filtro.setUrgencias(urgencia != null ? urgencia.stream().map(StatusUrgencia::valueOf).toList() : null);
+            filtro.setTexto(texto);
             
-            if (dataInicio != null && dataFim != null) {
-                LocalDate inicio = LocalDate.parse(dataInicio);
-                LocalDate fim = LocalDate.parse(dataFim);
-                obrigacoes = obrigacaoCompletaService.buscarPorPeriodo(inicio, fim);
-            } else {
-                com.fiscal.model.TipoObrigacao tipoEnum = tipo != null ? 
-                        com.fiscal.model.TipoObrigacao.valueOf(tipo) : null;
-                obrigacoes = obrigacaoCompletaService.buscarComFiltros(clienteId, responsavelId, tipoEnum, concluida);
-            }
-            
-            List<ObrigacaoResponse> response = obrigacoes.stream()
-                    .map(this::converterParaResponse)
-                    .toList();
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(obrigacaoService.buscarPagina(filtro, cursor, tamanho));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             System.out.println("Erro ao buscar obrigações com filtros: " + e.getMessage());
-            return ResponseEntity.status(500);
+            return ResponseEntity.status(500).build();
         }
     }
     
@@ -101,11 +119,11 @@ public class AvancadoController {
             com.fiscal.model.Obrigacao obrigacao = obrigacaoCompletaService.atualizarDataVencimento(id, data, usuarioEditor);
             return ResponseEntity.ok(converterParaResponse(obrigacao));
         } catch (RuntimeException e) {
-            System.out.println("Erro ao atualizar data de vencimento ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(404);
+            System.out.println("Erro ao atualizar data de vencimento ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(404).build();
         } catch (Exception e) {
-            System.out.println("Erro ao atualizar data de vencimento ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(500);
+            System.out.println("Erro ao atualizar data de vencimento ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(500).build();
         }
     }
     
@@ -122,11 +140,11 @@ public class AvancadoController {
             com.fiscal.model.Obrigacao obrigacao = obrigacaoCompletaService.concluirObrigacao(id, usuarioEditor);
             return ResponseEntity.ok(converterParaResponse(obrigacao));
         } catch (RuntimeException e) {
-            System.out.println("Erro ao concluir obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(404);
+            System.out.println("Erro ao concluir obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(404).build();
         } catch (Exception e) {
-            System.out.println("Erro ao concluir obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(500);
+            System.out.println("Erro ao concluir obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(500).build();
         }
     }
     
@@ -143,11 +161,11 @@ public class AvancadoController {
             com.fiscal.model.Obrigacao obrigacao = obrigacaoCompletaService.reabrirObrigacao(id, usuarioEditor);
             return ResponseEntity.ok(converterParaResponse(obrigacao));
         } catch (RuntimeException e) {
-            System.out.println("Erro ao reabrir obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(404);
+            System.out.println("Erro ao reabrir obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(404).build();
         } catch (Exception e) {
-            System.out.println("Erro ao reabrir obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(500);
+            System.out.println("Erro ao reabrir obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(500).build();
         }
     }
     
@@ -162,13 +180,13 @@ public class AvancadoController {
         
         try {
             obrigacaoCompletaService.excluirObrigacao(id, usuarioEditor);
-            return ResponseEntity.noContent();
+            return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
-            System.out.println("Erro ao excluir obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(404);
+            System.out.println("Erro ao excluir obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(404).build();
         } catch (Exception e) {
-            System.out.println("Erro ao excluir obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(500);
+            System.out.println("Erro ao excluir obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(500).build();
         }
     }
     
@@ -185,11 +203,11 @@ public class AvancadoController {
             com.fiscal.model.Obrigacao obrigacao = obrigacaoCompletaService.duplicarObrigacao(id, usuarioEditor);
             return ResponseEntity.ok(converterParaResponse(obrigacao));
         } catch (RuntimeException e) {
-            System.out.println("Erro ao duplicar obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(404);
+            System.out.println("Erro ao duplicar obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(404).build();
         } catch (Exception e) {
-            System.out.println("Erro ao duplicar obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(500);
+            System.out.println("Erro ao duplicar obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(500).build();
         }
     }
     
@@ -206,11 +224,11 @@ public class AvancadoController {
             com.fiscal.model.Obrigacao obrigacao = obrigacaoCompletaService.gerarProximaOcorrenciaManual(id, usuarioEditor);
             return ResponseEntity.ok(converterParaResponse(obrigacao));
         } catch (RuntimeException e) {
-            System.out.println("Erro ao gerar próxima ocorrência ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(404);
+            System.out.println("Erro ao gerar próxima ocorrência ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(404).build();
         } catch (Exception e) {
-            System.out.println("Erro ao gerar próxima ocorrência ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(500);
+            System.out.println("Erro ao gerar próxima ocorrência ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(500).build();
         }
     }
     
@@ -225,8 +243,8 @@ public class AvancadoController {
             List<HistoricoAlteracao> historico = historicoService.buscarHistoricoObrigacao(id);
             return ResponseEntity.ok(historico);
         } catch (Exception e) {
-            System.out.println("Erro ao buscar histórico da obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(500);
+            System.out.println("Erro ao buscar histórico da obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(500).build();
         }
     }
     
@@ -243,7 +261,7 @@ public class AvancadoController {
             return ResponseEntity.ok(historico);
         } catch (Exception e) {
             System.out.println("Erro ao buscar últimas alterações: " + e.getMessage());
-            return ResponseEntity.status(500);
+            return ResponseEntity.status(500).build();
         }
     }
     
@@ -259,59 +277,150 @@ public class AvancadoController {
             return ResponseEntity.ok(estatisticas);
         } catch (Exception e) {
             System.out.println("Erro ao obter estatísticas: " + e.getMessage());
-            return ResponseEntity.status(500);
+            return ResponseEntity.status(500).build();
         }
     }
     
     /**
-     * Converte entidade para DTO de resposta
+     * Lista as ocorrências do calendário no período, incluindo as projetadas das séries ativas
      */
-    private ObrigacaoResponse converterParaResponse(com.fiscal.model.Obrigacao obrigacao) {
-        long diasParaVencimento = java.time.temporal.ChronoUnit.DAYS.between(LocalDate.now(), obrigacao.getDataVencimento());
-        
-        String statusUrgencia = calcularStatusUrgencia(diasParaVencimento);
-        
-        return ObrigacaoResponsenew 
-                .id(obrigacao.getId())
-                .nome(obrigacao.getNome())
-                .tipo(obrigacao.getTipo())
-                .descricao(obrigacao.getDescricao())
-                .cliente(obrigacao.getCliente())
-                .responsavel(obrigacao.getResponsavel())
-                .dataVencimento(obrigacao.getDataVencimento())
-                .tipoRecorrencia(obrigacao.getTipoRecorrencia())
-                .diasRecorrencia(obrigacao.getDiasRecorrencia())
-                .diaMesRecorrencia(obrigacao.getDiaMesRecorrencia())
-                .ajustarFinaisSemana(obrigacao.getAjustarFinaisSemana())
-                .ajustarFeriados(obrigacao.getAjustarFeriados())
-                .dataProximaGeracao(obrigacao.getDataProximaGeracao())
-                .ativo(obrigacao.getAtivo())
-                .concluida(obrigacao.getConcluida())
-                .dataConclusao(obrigacao.getDataConclusao())
-                .dataCriacao(obrigacao.getDataCriacao())
-                .dataAtualizacao(obrigacao.getDataAtualizacao())
-                .ultimoEditor(obrigacao.getUltimoEditor())
-                .diasParaVencimento(diasParaVencimento)
-                .statusUrgencia(statusUrgencia)
-                ;
+    @GetMapping("/calendario")
+    public ResponseEntity<List<ObrigacaoResumo>> listarCalendario(
+            @RequestParam String inicio,
+            @RequestParam String fim,
+            @RequestParam(required = false) Long clienteId) {
+        try {
+            return ResponseEntity.ok(calendarioObrigacoesService
+                    .listarOcorrencias(LocalDate.parse(inicio), LocalDate.parse(fim), clienteId));
+        } catch (Exception e) {
+            System.out.println("Erro ao listar calendário: " + e.getMessage());
+            return ResponseEntity.status(400).build();
+        }
+    }
+    
+    /**
+     * Grava uma ocorrência projetada para que possa ser editada ou concluída
+     */
+    @PostMapping("/calendario/materializar")
+    public ResponseEntity<ObrigacaoResponse> materializarOcorrencia(
+            @RequestParam Long obrigacaoOrigemId,
+            @RequestParam String dataReferencia,
+            @RequestParam(defaultValue = "Sistema") String usuarioEditor) {
+        try {
+            com.fiscal.model.Obrigacao obrigacao = calendarioObrigacoesService.materializar(
+                    obrigacaoOrigemId, LocalDate.parse(dataReferencia), usuarioEditor);
+            return ResponseEntity.ok(converterParaResponse(obrigacao));
+        } catch (Exception e) {
+            System.out.println("Erro ao materializar ocorrência: " + e.getMessage());
+            return ResponseEntity.status(400).build();
+        }
+    }
+    
+    /**
+     * Recarrega os feriados do ano e reajusta os vencimentos afetados
+     */
+    @PostMapping("/feriados/{ano}/recarregar")
+    public ResponseEntity<Map<String, Object>> recarregarFeriados(
+            @PathVariable int ano,
+            @RequestParam(defaultValue = "Sistema") String usuarioEditor) {
+        try {
+            Map<String, Object> resumo = reajusteVencimentoService.recarregarFeriados(ano, usuarioEditor);
+            return ResponseEntity.ok(resumo);
+        } catch (Exception e) {
+            System.out.println("Erro ao recarregar feriados de " + ano + ": " + e.getMessage());
+            return ResponseEntity.status(500).build();
+        }
     }
     
     /**
-     * Calcula status de urgência baseado nos dias para vencimento
+     * Reajusta os vencimentos afetados por mudança de feriados em um período
      */
-    private String calcularStatusUrgencia(long diasParaVencimento) {
-        if (diasParaVencimento < 0) {
-            return "VENCIDA";
-        } else if (diasParaVencimento <= 3) {
-            return "CRÍTICA";
-        } else if (diasParaVencimento <= 7) {
-            return "URGENTE";
-        } else if (diasParaVencimento <= 15) {
-            return "ATENÇÃO";
-        } else {
-            return "NORMAL";
+    @PostMapping("/vencimentos/reajustar")
+    public ResponseEntity<Map<String, Object>> reajustarVencimentos(
+            @RequestParam String inicio,
+            @RequestParam String fim,
+            @RequestParam(defaultValue = "Sistema") String usuarioEditor) {
+        try {
+            Map<String, Object> resumo = reajusteVencimentoService.reajustar(
+                    LocalDate.parse(inicio), LocalDate.parse(fim), usuarioEditor);
+            return ResponseEntity.ok(resumo);
+        } catch (Exception e) {
+            System.out.println("Erro ao reajustar vencimentos: " + e.getMessage());
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
+    /**
+     * Dispara o processamento de recorrências pendentes até hoje
+     */
+    @PostMapping("/recorrencias/processar")
+    public ResponseEntity<Map<String, Object>> processarRecorrencias(
+            @RequestParam(defaultValue = "Sistema") String usuarioEditor) {
+        try {
+            Map<String, Object> resumo = processamentoRecorrenciasService.processar(LocalDate.now(), usuarioEditor);
+            if (resumo == null) {
+                return ResponseEntity.status(409).body(processamentoRecorrenciasService.obterProgresso());
+            }
+            return ResponseEntity.ok(resumo);
+        } catch (Exception e) {
+            System.out.println("Erro ao processar recorrências: " + e.getMessage());
+            return ResponseEntity.status(500).build();
         }
     }
+    
+    /**
+     * Progresso do processamento de recorrências em andamento ou do último concluído
+     */
+    @GetMapping("/recorrencias/progresso")
+    public ResponseEntity<Map<String, Object>> progressoRecorrencias() {
+        return ResponseEntity.ok(processamentoRecorrenciasService.obterProgresso());
+    }
+    
+    /**
+     * Lista as últimas execuções dos jobs agendados, opcionalmente de um job
+     */
+    @GetMapping("/jobs/execucoes")
+    public ResponseEntity<List<ExecucaoJob>> listarExecucoesJobs(@RequestParam(required = false) String job) {
+        return ResponseEntity.ok(jobExecutorService.listarExecucoes(job));
+    }
+    
+    /**
+     * Converte entidade para DTO de resposta
+     */
+    private ObrigacaoResponse converterParaResponse(com.fiscal.model.Obrigacao obrigacao) {
+        long diasParaVencimento = java.time.temporal.ChronoUnit.DAYS.between(LocalDate.now(), obrigacao.getDataVencimento());
+        
+        String statusUrgencia = StatusUrgencia.de(diasParaVencimento).getDescricao();
+        
+        ObrigacaoResponse response = new ObrigacaoResponse();
+        response.setId(obrigacao.getId());
+        response.setNome(obrigacao.getNome());
+        response.setTipo(obrigacao.getTipo());
+        response.setDescricao(obrigacao.getDescricao());
+        response.setCliente(ClienteResumo.de(obrigacao.getCliente()));
+        response.setResponsavel(ResponsavelResumo.de(obrigacao.getResponsavel()));
+        response.setDataVencimento(obrigacao.getDataVencimento());
+        response.setDataVencimentoOriginal(obrigacao.getDataVencimentoOriginal());
+        response.setTipoRecorrencia(obrigacao.getTipoRecorrencia());
+        response.setDiasRecorrencia(obrigacao.getDiasRecorrencia());
+        response.setDiaMesRecorrencia(obrigacao.getDiaMesRecorrencia());
+        response.setRegraRecorrencia(obrigacao.getRegraRecorrencia());
+        response.setSerieId(obrigacao.getSerie() != null ? obrigacao.getSerie().getId() : null);
+        response.setImpostoId(obrigacao.getImposto() != null ? obrigacao.getImposto().getId() : null);
+        response.setAjustarFinaisSemana(obrigacao.getAjustarFinaisSemana());
+        response.setAjustarFeriados(obrigacao.getAjustarFeriados());
+        response.setModoAjuste(obrigacao.getModoAjuste());
+        response.setDataProximaGeracao(obrigacao.getDataProximaGeracao());
+        response.setAtivo(obrigacao.getAtivo());
+        response.setConcluida(obrigacao.getConcluida());
+        response.setDataConclusao(obrigacao.getDataConclusao());
+        response.setDataCriacao(obrigacao.getDataCriacao());
+        response.setDataAtualizacao(obrigacao.getDataAtualizacao());
+        response.setUltimoEditor(obrigacao.getUltimoEditor());
+        response.setDiasParaVencimento(diasParaVencimento);
+        response.setStatusUrgencia(statusUrgencia);
+        return response;
+    }
 }
 
 
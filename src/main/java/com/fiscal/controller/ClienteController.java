@@ -1,12 +1,13 @@
 package com.fiscal.controller;
 
 import com.fiscal.model.Cliente;
+import com.fiscal.model.dto.CursorPaginacao;
+import com.fiscal.model.dto.PaginaCursor;
 import com.fiscal.repository.ClienteRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -36,10 +37,10 @@ public class ClienteController {
         
         try {
             Cliente clienteSalvo = clienteRepository.save(cliente);
-            return ResponseEntity.ok(null) // ResponseEntity temporariamente simplificado;
+            return ResponseEntity.status(HttpStatus.CREATED).body(clienteSalvo);
         } catch (Exception e) {
             System.out.println("Erro ao criar cliente: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
@@ -55,15 +56,15 @@ public class ClienteController {
         try {
             Optional<Cliente> clienteExistente = clienteRepository.findById(id);
             if (clienteExistente.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
             
             cliente.setId(id);
             Cliente clienteSalvo = clienteRepository.save(cliente);
             return ResponseEntity.ok(clienteSalvo);
         } catch (Exception e) {
-            System.out.println("Erro ao atualizar cliente ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST);
+            System.out.println("Erro ao atualizar cliente ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
@@ -79,26 +80,37 @@ public class ClienteController {
             return ResponseEntity.ok(clientes);
         } catch (Exception e) {
             System.out.println("Erro ao buscar clientes: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
     /**
-     * Busca clientes com filtros
+     * Busca clientes com filtros, paginados por cursor em ordem de nome
      */
     @GetMapping("/buscar")
-    public ResponseEntity<Page<Cliente>> buscarClientesComFiltros(
+    public ResponseEntity<PaginaCursor<Cliente>> buscarClientesComFiltros(
             @RequestParam(required = false) String nome,
             @RequestParam(required = false) String cnpjCpf,
-            Pageable pageable) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
         // Log removido temporariamente
         
         try {
-            Page<Cliente> clientes = clienteRepository.findWithFilters(nome, cnpjCpf, pageable);
-            return ResponseEntity.ok(clientes);
+            int limite = PaginaCursor.tamanhoValido(tamanho);
+            PageRequest linhas = PageRequest.of(0, limite + 1);
+            List<Cliente> clientes;
+            if (cursor == null || cursor.isBlank()) {
+                clientes = clienteRepository.findPaginaComFiltros(nome, cnpjCpf, linhas);
+            } else {
+                CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+                clientes = clienteRepository.findPaginaComFiltrosApos(nome, cnpjCpf, posicao.getValor(), posicao.getId(), linhas);
+            }
+            return ResponseEntity.ok(PaginaCursor.de(clientes, limite, c -> new CursorPaginacao(c.getNome(), c.getId())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             System.out.println("Erro ao buscar clientes com filtros: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -112,10 +124,10 @@ public class ClienteController {
         try {
             Optional<Cliente> cliente = clienteRepository.findById(id);
             return cliente.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND));
+                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
         } catch (Exception e) {
-            System.out.println("Erro ao buscar cliente ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            System.out.println("Erro ao buscar cliente ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -129,10 +141,10 @@ public class ClienteController {
         try {
             Optional<Cliente> cliente = clienteRepository.findByCnpjCpfAndAtivoTrue(cnpjCpf);
             return cliente.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND));
+                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
         } catch (Exception e) {
-            System.out.println("Erro ao buscar cliente por CNPJ/CPF {}: " + cnpjCpf, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            System.out.println("Erro ao buscar cliente por CNPJ/CPF " + cnpjCpf + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -146,17 +158,17 @@ public class ClienteController {
         try {
             Optional<Cliente> cliente = clienteRepository.findById(id);
             if (cliente.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
             
             Cliente clienteAtualizado = cliente.get();
             clienteAtualizado.setAtivo(false);
             clienteRepository.save(clienteAtualizado);
             
-            return ResponseEntity.noContent();
+            return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            System.out.println("Erro ao desativar cliente ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            System.out.println("Erro ao desativar cliente ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 }
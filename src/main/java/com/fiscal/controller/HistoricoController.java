@@ -1,9 +1,13 @@
 package com.fiscal.controller;
 
 import com.fiscal.model.HistoricoAlteracao;
+import com.fiscal.model.dto.HistoricoArquivado;
+import com.fiscal.model.dto.PaginaCursor;
+import com.fiscal.service.ArquivoHistoricoService;
 import com.fiscal.service.HistoricoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,6 +25,7 @@ import java.util.List;
 public class HistoricoController {
     
     private final HistoricoService historicoService;
+    private final ArquivoHistoricoService arquivoHistoricoService;
     
     /**
      * Busca histórico de uma obrigação
@@ -34,7 +39,44 @@ public class HistoricoController {
             return ResponseEntity.ok(historico);
         } catch (Exception e) {
             System.out.println("Erro ao buscar histórico da obrigação ID " + obrigacaoId + ": " + e.getMessage());
-            return ResponseEntity.status(500);
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
+    /**
+     * Busca o histórico de uma obrigação em páginas, da alteração mais recente para a mais antiga
+     */
+    @GetMapping("/obrigacao/{obrigacaoId}/pagina")
+    public ResponseEntity<PaginaCursor<HistoricoAlteracao>> buscarPaginaHistoricoObrigacao(
+            @PathVariable Long obrigacaoId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
+        try {
+            return ResponseEntity.ok(historicoService.buscarPaginaObrigacao(obrigacaoId, cursor, tamanho));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+    
+    /**
+     * Busca no arquivo compactado o histórico de uma obrigação já removido do banco pela retenção
+     */
+    @GetMapping("/obrigacao/{obrigacaoId}/arquivado")
+    public ResponseEntity<List<HistoricoArquivado>> buscarHistoricoArquivado(@PathVariable Long obrigacaoId) {
+        return ResponseEntity.ok(arquivoHistoricoService.buscarArquivado(obrigacaoId));
+    }
+    
+    /**
+     * Percorre todo o histórico em páginas, da alteração mais recente para a mais antiga
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaCursor<HistoricoAlteracao>> buscarPaginaHistorico(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
+        try {
+            return ResponseEntity.ok(historicoService.buscarPagina(cursor, tamanho));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
@@ -51,7 +93,7 @@ public class HistoricoController {
             return ResponseEntity.ok(historico);
         } catch (Exception e) {
             System.out.println("Erro ao buscar últimas alterações: " + e.getMessage());
-            return ResponseEntity.status(500);
+            return ResponseEntity.status(500).build();
         }
     }
 }
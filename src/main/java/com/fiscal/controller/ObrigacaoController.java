@@ -1,18 +1,27 @@
 package com.fiscal.controller;
 
+import com.fiscal.model.DimensaoEstatistica;
+import com.fiscal.model.PeriodoEstatistica;
+import com.fiscal.model.StatusUrgencia;
+import com.fiscal.model.TipoObrigacao;
+import com.fiscal.model.dto.FiltroObrigacao;
 import com.fiscal.model.dto.ObrigacaoRequest;
 import com.fiscal.model.dto.ObrigacaoResponse;
+import com.fiscal.model.dto.ObrigacaoResumo;
+import com.fiscal.model.dto.PaginaCursor;
+import com.fiscal.service.EstatisticaSnapshotService;
 import com.fiscal.service.ObrigacaoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller REST para gerenciamento de obrigações
@@ -26,6 +35,22 @@ import java.util.List;
 public class ObrigacaoController {
     
     private final ObrigacaoService obrigacaoService;
+    private final EstatisticaSnapshotService estatisticaSnapshotService;
+    
+    /**
+     * Série histórica de uma dimensão das estatísticas, lida dos snapshots gravados
+     */
+    @GetMapping("/estatisticas/tendencia")
+    public ResponseEntity<List<Map<String, Object>>> buscarTendenciaEstatisticas(
+            @RequestParam(defaultValue = "MENSAL") PeriodoEstatistica periodo,
+            @RequestParam(defaultValue = "TOTAL") DimensaoEstatistica dimensao,
+            @RequestParam(defaultValue = "12") int quantidade) {
+        LocalDate fim = LocalDate.now();
+        LocalDate inicio = periodo == PeriodoEstatistica.MENSAL
+                ? fim.minusMonths(Math.max(1, quantidade) - 1L)
+                : fim.minusDays(Math.max(1, quantidade) - 1L);
+        return ResponseEntity.ok(estatisticaSnapshotService.buscarTendencia(periodo, dimensao, inicio, fim));
+    }
     
     /**
      * Cria uma nova obrigação
@@ -36,10 +61,10 @@ public class ObrigacaoController {
         
         try {
             ObrigacaoResponse response = obrigacaoService.criarObrigacao(request);
-            return ResponseEntity.ok(null) // ResponseEntity temporariamente simplificado;
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (Exception e) {
             System.out.println("Erro ao criar obrigação: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
@@ -56,11 +81,11 @@ public class ObrigacaoController {
             ObrigacaoResponse response = obrigacaoService.atualizarObrigacao(id, request);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
-            System.out.println("Erro ao atualizar obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND);
+            System.out.println("Erro ao atualizar obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         } catch (Exception e) {
-            System.out.println("Erro ao atualizar obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST);
+            System.out.println("Erro ao atualizar obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
@@ -77,11 +102,11 @@ public class ObrigacaoController {
             ObrigacaoResponse response = obrigacaoService.concluirObrigacao(id, usuarioEditor);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
-            System.out.println("Erro ao concluir obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND);
+            System.out.println("Erro ao concluir obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         } catch (Exception e) {
-            System.out.println("Erro ao concluir obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST);
+            System.out.println("Erro ao concluir obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
@@ -89,16 +114,16 @@ public class ObrigacaoController {
      * Busca obrigações próximas do vencimento
      */
     @GetMapping("/proximas-vencimento")
-    public ResponseEntity<List<ObrigacaoResponse>> buscarProximasVencimento(
+    public ResponseEntity<List<ObrigacaoResumo>> buscarProximasVencimento(
             @RequestParam(defaultValue = "7") int dias) {
         // Log removido temporariamente
         
         try {
-            List<ObrigacaoResponse> response = obrigacaoService.buscarProximasVencimento(dias);
+            List<ObrigacaoResumo> response = obrigacaoService.buscarProximasVencimento(dias);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             System.out.println("Erro ao buscar obrigações próximas do vencimento: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -106,37 +131,51 @@ public class ObrigacaoController {
      * Busca obrigações vencidas
      */
     @GetMapping("/vencidas")
-    public ResponseEntity<List<ObrigacaoResponse>> buscarVencidas() {
+    public ResponseEntity<List<ObrigacaoResumo>> buscarVencidas() {
         // Log removido temporariamente
         
         try {
-            List<ObrigacaoResponse> response = obrigacaoService.buscarVencidas();
+            List<ObrigacaoResumo> response = obrigacaoService.buscarVencidas();
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             System.out.println("Erro ao buscar obrigações vencidas: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
     /**
-     * Busca todas as obrigações com filtros
+     * Busca obrigações com filtros, paginadas por cursor em ordem de vencimento
      */
     @GetMapping
-    public ResponseEntity<Page<ObrigacaoResponse>> buscarObrigacoes(
-            @RequestParam(required = false) Long clienteId,
-            @RequestParam(required = false) Long responsavelId,
-            @RequestParam(required = false) String tipo,
+    public ResponseEntity<PaginaCursor<ObrigacaoResumo>> buscarObrigacoes(
+            @RequestParam(required = false) List<Long> clienteId,
+            @RequestParam(required = false) List<Long> responsavelId,
+            @RequestParam(required = false) TipoObrigacao tipo,
             @RequestParam(required = false) Boolean concluida,
-            Pageable pageable) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) List<StatusUrgencia> urgencia,
+            @RequestParam(required = false) String texto,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
         // Log removido temporariamente
         
         try {
-            // Implementar busca com filtros usando o repository
-            // Por enquanto, retornar lista vazia
-            return ResponseEntity.ok(Page.empty());
+            FiltroObrigacao filtro = new FiltroObrigacao();
+            filtro.setClienteIds(clienteId);
+            filtro.setResponsavelIds(responsavelId);
+            filtro.setTipo(tipo);
+            filtro.setConcluida(concluida);
+            filtro.setDataInicio(dataInicio);
+            filtro.setDataFim(dataFim);
+            filtro.setUrgencias(urgencia);
+            filtro.setTexto(texto);
+            return ResponseEntity.ok(obrigacaoService.buscarPagina(filtro, cursor, tamanho));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             System.out.println("Erro ao buscar obrigações: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -149,10 +188,10 @@ public class ObrigacaoController {
         
         try {
             // Implementar busca por ID
-            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED);
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
         } catch (Exception e) {
-            System.out.println("Erro ao buscar obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            System.out.println("Erro ao buscar obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -165,10 +204,10 @@ public class ObrigacaoController {
         
         try {
             // Implementar exclusão lógica
-            return ResponseEntity.noContent();
+            return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            System.out.println("Erro ao excluir obrigação ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            System.out.println("Erro ao excluir obrigação ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 }
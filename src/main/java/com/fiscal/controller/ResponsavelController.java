@@ -34,10 +34,10 @@ public class ResponsavelController {
         
         try {
             Responsavel responsavelSalvo = responsavelRepository.save(responsavel);
-            return ResponseEntity.ok(null) // ResponseEntity temporariamente simplificado;
+            return ResponseEntity.status(HttpStatus.CREATED).body(responsavelSalvo);
         } catch (Exception e) {
             System.out.println("Erro ao criar responsável: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
@@ -53,15 +53,15 @@ public class ResponsavelController {
         try {
             Optional<Responsavel> responsavelExistente = responsavelRepository.findById(id);
             if (responsavelExistente.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
             
             responsavel.setId(id);
             Responsavel responsavelSalvo = responsavelRepository.save(responsavel);
             return ResponseEntity.ok(responsavelSalvo);
         } catch (Exception e) {
-            System.out.println("Erro ao atualizar responsável ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST);
+            System.out.println("Erro ao atualizar responsável ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
@@ -77,7 +77,7 @@ public class ResponsavelController {
             return ResponseEntity.ok(responsaveis);
         } catch (Exception e) {
             System.out.println("Erro ao buscar responsáveis: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -93,7 +93,7 @@ public class ResponsavelController {
             return ResponseEntity.ok(responsaveis);
         } catch (Exception e) {
             System.out.println("Erro ao buscar responsáveis por nome: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -109,7 +109,7 @@ public class ResponsavelController {
             return ResponseEntity.ok(responsaveis);
         } catch (Exception e) {
             System.out.println("Erro ao buscar responsáveis por cargo: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -123,10 +123,10 @@ public class ResponsavelController {
         try {
             Optional<Responsavel> responsavel = responsavelRepository.findById(id);
             return responsavel.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND));
+                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
         } catch (Exception e) {
-            System.out.println("Erro ao buscar responsável ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            System.out.println("Erro ao buscar responsável ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -140,10 +140,10 @@ public class ResponsavelController {
         try {
             Optional<Responsavel> responsavel = responsavelRepository.findByEmailAndAtivoTrue(email);
             return responsavel.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND));
+                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
         } catch (Exception e) {
-            System.out.println("Erro ao buscar responsável por email {}: " + email, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            System.out.println("Erro ao buscar responsável por email " + email + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
@@ -157,17 +157,17 @@ public class ResponsavelController {
         try {
             Optional<Responsavel> responsavel = responsavelRepository.findById(id);
             if (responsavel.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
             
             Responsavel responsavelAtualizado = responsavel.get();
             responsavelAtualizado.setAtivo(false);
             responsavelRepository.save(responsavelAtualizado);
             
-            return ResponseEntity.noContent();
+            return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            System.out.println("Erro ao desativar responsável ID {}: " + id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+            System.out.println("Erro ao desativar responsável ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 }
@@ -0,0 +1,71 @@
+package com.fiscal.controller;
+
+import com.fiscal.model.dto.EdicaoSerieRequest;
+import com.fiscal.service.ObrigacaoSerieService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Controller REST para séries de obrigações recorrentes
+ * Padrão: REST Controller Pattern
+ */
+@RestController
+@RequestMapping("/series")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class SerieController {
+    
+    private final ObrigacaoSerieService serieService;
+    
+    /**
+     * Edita as ocorrências pendentes da série a partir de uma data
+     */
+    @PatchMapping("/{id}/futuras")
+    public ResponseEntity<Map<String, Object>> editarFuturas(@PathVariable Long id,
+                                                             @RequestBody EdicaoSerieRequest request) {
+        try {
+            return ResponseEntity.ok(serieService.editarFuturas(id, request));
+        } catch (RuntimeException e) {
+            System.out.println("Erro ao editar série ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+    
+    /**
+     * Edita "esta e as próximas" ocorrências a partir de uma obrigação da série
+     */
+    @PatchMapping("/ocorrencias/{obrigacaoId}/futuras")
+    public ResponseEntity<Map<String, Object>> editarEstaEFuturas(@PathVariable Long obrigacaoId,
+                                                                  @RequestBody EdicaoSerieRequest request) {
+        try {
+            return ResponseEntity.ok(serieService.editarFuturasAPartirDe(obrigacaoId, request));
+        } catch (RuntimeException e) {
+            System.out.println("Erro ao editar ocorrências da obrigação ID " + obrigacaoId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+    
+    /**
+     * Desativa a série e suas ocorrências pendentes a partir de uma data
+     */
+    @PatchMapping("/{id}/desativar")
+    public ResponseEntity<Map<String, Object>> desativar(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate aPartirDe,
+            @RequestParam(defaultValue = "Sistema") String usuarioEditor) {
+        try {
+            return ResponseEntity.ok(serieService.desativarSerie(id, aPartirDe, usuarioEditor));
+        } catch (RuntimeException e) {
+            System.out.println("Erro ao desativar série ID " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.fiscal.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidade AlertaEnviado - Registro dos alertas de vencimento já enviados
+ * A restrição única garante um único envio por obrigação, limiar e vencimento, mesmo com várias instâncias;
+ * adiado o vencimento, os limiares voltam a valer para a nova data.
+ * Padrão: Entity Pattern + Idempotency Key
+ */
+@Entity
+@Table(name = "alertas_enviados", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_alertas_enviados_obrigacao_limiar_vencimento",
+                columnNames = {"obrigacao_id", "limiar_dias", "data_vencimento"})
+})
+public class AlertaEnviado {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "obrigacao_id", nullable = false)
+    private Obrigacao obrigacao;
+    
+    /** Dias de antecedência do alerta; 0 é o alerta do próprio dia do vencimento */
+    @Column(name = "limiar_dias", nullable = false)
+    private Integer limiarDias;
+    
+    @Column(name = "data_vencimento", nullable = false)
+    private LocalDate dataVencimento;
+    
+    @Column(length = 100)
+    private String instancia;
+    
+    @CreationTimestamp
+    @Column(name = "data_envio", nullable = false, updatable = false)
+    private LocalDateTime dataEnvio;
+    
+    // Construtores
+    public AlertaEnviado() {}
+    
+    public AlertaEnviado(Obrigacao obrigacao, Integer limiarDias, LocalDate dataVencimento, String instancia) {
+        this.obrigacao = obrigacao;
+        this.limiarDias = limiarDias;
+        this.dataVencimento = dataVencimento;
+        this.instancia = instancia;
+    }
+    
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Obrigacao getObrigacao() { return obrigacao; }
+    public void setObrigacao(Obrigacao obrigacao) { this.obrigacao = obrigacao; }
+    
+    public Integer getLimiarDias() { return limiarDias; }
+    public void setLimiarDias(Integer limiarDias) { this.limiarDias = limiarDias; }
+    
+    public LocalDate getDataVencimento() { return dataVencimento; }
+    public void setDataVencimento(LocalDate dataVencimento) { this.dataVencimento = dataVencimento; }
+    
+    public String getInstancia() { return instancia; }
+    public void setInstancia(String instancia) { this.instancia = instancia; }
+    
+    public LocalDateTime getDataEnvio() { return dataEnvio; }
+    public void setDataEnvio(LocalDateTime dataEnvio) { this.dataEnvio = dataEnvio; }
+}
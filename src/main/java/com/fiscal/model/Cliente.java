@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
  * Padrão: Entity Pattern
  */
 @Entity
-@Table(name = "clientes")
+@Table(name = "clientes", indexes = {
+        // Chave da paginação por cursor (nome, id)
+        @Index(name = "idx_clientes_nome_id", columnList = "nome, id")
+})
 public class Cliente {
     
     @Id
@@ -33,6 +36,12 @@ public class Cliente {
     @Column(length = 500)
     private String observacoes;
     
+    @Column(length = 2)
+    private String uf;
+    
+    @Column(name = "codigo_municipio_ibge", length = 7)
+    private String codigoMunicipioIbge;
+    
     @Column(nullable = false)
     private Boolean ativo = true;
     
@@ -80,6 +89,12 @@ public class Cliente {
     public String getObservacoes() { return observacoes; }
     public void setObservacoes(String observacoes) { this.observacoes = observacoes; }
     
+    public String getUf() { return uf; }
+    public void setUf(String uf) { this.uf = uf; }
+    
+    public String getCodigoMunicipioIbge() { return codigoMunicipioIbge; }
+    public void setCodigoMunicipioIbge(String codigoMunicipioIbge) { this.codigoMunicipioIbge = codigoMunicipioIbge; }
+    
     public Boolean getAtivo() { return ativo; }
     public void setAtivo(Boolean ativo) { this.ativo = ativo; }
     
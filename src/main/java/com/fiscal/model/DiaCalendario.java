@@ -0,0 +1,81 @@
+package com.fiscal.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Entidade DiaCalendario - Dia do calendário de dias úteis materializado por região
+ * Permite que a geração de recorrências resolva o ajuste de vencimento com JOIN, sem carregar entidades.
+ * Padrão: Entity Pattern
+ */
+@Entity
+@Table(name = "calendario_dias_uteis", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_calendario_regiao_data", columnNames = {"regiao", "data"})
+}, indexes = {
+        @Index(name = "idx_calendario_regiao_mes_dia", columnList = "regiao, mes_indice, dia")
+})
+public class DiaCalendario {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 20)
+    private String regiao;
+    
+    @Column(nullable = false)
+    private LocalDate data;
+    
+    @Column(nullable = false)
+    private Integer ano;
+    
+    /**
+     * Meses desde janeiro de 2000; somar o intervalo da recorrência dá o mês da próxima ocorrência
+     */
+    @Column(name = "mes_indice", nullable = false)
+    private Integer mesIndice;
+    
+    @Column(nullable = false)
+    private Integer dia;
+    
+    @Column(name = "dia_util", nullable = false)
+    private Boolean diaUtil;
+    
+    @Column(name = "dia_util_seguinte", nullable = false)
+    private LocalDate diaUtilSeguinte;
+    
+    @Column(name = "dia_util_anterior", nullable = false)
+    private LocalDate diaUtilAnterior;
+    
+    // Construtores
+    public DiaCalendario() {}
+    
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getRegiao() { return regiao; }
+    public void setRegiao(String regiao) { this.regiao = regiao; }
+    
+    public LocalDate getData() { return data; }
+    public void setData(LocalDate data) { this.data = data; }
+    
+    public Integer getAno() { return ano; }
+    public void setAno(Integer ano) { this.ano = ano; }
+    
+    public Integer getMesIndice() { return mesIndice; }
+    public void setMesIndice(Integer mesIndice) { this.mesIndice = mesIndice; }
+    
+    public Integer getDia() { return dia; }
+    public void setDia(Integer dia) { this.dia = dia; }
+    
+    public Boolean getDiaUtil() { return diaUtil; }
+    public void setDiaUtil(Boolean diaUtil) { this.diaUtil = diaUtil; }
+    
+    public LocalDate getDiaUtilSeguinte() { return diaUtilSeguinte; }
+    public void setDiaUtilSeguinte(LocalDate diaUtilSeguinte) { this.diaUtilSeguinte = diaUtilSeguinte; }
+    
+    public LocalDate getDiaUtilAnterior() { return diaUtilAnterior; }
+    public void setDiaUtilAnterior(LocalDate diaUtilAnterior) { this.diaUtilAnterior = diaUtilAnterior; }
+}
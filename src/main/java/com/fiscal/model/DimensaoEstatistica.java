@@ -0,0 +1,24 @@
+package com.fiscal.model;
+
+/**
+ * Enum para o agrupamento das contagens de um snapshot de estatísticas
+ * Padrão: Enum Pattern
+ */
+public enum DimensaoEstatistica {
+    TOTAL("Totais"),
+    TIPO("Por tipo"),
+    CLIENTE("Por cliente"),
+    RESPONSAVEL("Por responsável"),
+    STATUS("Por situação"),
+    PRAZO("Conclusão no prazo ou em atraso");
+    
+    private final String descricao;
+    
+    DimensaoEstatistica(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,82 @@
+package com.fiscal.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidade EstatisticaSnapshot - Uma contagem materializada de um período
+ * Cada linha guarda a quantidade de uma chave (tipo, cliente, situação...) em uma dimensão,
+ * para que os gráficos de tendência não precisem varrer a tabela de obrigações.
+ * Padrão: Entity Pattern + Snapshot Pattern
+ */
+@Entity
+@Table(name = "estatisticas_snapshot", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_estatisticas_snapshot_chave",
+                columnNames = {"periodo", "dimensao", "data_referencia", "chave"})
+})
+public class EstatisticaSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private PeriodoEstatistica periodo;
+    
+    /**
+     * Primeiro dia do mês (MENSAL) ou o próprio dia (DIARIO)
+     */
+    @Column(name = "data_referencia", nullable = false)
+    private LocalDate dataReferencia;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DimensaoEstatistica dimensao;
+    
+    @Column(nullable = false, length = 50)
+    private String chave;
+    
+    @Column(nullable = false)
+    private Long quantidade;
+    
+    @Column(name = "data_geracao", nullable = false)
+    private LocalDateTime dataGeracao;
+    
+    // Construtores
+    public EstatisticaSnapshot() {}
+    
+    public EstatisticaSnapshot(PeriodoEstatistica periodo, LocalDate dataReferencia, DimensaoEstatistica dimensao,
+                               String chave, Long quantidade, LocalDateTime dataGeracao) {
+        this.periodo = periodo;
+        this.dataReferencia = dataReferencia;
+        this.dimensao = dimensao;
+        this.chave = chave;
+        this.quantidade = quantidade;
+        this.dataGeracao = dataGeracao;
+    }
+    
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public PeriodoEstatistica getPeriodo() { return periodo; }
+    public void setPeriodo(PeriodoEstatistica periodo) { this.periodo = periodo; }
+    
+    public LocalDate getDataReferencia() { return dataReferencia; }
+    public void setDataReferencia(LocalDate dataReferencia) { this.dataReferencia = dataReferencia; }
+    
+    public DimensaoEstatistica getDimensao() { return dimensao; }
+    public void setDimensao(DimensaoEstatistica dimensao) { this.dimensao = dimensao; }
+    
+    public String getChave() { return chave; }
+    public void setChave(String chave) { this.chave = chave; }
+    
+    public Long getQuantidade() { return quantidade; }
+    public void setQuantidade(Long quantidade) { this.quantidade = quantidade; }
+    
+    public LocalDateTime getDataGeracao() { return dataGeracao; }
+    public void setDataGeracao(LocalDateTime dataGeracao) { this.dataGeracao = dataGeracao; }
+}
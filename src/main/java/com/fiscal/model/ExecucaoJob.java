@@ -0,0 +1,88 @@
+package com.fiscal.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidade ExecucaoJob - Registro de cada execução de um job agendado
+ * Padrão: Entity Pattern + Audit Pattern
+ */
+@Entity
+@Table(name = "execucoes_jobs", indexes = {
+        @Index(name = "idx_execucoes_jobs_job_inicio", columnList = "job, inicio")
+})
+public class ExecucaoJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String job;
+    
+    @Column(length = 100)
+    private String instancia;
+    
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+    
+    private LocalDateTime fim;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusExecucaoJob status;
+    
+    @Column(name = "itens_processados")
+    private Integer itensProcessados = 0;
+    
+    @Column(name = "itens_falhos")
+    private Integer itensFalhos = 0;
+    
+    @Column(name = "duracao_ms")
+    private Long duracaoMs;
+    
+    @Column(length = 1000)
+    private String mensagem;
+    
+    // Construtores
+    public ExecucaoJob() {}
+    
+    public ExecucaoJob(String job, String instancia) {
+        this.job = job;
+        this.instancia = instancia;
+        this.inicio = LocalDateTime.now();
+        this.status = StatusExecucaoJob.EM_EXECUCAO;
+    }
+    
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getJob() { return job; }
+    public void setJob(String job) { this.job = job; }
+    
+    public String getInstancia() { return instancia; }
+    public void setInstancia(String instancia) { this.instancia = instancia; }
+    
+    public LocalDateTime getInicio() { return inicio; }
+    public void setInicio(LocalDateTime inicio) { this.inicio = inicio; }
+    
+    public LocalDateTime getFim() { return fim; }
+    public void setFim(LocalDateTime fim) { this.fim = fim; }
+    
+    public StatusExecucaoJob getStatus() { return status; }
+    public void setStatus(StatusExecucaoJob status) { this.status = status; }
+    
+    public Integer getItensProcessados() { return itensProcessados; }
+    public void setItensProcessados(Integer itensProcessados) { this.itensProcessados = itensProcessados; }
+    
+    public Integer getItensFalhos() { return itensFalhos; }
+    public void setItensFalhos(Integer itensFalhos) { this.itensFalhos = itensFalhos; }
+    
+    public Long getDuracaoMs() { return duracaoMs; }
+    public void setDuracaoMs(Long duracaoMs) { this.duracaoMs = duracaoMs; }
+    
+    public String getMensagem() { return mensagem; }
+    public void setMensagem(String mensagem) { this.mensagem = mensagem; }
+}
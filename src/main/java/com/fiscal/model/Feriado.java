@@ -0,0 +1,52 @@
+package com.fiscal.model;
+
+import java.time.LocalDate;
+
+/**
+ * Feriado resolvido para uma data específica
+ * Padrão: Value Object Pattern
+ */
+public final class Feriado {
+
+    private final LocalDate data;
+    private final String descricao;
+    private final Abrangencia abrangencia;
+    private final String uf;
+    private final String codigoMunicipio;
+
+    public enum Abrangencia {
+        NACIONAL("Nacional"),
+        ESTADUAL("Estadual"),
+        MUNICIPAL("Municipal");
+
+        private final String descricao;
+
+        Abrangencia(String descricao) {
+            this.descricao = descricao;
+        }
+
+        public String getDescricao() {
+            return descricao;
+        }
+    }
+
+    // Construtores
+    public Feriado(LocalDate data, String descricao, Abrangencia abrangencia, String uf, String codigoMunicipio) {
+        this.data = data;
+        this.descricao = descricao;
+        this.abrangencia = abrangencia;
+        this.uf = uf;
+        this.codigoMunicipio = codigoMunicipio;
+    }
+
+    // Getters
+    public LocalDate getData() { return data; }
+
+    public String getDescricao() { return descricao; }
+
+    public Abrangencia getAbrangencia() { return abrangencia; }
+
+    public String getUf() { return uf; }
+
+    public String getCodigoMunicipio() { return codigoMunicipio; }
+}
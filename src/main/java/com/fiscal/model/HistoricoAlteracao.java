@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
  * Padrão: Entity Pattern + Audit Pattern
  */
 @Entity
-@Table(name = "historico_alteracoes")
+@Table(name = "historico_alteracoes", indexes = {
+        // Chaves da paginação por cursor (dataAlteracao, id), por obrigação e geral
+        @Index(name = "idx_historico_obrigacao_data_id", columnList = "obrigacao_id, data_alteracao, id"),
+        // Também é o limite da retenção: localiza o último registro anterior ao corte sem varrer a tabela
+        @Index(name = "idx_historico_data_id", columnList = "data_alteracao, id")
+})
 public class HistoricoAlteracao {
     
     @Id
@@ -0,0 +1,53 @@
+package com.fiscal.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidade JobLease - Posse temporária de um job agendado ou partição por uma instância
+ * A instância dona só executa enquanto a posse não expira; depois disso qualquer outra pode assumir.
+ * Padrão: Entity Pattern + Lease Pattern
+ */
+@Entity
+@Table(name = "job_leases", indexes = {
+        @Index(name = "idx_job_leases_expira_em", columnList = "expira_em")
+})
+public class JobLease {
+    
+    @Id
+    @Column(length = 100)
+    private String nome;
+    
+    @Column(nullable = false, length = 100)
+    private String dono;
+    
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+    
+    @Column(name = "adquirido_em")
+    private LocalDateTime adquiridoEm;
+    
+    // Construtores
+    public JobLease() {}
+    
+    public JobLease(String nome, String dono, LocalDateTime expiraEm) {
+        this.nome = nome;
+        this.dono = dono;
+        this.expiraEm = expiraEm;
+        this.adquiridoEm = LocalDateTime.now();
+    }
+    
+    // Getters e Setters
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    
+    public String getDono() { return dono; }
+    public void setDono(String dono) { this.dono = dono; }
+    
+    public LocalDateTime getExpiraEm() { return expiraEm; }
+    public void setExpiraEm(LocalDateTime expiraEm) { this.expiraEm = expiraEm; }
+    
+    public LocalDateTime getAdquiridoEm() { return adquiridoEm; }
+    public void setAdquiridoEm(LocalDateTime adquiridoEm) { this.adquiridoEm = adquiridoEm; }
+}
@@ -0,0 +1,20 @@
+package com.fiscal.model;
+
+/**
+ * Enum para o sentido do ajuste de vencimentos em dias não úteis
+ * Padrão: Enum Pattern
+ */
+public enum ModoAjuste {
+    POSTERGAR("Postergar"),
+    ANTECIPAR("Antecipar");
+
+    private final String descricao;
+
+    ModoAjuste(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -12,7 +12,23 @@ import java.time.LocalDateTime;
  * Padrão: Entity Pattern
  */
 @Entity
-@Table(name = "obrigacoes")
+@Table(name = "obrigacoes", indexes = {
+        // Chave da paginação por cursor (dataVencimento, id)
+        @Index(name = "idx_obrigacoes_vencimento_id", columnList = "data_vencimento, id"),
+        @Index(name = "idx_obrigacoes_data_vencimento_original", columnList = "data_vencimento_original"),
+        @Index(name = "idx_obrigacoes_serie_vencimento", columnList = "serie_id, data_vencimento"),
+        @Index(name = "idx_obrigacoes_data_conclusao", columnList = "data_conclusao"),
+        // Mesmos nomes das migrações, que no PostgreSQL criam alguns deles como índices parciais
+        @Index(name = "idx_obrigacoes_pendentes_vencimento", columnList = "ativo, concluida, data_vencimento"),
+        @Index(name = "idx_obrigacoes_proxima_geracao", columnList = "data_proxima_geracao"),
+        @Index(name = "idx_obrigacoes_cliente_vencimento", columnList = "cliente_id, data_vencimento"),
+        @Index(name = "idx_obrigacoes_responsavel_vencimento", columnList = "responsavel_id, data_vencimento"),
+        @Index(name = "idx_obrigacoes_tipo_vencimento", columnList = "tipo, data_vencimento"),
+        @Index(name = "idx_obrigacoes_lote_geracao", columnList = "lote_geracao")
+}, uniqueConstraints = {
+        // Chave de geração: uma ocorrência por série e data nominal
+        @UniqueConstraint(name = "uk_obrigacoes_serie_data_referencia", columnNames = {"serie_id", "data_vencimento_original"})
+})
 public class Obrigacao {
     
     @Id
@@ -37,9 +53,22 @@ public class Obrigacao {
     @JoinColumn(name = "responsavel_id")
     private Responsavel responsavel;
     
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "serie_id")
+    private ObrigacaoSerie serie;
+    
+    /** Imposto de origem; seu prazo de antecedência define quando alertar o vencimento */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "imposto_id")
+    private Imposto imposto;
+    
     @Column(name = "data_vencimento", nullable = false)
     private LocalDate dataVencimento;
     
+    /** Data nominal antes do ajuste de fins de semana e feriados */
+    @Column(name = "data_vencimento_original")
+    private LocalDate dataVencimentoOriginal;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "tipo_recorrencia", nullable = false)
     private TipoRecorrencia tipoRecorrencia;
@@ -50,12 +79,20 @@ public class Obrigacao {
     @Column(name = "dia_mes_recorrencia")
     private Integer diaMesRecorrencia;
     
+    /** Regra RRULE (RFC 5545); quando presente substitui tipo, dias e dia do mês da recorrência */
+    @Column(name = "regra_recorrencia", length = 255)
+    private String regraRecorrencia;
+    
     @Column(name = "ajustar_finais_semana")
     private Boolean ajustarFinaisSemana = true;
     
     @Column(name = "ajustar_feriados")
     private Boolean ajustarFeriados = true;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "modo_ajuste", length = 20)
+    private ModoAjuste modoAjuste = ModoAjuste.POSTERGAR;
+    
     @Column(name = "data_proxima_geracao")
     private LocalDate dataProximaGeracao;
     
@@ -79,6 +116,10 @@ public class Obrigacao {
     @Column(name = "ultimo_editor")
     private String ultimoEditor;
     
+    /** Passada da geração em SQL que inseriu a linha; nula nas obrigações gravadas pela aplicação */
+    @Column(name = "lote_geracao", length = 36, insertable = false, updatable = false)
+    private String loteGeracao;
+    
     // Construtores
     public Obrigacao() {}
     
@@ -128,9 +169,18 @@ public class Obrigacao {
     public Responsavel getResponsavel() { return responsavel; }
     public void setResponsavel(Responsavel responsavel) { this.responsavel = responsavel; }
     
+    public ObrigacaoSerie getSerie() { return serie; }
+    public void setSerie(ObrigacaoSerie serie) { this.serie = serie; }
+    
+    public Imposto getImposto() { return imposto; }
+    public void setImposto(Imposto imposto) { this.imposto = imposto; }
+    
     public LocalDate getDataVencimento() { return dataVencimento; }
     public void setDataVencimento(LocalDate dataVencimento) { this.dataVencimento = dataVencimento; }
     
+    public LocalDate getDataVencimentoOriginal() { return dataVencimentoOriginal; }
+    public void setDataVencimentoOriginal(LocalDate dataVencimentoOriginal) { this.dataVencimentoOriginal = dataVencimentoOriginal; }
+    
     public TipoRecorrencia getTipoRecorrencia() { return tipoRecorrencia; }
     public void setTipoRecorrencia(TipoRecorrencia tipoRecorrencia) { this.tipoRecorrencia = tipoRecorrencia; }
     
@@ -140,12 +190,18 @@ public class Obrigacao {
     public Integer getDiaMesRecorrencia() { return diaMesRecorrencia; }
     public void setDiaMesRecorrencia(Integer diaMesRecorrencia) { this.diaMesRecorrencia = diaMesRecorrencia; }
     
+    public String getRegraRecorrencia() { return regraRecorrencia; }
+    public void setRegraRecorrencia(String regraRecorrencia) { this.regraRecorrencia = regraRecorrencia; }
+    
     public Boolean getAjustarFinaisSemana() { return ajustarFinaisSemana; }
     public void setAjustarFinaisSemana(Boolean ajustarFinaisSemana) { this.ajustarFinaisSemana = ajustarFinaisSemana; }
     
     public Boolean getAjustarFeriados() { return ajustarFeriados; }
     public void setAjustarFeriados(Boolean ajustarFeriados) { this.ajustarFeriados = ajustarFeriados; }
     
+    public ModoAjuste getModoAjuste() { return modoAjuste; }
+    public void setModoAjuste(ModoAjuste modoAjuste) { this.modoAjuste = modoAjuste; }
+    
     public LocalDate getDataProximaGeracao() { return dataProximaGeracao; }
     public void setDataProximaGeracao(LocalDate dataProximaGeracao) { this.dataProximaGeracao = dataProximaGeracao; }
     
@@ -166,6 +222,8 @@ public class Obrigacao {
     
     public String getUltimoEditor() { return ultimoEditor; }
     public void setUltimoEditor(String ultimoEditor) { this.ultimoEditor = ultimoEditor; }
+    
+    public String getLoteGeracao() { return loteGeracao; }
 }
 
 
@@ -0,0 +1,142 @@
+package com.fiscal.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidade ObrigacaoSerie - Definição de uma obrigação recorrente
+ * As ocorrências (Obrigacao) referenciam a série, que guarda a regra de recorrência
+ * e os dados herdados pelas próximas ocorrências geradas.
+ * Padrão: Entity Pattern
+ */
+@Entity
+@Table(name = "obrigacao_series")
+public class ObrigacaoSerie {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 255)
+    private String nome;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TipoObrigacao tipo;
+    
+    @Column(length = 500)
+    private String descricao;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cliente_id")
+    private Cliente cliente;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "responsavel_id")
+    private Responsavel responsavel;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_recorrencia", nullable = false)
+    private TipoRecorrencia tipoRecorrencia;
+    
+    @Column(name = "dias_recorrencia")
+    private Integer diasRecorrencia;
+    
+    @Column(name = "dia_mes_recorrencia")
+    private Integer diaMesRecorrencia;
+    
+    @Column(name = "regra_recorrencia", length = 255)
+    private String regraRecorrencia;
+    
+    @Column(name = "ajustar_finais_semana")
+    private Boolean ajustarFinaisSemana = true;
+    
+    @Column(name = "ajustar_feriados")
+    private Boolean ajustarFeriados = true;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "modo_ajuste", length = 20)
+    private ModoAjuste modoAjuste = ModoAjuste.POSTERGAR;
+    
+    @Column(nullable = false)
+    private Boolean ativo = true;
+    
+    /**
+     * Data nominal do último período gerado; períodos até ela não são gerados de novo
+     */
+    @Column(name = "data_ultima_geracao")
+    private LocalDate dataUltimaGeracao;
+    
+    @CreationTimestamp
+    @Column(name = "data_criacao", nullable = false, updatable = false)
+    private LocalDateTime dataCriacao;
+    
+    @UpdateTimestamp
+    @Column(name = "data_atualizacao")
+    private LocalDateTime dataAtualizacao;
+    
+    @Column(name = "ultimo_editor")
+    private String ultimoEditor;
+    
+    // Construtores
+    public ObrigacaoSerie() {}
+    
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    
+    public TipoObrigacao getTipo() { return tipo; }
+    public void setTipo(TipoObrigacao tipo) { this.tipo = tipo; }
+    
+    public String getDescricao() { return descricao; }
+    public void setDescricao(String descricao) { this.descricao = descricao; }
+    
+    public Cliente getCliente() { return cliente; }
+    public void setCliente(Cliente cliente) { this.cliente = cliente; }
+    
+    public Responsavel getResponsavel() { return responsavel; }
+    public void setResponsavel(Responsavel responsavel) { this.responsavel = responsavel; }
+    
+    public TipoRecorrencia getTipoRecorrencia() { return tipoRecorrencia; }
+    public void setTipoRecorrencia(TipoRecorrencia tipoRecorrencia) { this.tipoRecorrencia = tipoRecorrencia; }
+    
+    public Integer getDiasRecorrencia() { return diasRecorrencia; }
+    public void setDiasRecorrencia(Integer diasRecorrencia) { this.diasRecorrencia = diasRecorrencia; }
+    
+    public Integer getDiaMesRecorrencia() { return diaMesRecorrencia; }
+    public void setDiaMesRecorrencia(Integer diaMesRecorrencia) { this.diaMesRecorrencia = diaMesRecorrencia; }
+    
+    public String getRegraRecorrencia() { return regraRecorrencia; }
+    public void setRegraRecorrencia(String regraRecorrencia) { this.regraRecorrencia = regraRecorrencia; }
+    
+    public Boolean getAjustarFinaisSemana() { return ajustarFinaisSemana; }
+    public void setAjustarFinaisSemana(Boolean ajustarFinaisSemana) { this.ajustarFinaisSemana = ajustarFinaisSemana; }
+    
+    public Boolean getAjustarFeriados() { return ajustarFeriados; }
+    public void setAjustarFeriados(Boolean ajustarFeriados) { this.ajustarFeriados = ajustarFeriados; }
+    
+    public ModoAjuste getModoAjuste() { return modoAjuste; }
+    public void setModoAjuste(ModoAjuste modoAjuste) { this.modoAjuste = modoAjuste; }
+    
+    public Boolean getAtivo() { return ativo; }
+    public void setAtivo(Boolean ativo) { this.ativo = ativo; }
+    
+    public LocalDate getDataUltimaGeracao() { return dataUltimaGeracao; }
+    public void setDataUltimaGeracao(LocalDate dataUltimaGeracao) { this.dataUltimaGeracao = dataUltimaGeracao; }
+    
+    public LocalDateTime getDataCriacao() { return dataCriacao; }
+    public void setDataCriacao(LocalDateTime dataCriacao) { this.dataCriacao = dataCriacao; }
+    
+    public LocalDateTime getDataAtualizacao() { return dataAtualizacao; }
+    public void setDataAtualizacao(LocalDateTime dataAtualizacao) { this.dataAtualizacao = dataAtualizacao; }
+    
+    public String getUltimoEditor() { return ultimoEditor; }
+    public void setUltimoEditor(String ultimoEditor) { this.ultimoEditor = ultimoEditor; }
+}
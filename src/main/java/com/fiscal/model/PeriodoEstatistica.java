@@ -0,0 +1,20 @@
+package com.fiscal.model;
+
+/**
+ * Enum para a granularidade de um snapshot de estatísticas
+ * Padrão: Enum Pattern
+ */
+public enum PeriodoEstatistica {
+    DIARIO("Diário"),
+    MENSAL("Mensal");
+    
+    private final String descricao;
+    
+    PeriodoEstatistica(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+}
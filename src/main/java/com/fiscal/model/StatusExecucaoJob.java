@@ -0,0 +1,23 @@
+package com.fiscal.model;
+
+/**
+ * Enum para a situação de uma execução de job agendado
+ * Padrão: Enum Pattern
+ */
+public enum StatusExecucaoJob {
+    EM_EXECUCAO("Em execução"),
+    SUCESSO("Sucesso"),
+    FALHA("Falha"),
+    TIMEOUT("Tempo esgotado"),
+    IGNORADA("Ignorada");
+    
+    private final String descricao;
+    
+    StatusExecucaoJob(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,43 @@
+package com.fiscal.model;
+
+/**
+ * Enum para a urgência de uma obrigação conforme os dias até o vencimento
+ * Cada situação vale até limiteDias dias antes do vencimento (inclusive); a descrição
+ * é o valor exposto em statusUrgencia.
+ * Padrão: Enum Pattern
+ */
+public enum StatusUrgencia {
+    VENCIDA("VENCIDA", -1),
+    CRITICA("CRÍTICA", 3),
+    URGENTE("URGENTE", 7),
+    ATENCAO("ATENÇÃO", 15),
+    NORMAL("NORMAL", Integer.MAX_VALUE);
+    
+    private final String descricao;
+    private final int limiteDias;
+    
+    StatusUrgencia(String descricao, int limiteDias) {
+        this.descricao = descricao;
+        this.limiteDias = limiteDias;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+    
+    public int getLimiteDias() {
+        return limiteDias;
+    }
+    
+    /**
+     * Situação correspondente aos dias que faltam para o vencimento
+     */
+    public static StatusUrgencia de(long diasParaVencimento) {
+        for (StatusUrgencia status : values()) {
+            if (diasParaVencimento <= status.limiteDias) {
+                return status;
+            }
+        }
+        return NORMAL;
+    }
+}
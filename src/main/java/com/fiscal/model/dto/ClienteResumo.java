@@ -0,0 +1,35 @@
+package com.fiscal.model.dto;
+
+import com.fiscal.model.Cliente;
+
+/**
+ * Resumo do cliente embutido nas respostas de obrigação (id e nome)
+ * Padrão: DTO Pattern
+ */
+public class ClienteResumo {
+    
+    private Long id;
+    private String nome;
+    
+    // Construtores
+    public ClienteResumo() {}
+    
+    public ClienteResumo(Long id, String nome) {
+        this.id = id;
+        this.nome = nome;
+    }
+    
+    /**
+     * Resumo do cliente associado, ou null quando não há cliente
+     */
+    public static ClienteResumo de(Cliente cliente) {
+        return cliente != null ? new ClienteResumo(cliente.getId(), cliente.getNome()) : null;
+    }
+    
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+}
@@ -0,0 +1,69 @@
+package com.fiscal.model.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição opaca de uma paginação por chave: o valor da coluna de ordenação e o id da última linha entregue
+ * Trafega como base64 url-safe de "id|valor"; o cliente só devolve o que recebeu.
+ * Padrão: DTO Pattern
+ */
+public class CursorPaginacao {
+    
+    private final String valor;
+    private final Long id;
+    
+    // Construtores
+    public CursorPaginacao(Object valor, Long id) {
+        this.valor = String.valueOf(valor);
+        this.id = id;
+    }
+    
+    /**
+     * Texto opaco a devolver como proximoCursor
+     */
+    public String codificar() {
+        String texto = id + "|" + valor;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Lê um cursor recebido; lança IllegalArgumentException se não foi gerado por codificar
+     */
+    public static CursorPaginacao decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.indexOf('|');
+            if (separador <= 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new CursorPaginacao(texto.substring(separador + 1), Long.valueOf(texto.substring(0, separador)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+    
+    // Getters
+    public String getValor() { return valor; }
+    
+    public Long getId() { return id; }
+    
+    public LocalDate getValorData() {
+        try {
+            return LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+    
+    public LocalDateTime getValorDataHora() {
+        try {
+            return LocalDateTime.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
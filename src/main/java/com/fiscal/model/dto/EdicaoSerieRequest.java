@@ -0,0 +1,35 @@
+package com.fiscal.model.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO para edição "desta e das próximas" ocorrências de uma série
+ * Campos nulos não são alterados.
+ */
+public class EdicaoSerieRequest {
+    
+    private String nome;
+    private String descricao;
+    private Long responsavelId;
+    private LocalDate dataInicio;
+    private String usuarioEditor;
+    
+    // Construtores
+    public EdicaoSerieRequest() {}
+    
+    // Getters e Setters
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    
+    public String getDescricao() { return descricao; }
+    public void setDescricao(String descricao) { this.descricao = descricao; }
+    
+    public Long getResponsavelId() { return responsavelId; }
+    public void setResponsavelId(Long responsavelId) { this.responsavelId = responsavelId; }
+    
+    public LocalDate getDataInicio() { return dataInicio; }
+    public void setDataInicio(LocalDate dataInicio) { this.dataInicio = dataInicio; }
+    
+    public String getUsuarioEditor() { return usuarioEditor; }
+    public void setUsuarioEditor(String usuarioEditor) { this.usuarioEditor = usuarioEditor; }
+}
@@ -0,0 +1,52 @@
+package com.fiscal.model.dto;
+
+import com.fiscal.model.StatusUrgencia;
+import com.fiscal.model.TipoObrigacao;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO com os filtros da busca de obrigações; campos nulos ou listas vazias não filtram
+ * Padrão: DTO Pattern
+ */
+public class FiltroObrigacao {
+    
+    private List<Long> clienteIds = new ArrayList<>();
+    private List<Long> responsavelIds = new ArrayList<>();
+    private TipoObrigacao tipo;
+    private Boolean concluida;
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private List<StatusUrgencia> urgencias = new ArrayList<>();
+    private String texto;
+    
+    // Construtores
+    public FiltroObrigacao() {}
+    
+    // Getters e Setters
+    public List<Long> getClienteIds() { return clienteIds; }
+    public void setClienteIds(List<Long> clienteIds) { this.clienteIds = clienteIds != null ? clienteIds : new ArrayList<>(); }
+    
+    public List<Long> getResponsavelIds() { return responsavelIds; }
+    public void setResponsavelIds(List<Long> responsavelIds) { this.responsavelIds = responsavelIds != null ? responsavelIds : new ArrayList<>(); }
+    
+    public TipoObrigacao getTipo() { return tipo; }
+    public void setTipo(TipoObrigacao tipo) { this.tipo = tipo; }
+    
+    public Boolean getConcluida() { return concluida; }
+    public void setConcluida(Boolean concluida) { this.concluida = concluida; }
+    
+    public LocalDate getDataInicio() { return dataInicio; }
+    public void setDataInicio(LocalDate dataInicio) { this.dataInicio = dataInicio; }
+    
+    public LocalDate getDataFim() { return dataFim; }
+    public void setDataFim(LocalDate dataFim) { this.dataFim = dataFim; }
+    
+    public List<StatusUrgencia> getUrgencias() { return urgencias; }
+    public void setUrgencias(List<StatusUrgencia> urgencias) { this.urgencias = urgencias != null ? urgencias : new ArrayList<>(); }
+    
+    public String getTexto() { return texto; }
+    public void setTexto(String texto) { this.texto = texto; }
+}
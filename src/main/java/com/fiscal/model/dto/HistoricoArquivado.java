@@ -0,0 +1,63 @@
+package com.fiscal.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de uma alteração de histórico movida para o arquivo compactado pela retenção
+ * Padrão: DTO Pattern
+ */
+public class HistoricoArquivado {
+    
+    private Long id;
+    private Long obrigacaoId;
+    private String campoAlterado;
+    private String valorAnterior;
+    private String valorNovo;
+    private String usuarioEditor;
+    private String ipUsuario;
+    private LocalDateTime dataAlteracao;
+    private String observacoes;
+    
+    // Construtores
+    public HistoricoArquivado() {}
+    
+    public HistoricoArquivado(Object[] linha) {
+        this.id = (Long) linha[0];
+        this.obrigacaoId = (Long) linha[1];
+        this.campoAlterado = (String) linha[2];
+        this.valorAnterior = (String) linha[3];
+        this.valorNovo = (String) linha[4];
+        this.usuarioEditor = (String) linha[5];
+        this.ipUsuario = (String) linha[6];
+        this.dataAlteracao = (LocalDateTime) linha[7];
+        this.observacoes = (String) linha[8];
+    }
+    
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getObrigacaoId() { return obrigacaoId; }
+    public void setObrigacaoId(Long obrigacaoId) { this.obrigacaoId = obrigacaoId; }
+    
+    public String getCampoAlterado() { return campoAlterado; }
+    public void setCampoAlterado(String campoAlterado) { this.campoAlterado = campoAlterado; }
+    
+    public String getValorAnterior() { return valorAnterior; }
+    public void setValorAnterior(String valorAnterior) { this.valorAnterior = valorAnterior; }
+    
+    public String getValorNovo() { return valorNovo; }
+    public void setValorNovo(String valorNovo) { this.valorNovo = valorNovo; }
+    
+    public String getUsuarioEditor() { return usuarioEditor; }
+    public void setUsuarioEditor(String usuarioEditor) { this.usuarioEditor = usuarioEditor; }
+    
+    public String getIpUsuario() { return ipUsuario; }
+    public void setIpUsuario(String ipUsuario) { this.ipUsuario = ipUsuario; }
+    
+    public LocalDateTime getDataAlteracao() { return dataAlteracao; }
+    public void setDataAlteracao(LocalDateTime dataAlteracao) { this.dataAlteracao = dataAlteracao; }
+    
+    public String getObservacoes() { return observacoes; }
+    public void setObservacoes(String observacoes) { this.observacoes = observacoes; }
+}
@@ -21,6 +21,10 @@ public class NotificacaoTempoReal {
         OBRIGACAO_CONCLUIDA,
         OBRIGACAO_EXCLUIDA,
         CONFLITO_EDICAO,
+        VENCIMENTOS_REAJUSTADOS,
+        RECORRENCIAS_GERADAS,
+        ALERTAS_VENCIMENTO,
+        URGENCIAS_ATUALIZADAS,
         USUARIO_CONECTADO,
         USUARIO_DESCONECTADO
     }
@@ -1,5 +1,6 @@
 package com.fiscal.model.dto;
 
+import com.fiscal.model.ModoAjuste;
 import com.fiscal.model.TipoObrigacao;
 import com.fiscal.model.TipoRecorrencia;
 
@@ -15,12 +16,15 @@ public class ObrigacaoRequest {
     private String descricao;
     private Long clienteId;
     private Long responsavelId;
+    private Long impostoId;
     private LocalDate dataVencimento;
     private TipoRecorrencia tipoRecorrencia;
     private Integer diasRecorrencia;
     private Integer diaMesRecorrencia;
+    private String regraRecorrencia;
     private Boolean ajustarFinaisSemana;
     private Boolean ajustarFeriados;
+    private ModoAjuste modoAjuste;
     private String usuarioEditor;
     
     // Construtores
@@ -60,6 +64,9 @@ public class ObrigacaoRequest {
     public Long getResponsavelId() { return responsavelId; }
     public void setResponsavelId(Long responsavelId) { this.responsavelId = responsavelId; }
     
+    public Long getImpostoId() { return impostoId; }
+    public void setImpostoId(Long impostoId) { this.impostoId = impostoId; }
+    
     public LocalDate getDataVencimento() { return dataVencimento; }
     public void setDataVencimento(LocalDate dataVencimento) { this.dataVencimento = dataVencimento; }
     
@@ -72,12 +79,18 @@ public class ObrigacaoRequest {
     public Integer getDiaMesRecorrencia() { return diaMesRecorrencia; }
     public void setDiaMesRecorrencia(Integer diaMesRecorrencia) { this.diaMesRecorrencia = diaMesRecorrencia; }
     
+    public String getRegraRecorrencia() { return regraRecorrencia; }
+    public void setRegraRecorrencia(String regraRecorrencia) { this.regraRecorrencia = regraRecorrencia; }
+    
     public Boolean getAjustarFinaisSemana() { return ajustarFinaisSemana; }
     public void setAjustarFinaisSemana(Boolean ajustarFinaisSemana) { this.ajustarFinaisSemana = ajustarFinaisSemana; }
     
     public Boolean getAjustarFeriados() { return ajustarFeriados; }
     public void setAjustarFeriados(Boolean ajustarFeriados) { this.ajustarFeriados = ajustarFeriados; }
     
+    public ModoAjuste getModoAjuste() { return modoAjuste; }
+    public void setModoAjuste(ModoAjuste modoAjuste) { this.modoAjuste = modoAjuste; }
+    
     public String getUsuarioEditor() { return usuarioEditor; }
     public void setUsuarioEditor(String usuarioEditor) { this.usuarioEditor = usuarioEditor; }
 }
@@ -1,7 +1,6 @@
 package com.fiscal.model.dto;
 
-import com.fiscal.model.Cliente;
-import com.fiscal.model.Responsavel;
+import com.fiscal.model.ModoAjuste;
 import com.fiscal.model.TipoObrigacao;
 import com.fiscal.model.TipoRecorrencia;
 
@@ -10,6 +9,7 @@ import java.time.LocalDateTime;
 
 /**
  * DTO para resposta de obrigações com informações completas
+ * Cliente e responsável vão resumidos (id e nome), não como entidades.
  */
 public class ObrigacaoResponse {
     
@@ -17,14 +17,19 @@ public class ObrigacaoResponse {
     private String nome;
     private TipoObrigacao tipo;
     private String descricao;
-    private Cliente cliente;
-    private Responsavel responsavel;
+    private ClienteResumo cliente;
+    private ResponsavelResumo responsavel;
     private LocalDate dataVencimento;
+    private LocalDate dataVencimentoOriginal;
     private TipoRecorrencia tipoRecorrencia;
     private Integer diasRecorrencia;
     private Integer diaMesRecorrencia;
+    private String regraRecorrencia;
+    private Long serieId;
+    private Long impostoId;
     private Boolean ajustarFinaisSemana;
     private Boolean ajustarFeriados;
+    private ModoAjuste modoAjuste;
     private LocalDate dataProximaGeracao;
     private Boolean ativo;
     private Boolean concluida;
@@ -34,12 +39,14 @@ public class ObrigacaoResponse {
     private String ultimoEditor;
     private Long diasParaVencimento;
     private String statusUrgencia;
+    private Boolean virtual;
+    private Long obrigacaoOrigemId;
     
     // Construtores
     public ObrigacaoResponse() {}
     
     public ObrigacaoResponse(Long id, String nome, TipoObrigacao tipo, String descricao, 
-                           Cliente cliente, Responsavel responsavel, LocalDate dataVencimento, 
+                           ClienteResumo cliente, ResponsavelResumo responsavel, LocalDate dataVencimento, 
                            TipoRecorrencia tipoRecorrencia, Integer diasRecorrencia, 
                            Integer diaMesRecorrencia, Boolean ajustarFinaisSemana, 
                            Boolean ajustarFeriados, LocalDate dataProximaGeracao, Boolean ativo, 
@@ -82,15 +89,18 @@ public class ObrigacaoResponse {
     public String getDescricao() { return descricao; }
     public void setDescricao(String descricao) { this.descricao = descricao; }
     
-    public Cliente getCliente() { return cliente; }
-    public void setCliente(Cliente cliente) { this.cliente = cliente; }
+    public ClienteResumo getCliente() { return cliente; }
+    public void setCliente(ClienteResumo cliente) { this.cliente = cliente; }
     
-    public Responsavel getResponsavel() { return responsavel; }
-    public void setResponsavel(Responsavel responsavel) { this.responsavel = responsavel; }
+    public ResponsavelResumo getResponsavel() { return responsavel; }
+    public void setResponsavel(ResponsavelResumo responsavel) { this.responsavel = responsavel; }
     
     public LocalDate getDataVencimento() { return dataVencimento; }
     public void setDataVencimento(LocalDate dataVencimento) { this.dataVencimento = dataVencimento; }
     
+    public LocalDate getDataVencimentoOriginal() { return dataVencimentoOriginal; }
+    public void setDataVencimentoOriginal(LocalDate dataVencimentoOriginal) { this.dataVencimentoOriginal = dataVencimentoOriginal; }
+    
     public TipoRecorrencia getTipoRecorrencia() { return tipoRecorrencia; }
     public void setTipoRecorrencia(TipoRecorrencia tipoRecorrencia) { this.tipoRecorrencia = tipoRecorrencia; }
     
@@ -100,12 +110,24 @@ public class ObrigacaoResponse {
     public Integer getDiaMesRecorrencia() { return diaMesRecorrencia; }
     public void setDiaMesRecorrencia(Integer diaMesRecorrencia) { this.diaMesRecorrencia = diaMesRecorrencia; }
     
+    public String getRegraRecorrencia() { return regraRecorrencia; }
+    public void setRegraRecorrencia(String regraRecorrencia) { this.regraRecorrencia = regraRecorrencia; }
+    
+    public Long getSerieId() { return serieId; }
+    public void setSerieId(Long serieId) { this.serieId = serieId; }
+    
+    public Long getImpostoId() { return impostoId; }
+    public void setImpostoId(Long impostoId) { this.impostoId = impostoId; }
+    
     public Boolean getAjustarFinaisSemana() { return ajustarFinaisSemana; }
     public void setAjustarFinaisSemana(Boolean ajustarFinaisSemana) { this.ajustarFinaisSemana = ajustarFinaisSemana; }
     
     public Boolean getAjustarFeriados() { return ajustarFeriados; }
     public void setAjustarFeriados(Boolean ajustarFeriados) { this.ajustarFeriados = ajustarFeriados; }
     
+    public ModoAjuste getModoAjuste() { return modoAjuste; }
+    public void setModoAjuste(ModoAjuste modoAjuste) { this.modoAjuste = modoAjuste; }
+    
     public LocalDate getDataProximaGeracao() { return dataProximaGeracao; }
     public void setDataProximaGeracao(LocalDate dataProximaGeracao) { this.dataProximaGeracao = dataProximaGeracao; }
     
@@ -132,6 +154,12 @@ public class ObrigacaoResponse {
     
     public String getStatusUrgencia() { return statusUrgencia; }
     public void setStatusUrgencia(String statusUrgencia) { this.statusUrgencia = statusUrgencia; }
+    
+    public Boolean getVirtual() { return virtual; }
+    public void setVirtual(Boolean virtual) { this.virtual = virtual; }
+    
+    public Long getObrigacaoOrigemId() { return obrigacaoOrigemId; }
+    public void setObrigacaoOrigemId(Long obrigacaoOrigemId) { this.obrigacaoOrigemId = obrigacaoOrigemId; }
 }
 
 
@@ -0,0 +1,111 @@
+package com.fiscal.model.dto;
+
+import com.fiscal.model.Obrigacao;
+import com.fiscal.model.StatusUrgencia;
+import com.fiscal.model.TipoObrigacao;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * DTO de leitura das listagens de obrigações, preenchido direto pela consulta (expressão construtora JPQL)
+ * Só as colunas que uma linha de lista exibe; cliente e responsável chegam como colunas e viram os mesmos
+ * resumos aninhados do ObrigacaoResponse, para que lista e detalhe tenham o mesmo formato JSON.
+ * Nenhuma entidade gerenciada é criada, então não há dirty checking nem carga preguiçosa ao serializar.
+ * Padrão: DTO Pattern + Read Model
+ */
+public class ObrigacaoResumo {
+    
+    private Long id;
+    private String nome;
+    private TipoObrigacao tipo;
+    private LocalDate dataVencimento;
+    private LocalDate dataVencimentoOriginal;
+    private Boolean concluida;
+    private ClienteResumo cliente;
+    private ResponsavelResumo responsavel;
+    private Long serieId;
+    private Long diasParaVencimento;
+    private String statusUrgencia;
+    
+    // Ocorrências projetadas do calendário
+    private Boolean virtual = false;
+    private Long obrigacaoOrigemId;
+    
+    // Construtores
+    public ObrigacaoResumo() {}
+    
+    /**
+     * Usado pelas consultas "SELECT new com.fiscal.model.dto.ObrigacaoResumo(...)"
+     */
+    public ObrigacaoResumo(Long id, String nome, TipoObrigacao tipo, LocalDate dataVencimento,
+                           LocalDate dataVencimentoOriginal, Boolean concluida, Long clienteId, String clienteNome,
+                           Long responsavelId, String responsavelNome, Long serieId) {
+        this.id = id;
+        this.nome = nome;
+        this.tipo = tipo;
+        this.dataVencimento = dataVencimento;
+        this.dataVencimentoOriginal = dataVencimentoOriginal;
+        this.concluida = concluida;
+        this.cliente = clienteId != null ? new ClienteResumo(clienteId, clienteNome) : null;
+        this.responsavel = responsavelId != null ? new ResponsavelResumo(responsavelId, responsavelNome) : null;
+        this.serieId = serieId;
+        if (dataVencimento != null) {
+            this.diasParaVencimento = ChronoUnit.DAYS.between(LocalDate.now(), dataVencimento);
+            this.statusUrgencia = StatusUrgencia.de(diasParaVencimento).getDescricao();
+        }
+    }
+    
+    /**
+     * Resumo de uma obrigação já em memória, como as ocorrências projetadas do calendário
+     */
+    public static ObrigacaoResumo de(Obrigacao obrigacao) {
+        return new ObrigacaoResumo(obrigacao.getId(), obrigacao.getNome(), obrigacao.getTipo(),
+                obrigacao.getDataVencimento(), obrigacao.getDataVencimentoOriginal(), obrigacao.getConcluida(),
+                obrigacao.getCliente() != null ? obrigacao.getCliente().getId() : null,
+                obrigacao.getCliente() != null ? obrigacao.getCliente().getNome() : null,
+                obrigacao.getResponsavel() != null ? obrigacao.getResponsavel().getId() : null,
+                obrigacao.getResponsavel() != null ? obrigacao.getResponsavel().getNome() : null,
+                obrigacao.getSerie() != null ? obrigacao.getSerie().getId() : null);
+    }
+    
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    
+    public TipoObrigacao getTipo() { return tipo; }
+    public void setTipo(TipoObrigacao tipo) { this.tipo = tipo; }
+    
+    public LocalDate getDataVencimento() { return dataVencimento; }
+    public void setDataVencimento(LocalDate dataVencimento) { this.dataVencimento = dataVencimento; }
+    
+    public LocalDate getDataVencimentoOriginal() { return dataVencimentoOriginal; }
+    public void setDataVencimentoOriginal(LocalDate dataVencimentoOriginal) { this.dataVencimentoOriginal = dataVencimentoOriginal; }
+    
+    public Boolean getConcluida() { return concluida; }
+    public void setConcluida(Boolean concluida) { this.concluida = concluida; }
+    
+    public ClienteResumo getCliente() { return cliente; }
+    public void setCliente(ClienteResumo cliente) { this.cliente = cliente; }
+    
+    public ResponsavelResumo getResponsavel() { return responsavel; }
+    public void setResponsavel(ResponsavelResumo responsavel) { this.responsavel = responsavel; }
+    
+    public Long getSerieId() { return serieId; }
+    public void setSerieId(Long serieId) { this.serieId = serieId; }
+    
+    public Long getDiasParaVencimento() { return diasParaVencimento; }
+    public void setDiasParaVencimento(Long diasParaVencimento) { this.diasParaVencimento = diasParaVencimento; }
+    
+    public String getStatusUrgencia() { return statusUrgencia; }
+    public void setStatusUrgencia(String statusUrgencia) { this.statusUrgencia = statusUrgencia; }
+    
+    public Boolean getVirtual() { return virtual; }
+    public void setVirtual(Boolean virtual) { this.virtual = virtual; }
+    
+    public Long getObrigacaoOrigemId() { return obrigacaoOrigemId; }
+    public void setObrigacaoOrigemId(Long obrigacaoOrigemId) { this.obrigacaoOrigemId = obrigacaoOrigemId; }
+}
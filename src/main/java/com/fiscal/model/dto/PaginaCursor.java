@@ -0,0 +1,59 @@
+package com.fiscal.model.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO de uma página de paginação por chave (keyset)
+ * Sem total nem número de página: a próxima página parte de proximoCursor, nulo na última.
+ * Padrão: DTO Pattern
+ */
+public class PaginaCursor<T> {
+    
+    /** Tamanho usado quando a requisição não informa um */
+    public static final int TAMANHO_PADRAO = 50;
+    
+    /** Maior página aceita */
+    public static final int TAMANHO_MAXIMO = 500;
+    
+    private List<T> itens;
+    private String proximoCursor;
+    
+    // Construtores
+    public PaginaCursor() {}
+    
+    public PaginaCursor(List<T> itens, String proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+    
+    /**
+     * Limita o tamanho pedido ao intervalo aceito
+     */
+    public static int tamanhoValido(Integer tamanho) {
+        if (tamanho == null || tamanho <= 0) {
+            return TAMANHO_PADRAO;
+        }
+        return Math.min(tamanho, TAMANHO_MAXIMO);
+    }
+    
+    /**
+     * Monta a página a partir de uma consulta que buscou tamanho + 1 linhas
+     * A linha excedente só indica que há próxima página; o cursor sai da última linha entregue.
+     */
+    public static <T> PaginaCursor<T> de(List<T> linhas, int tamanho, Function<T, CursorPaginacao> cursorDaLinha) {
+        if (linhas.size() <= tamanho) {
+            return new PaginaCursor<>(linhas, null);
+        }
+        List<T> itens = new ArrayList<>(linhas.subList(0, tamanho));
+        return new PaginaCursor<>(itens, cursorDaLinha.apply(itens.get(tamanho - 1)).codificar());
+    }
+    
+    // Getters e Setters
+    public List<T> getItens() { return itens; }
+    public void setItens(List<T> itens) { this.itens = itens; }
+    
+    public String getProximoCursor() { return proximoCursor; }
+    public void setProximoCursor(String proximoCursor) { this.proximoCursor = proximoCursor; }
+}
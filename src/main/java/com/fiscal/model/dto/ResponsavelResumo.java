@@ -0,0 +1,35 @@
+package com.fiscal.model.dto;
+
+import com.fiscal.model.Responsavel;
+
+/**
+ * Resumo do responsável embutido nas respostas de obrigação (id e nome)
+ * Padrão: DTO Pattern
+ */
+public class ResponsavelResumo {
+    
+    private Long id;
+    private String nome;
+    
+    // Construtores
+    public ResponsavelResumo() {}
+    
+    public ResponsavelResumo(Long id, String nome) {
+        this.id = id;
+        this.nome = nome;
+    }
+    
+    /**
+     * Resumo do responsável associado, ou null quando não há responsável
+     */
+    public static ResponsavelResumo de(Responsavel responsavel) {
+        return responsavel != null ? new ResponsavelResumo(responsavel.getId(), responsavel.getNome()) : null;
+    }
+    
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+}
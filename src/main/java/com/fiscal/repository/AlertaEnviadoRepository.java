@@ -0,0 +1,20 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.AlertaEnviado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Repository para AlertaEnviado
+ * Padrão: Repository Pattern
+ */
+@Repository
+public interface AlertaEnviadoRepository extends JpaRepository<AlertaEnviado, Long> {
+    
+    /**
+     * Verifica se o alerta da obrigação no limiar já foi enviado para o vencimento informado
+     */
+    boolean existsByObrigacaoIdAndLimiarDiasAndDataVencimento(Long obrigacaoId, Integer limiarDias, LocalDate dataVencimento);
+}
@@ -1,7 +1,6 @@
 package com.fiscal.repository;
 
 import com.fiscal.model.Cliente;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -35,16 +34,30 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     List<Cliente> findByAtivoTrueOrderByNomeAsc();
     
     /**
-     * Busca clientes com filtros
+     * Primeira página da busca de clientes com filtros, em ordem de nome
      */
     @Query("SELECT c FROM Cliente c WHERE " +
-           "(:nome IS NULL OR LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
+           "(:nome IS NULL OR LOWER(c.nome) LIKE LOWER(CONCAT('%', CAST(:nome AS String), '%'))) AND " +
            "(:cnpjCpf IS NULL OR c.cnpjCpf = :cnpjCpf) AND " +
            "c.ativo = true " +
-           "ORDER BY c.nome ASC")
-    Page<Cliente> findWithFilters(@Param("nome") String nome, 
-                                 @Param("cnpjCpf") String cnpjCpf,
-                                 Pageable pageable);
+           "ORDER BY c.nome ASC, c.id ASC")
+    List<Cliente> findPaginaComFiltros(@Param("nome") String nome, 
+                                       @Param("cnpjCpf") String cnpjCpf,
+                                       Pageable limite);
+    
+    /**
+     * Página seguinte à chave (nome, id) do último cliente entregue
+     */
+    @Query("SELECT c FROM Cliente c WHERE " +
+           "(:nome IS NULL OR LOWER(c.nome) LIKE LOWER(CONCAT('%', CAST(:nome AS String), '%'))) AND " +
+           "(:cnpjCpf IS NULL OR c.cnpjCpf = :cnpjCpf) AND " +
+           "c.ativo = true AND c.nome >= :nomeApos AND (c.nome > :nomeApos OR c.id > :idApos) " +
+           "ORDER BY c.nome ASC, c.id ASC")
+    List<Cliente> findPaginaComFiltrosApos(@Param("nome") String nome, 
+                                           @Param("cnpjCpf") String cnpjCpf,
+                                           @Param("nomeApos") String nomeApos,
+                                           @Param("idApos") Long idApos,
+                                           Pageable limite);
 }
 
 
@@ -0,0 +1,43 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.DimensaoEstatistica;
+import com.fiscal.model.EstatisticaSnapshot;
+import com.fiscal.model.PeriodoEstatistica;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository para EstatisticaSnapshot
+ * Padrão: Repository Pattern
+ */
+@Repository
+public interface EstatisticaSnapshotRepository extends JpaRepository<EstatisticaSnapshot, Long> {
+    
+    /**
+     * Série de uma dimensão no intervalo, para os gráficos de tendência
+     */
+    List<EstatisticaSnapshot> findByPeriodoAndDimensaoAndDataReferenciaBetweenOrderByDataReferenciaAscChaveAsc(
+            PeriodoEstatistica periodo, DimensaoEstatistica dimensao, LocalDate inicio, LocalDate fim);
+    
+    /**
+     * Datas de referência que já têm snapshot no intervalo
+     */
+    @Query("SELECT DISTINCT e.dataReferencia FROM EstatisticaSnapshot e " +
+           "WHERE e.periodo = :periodo AND e.dataReferencia BETWEEN :inicio AND :fim")
+    List<LocalDate> findDatasReferencia(@Param("periodo") PeriodoEstatistica periodo,
+                                        @Param("inicio") LocalDate inicio,
+                                        @Param("fim") LocalDate fim);
+    
+    /**
+     * Remove o snapshot de um período antes de gravá-lo de novo
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM EstatisticaSnapshot e WHERE e.periodo = :periodo AND e.dataReferencia = :dataReferencia")
+    int deleteSnapshot(@Param("periodo") PeriodoEstatistica periodo, @Param("dataReferencia") LocalDate dataReferencia);
+}
@@ -0,0 +1,32 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.ExecucaoJob;
+import com.fiscal.model.StatusExecucaoJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository para ExecucaoJob
+ * Padrão: Repository Pattern
+ */
+@Repository
+public interface ExecucaoJobRepository extends JpaRepository<ExecucaoJob, Long> {
+    
+    /**
+     * Busca as últimas execuções de um job
+     */
+    List<ExecucaoJob> findTop50ByJobOrderByInicioDesc(String job);
+    
+    /**
+     * Busca as últimas execuções de todos os jobs
+     */
+    List<ExecucaoJob> findTop50ByOrderByInicioDesc();
+    
+    /**
+     * Busca a execução mais recente de um job com a situação informada
+     */
+    Optional<ExecucaoJob> findFirstByJobAndStatusOrderByInicioDesc(String job, StatusExecucaoJob status);
+}
@@ -1,13 +1,14 @@
 package com.fiscal.repository;
 
 import com.fiscal.model.HistoricoAlteracao;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,6 +24,41 @@ public interface HistoricoAlteracaoRepository extends JpaRepository<HistoricoAlt
      */
     List<HistoricoAlteracao> findByObrigacaoIdOrderByDataAlteracaoDesc(Long obrigacaoId);
     
+    /**
+     * Primeira página do histórico de uma obrigação, da alteração mais recente para a mais antiga
+     */
+    @Query("SELECT h FROM HistoricoAlteracao h WHERE h.obrigacao.id = :obrigacaoId " +
+           "ORDER BY h.dataAlteracao DESC, h.id DESC")
+    List<HistoricoAlteracao> findPaginaPorObrigacao(@Param("obrigacaoId") Long obrigacaoId, Pageable limite);
+    
+    /**
+     * Página seguinte à chave (dataAlteracao, id) da última alteração entregue
+     * O "dataAlteracao <= :dataAlteracao" delimita a faixa do índice; o OR só filtra o empate.
+     */
+    @Query("SELECT h FROM HistoricoAlteracao h WHERE h.obrigacao.id = :obrigacaoId " +
+           "AND h.dataAlteracao <= :dataAlteracao AND (h.dataAlteracao < :dataAlteracao OR h.id < :id) " +
+           "ORDER BY h.dataAlteracao DESC, h.id DESC")
+    List<HistoricoAlteracao> findPaginaPorObrigacaoApos(@Param("obrigacaoId") Long obrigacaoId,
+                                                        @Param("dataAlteracao") LocalDateTime dataAlteracao,
+                                                        @Param("id") Long id,
+                                                        Pageable limite);
+    
+    /**
+     * Primeira página do histórico geral, da alteração mais recente para a mais antiga
+     */
+    @Query("SELECT h FROM HistoricoAlteracao h ORDER BY h.dataAlteracao DESC, h.id DESC")
+    List<HistoricoAlteracao> findPagina(Pageable limite);
+    
+    /**
+     * Página seguinte do histórico geral à chave (dataAlteracao, id) informada
+     */
+    @Query("SELECT h FROM HistoricoAlteracao h " +
+           "WHERE h.dataAlteracao <= :dataAlteracao AND (h.dataAlteracao < :dataAlteracao OR h.id < :id) " +
+           "ORDER BY h.dataAlteracao DESC, h.id DESC")
+    List<HistoricoAlteracao> findPaginaApos(@Param("dataAlteracao") LocalDateTime dataAlteracao,
+                                            @Param("id") Long id,
+                                            Pageable limite);
+    
     /**
      * Busca histórico por período
      */
@@ -36,15 +72,98 @@ public interface HistoricoAlteracaoRepository extends JpaRepository<HistoricoAlt
     List<HistoricoAlteracao> findByUsuarioEditor(@Param("usuario") String usuario);
     
     /**
-     * Busca últimas alterações
+     * Registra em uma única instrução a troca de responsável das ocorrências pendentes da série
+     * Deve ser executado antes do UPDATE correspondente para capturar o valor anterior.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO HistoricoAlteracao (obrigacao, campoAlterado, valorAnterior, valorNovo, usuarioEditor, dataAlteracao, observacoes) " +
+           "SELECT o, 'responsavel', r.nome, :valorNovo, :usuarioEditor, :agora, :observacoes " +
+           "FROM Obrigacao o LEFT JOIN o.responsavel r " +
+           "WHERE o.serie.id = :serieId AND o.dataVencimento >= :aPartirDe AND o.ativo = true AND o.concluida = false " +
+           "AND (r IS NULL OR r.id <> :responsavelId)")
+    int registrarResponsavelDaSerie(@Param("serieId") Long serieId,
+                                    @Param("aPartirDe") LocalDate aPartirDe,
+                                    @Param("responsavelId") Long responsavelId,
+                                    @Param("valorNovo") String valorNovo,
+                                    @Param("usuarioEditor") String usuarioEditor,
+                                    @Param("agora") LocalDateTime agora,
+                                    @Param("observacoes") String observacoes);
+    
+    /**
+     * Registra em uma única instrução a troca de nome das ocorrências pendentes da série
      */
-    @Query("SELECT h FROM HistoricoAlteracao h ORDER BY h.dataAlteracao DESC")
-    Page<HistoricoAlteracao> findUltimasAlteracoes(Pageable pageable);
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO HistoricoAlteracao (obrigacao, campoAlterado, valorAnterior, valorNovo, usuarioEditor, dataAlteracao, observacoes) " +
+           "SELECT o, 'nome', o.nome, :valorNovo, :usuarioEditor, :agora, :observacoes " +
+           "FROM Obrigacao o " +
+           "WHERE o.serie.id = :serieId AND o.dataVencimento >= :aPartirDe AND o.ativo = true AND o.concluida = false " +
+           "AND o.nome <> :valorNovo")
+    int registrarNomeDaSerie(@Param("serieId") Long serieId,
+                             @Param("aPartirDe") LocalDate aPartirDe,
+                             @Param("valorNovo") String valorNovo,
+                             @Param("usuarioEditor") String usuarioEditor,
+                             @Param("agora") LocalDateTime agora,
+                             @Param("observacoes") String observacoes);
+    
+    /**
+     * Registra em uma única instrução a troca de descrição das ocorrências pendentes da série
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO HistoricoAlteracao (obrigacao, campoAlterado, valorAnterior, valorNovo, usuarioEditor, dataAlteracao, observacoes) " +
+           "SELECT o, 'descricao', o.descricao, :valorNovo, :usuarioEditor, :agora, :observacoes " +
+           "FROM Obrigacao o " +
+           "WHERE o.serie.id = :serieId AND o.dataVencimento >= :aPartirDe AND o.ativo = true AND o.concluida = false " +
+           "AND (o.descricao IS NULL OR o.descricao <> :valorNovo)")
+    int registrarDescricaoDaSerie(@Param("serieId") Long serieId,
+                                  @Param("aPartirDe") LocalDate aPartirDe,
+                                  @Param("valorNovo") String valorNovo,
+                                  @Param("usuarioEditor") String usuarioEditor,
+                                  @Param("agora") LocalDateTime agora,
+                                  @Param("observacoes") String observacoes);
+    
+    /**
+     * Registra em uma única instrução a desativação das ocorrências pendentes da série
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO HistoricoAlteracao (obrigacao, campoAlterado, valorAnterior, valorNovo, usuarioEditor, dataAlteracao, observacoes) " +
+           "SELECT o, 'ativo', 'true', 'false', :usuarioEditor, :agora, :observacoes " +
+           "FROM Obrigacao o " +
+           "WHERE o.serie.id = :serieId AND o.dataVencimento >= :aPartirDe AND o.ativo = true AND o.concluida = false")
+    int registrarDesativacaoDaSerie(@Param("serieId") Long serieId,
+                                    @Param("aPartirDe") LocalDate aPartirDe,
+                                    @Param("usuarioEditor") String usuarioEditor,
+                                    @Param("agora") LocalDateTime agora,
+                                    @Param("observacoes") String observacoes);
     
     /**
      * Conta alterações por obrigação
      */
     Long countByObrigacaoId(Long obrigacaoId);
+    
+    /**
+     * Maior id com alteração anterior ao limite; fecha o intervalo percorrido pela retenção
+     */
+    @Query("SELECT MAX(h.id) FROM HistoricoAlteracao h WHERE h.dataAlteracao < :limite")
+    Long findMaxIdAnteriorA(@Param("limite") LocalDateTime limite);
+    
+    /**
+     * Próximo lote da retenção por chave (id > ultimoId), sem carregar as obrigações
+     * Cada linha: {id, obrigacaoId, campoAlterado, valorAnterior, valorNovo, usuarioEditor, ipUsuario, dataAlteracao, observacoes}
+     */
+    @Query("SELECT h.id, h.obrigacao.id, h.campoAlterado, h.valorAnterior, h.valorNovo, h.usuarioEditor, h.ipUsuario, " +
+           "h.dataAlteracao, h.observacoes FROM HistoricoAlteracao h " +
+           "WHERE h.id > :ultimoId AND h.id <= :maxId AND h.dataAlteracao < :limite ORDER BY h.id")
+    List<Object[]> findLoteParaArquivo(@Param("ultimoId") Long ultimoId,
+                                       @Param("maxId") Long maxId,
+                                       @Param("limite") LocalDateTime limite,
+                                       Pageable pageable);
+    
+    /**
+     * Remove um lote já arquivado
+     */
+    @Modifying
+    @Query("DELETE FROM HistoricoAlteracao h WHERE h.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
 
 
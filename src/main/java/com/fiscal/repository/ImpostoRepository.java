@@ -0,0 +1,22 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.Imposto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository para Imposto
+ * Padrão: Repository Pattern
+ */
+@Repository
+public interface ImpostoRepository extends JpaRepository<Imposto, Long> {
+    
+    /**
+     * Busca pares {id, prazo de antecedência} de todos os impostos, usados no agendamento de alertas
+     */
+    @Query("SELECT i.id, i.prazoAntecedenciaDias FROM Imposto i")
+    List<Object[]> findPrazosAntecedencia();
+}
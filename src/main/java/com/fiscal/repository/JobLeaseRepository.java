@@ -0,0 +1,65 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository para JobLease
+ * Aquisição e renovação são UPDATEs condicionais: o banco garante que só uma instância vence.
+ * Padrão: Repository Pattern
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+    
+    /**
+     * Assume a posse se ela estiver expirada ou já pertencer ao dono; retorna 0 se outra instância a detém
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.dono = :dono, l.expiraEm = :expiraEm, " +
+           "l.adquiridoEm = CASE WHEN l.dono = :dono AND l.expiraEm >= :agora THEN l.adquiridoEm ELSE :agora END " +
+           "WHERE l.nome = :nome AND (l.dono = :dono OR l.expiraEm < :agora)")
+    int adquirir(@Param("nome") String nome,
+                 @Param("dono") String dono,
+                 @Param("agora") LocalDateTime agora,
+                 @Param("expiraEm") LocalDateTime expiraEm);
+    
+    /**
+     * Estende a posse somente se o dono ainda a detém
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.expiraEm = :expiraEm " +
+           "WHERE l.nome = :nome AND l.dono = :dono AND l.expiraEm >= :agora")
+    int renovar(@Param("nome") String nome,
+                @Param("dono") String dono,
+                @Param("agora") LocalDateTime agora,
+                @Param("expiraEm") LocalDateTime expiraEm);
+    
+    /**
+     * Libera a posse do dono, deixando-a expirada
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.expiraEm = :agora WHERE l.nome = :nome AND l.dono = :dono AND l.expiraEm > :agora")
+    int liberar(@Param("nome") String nome,
+                @Param("dono") String dono,
+                @Param("agora") LocalDateTime agora);
+    
+    /**
+     * Busca as posses vigentes com o prefixo informado, usadas para listar instâncias ativas
+     */
+    @Query("SELECT l FROM JobLease l WHERE l.nome LIKE CONCAT(:prefixo, '%') AND l.expiraEm >= :agora ORDER BY l.nome ASC")
+    List<JobLease> findVigentesPorPrefixo(@Param("prefixo") String prefixo, @Param("agora") LocalDateTime agora);
+    
+    /**
+     * Remove posses expiradas há mais tempo que o limite, como as de instâncias desligadas
+     */
+    @Modifying
+    @Query("DELETE FROM JobLease l WHERE l.nome LIKE CONCAT(:prefixo, '%') AND l.expiraEm < :limite")
+    int removerExpiradas(@Param("prefixo") String prefixo, @Param("limite") LocalDateTime limite);
+}
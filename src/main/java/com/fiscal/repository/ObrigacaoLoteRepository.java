@@ -0,0 +1,69 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.Obrigacao;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository JDBC para inserção de obrigações em lote
+ * Usado quando muitas ocorrências são criadas de uma vez e não precisam voltar como entidades gerenciadas.
+ * Padrão: Repository Pattern + Batch Insert
+ */
+@Repository
+public class ObrigacaoLoteRepository {
+    
+    static final int TAMANHO_BATCH = 500;
+    
+    private static final String INSERT_OBRIGACAO = "INSERT INTO obrigacoes (nome, tipo, descricao, cliente_id, responsavel_id, " +
+            "serie_id, data_vencimento, data_vencimento_original, tipo_recorrencia, dias_recorrencia, dia_mes_recorrencia, " +
+            "regra_recorrencia, ajustar_finais_semana, ajustar_feriados, modo_ajuste, data_proxima_geracao, ativo, concluida, " +
+            "data_criacao, data_atualizacao, ultimo_editor, imposto_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public ObrigacaoLoteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Insere as obrigações em batches JDBC; retorna o número de linhas enviadas
+     */
+    public int inserir(List<Obrigacao> obrigacoes) {
+        if (obrigacoes.isEmpty()) {
+            return 0;
+        }
+        
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OBRIGACAO, obrigacoes, TAMANHO_BATCH, (ps, o) -> {
+            ps.setString(1, o.getNome());
+            ps.setString(2, o.getTipo().name());
+            ps.setString(3, o.getDescricao());
+            ps.setObject(4, o.getCliente() != null ? o.getCliente().getId() : null, Types.BIGINT);
+            ps.setObject(5, o.getResponsavel() != null ? o.getResponsavel().getId() : null, Types.BIGINT);
+            ps.setObject(6, o.getSerie() != null ? o.getSerie().getId() : null, Types.BIGINT);
+            ps.setDate(7, Date.valueOf(o.getDataVencimento()));
+            ps.setDate(8, o.getDataVencimentoOriginal() != null ? Date.valueOf(o.getDataVencimentoOriginal()) : null);
+            ps.setString(9, o.getTipoRecorrencia().name());
+            ps.setObject(10, o.getDiasRecorrencia(), Types.INTEGER);
+            ps.setObject(11, o.getDiaMesRecorrencia(), Types.INTEGER);
+            ps.setString(12, o.getRegraRecorrencia());
+            ps.setObject(13, o.getAjustarFinaisSemana(), Types.BOOLEAN);
+            ps.setObject(14, o.getAjustarFeriados(), Types.BOOLEAN);
+            ps.setString(15, o.getModoAjuste() != null ? o.getModoAjuste().name() : null);
+            ps.setDate(16, o.getDataProximaGeracao() != null ? Date.valueOf(o.getDataProximaGeracao()) : null);
+            ps.setBoolean(17, !Boolean.FALSE.equals(o.getAtivo()));
+            ps.setBoolean(18, Boolean.TRUE.equals(o.getConcluida()));
+            ps.setTimestamp(19, agora);
+            ps.setTimestamp(20, agora);
+            ps.setString(21, o.getUltimoEditor());
+            ps.setObject(22, o.getImposto() != null ? o.getImposto().getId() : null, Types.BIGINT);
+        });
+        return obrigacoes.size();
+    }
+}
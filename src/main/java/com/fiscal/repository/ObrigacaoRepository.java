@@ -1,42 +1,67 @@
 package com.fiscal.repository;
 
 import com.fiscal.model.Obrigacao;
+import com.fiscal.model.Responsavel;
 import com.fiscal.model.TipoObrigacao;
-import org.springframework.data.domain.Page;
+import com.fiscal.model.dto.ObrigacaoResumo;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository para Obrigacao
+ * Buscas com filtros opcionais usam os critérios de ObrigacaoSpecifications; as listagens projetam ObrigacaoResumo.
+ * Leituras que viram ObrigacaoResponse carregam cliente e responsável junto (@EntityGraph).
  * Padrão: Repository Pattern
  */
 @Repository
-public interface ObrigacaoRepository extends JpaRepository<Obrigacao, Long> {
+public interface ObrigacaoRepository extends JpaRepository<Obrigacao, Long>, JpaSpecificationExecutor<Obrigacao> {
+    
+    /**
+     * Início das consultas de listagem que projetam ObrigacaoResumo em vez de carregar entidades
+     */
+    String SELECT_RESUMO = "SELECT new com.fiscal.model.dto.ObrigacaoResumo(o.id, o.nome, o.tipo, o.dataVencimento, " +
+            "o.dataVencimentoOriginal, o.concluida, c.id, c.nome, r.id, r.nome, o.serie.id) " +
+            "FROM Obrigacao o LEFT JOIN o.cliente c LEFT JOIN o.responsavel r ";
+    
+    /**
+     * Busca a obrigação com cliente e responsável já carregados, para montar a resposta sem consultas extras
+     */
+    @EntityGraph(attributePaths = {"cliente", "responsavel"})
+    Optional<Obrigacao> findDetalhadaById(Long id);
     
     /**
      * Busca obrigações por cliente
      */
+    @EntityGraph(attributePaths = {"cliente", "responsavel"})
     List<Obrigacao> findByClienteIdAndAtivoTrueOrderByDataVencimentoAsc(Long clienteId);
     
     /**
      * Busca obrigações por responsável
      */
+    @EntityGraph(attributePaths = {"cliente", "responsavel"})
     List<Obrigacao> findByResponsavelIdAndAtivoTrueOrderByDataVencimentoAsc(Long responsavelId);
     
     /**
      * Busca obrigações por tipo
      */
+    @EntityGraph(attributePaths = {"cliente", "responsavel"})
     List<Obrigacao> findByTipoAndAtivoTrueOrderByDataVencimentoAsc(TipoObrigacao tipo);
     
     /**
      * Busca obrigações por período
      */
+    @EntityGraph(attributePaths = {"cliente", "responsavel"})
     @Query("SELECT o FROM Obrigacao o WHERE o.dataVencimento BETWEEN :dataInicio AND :dataFim AND o.ativo = true ORDER BY o.dataVencimento ASC")
     List<Obrigacao> findByPeriodo(@Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
     
@@ -47,10 +72,29 @@ public interface ObrigacaoRepository extends JpaRepository<Obrigacao, Long> {
     List<Obrigacao> findProximasVencimento(@Param("hoje") LocalDate hoje, @Param("dataLimite") LocalDate dataLimite);
     
     /**
-     * Busca obrigações vencidas
+     * Resumos das obrigações próximas do vencimento
+     */
+    @Query(SELECT_RESUMO + "WHERE o.dataVencimento BETWEEN :hoje AND :dataLimite AND o.ativo = true AND o.concluida = false " +
+           "ORDER BY o.dataVencimento ASC, o.id ASC")
+    List<ObrigacaoResumo> findResumoProximasVencimento(@Param("hoje") LocalDate hoje, @Param("dataLimite") LocalDate dataLimite);
+    
+    /**
+     * Busca obrigações com vencimento na janela gravadas a partir do instante informado, para reagendar seus alertas
+     * Alcança ocorrências inseridas em lote e alterações feitas em outras instâncias; concluídas e inativas vêm
+     * junto para que seus alertas sejam cancelados.
+     */
+    @Query("SELECT o FROM Obrigacao o WHERE o.dataVencimento BETWEEN :hoje AND :dataLimite " +
+           "AND o.dataAtualizacao >= :desde ORDER BY o.dataVencimento ASC")
+    List<Obrigacao> findAlteradasParaAlertas(@Param("desde") LocalDateTime desde,
+                                             @Param("hoje") LocalDate hoje,
+                                             @Param("dataLimite") LocalDate dataLimite);
+    
+    /**
+     * Resumos das obrigações vencidas
      */
-    @Query("SELECT o FROM Obrigacao o WHERE o.dataVencimento < :hoje AND o.ativo = true AND o.concluida = false ORDER BY o.dataVencimento ASC")
-    List<Obrigacao> findVencidas(@Param("hoje") LocalDate hoje);
+    @Query(SELECT_RESUMO + "WHERE o.dataVencimento < :hoje AND o.ativo = true AND o.concluida = false " +
+           "ORDER BY o.dataVencimento ASC, o.id ASC")
+    List<ObrigacaoResumo> findResumoVencidas(@Param("hoje") LocalDate hoje);
     
     /**
      * Busca obrigações que precisam gerar próxima ocorrência
@@ -59,20 +103,138 @@ public interface ObrigacaoRepository extends JpaRepository<Obrigacao, Long> {
     List<Obrigacao> findParaGerarProximaOcorrencia(@Param("hoje") LocalDate hoje);
     
     /**
-     * Busca obrigações com filtros múltiplos
+     * Busca os ids das obrigações que precisam gerar próxima ocorrência, em ordem para divisão em lotes
+     */
+    @Query("SELECT o.id FROM Obrigacao o WHERE o.dataProximaGeracao <= :hoje AND o.ativo = true " +
+           "AND (o.tipoRecorrencia <> 'UNICA' OR o.regraRecorrencia IS NOT NULL) ORDER BY o.id ASC")
+    List<Long> findIdsParaGerarProximaOcorrencia(@Param("hoje") LocalDate hoje);
+    
+    /**
+     * Busca os ids pendentes de uma partição, lidos de novo após adquirir sua posse
+     */
+    @Query("SELECT o.id FROM Obrigacao o WHERE o.dataProximaGeracao <= :hoje AND o.ativo = true " +
+           "AND (o.tipoRecorrencia <> 'UNICA' OR o.regraRecorrencia IS NOT NULL) " +
+           "AND MOD(o.id, :particoes) = :particao ORDER BY o.id ASC")
+    List<Long> findIdsParaGerarProximaOcorrenciaNaParticao(@Param("hoje") LocalDate hoje,
+                                                           @Param("particoes") long particoes,
+                                                           @Param("particao") long particao);
+    
+    /**
+     * Carrega um lote de obrigações com cliente e série, usados na geração da próxima ocorrência
+     * Ids que deixaram de ser a cabeça da série, já processados por outra instância, são descartados.
+     */
+    @Query("SELECT o FROM Obrigacao o LEFT JOIN FETCH o.cliente LEFT JOIN FETCH o.serie WHERE o.id IN :ids " +
+           "AND o.dataProximaGeracao IS NOT NULL ORDER BY o.id ASC")
+    List<Obrigacao> findParaGeracaoPorIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * Busca em lotes (keyset por id) obrigações sujeitas a ajuste de feriado cuja data
+     * nominal ou ajustada cai na janela informada
+     */
+    @Query("SELECT o FROM Obrigacao o LEFT JOIN FETCH o.cliente WHERE " +
+           "o.id > :ultimoId AND o.ativo = true AND o.concluida = false AND o.ajustarFeriados = true AND " +
+           "(o.dataVencimento BETWEEN :inicio AND :fim OR o.dataVencimentoOriginal BETWEEN :inicio AND :fim) " +
+           "ORDER BY o.id ASC")
+    List<Obrigacao> findParaReajuste(@Param("inicio") LocalDate inicio,
+                                    @Param("fim") LocalDate fim,
+                                    @Param("ultimoId") Long ultimoId,
+                                    Pageable pageable);
+    
+    /**
+     * Resumos das obrigações ativas do período, para o calendário
      */
-    @Query("SELECT o FROM Obrigacao o WHERE " +
-           "(:clienteId IS NULL OR o.cliente.id = :clienteId) AND " +
-           "(:responsavelId IS NULL OR o.responsavel.id = :responsavelId) AND " +
-           "(:tipo IS NULL OR o.tipo = :tipo) AND " +
-           "(:concluida IS NULL OR o.concluida = :concluida) AND " +
-           "o.ativo = true " +
-           "ORDER BY o.dataVencimento ASC")
-    Page<Obrigacao> findWithFilters(@Param("clienteId") Long clienteId, 
-                                   @Param("responsavelId") Long responsavelId,
-                                   @Param("tipo") TipoObrigacao tipo,
-                                   @Param("concluida") Boolean concluida,
-                                   Pageable pageable);
+    @Query(SELECT_RESUMO + "WHERE o.dataVencimento BETWEEN :inicio AND :fim AND o.ativo = true " +
+           "ORDER BY o.dataVencimento ASC, o.id ASC")
+    List<ObrigacaoResumo> findResumoCalendario(@Param("inicio") LocalDate inicio,
+                                               @Param("fim") LocalDate fim);
+    
+    /**
+     * Resumos das obrigações ativas do período de um cliente, para o calendário
+     */
+    @Query(SELECT_RESUMO + "WHERE o.cliente.id = :clienteId AND o.dataVencimento BETWEEN :inicio AND :fim " +
+           "AND o.ativo = true ORDER BY o.dataVencimento ASC, o.id ASC")
+    List<ObrigacaoResumo> findResumoCalendarioDoCliente(@Param("inicio") LocalDate inicio,
+                                                        @Param("fim") LocalDate fim,
+                                                        @Param("clienteId") Long clienteId);
+    
+    /**
+     * Busca as obrigações recorrentes ativas cuja próxima ocorrência vence até o limite
+     * São as fontes das ocorrências projetadas pelo calendário.
+     */
+    @Query("SELECT o FROM Obrigacao o LEFT JOIN FETCH o.cliente LEFT JOIN FETCH o.responsavel LEFT JOIN FETCH o.serie s " +
+           "WHERE o.dataProximaGeracao <= :limite AND o.ativo = true AND (s IS NULL OR s.ativo = true)")
+    List<Obrigacao> findFontesRecorrencia(@Param("limite") LocalDate limite);
+    
+    /**
+     * Busca as fontes de projeção de um cliente: recorrentes ativas com próxima ocorrência até o limite
+     */
+    @Query("SELECT o FROM Obrigacao o LEFT JOIN FETCH o.cliente LEFT JOIN FETCH o.responsavel LEFT JOIN FETCH o.serie s " +
+           "WHERE o.cliente.id = :clienteId AND o.dataProximaGeracao <= :limite AND o.ativo = true " +
+           "AND (s IS NULL OR s.ativo = true)")
+    List<Obrigacao> findFontesRecorrenciaDoCliente(@Param("limite") LocalDate limite, @Param("clienteId") Long clienteId);
+    
+    /**
+     * Busca a ocorrência da série com a data nominal informada
+     */
+    @EntityGraph(attributePaths = {"cliente", "responsavel"})
+    Optional<Obrigacao> findFirstBySerieIdAndDataVencimentoOriginal(Long serieId, LocalDate dataVencimentoOriginal);
+    
+    /**
+     * Busca as ocorrências já gravadas da série com data nominal no intervalo
+     */
+    List<Obrigacao> findBySerieIdAndDataVencimentoOriginalBetween(Long serieId, LocalDate inicio, LocalDate fim);
+    
+    /**
+     * Altera o responsável das ocorrências pendentes da série a partir de uma data
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Obrigacao o SET o.responsavel = :responsavel, o.ultimoEditor = :usuarioEditor, o.dataAtualizacao = :agora " +
+           "WHERE o.serie.id = :serieId AND o.dataVencimento >= :aPartirDe AND o.ativo = true AND o.concluida = false " +
+           "AND (o.responsavel IS NULL OR o.responsavel <> :responsavel)")
+    int atualizarResponsavelDaSerie(@Param("serieId") Long serieId,
+                                    @Param("aPartirDe") LocalDate aPartirDe,
+                                    @Param("responsavel") Responsavel responsavel,
+                                    @Param("usuarioEditor") String usuarioEditor,
+                                    @Param("agora") LocalDateTime agora);
+    
+    /**
+     * Altera o nome das ocorrências pendentes da série a partir de uma data
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Obrigacao o SET o.nome = :nome, o.ultimoEditor = :usuarioEditor, o.dataAtualizacao = :agora " +
+           "WHERE o.serie.id = :serieId AND o.dataVencimento >= :aPartirDe AND o.ativo = true AND o.concluida = false " +
+           "AND o.nome <> :nome")
+    int atualizarNomeDaSerie(@Param("serieId") Long serieId,
+                             @Param("aPartirDe") LocalDate aPartirDe,
+                             @Param("nome") String nome,
+                             @Param("usuarioEditor") String usuarioEditor,
+                             @Param("agora") LocalDateTime agora);
+    
+    /**
+     * Altera a descrição das ocorrências pendentes da série a partir de uma data
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Obrigacao o SET o.descricao = :descricao, o.ultimoEditor = :usuarioEditor, o.dataAtualizacao = :agora " +
+           "WHERE o.serie.id = :serieId AND o.dataVencimento >= :aPartirDe AND o.ativo = true AND o.concluida = false " +
+           "AND (o.descricao IS NULL OR o.descricao <> :descricao)")
+    int atualizarDescricaoDaSerie(@Param("serieId") Long serieId,
+                                  @Param("aPartirDe") LocalDate aPartirDe,
+                                  @Param("descricao") String descricao,
+                                  @Param("usuarioEditor") String usuarioEditor,
+                                  @Param("agora") LocalDateTime agora);
+    
+    /**
+     * Desativa as ocorrências pendentes da série a partir de uma data e interrompe a geração automática
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Obrigacao o SET " +
+           "o.ativo = CASE WHEN o.dataVencimento >= :aPartirDe AND o.concluida = false THEN false ELSE o.ativo END, " +
+           "o.dataProximaGeracao = null, o.ultimoEditor = :usuarioEditor, o.dataAtualizacao = :agora " +
+           "WHERE o.serie.id = :serieId AND o.ativo = true")
+    int desativarSerie(@Param("serieId") Long serieId,
+                       @Param("aPartirDe") LocalDate aPartirDe,
+                       @Param("usuarioEditor") String usuarioEditor,
+                       @Param("agora") LocalDateTime agora);
     
     /**
      * Conta obrigações por status
@@ -85,6 +247,40 @@ public interface ObrigacaoRepository extends JpaRepository<Obrigacao, Long> {
      */
     @Query("SELECT COUNT(o) FROM Obrigacao o WHERE o.dataVencimento < :hoje AND o.ativo = true AND o.concluida = false")
     Long countVencidas(@Param("hoje") LocalDate hoje);
+    
+    /**
+     * Conta obrigações pendentes com vencimento na janela
+     */
+    @Query("SELECT COUNT(o) FROM Obrigacao o WHERE o.dataVencimento BETWEEN :hoje AND :dataLimite AND o.ativo = true AND o.concluida = false")
+    Long countProximasVencimento(@Param("hoje") LocalDate hoje, @Param("dataLimite") LocalDate dataLimite);
+    
+    /**
+     * Obrigações ativas que vencem em uma das datas informadas, sem carregar as entidades
+     * Cada linha: {id, dataVencimento}
+     */
+    @Query("SELECT o.id, o.dataVencimento FROM Obrigacao o WHERE o.dataVencimento IN :datas AND o.ativo = true")
+    List<Object[]> findIdsComVencimentoEm(@Param("datas") List<LocalDate> datas);
+    
+    /**
+     * Contagens das obrigações com vencimento no período, em uma só varredura do índice de vencimento
+     * Cada linha: {tipo, clienteId, responsavelId, situação (CONCLUIDA, VENCIDA ou PENDENTE), quantidade}
+     */
+    @Query("SELECT o.tipo, o.cliente.id, o.responsavel.id, " +
+           "CASE WHEN o.concluida = true THEN 'CONCLUIDA' WHEN o.dataVencimento < CURRENT_DATE THEN 'VENCIDA' ELSE 'PENDENTE' END, " +
+           "COUNT(o) FROM Obrigacao o " +
+           "WHERE o.ativo = true AND o.dataVencimento BETWEEN :inicio AND :fim " +
+           "GROUP BY o.tipo, o.cliente.id, o.responsavel.id, " +
+           "CASE WHEN o.concluida = true THEN 'CONCLUIDA' WHEN o.dataVencimento < CURRENT_DATE THEN 'VENCIDA' ELSE 'PENDENTE' END")
+    List<Object[]> contarVencimentosDoPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+    
+    /**
+     * Conclusões no período separadas em no prazo e em atraso
+     * Cada linha: {NO_PRAZO ou ATRASADA, quantidade}
+     */
+    @Query("SELECT CASE WHEN o.dataConclusao <= o.dataVencimento THEN 'NO_PRAZO' ELSE 'ATRASADA' END, COUNT(o) " +
+           "FROM Obrigacao o WHERE o.ativo = true AND o.concluida = true AND o.dataConclusao BETWEEN :inicio AND :fim " +
+           "GROUP BY CASE WHEN o.dataConclusao <= o.dataVencimento THEN 'NO_PRAZO' ELSE 'ATRASADA' END")
+    List<Object[]> contarConclusoesDoPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
 }
 
 
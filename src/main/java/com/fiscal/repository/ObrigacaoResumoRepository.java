@@ -0,0 +1,59 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.Cliente;
+import com.fiscal.model.Obrigacao;
+import com.fiscal.model.Responsavel;
+import com.fiscal.model.dto.ObrigacaoResumo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository das listagens de obrigações projetadas em ObrigacaoResumo
+ * Aplica as mesmas Specifications da busca, mas seleciona só as colunas do resumo
+ * (CriteriaBuilder.construct), sem entidades gerenciadas no contexto de persistência.
+ * Padrão: Repository Pattern + Read Model
+ */
+@Repository
+public class ObrigacaoResumoRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    /**
+     * Resumos que atendem ao critério, na ordem pedida; limite nulo traz todas as linhas
+     */
+    public List<ObrigacaoResumo> buscar(Specification<Obrigacao> criterio, Sort ordem, Integer limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ObrigacaoResumo> query = cb.createQuery(ObrigacaoResumo.class);
+        Root<Obrigacao> root = query.from(Obrigacao.class);
+        Join<Obrigacao, Cliente> cliente = root.join("cliente", JoinType.LEFT);
+        Join<Obrigacao, Responsavel> responsavel = root.join("responsavel", JoinType.LEFT);
+        
+        query.select(cb.construct(ObrigacaoResumo.class,
+                root.get("id"), root.get("nome"), root.get("tipo"), root.get("dataVencimento"),
+                root.get("dataVencimentoOriginal"), root.get("concluida"),
+                cliente.get("id"), cliente.get("nome"),
+                responsavel.get("id"), responsavel.get("nome"),
+                root.get("serie").get("id")));
+        query.where(criterio.toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(ordem, root, cb));
+        
+        TypedQuery<ObrigacaoResumo> consulta = entityManager.createQuery(query);
+        if (limite != null) {
+            consulta.setMaxResults(limite);
+        }
+        return consulta.getResultList();
+    }
+}
@@ -0,0 +1,35 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.ObrigacaoSerie;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository para ObrigacaoSerie
+ * Padrão: Repository Pattern
+ */
+@Repository
+public interface ObrigacaoSerieRepository extends JpaRepository<ObrigacaoSerie, Long> {
+    
+    /**
+     * Busca séries ativas por cliente
+     */
+    List<ObrigacaoSerie> findByClienteIdAndAtivoTrueOrderByNomeAsc(Long clienteId);
+    
+    /**
+     * Avança a marca de geração da série até ultimaData somente se nenhum período a partir de primeiraData foi gerado
+     * Retorna 0 quando outra execução já gerou algum desses períodos; a linha fica bloqueada até o commit.
+     */
+    @Modifying
+    @Query("UPDATE ObrigacaoSerie s SET s.dataUltimaGeracao = :ultimaData " +
+           "WHERE s.id = :id AND (s.dataUltimaGeracao IS NULL OR s.dataUltimaGeracao < :primeiraData)")
+    int avancarMarcaGeracao(@Param("id") Long id,
+                            @Param("primeiraData") LocalDate primeiraData,
+                            @Param("ultimaData") LocalDate ultimaData);
+}
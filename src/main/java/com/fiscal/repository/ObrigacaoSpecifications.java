@@ -0,0 +1,142 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.Obrigacao;
+import com.fiscal.model.StatusUrgencia;
+import com.fiscal.model.dto.FiltroObrigacao;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Critérios da busca de obrigações
+ * Só os filtros informados entram no SQL, sem "(:x IS NULL OR ...)", para que o banco escolha o índice
+ * da combinação pedida: cliente ou responsável com vencimento, situação com vencimento ou só vencimento.
+ * Faixas de urgência viram intervalos de data de vencimento; o texto é filtro residual sobre essas linhas.
+ * Padrão: Specification Pattern
+ */
+public final class ObrigacaoSpecifications {
+
+    /** Ordem padrão das listagens: vencimento e, no empate, id */
+    public static final Sort ORDEM_VENCIMENTO = Sort.by("dataVencimento", "id");
+
+    private ObrigacaoSpecifications() {
+    }
+
+    /**
+     * Linhas posteriores à chave (dataVencimento, id) da última linha entregue, na ORDEM_VENCIMENTO
+     * O "dataVencimento >= :data" redundante delimita a faixa do índice; o OR só filtra o empate.
+     */
+    public static Specification<Obrigacao> aposCursor(LocalDate dataVencimento, Long id) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("dataVencimento"), dataVencimento),
+                cb.or(cb.greaterThan(root.get("dataVencimento"), dataVencimento),
+                        cb.greaterThan(root.get("id"), id)));
+    }
+
+    /**
+     * Combina os filtros informados, sempre restritos às obrigações ativas
+     */
+    public static Specification<Obrigacao> comFiltro(FiltroObrigacao filtro, LocalDate hoje) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            predicados.add(cb.isTrue(root.get("ativo")));
+
+            if (filtro.getConcluida() != null) {
+                predicados.add(cb.equal(root.get("concluida"), filtro.getConcluida()));
+            }
+            if (filtro.getTipo() != null) {
+                predicados.add(cb.equal(root.get("tipo"), filtro.getTipo()));
+            }
+            adicionarIds(predicados, root, cb, "cliente", filtro.getClienteIds());
+            adicionarIds(predicados, root, cb, "responsavel", filtro.getResponsavelIds());
+
+            if (filtro.getDataInicio() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("dataVencimento"), filtro.getDataInicio()));
+            }
+            if (filtro.getDataFim() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("dataVencimento"), filtro.getDataFim()));
+            }
+            if (!filtro.getUrgencias().isEmpty()) {
+                predicados.add(porUrgencia(root, cb, filtro.getUrgencias(), hoje));
+            }
+
+            String texto = filtro.getTexto();
+            if (texto != null && !texto.isBlank()) {
+                String padrao = "%" + escaparLike(texto.trim().toLowerCase(Locale.ROOT)) + "%";
+                predicados.add(cb.or(
+                        cb.like(cb.lower(root.get("nome")), padrao, '\\'),
+                        cb.like(cb.lower(root.get("descricao")), padrao, '\\')));
+            }
+
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Um id vira igualdade e vários viram IN; a chave estrangeira é comparada sem junção
+     */
+    private static void adicionarIds(List<Predicate> predicados, Root<Obrigacao> root, CriteriaBuilder cb,
+                                     String associacao, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (ids.size() == 1) {
+            predicados.add(cb.equal(root.get(associacao).get("id"), ids.get(0)));
+        } else {
+            predicados.add(root.get(associacao).get("id").in(ids));
+        }
+    }
+
+    /**
+     * Faixas de urgência vizinhas se juntam em um só intervalo de vencimento
+     */
+    private static Predicate porUrgencia(Root<Obrigacao> root, CriteriaBuilder cb,
+                                         List<StatusUrgencia> urgencias, LocalDate hoje) {
+        EnumSet<StatusUrgencia> selecionadas = EnumSet.copyOf(urgencias);
+        StatusUrgencia[] todas = StatusUrgencia.values();
+        List<Predicate> intervalos = new ArrayList<>();
+
+        int i = 0;
+        while (i < todas.length) {
+            if (!selecionadas.contains(todas[i])) {
+                i++;
+                continue;
+            }
+            int inicio = i;
+            while (i + 1 < todas.length && selecionadas.contains(todas[i + 1])) {
+                i++;
+            }
+            intervalos.add(intervaloDias(root, cb, hoje,
+                    inicio == 0 ? null : todas[inicio - 1].getLimiteDias() + 1L,
+                    todas[i].getLimiteDias() == Integer.MAX_VALUE ? null : (long) todas[i].getLimiteDias()));
+            i++;
+        }
+        return intervalos.size() == 1 ? intervalos.get(0) : cb.or(intervalos.toArray(new Predicate[0]));
+    }
+
+    private static Predicate intervaloDias(Root<Obrigacao> root, CriteriaBuilder cb, LocalDate hoje,
+                                           Long diasMinimo, Long diasMaximo) {
+        if (diasMinimo == null && diasMaximo == null) {
+            return cb.conjunction();
+        }
+        if (diasMinimo == null) {
+            return cb.lessThanOrEqualTo(root.get("dataVencimento"), hoje.plusDays(diasMaximo));
+        }
+        if (diasMaximo == null) {
+            return cb.greaterThanOrEqualTo(root.get("dataVencimento"), hoje.plusDays(diasMinimo));
+        }
+        return cb.between(root.get("dataVencimento"), hoje.plusDays(diasMinimo), hoje.plusDays(diasMaximo));
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,254 @@
+package com.fiscal.service;
+
+import com.fiscal.model.AlertaEnviado;
+import com.fiscal.model.Obrigacao;
+import com.fiscal.repository.AlertaEnviadoRepository;
+import com.fiscal.repository.ObrigacaoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serviço de resumos de alertas de vencimento
+ * Os alertas disparados se acumulam por responsável (e, opcionalmente, por cliente) e, a cada janela,
+ * viram uma única mensagem por destinatário com as contagens e as obrigações mais próximas do vencimento,
+ * entregue apenas às sessões daquele responsável. Cada instância entrega às próprias sessões: o envio é
+ * registrado em alertas_enviados no momento da entrega, por quem tem o destinatário conectado, e os alertas
+ * sem destinatário conectado aguardam a próxima janela até o vencimento passar.
+ * Padrão: Aggregator Pattern
+ */
+@Service
+public class AlertaDigestService {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertaDigestService.class);
+
+    private final NotificacaoService notificacaoService;
+    private final AlertaEnviadoRepository alertaRepository;
+    private final ObrigacaoRepository obrigacaoRepository;
+    private final JobLeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maximoItens;
+    private final boolean agruparPorCliente;
+
+    private final Map<Destino, List<AlertaPendente>> pendentes = new ConcurrentHashMap<>();
+
+    public AlertaDigestService(NotificacaoService notificacaoService,
+                               AlertaEnviadoRepository alertaRepository,
+                               ObrigacaoRepository obrigacaoRepository,
+                               JobLeaseService leaseService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.alertas.resumo.maximo-itens:10}") int maximoItens,
+                               @Value("${app.alertas.resumo.agrupar-por-cliente:false}") boolean agruparPorCliente) {
+        this.notificacaoService = notificacaoService;
+        this.alertaRepository = alertaRepository;
+        this.obrigacaoRepository = obrigacaoRepository;
+        this.leaseService = leaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Cada registro é confirmado antes da entrega; a violação da chave única indica que outra instância entregou
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maximoItens = Math.max(1, maximoItens);
+        this.agruparPorCliente = agruparPorCliente;
+    }
+
+    /**
+     * Acumula um alerta disparado para o próximo resumo do seu responsável
+     * Um alerta ainda pendente da mesma obrigação é substituído pelo mais recente, de limiar menor.
+     */
+    public void adicionar(Long obrigacaoId, String nome, Long responsavelId, Long clienteId,
+                          LocalDate dataVencimento, int limiarDias) {
+        Destino destino = new Destino(responsavelId, agruparPorCliente ? clienteId : null);
+        AlertaPendente alerta = new AlertaPendente(obrigacaoId, nome, clienteId, dataVencimento, limiarDias);
+        pendentes.compute(destino, (chave, lista) -> {
+            List<AlertaPendente> atual = lista != null ? lista : new ArrayList<>();
+            atual.removeIf(anterior -> anterior.obrigacaoId.equals(obrigacaoId));
+            atual.add(alerta);
+            return atual;
+        });
+    }
+
+    /**
+     * Envia um resumo por destinatário conectado a esta instância com os alertas acumulados
+     */
+    @Scheduled(fixedDelayString = "${app.alertas.resumo.janela:PT5M}")
+    public void enviarResumos() {
+        LocalDate hoje = LocalDate.now();
+        for (Destino destino : new ArrayList<>(pendentes.keySet())) {
+            List<AlertaPendente> alertas = pendentes.remove(destino);
+            if (alertas == null) {
+                continue;
+            }
+            alertas.removeIf(alerta -> alerta.dataVencimento.isBefore(hoje));
+            if (alertas.isEmpty()) {
+                continue;
+            }
+            if (!temDestinatario(destino)) {
+                // Sem sessão aberta nesta instância: aguarda o destinatário conectar aqui ou em outra instância
+                devolver(destino, alertas);
+                continue;
+            }
+
+            List<AlertaPendente> registrados = registrar(alertas);
+            if (registrados.isEmpty()) {
+                continue;
+            }
+            try {
+                notificacaoService.notificarResumoAlertas(destino.responsavelId, montarResumo(destino, registrados, hoje));
+            } catch (Exception e) {
+                log.warn("Erro ao enviar resumo de alertas do responsável {}: {}", destino.responsavelId, e.getMessage());
+            }
+        }
+    }
+
+    private boolean temDestinatario(Destino destino) {
+        return destino.responsavelId != null
+                ? notificacaoService.isResponsavelConectado(destino.responsavelId)
+                : notificacaoService.temUsuariosConectados();
+    }
+
+    private void devolver(Destino destino, List<AlertaPendente> alertas) {
+        pendentes.compute(destino, (chave, lista) -> {
+            if (lista == null) {
+                return alertas;
+            }
+            // Alertas que chegaram durante a janela são mais recentes que os devolvidos
+            for (AlertaPendente alerta : alertas) {
+                if (lista.stream().noneMatch(novo -> novo.obrigacaoId.equals(alerta.obrigacaoId))) {
+                    lista.add(alerta);
+                }
+            }
+            return lista;
+        });
+    }
+
+    /**
+     * Registra o envio de cada alerta que ainda vale; ficam de fora os já entregues por outra instância
+     * e os de obrigações concluídas ou com vencimento alterado enquanto aguardavam
+     */
+    private List<AlertaPendente> registrar(List<AlertaPendente> alertas) {
+        List<AlertaPendente> registrados = new ArrayList<>();
+        for (AlertaPendente alerta : alertas) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> registrarEnvio(alerta)))) {
+                    registrados.add(alerta);
+                }
+            } catch (DataIntegrityViolationException e) {
+                // Outra instância registrou o mesmo alerta primeiro
+            } catch (Exception e) {
+                log.error("Erro ao registrar alerta da obrigação ID {}", alerta.obrigacaoId, e);
+            }
+        }
+        return registrados;
+    }
+
+    private boolean registrarEnvio(AlertaPendente alerta) {
+        Obrigacao atual = obrigacaoRepository.findById(alerta.obrigacaoId).orElse(null);
+        if (atual == null || !Boolean.TRUE.equals(atual.getAtivo()) || Boolean.TRUE.equals(atual.getConcluida())
+                || !alerta.dataVencimento.equals(atual.getDataVencimento())) {
+            return false;
+        }
+        if (alertaRepository.existsByObrigacaoIdAndLimiarDiasAndDataVencimento(atual.getId(), alerta.limiarDias,
+                alerta.dataVencimento)) {
+            return false;
+        }
+        alertaRepository.saveAndFlush(new AlertaEnviado(atual, alerta.limiarDias, alerta.dataVencimento,
+                leaseService.getInstancia()));
+        return true;
+    }
+
+    private Map<String, Object> montarResumo(Destino destino, List<AlertaPendente> alertas, LocalDate hoje) {
+        alertas.sort(Comparator.comparing((AlertaPendente a) -> a.dataVencimento)
+                .thenComparing(a -> a.obrigacaoId));
+
+        Map<Integer, Integer> porDias = new TreeMap<>();
+        List<Map<String, Object>> obrigacoes = new ArrayList<>();
+        int vencemHoje = 0;
+        for (AlertaPendente alerta : alertas) {
+            // Contado na entrega: o alerta pode ter aguardado o destinatário por alguns dias
+            int diasParaVencimento = (int) ChronoUnit.DAYS.between(hoje, alerta.dataVencimento);
+            porDias.merge(diasParaVencimento, 1, Integer::sum);
+            if (diasParaVencimento <= 0) {
+                vencemHoje++;
+            }
+            if (obrigacoes.size() < maximoItens) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("obrigacaoId", alerta.obrigacaoId);
+                item.put("nome", alerta.nome);
+                item.put("clienteId", alerta.clienteId);
+                item.put("dataVencimento", alerta.dataVencimento);
+                item.put("diasParaVencimento", diasParaVencimento);
+                obrigacoes.add(item);
+            }
+        }
+
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("responsavelId", destino.responsavelId);
+        if (agruparPorCliente) {
+            resumo.put("clienteId", destino.clienteId);
+        }
+        resumo.put("total", alertas.size());
+        resumo.put("vencemHoje", vencemHoje);
+        resumo.put("porDiasParaVencimento", porDias);
+        resumo.put("obrigacoes", obrigacoes);
+        return resumo;
+    }
+
+    private static final class Destino {
+        private final Long responsavelId;
+        private final Long clienteId;
+
+        private Destino(Long responsavelId, Long clienteId) {
+            this.responsavelId = responsavelId;
+            this.clienteId = clienteId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Destino)) {
+                return false;
+            }
+            Destino outro = (Destino) o;
+            return Objects.equals(responsavelId, outro.responsavelId) && Objects.equals(clienteId, outro.clienteId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(responsavelId, clienteId);
+        }
+    }
+
+    private static final class AlertaPendente {
+        private final Long obrigacaoId;
+        private final String nome;
+        private final Long clienteId;
+        private final LocalDate dataVencimento;
+        private final int limiarDias;
+
+        private AlertaPendente(Long obrigacaoId, String nome, Long clienteId, LocalDate dataVencimento, int limiarDias) {
+            this.obrigacaoId = obrigacaoId;
+            this.nome = nome;
+            this.clienteId = clienteId;
+            this.dataVencimento = dataVencimento;
+            this.limiarDias = limiarDias;
+        }
+    }
+}
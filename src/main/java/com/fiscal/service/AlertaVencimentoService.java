@@ -0,0 +1,419 @@
+package com.fiscal.service;
+
+import com.fiscal.model.Obrigacao;
+import com.fiscal.repository.AlertaEnviadoRepository;
+import com.fiscal.repository.ImpostoRepository;
+import com.fiscal.repository.ObrigacaoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serviço de alertas de vencimento no horário exato
+ * Os instantes de alerta de cada obrigação (vencimento menos cada limiar de antecedência, no horário
+ * configurado) ficam em uma fila de prioridade por tempo; uma thread dispara cada um quando vence.
+ * A fila cobre apenas a janela do horizonte, carregada aos poucos pelo índice de vencimento, e é mantida
+ * pelos serviços que criam, alteram e concluem obrigações. Alterações que não passam por esta instância
+ * (inserções em lote, outras instâncias) são relidas periodicamente pela data de atualização, com uma
+ * sobreposição que cobre commits atrasados, e a janela inteira é revarrida de tempos em tempos. A entrega aos responsáveis é agrupada pelo
+ * AlertaDigestService, que registra em alertas_enviados o único envio por obrigação, limiar e vencimento.
+ * Padrão: Scheduler Pattern + Priority Queue
+ */
+@Service
+public class AlertaVencimentoService {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertaVencimentoService.class);
+
+    private final ObrigacaoRepository obrigacaoRepository;
+    private final ImpostoRepository impostoRepository;
+    private final AlertaEnviadoRepository alertaRepository;
+    private final AlertaDigestService digestService;
+    private final TransactionTemplate transactionTemplate;
+    private final int[] limiaresPadrao;
+    private final LocalTime horario;
+    private final int horizonteDias;
+    private final Duration sobreposicao;
+    private final Duration intervaloRevarredura;
+
+    private final DelayQueue<AlertaAgendado> fila = new DelayQueue<>();
+    private final Map<Long, List<AlertaAgendado>> agendados = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> prazosImpostos = new ConcurrentHashMap<>();
+
+    /** Último vencimento coberto pela fila; null enquanto a carga inicial não terminou */
+    private volatile LocalDate carregadoAte;
+    /** Início da última leitura das obrigações alteradas; a próxima relê a partir dele menos a sobreposição */
+    private volatile LocalDateTime lidoAte;
+    private volatile LocalDateTime proximaRevarredura;
+    private volatile Thread despachante;
+
+    public AlertaVencimentoService(ObrigacaoRepository obrigacaoRepository,
+                                   ImpostoRepository impostoRepository,
+                                   AlertaEnviadoRepository alertaRepository,
+                                   AlertaDigestService digestService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.alertas.limiares-dias:3,0}") int[] limiaresPadrao,
+                                   @Value("${app.alertas.horario:08:00}") String horario,
+                                   @Value("${app.alertas.horizonte-dias:7}") int horizonteDias,
+                                   @Value("${app.alertas.sobreposicao:PT10M}") Duration sobreposicao,
+                                   @Value("${app.alertas.intervalo-revarredura:PT6H}") Duration intervaloRevarredura) {
+        this.obrigacaoRepository = obrigacaoRepository;
+        this.impostoRepository = impostoRepository;
+        this.alertaRepository = alertaRepository;
+        this.digestService = digestService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A conferência lê o estado confirmado da obrigação, fora da transação de quem chama
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.limiaresPadrao = Arrays.stream(limiaresPadrao).filter(l -> l >= 0).distinct().toArray();
+        this.horario = LocalTime.parse(horario);
+        this.horizonteDias = Math.max(1, horizonteDias);
+        this.sobreposicao = sobreposicao;
+        this.intervaloRevarredura = intervaloRevarredura;
+    }
+
+    /**
+     * Carrega a janela inicial e inicia a thread que dispara os alertas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        carregarPrazosImpostos();
+        LocalDateTime agora = LocalDateTime.now();
+        lidoAte = agora;
+        proximaRevarredura = agora.plus(intervaloRevarredura);
+        LocalDate hoje = LocalDate.now();
+        LocalDate limite = limiteJanela(hoje);
+        carregadoAte = limite;
+        int agendadas = carregar(hoje, limite);
+
+        Thread thread = new Thread(this::despachar, "alertas-vencimento");
+        thread.setDaemon(true);
+        despachante = thread;
+        thread.start();
+        log.info("Alertas de vencimento: {} obrigações agendadas até {}", agendadas, limite);
+    }
+
+    /**
+     * Estende a janela conforme os dias passam e reagenda as obrigações gravadas fora desta instância
+     * Cada leitura volta a sobreposição antes da anterior: uma linha gravada com data_atualizacao anterior ao
+     * commit (transação longa, relógio de outra instância) ainda é vista. A revarredura periódica da janela
+     * inteira cobre o que escapar disso.
+     */
+    @Scheduled(fixedDelayString = "${app.alertas.intervalo-carga:PT15M}")
+    public void atualizarJanela() {
+        LocalDate anterior = carregadoAte;
+        if (anterior == null) {
+            return;
+        }
+        try {
+            carregarPrazosImpostos();
+            LocalDateTime agora = LocalDateTime.now();
+            LocalDate hoje = agora.toLocalDate();
+            LocalDate limite = limiteJanela(hoje);
+            if (limite.isAfter(anterior)) {
+                carregadoAte = limite;
+                carregar(anterior.plusDays(1), limite);
+            }
+
+            if (!agora.isBefore(proximaRevarredura)) {
+                proximaRevarredura = agora.plus(intervaloRevarredura);
+                obrigacaoRepository.findProximasVencimento(hoje, carregadoAte).stream()
+                        .filter(this::foraDaFila)
+                        .forEach(this::agendar);
+            }
+
+            obrigacaoRepository.findAlteradasParaAlertas(lidoAte.minus(sobreposicao), hoje, carregadoAte)
+                    .stream()
+                    .filter(this::foraDaFila)
+                    .forEach(this::agendar);
+            lidoAte = agora;
+        } catch (Exception e) {
+            log.error("Erro ao atualizar janela de alertas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * (Re)agenda os alertas da obrigação a partir do estado informado; chamado após criar, alterar ou concluir
+     * Obrigações concluídas, inativas ou com vencimento além da janela apenas têm seus alertas cancelados.
+     * Dentro de uma transação, a fila só muda após o commit, para que o despacho enxergue a alteração.
+     */
+    public void agendar(Obrigacao obrigacao) {
+        aposCommit(() -> agendarAgora(obrigacao));
+    }
+
+    public void cancelar(Long obrigacaoId) {
+        aposCommit(() -> cancelarAgora(obrigacaoId));
+    }
+
+    private void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    private void agendarAgora(Obrigacao obrigacao) {
+        Long id = obrigacao.getId();
+        if (id == null) {
+            return;
+        }
+        LocalDate limite = carregadoAte;
+        LocalDate vencimento = obrigacao.getDataVencimento();
+        if (limite == null || vencimento == null || !Boolean.TRUE.equals(obrigacao.getAtivo())
+                || Boolean.TRUE.equals(obrigacao.getConcluida()) || vencimento.isAfter(limite)) {
+            cancelarAgora(id);
+            return;
+        }
+
+        Integer prazoImposto = obrigacao.getImposto() != null ? prazosImpostos.get(obrigacao.getImposto().getId()) : null;
+        List<AlertaAgendado> novos = new ArrayList<>();
+        for (int limiar : limiares(prazoImposto)) {
+            novos.add(new AlertaAgendado(id, limiar, vencimento, vencimento.minusDays(limiar).atTime(horario)));
+        }
+
+        List<AlertaAgendado> anteriores = agendados.put(id, novos);
+        if (anteriores != null) {
+            anteriores.forEach(AlertaAgendado::cancelar);
+        }
+        fila.addAll(novos);
+    }
+
+    private void cancelarAgora(Long obrigacaoId) {
+        List<AlertaAgendado> anteriores = agendados.remove(obrigacaoId);
+        if (anteriores != null) {
+            anteriores.forEach(AlertaAgendado::cancelar);
+        }
+    }
+
+    /**
+     * Quantidade de alertas aguardando na fila, incluindo os já cancelados ainda não descartados
+     */
+    public int getTamanhoFila() {
+        return fila.size();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        Thread thread = despachante;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void despachar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            AlertaAgendado alerta;
+            try {
+                alerta = fila.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                processar(alerta);
+            } catch (Exception e) {
+                log.error("Erro ao processar alerta da obrigação ID {}: {}", alerta.obrigacaoId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Encaminha o alerta ao resumo se ele ainda vale: não cancelado, não superado por um limiar menor já vencido,
+     * obrigação pendente com o mesmo vencimento e sem envio anterior registrado
+     */
+    private void processar(AlertaAgendado alerta) {
+        if (alerta.cancelado) {
+            return;
+        }
+        descartar(alerta);
+
+        LocalDate hoje = LocalDate.now();
+        if (hoje.isAfter(alerta.dataVencimento) || superado(alerta, hoje)) {
+            return;
+        }
+
+        Obrigacao atual = conferir(alerta);
+        if (atual != null) {
+            digestService.adicionar(atual.getId(), atual.getNome(),
+                    atual.getResponsavel() != null ? atual.getResponsavel().getId() : null,
+                    atual.getCliente() != null ? atual.getCliente().getId() : null,
+                    alerta.dataVencimento, alerta.limiarDias);
+        }
+    }
+
+    /**
+     * Confere a obrigação no banco; retorna null se o alerta não deve ser enviado
+     * O envio só é registrado na entrega, pela instância que tem uma sessão do destinatário.
+     */
+    private Obrigacao conferir(AlertaAgendado alerta) {
+        return transactionTemplate.execute(status -> {
+            Obrigacao atual = obrigacaoRepository.findById(alerta.obrigacaoId).orElse(null);
+            if (atual == null || !Boolean.TRUE.equals(atual.getAtivo()) || Boolean.TRUE.equals(atual.getConcluida())) {
+                return null;
+            }
+            if (!atual.getDataVencimento().equals(alerta.dataVencimento)) {
+                // Alteração que não passou pelos serviços: reagenda a partir do vencimento atual
+                agendar(atual);
+                return null;
+            }
+            if (alertaRepository.existsByObrigacaoIdAndLimiarDiasAndDataVencimento(atual.getId(), alerta.limiarDias,
+                    alerta.dataVencimento)) {
+                return null;
+            }
+            return atual;
+        });
+    }
+
+    /**
+     * Um alerta atrasado (aplicação parada, obrigação criada em cima do prazo) cede lugar ao limiar
+     * menor que já cobre os dias restantes, evitando vários alertas seguidos da mesma obrigação
+     */
+    private boolean superado(AlertaAgendado alerta, LocalDate hoje) {
+        List<AlertaAgendado> pendentes = agendados.get(alerta.obrigacaoId);
+        if (pendentes == null) {
+            return false;
+        }
+        long diasRestantes = ChronoUnit.DAYS.between(hoje, alerta.dataVencimento);
+        for (AlertaAgendado outro : pendentes) {
+            if (outro != alerta && !outro.cancelado && outro.limiarDias < alerta.limiarDias && outro.limiarDias >= diasRestantes) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove o alerta da lista da obrigação, liberando a entrada quando não resta nenhum
+     */
+    private void descartar(AlertaAgendado alerta) {
+        agendados.computeIfPresent(alerta.obrigacaoId, (id, lista) -> {
+            if (!lista.contains(alerta)) {
+                return lista;
+            }
+            List<AlertaAgendado> restantes = new ArrayList<>(lista);
+            restantes.remove(alerta);
+            return restantes.isEmpty() ? null : restantes;
+        });
+    }
+
+    private int carregar(LocalDate inicio, LocalDate fim) {
+        List<Obrigacao> obrigacoes = obrigacaoRepository.findProximasVencimento(inicio, fim);
+        obrigacoes.forEach(this::agendar);
+        return obrigacoes.size();
+    }
+
+    /**
+     * Indica se a fila não reflete o estado lido: obrigação pendente sem alertas agendados, agendada com outro
+     * vencimento, ou concluída/inativa ainda com alertas; as já agendadas no mesmo vencimento não são refeitas
+     */
+    private boolean foraDaFila(Obrigacao obrigacao) {
+        List<AlertaAgendado> atuais = agendados.get(obrigacao.getId());
+        boolean pendente = Boolean.TRUE.equals(obrigacao.getAtivo()) && !Boolean.TRUE.equals(obrigacao.getConcluida());
+        if (atuais == null || atuais.isEmpty()) {
+            return pendente;
+        }
+        return !pendente || !atuais.get(0).dataVencimento.equals(obrigacao.getDataVencimento());
+    }
+
+    private void carregarPrazosImpostos() {
+        for (Object[] linha : impostoRepository.findPrazosAntecedencia()) {
+            if (linha[1] != null) {
+                prazosImpostos.put((Long) linha[0], (Integer) linha[1]);
+            } else {
+                prazosImpostos.remove((Long) linha[0]);
+            }
+        }
+    }
+
+    /**
+     * Maior vencimento cujo primeiro alerta cai dentro do horizonte
+     */
+    private LocalDate limiteJanela(LocalDate hoje) {
+        int maiorLimiar = limiares(null).first();
+        for (Integer prazo : prazosImpostos.values()) {
+            maiorLimiar = Math.max(maiorLimiar, prazo);
+        }
+        return hoje.plusDays(horizonteDias + maiorLimiar);
+    }
+
+    /**
+     * Limiares padrão somados ao prazo de antecedência do imposto, do maior para o menor
+     */
+    private TreeSet<Integer> limiares(Integer prazoImposto) {
+        TreeSet<Integer> limiares = new TreeSet<>((a, b) -> Integer.compare(b, a));
+        for (int limiar : limiaresPadrao) {
+            limiares.add(limiar);
+        }
+        if (prazoImposto != null && prazoImposto >= 0) {
+            limiares.add(prazoImposto);
+        }
+        if (limiares.isEmpty()) {
+            limiares.add(0);
+        }
+        return limiares;
+    }
+
+    /**
+     * Instante de alerta de uma obrigação em um limiar de antecedência
+     */
+    private static final class AlertaAgendado implements Delayed {
+        private final Long obrigacaoId;
+        private final int limiarDias;
+        private final LocalDate dataVencimento;
+        private final LocalDateTime instante;
+        private volatile boolean cancelado;
+
+        private AlertaAgendado(Long obrigacaoId, int limiarDias, LocalDate dataVencimento, LocalDateTime instante) {
+            this.obrigacaoId = obrigacaoId;
+            this.limiarDias = limiarDias;
+            this.dataVencimento = dataVencimento;
+            this.instante = instante;
+        }
+
+        private void cancelar() {
+            cancelado = true;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(), instante));
+        }
+
+        @Override
+        public int compareTo(Delayed outro) {
+            if (outro instanceof AlertaAgendado) {
+                return instante.compareTo(((AlertaAgendado) outro).instante);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), outro.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.fiscal.service;
+
+import com.fiscal.model.Feriado;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fonte de feriados baseada em arquivo CSV local ou empacotado na aplicação
+ * Formato: abrangencia;uf;municipio;data;descricao, onde data aceita
+ * MM-dd (feriado anual), yyyy-MM-dd (data única) ou PASCOA±N (feriado móvel, N entre -80 e 250).
+ * Padrão: Strategy Pattern + Copy-on-Write Snapshot
+ */
+@Component
+public class ArquivoFeriadoProvider implements FeriadoProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivoFeriadoProvider.class);
+
+    /** A Páscoa cai entre 22/03 e 25/04; deslocamentos fora desta faixa levariam o feriado a outro ano */
+    private static final int DESLOCAMENTO_PASCOA_MINIMO = -80;
+    private static final int DESLOCAMENTO_PASCOA_MAXIMO = 250;
+
+    private final ResourceLoader resourceLoader;
+    private final String arquivo;
+
+    private volatile Fonte fonte;
+
+    public ArquivoFeriadoProvider(ResourceLoader resourceLoader,
+                                  @Value("${app.feriados.arquivo:classpath:feriados/feriados.csv}") String arquivo) {
+        this.resourceLoader = resourceLoader;
+        this.arquivo = arquivo;
+        this.fonte = new Fonte(lerArquivo());
+    }
+
+    @Override
+    public FeriadosAno feriados(int ano) {
+        Fonte atual = fonte;
+        FeriadosAno snapshot = atual.snapshots.get(ano);
+        return snapshot != null ? snapshot : atual.snapshots.computeIfAbsent(ano, a -> expandir(a, atual.regras));
+    }
+
+    /**
+     * As regras novas valem para todos os anos: os snapshots já expandidos são descartados junto com as regras
+     * antigas, e uma expansão ainda em curso sobre elas fica no mapa que saiu de uso.
+     */
+    @Override
+    public FeriadosAno recarregar(int ano) {
+        Fonte nova = new Fonte(lerArquivo());
+        FeriadosAno snapshot = expandir(ano, nova.regras);
+        nova.snapshots.put(ano, snapshot);
+        fonte = nova;
+        log.info("Feriados de {} recarregados de {}: {} datas", ano, arquivo, snapshot.getFeriados().size());
+        return snapshot;
+    }
+
+    @Override
+    public Set<Integer> anosCarregados() {
+        return Set.copyOf(fonte.snapshots.keySet());
+    }
+
+    /**
+     * Expande as regras do arquivo nas datas concretas de um ano
+     */
+    private static FeriadosAno expandir(int ano, List<RegraFeriado> regras) {
+        LocalDate pascoa = calcularPascoa(ano);
+        List<Feriado> feriados = new ArrayList<>();
+
+        for (RegraFeriado regra : regras) {
+            LocalDate data = regra.resolver(ano, pascoa);
+            if (data != null) {
+                feriados.add(new Feriado(data, regra.descricao, regra.abrangencia, regra.uf, regra.codigoMunicipio));
+            }
+        }
+
+        return new FeriadosAno(ano, feriados);
+    }
+
+    /**
+     * Lê e valida todas as regras do arquivo de feriados
+     */
+    private List<RegraFeriado> lerArquivo() {
+        Resource recurso = resourceLoader.getResource(arquivo);
+        List<RegraFeriado> lidas = new ArrayList<>();
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(recurso.getInputStream(), StandardCharsets.UTF_8))) {
+            String linha;
+            int numero = 0;
+            while ((linha = leitor.readLine()) != null) {
+                numero++;
+                linha = linha.trim();
+                if (linha.isEmpty() || linha.startsWith("#") || linha.startsWith("abrangencia")) {
+                    continue;
+                }
+                lidas.add(RegraFeriado.parse(linha, numero));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível ler o arquivo de feriados " + arquivo, e);
+        }
+
+        return List.copyOf(lidas);
+    }
+
+    /**
+     * Calcula a data da Páscoa para um determinado ano
+     * Algoritmo de Gauss
+     */
+    static LocalDate calcularPascoa(int ano) {
+        int a = ano % 19;
+        int b = ano / 100;
+        int c = ano % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int n = (h + l - 7 * m + 114) / 31;
+        int p = (h + l - 7 * m + 114) % 31;
+
+        return LocalDate.of(ano, n, p + 1);
+    }
+
+    /**
+     * Regras lidas de uma versão do arquivo e os anos já expandidos a partir delas
+     */
+    private static final class Fonte {
+        private final List<RegraFeriado> regras;
+        private final Map<Integer, FeriadosAno> snapshots = new ConcurrentHashMap<>();
+
+        private Fonte(List<RegraFeriado> regras) {
+            this.regras = regras;
+        }
+    }
+
+    /**
+     * Regra de feriado lida de uma linha do arquivo
+     */
+    private static final class RegraFeriado {
+        private final Feriado.Abrangencia abrangencia;
+        private final String uf;
+        private final String codigoMunicipio;
+        private final String descricao;
+        private final int mes;
+        private final int dia;
+        private final int anoUnico;
+        private final Integer deslocamentoPascoa;
+
+        private RegraFeriado(Feriado.Abrangencia abrangencia, String uf, String codigoMunicipio, String descricao,
+                             int mes, int dia, int anoUnico, Integer deslocamentoPascoa) {
+            this.abrangencia = abrangencia;
+            this.uf = uf;
+            this.codigoMunicipio = codigoMunicipio;
+            this.descricao = descricao;
+            this.mes = mes;
+            this.dia = dia;
+            this.anoUnico = anoUnico;
+            this.deslocamentoPascoa = deslocamentoPascoa;
+        }
+
+        static RegraFeriado parse(String linha, int numero) {
+            String[] colunas = linha.split(";", -1);
+            if (colunas.length < 5) {
+                throw new IllegalArgumentException("Linha " + numero + " do arquivo de feriados inválida: " + linha);
+            }
+
+            Feriado.Abrangencia abrangencia = Feriado.Abrangencia.valueOf(colunas[0].trim().toUpperCase());
+            String uf = colunas[1].isBlank() ? null : colunas[1].trim().toUpperCase();
+            String municipio = colunas[2].isBlank() ? null : colunas[2].trim();
+            String data = colunas[3].trim().toUpperCase();
+            String descricao = colunas[4].trim();
+
+            if ((abrangencia == Feriado.Abrangencia.ESTADUAL && uf == null)
+                    || (abrangencia == Feriado.Abrangencia.MUNICIPAL && municipio == null)) {
+                throw new IllegalArgumentException("Linha " + numero + " sem UF/município para feriado " + abrangencia);
+            }
+
+            if (data.startsWith("PASCOA")) {
+                String deslocamento = data.substring("PASCOA".length());
+                int dias = deslocamento.isEmpty() ? 0 : Integer.parseInt(deslocamento.replace("+", ""));
+                if (dias < DESLOCAMENTO_PASCOA_MINIMO || dias > DESLOCAMENTO_PASCOA_MAXIMO) {
+                    throw new IllegalArgumentException("Linha " + numero + " com feriado móvel fora do ano da Páscoa: " + data);
+                }
+                return new RegraFeriado(abrangencia, uf, municipio, descricao, 0, 0, 0, dias);
+            }
+
+            String[] partes = data.split("-");
+            if (partes.length == 2) {
+                return new RegraFeriado(abrangencia, uf, municipio, descricao,
+                        Integer.parseInt(partes[0]), Integer.parseInt(partes[1]), 0, null);
+            }
+            if (partes.length == 3) {
+                return new RegraFeriado(abrangencia, uf, municipio, descricao,
+                        Integer.parseInt(partes[1]), Integer.parseInt(partes[2]), Integer.parseInt(partes[0]), null);
+            }
+
+            throw new IllegalArgumentException("Linha " + numero + " com data de feriado inválida: " + data);
+        }
+
+        /**
+         * Data concreta da regra no ano ou null se a regra não se aplica
+         */
+        LocalDate resolver(int ano, LocalDate pascoa) {
+            if (deslocamentoPascoa != null) {
+                return pascoa.plusDays(deslocamentoPascoa);
+            }
+            if (anoUnico != 0 && anoUnico != ano) {
+                return null;
+            }
+            return LocalDate.of(ano, mes, dia);
+        }
+    }
+}
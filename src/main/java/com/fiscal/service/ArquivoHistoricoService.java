@@ -0,0 +1,311 @@
+package com.fiscal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiscal.model.dto.HistoricoArquivado;
+import com.fiscal.repository.HistoricoAlteracaoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serviço de retenção do histórico de alterações
+ * Registros anteriores ao corte são percorridos por chave (id) em lotes; cada lote é gravado como um
+ * membro gzip de NDJSON no fim do arquivo do mês, com uma linha de índice por obrigação
+ * (obrigacaoId;posição;tamanho), e só então removido do banco em uma transação curta.
+ * O índice do mês é dividido em baldes pelo id da obrigação (historico-AAAA-MM.bNN.idx), e a leitura
+ * percorre só o balde da obrigação em cada mês.
+ * Um lote gravado mas não removido (queda no meio) é arquivado de novo na próxima execução;
+ * a leitura descarta as cópias repetidas pelo id.
+ * Padrão: Service Layer Pattern + Archive Pattern
+ */
+@Service
+public class ArquivoHistoricoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivoHistoricoService.class);
+
+    private static final String PREFIXO = "historico-";
+    private static final String EXTENSAO_DADOS = ".ndjson.gz";
+    private static final String EXTENSAO_INDICE = ".idx";
+    /** Quantidade fixa de baldes: mudar o valor deixa os índices já gravados fora do balde esperado */
+    private static final int BALDES_INDICE = 64;
+    /** Índice de mês único, gravado antes da divisão em baldes */
+    private static final String INDICE_SEM_BALDE = PREFIXO + "[0-9][0-9][0-9][0-9]-[0-9][0-9]" + EXTENSAO_INDICE;
+
+    private final HistoricoAlteracaoRepository historicoRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Path diretorio;
+    private final int anosRetencao;
+    private final int tamanhoLote;
+    private final Duration pausa;
+
+    public ArquivoHistoricoService(HistoricoAlteracaoRepository historicoRepository,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.historico.arquivo.diretorio:arquivo-historico}") String diretorio,
+                                   @Value("${app.historico.retencao.anos:2}") int anosRetencao,
+                                   @Value("${app.historico.retencao.tamanho-lote:1000}") int tamanhoLote,
+                                   @Value("${app.historico.retencao.pausa:PT0.1S}") Duration pausa) {
+        this.historicoRepository = historicoRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.diretorio = Paths.get(diretorio);
+        this.anosRetencao = anosRetencao;
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.pausa = pausa;
+    }
+
+    /**
+     * Arquiva as alterações mais antigas que o período de retenção
+     */
+    public int aplicarRetencao() {
+        return arquivarAnteriores(LocalDate.now().minusYears(anosRetencao).atStartOfDay());
+    }
+
+    /**
+     * Arquiva e remove, em lotes, as alterações anteriores ao limite; retorna quantas foram arquivadas
+     * Interrompido (timeout do job), para após o lote corrente, sem deixar lote pela metade no banco.
+     */
+    public synchronized int arquivarAnteriores(LocalDateTime limite) {
+        Long maxId = historicoRepository.findMaxIdAnteriorA(limite);
+        if (maxId == null) {
+            return 0;
+        }
+
+        YearMonth mes = YearMonth.now();
+        Path dados = diretorio.resolve(PREFIXO + mes + EXTENSAO_DADOS);
+        criarDiretorio();
+
+        long ultimoId = 0L;
+        int arquivados = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Object[]> lote = historicoRepository.findLoteParaArquivo(ultimoId, maxId, limite,
+                    PageRequest.of(0, tamanhoLote));
+            if (lote.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = new ArrayList<>(lote.size());
+            Set<Long> obrigacoes = new TreeSet<>();
+            List<HistoricoArquivado> registros = new ArrayList<>(lote.size());
+            for (Object[] linha : lote) {
+                HistoricoArquivado registro = new HistoricoArquivado(linha);
+                registros.add(registro);
+                ids.add(registro.getId());
+                obrigacoes.add(registro.getObrigacaoId());
+            }
+
+            // Primeiro o arquivo em disco, depois a remoção: uma queda entre os dois só repete o lote
+            byte[] membro = compactar(registros);
+            long posicao = anexar(dados, membro);
+            Map<Integer, StringBuilder> linhasPorBalde = new TreeMap<>();
+            for (Long obrigacaoId : obrigacoes) {
+                linhasPorBalde.computeIfAbsent(balde(obrigacaoId), b -> new StringBuilder())
+                        .append(obrigacaoId).append(';').append(posicao).append(';').append(membro.length).append('\n');
+            }
+            for (Map.Entry<Integer, StringBuilder> linhas : linhasPorBalde.entrySet()) {
+                Path indice = diretorio.resolve(PREFIXO + mes + sufixoBalde(linhas.getKey()) + EXTENSAO_INDICE);
+                anexar(indice, linhas.getValue().toString().getBytes(StandardCharsets.UTF_8));
+            }
+
+            transactionTemplate.executeWithoutResult(status -> historicoRepository.deleteByIdIn(ids));
+            arquivados += ids.size();
+            ultimoId = ids.get(ids.size() - 1);
+
+            if (lote.size() < tamanhoLote || !pausar()) {
+                break;
+            }
+        }
+
+        log.info("Retenção do histórico: {} alterações anteriores a {} arquivadas em {}", arquivados, limite, dados);
+        return arquivados;
+    }
+
+    /**
+     * Lê do arquivo as alterações de uma obrigação, da mais recente para a mais antiga
+     */
+    public List<HistoricoArquivado> buscarArquivado(Long obrigacaoId) {
+        Map<Long, HistoricoArquivado> encontrados = new LinkedHashMap<>();
+        if (!Files.isDirectory(diretorio)) {
+            return new ArrayList<>();
+        }
+
+        String baldeDaObrigacao = PREFIXO + "*" + sufixoBalde(balde(obrigacaoId)) + EXTENSAO_INDICE;
+        try {
+            for (String padrao : List.of(baldeDaObrigacao, INDICE_SEM_BALDE)) {
+                try (DirectoryStream<Path> indices = Files.newDirectoryStream(diretorio, padrao)) {
+                    for (Path indice : indices) {
+                        Path dados = dadosDoIndice(indice);
+                        for (long[] trecho : trechosDaObrigacao(indice, obrigacaoId)) {
+                            for (HistoricoArquivado registro : lerTrecho(dados, trecho[0], (int) trecho[1])) {
+                                if (obrigacaoId.equals(registro.getObrigacaoId())) {
+                                    encontrados.putIfAbsent(registro.getId(), registro);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler arquivo de histórico", e);
+        }
+
+        List<HistoricoArquivado> resultado = new ArrayList<>(encontrados.values());
+        resultado.sort(Comparator.comparing(HistoricoArquivado::getDataAlteracao,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return resultado;
+    }
+
+    /**
+     * Posições e tamanhos dos membros gzip que contêm alterações da obrigação
+     */
+    private List<long[]> trechosDaObrigacao(Path indice, Long obrigacaoId) throws IOException {
+        List<long[]> trechos = new ArrayList<>();
+        String prefixo = obrigacaoId + ";";
+        try (BufferedReader leitor = Files.newBufferedReader(indice, StandardCharsets.UTF_8)) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                if (!linha.startsWith(prefixo)) {
+                    continue;
+                }
+                String[] partes = linha.split(";");
+                if (partes.length == 3) {
+                    // Linha incompleta de uma gravação interrompida é ignorada
+                    trechos.add(new long[] {Long.parseLong(partes[1]), Long.parseLong(partes[2])});
+                }
+            }
+        }
+        return trechos;
+    }
+
+    private static int balde(Long obrigacaoId) {
+        return (int) Math.floorMod(obrigacaoId, (long) BALDES_INDICE);
+    }
+
+    private static String sufixoBalde(int balde) {
+        return String.format(".b%02d", balde);
+    }
+
+    /**
+     * Arquivo de dados do mês a que o índice (com ou sem balde) se refere
+     */
+    private Path dadosDoIndice(Path indice) {
+        String nome = indice.getFileName().toString();
+        String base = nome.substring(0, nome.length() - EXTENSAO_INDICE.length());
+        int ponto = base.lastIndexOf(".b");
+        if (ponto > 0) {
+            base = base.substring(0, ponto);
+        }
+        return diretorio.resolve(base + EXTENSAO_DADOS);
+    }
+
+    private List<HistoricoArquivado> lerTrecho(Path dados, long posicao, int tamanho) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        try (FileChannel canal = FileChannel.open(dados, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && canal.read(buffer, posicao + buffer.position()) > 0) {
+                // lê até completar o membro
+            }
+        }
+
+        List<HistoricoArquivado> registros = new ArrayList<>();
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(buffer.array(), 0, buffer.position())), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                if (!linha.isBlank()) {
+                    registros.add(objectMapper.readValue(linha, HistoricoArquivado.class));
+                }
+            }
+        }
+        return registros;
+    }
+
+    private byte[] compactar(List<HistoricoArquivado> registros) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer escritor = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (HistoricoArquivado registro : registros) {
+                escritor.write(objectMapper.writeValueAsString(registro));
+                escritor.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao compactar lote de histórico", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Grava os bytes no fim do arquivo e força a escrita em disco; retorna a posição inicial
+     */
+    private long anexar(Path arquivo, byte[] conteudo) {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long posicao = canal.size();
+            ByteBuffer buffer = ByteBuffer.wrap(conteudo);
+            while (buffer.hasRemaining()) {
+                canal.write(buffer, posicao + buffer.position());
+            }
+            canal.force(true);
+            return posicao;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gravar arquivo de histórico " + arquivo, e);
+        }
+    }
+
+    private void criarDiretorio() {
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao criar diretório de arquivo do histórico " + diretorio, e);
+        }
+    }
+
+    /**
+     * Pausa entre lotes para espalhar a escrita no log de transações; false se interrompido
+     */
+    private boolean pausar() {
+        if (pausa.isZero() || pausa.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pausa.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
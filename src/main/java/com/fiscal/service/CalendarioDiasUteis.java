@@ -0,0 +1,143 @@
+package com.fiscal.service;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * Índice imutável de dias úteis de um ano
+ * Mantém um bitset de dias úteis, um bitset de feriados, a soma acumulada
+ * de dias úteis e a posição de cada dia útil, permitindo consultas e
+ * aritmética de dias úteis em tempo constante por epoch-day.
+ * Padrão: Immutable Object Pattern
+ */
+public final class CalendarioDiasUteis {
+
+    /**
+     * Valor retornado quando não há dia que satisfaça a consulta dentro do ano
+     */
+    public static final long NENHUM = Long.MIN_VALUE;
+
+    private final int ano;
+    private final long primeiroDia;
+    private final int totalDias;
+    private final BitSet diasUteis;
+    private final BitSet feriados;
+    private final int[] acumulado;
+    private final int[] posicoes;
+
+    /**
+     * Constrói o índice a partir dos deslocamentos (0 = 1º de janeiro) dos feriados do ano
+     */
+    public CalendarioDiasUteis(int ano, BitSet feriados) {
+        LocalDate inicio = LocalDate.of(ano, 1, 1);
+        this.ano = ano;
+        this.primeiroDia = inicio.toEpochDay();
+        this.totalDias = inicio.lengthOfYear();
+        this.feriados = (BitSet) feriados.clone();
+        this.diasUteis = new BitSet(totalDias);
+        this.acumulado = new int[totalDias + 1];
+
+        for (int i = 0; i < totalDias; i++) {
+            boolean util = !isFimDeSemana(primeiroDia + i) && !this.feriados.get(i);
+            if (util) {
+                diasUteis.set(i);
+            }
+            acumulado[i + 1] = acumulado[i] + (util ? 1 : 0);
+        }
+
+        this.posicoes = new int[acumulado[totalDias]];
+        for (int i = diasUteis.nextSetBit(0), k = 0; i >= 0; i = diasUteis.nextSetBit(i + 1), k++) {
+            posicoes[k] = i;
+        }
+    }
+
+    /**
+     * Verifica se um epoch-day cai em sábado ou domingo (1970-01-01 foi quinta-feira)
+     */
+    public static boolean isFimDeSemana(long epochDay) {
+        return Math.floorMod(epochDay + 3, 7) >= 5;
+    }
+
+    public int getAno() { return ano; }
+
+    public long getPrimeiroDia() { return primeiroDia; }
+
+    public long getUltimoDia() { return primeiroDia + totalDias - 1; }
+
+    public int getTotalDiasUteis() { return acumulado[totalDias]; }
+
+    /**
+     * Verifica se o epoch-day pertence a este ano
+     */
+    public boolean contem(long epochDay) {
+        return epochDay >= primeiroDia && epochDay < primeiroDia + totalDias;
+    }
+
+    public boolean isDiaUtil(long epochDay) {
+        return diasUteis.get(deslocamento(epochDay));
+    }
+
+    public boolean isFeriado(long epochDay) {
+        return feriados.get(deslocamento(epochDay));
+    }
+
+    /**
+     * Conta os dias úteis no intervalo fechado [inicio, fim], ambos dentro do ano
+     */
+    public int contarDiasUteis(long inicio, long fim) {
+        return acumulado[deslocamento(fim) + 1] - acumulado[deslocamento(inicio)];
+    }
+
+    /**
+     * Primeiro dia útil a partir do epoch-day (inclusive) ou NENHUM se o ano acabar antes
+     */
+    public long proximoDiaUtil(long epochDay) {
+        int indice = diasUteis.nextSetBit(deslocamento(epochDay));
+        return indice < 0 ? NENHUM : primeiroDia + indice;
+    }
+
+    /**
+     * Último dia útil até o epoch-day (inclusive) ou NENHUM se o ano começar depois
+     */
+    public long diaUtilAnterior(long epochDay) {
+        int indice = diasUteis.previousSetBit(deslocamento(epochDay));
+        return indice < 0 ? NENHUM : primeiroDia + indice;
+    }
+
+    /**
+     * Quantidade de dias úteis do ano estritamente anteriores ao epoch-day
+     */
+    public int diasUteisAntes(long epochDay) {
+        return acumulado[deslocamento(epochDay)];
+    }
+
+    /**
+     * Epoch-day do dia útil de ordem k no ano (0 = primeiro dia útil)
+     */
+    public long diaUtilPorOrdem(int k) {
+        return primeiroDia + posicoes[k];
+    }
+
+    /**
+     * Último dia que não é feriado até o epoch-day (inclusive) ou NENHUM
+     */
+    public long anteriorNaoFeriado(long epochDay) {
+        int indice = feriados.previousClearBit(deslocamento(epochDay));
+        return indice < 0 ? NENHUM : primeiroDia + indice;
+    }
+
+    /**
+     * Primeiro dia que não é feriado a partir do epoch-day (inclusive) ou NENHUM
+     */
+    public long proximoNaoFeriado(long epochDay) {
+        int indice = feriados.nextClearBit(deslocamento(epochDay));
+        return indice >= totalDias ? NENHUM : primeiroDia + indice;
+    }
+
+    private int deslocamento(long epochDay) {
+        if (!contem(epochDay)) {
+            throw new IllegalArgumentException("Data fora do calendário de " + ano + ": " + LocalDate.ofEpochDay(epochDay));
+        }
+        return (int) (epochDay - primeiroDia);
+    }
+}
@@ -0,0 +1,141 @@
+package com.fiscal.service;
+
+import com.fiscal.model.Obrigacao;
+import com.fiscal.model.dto.ObrigacaoResumo;
+import com.fiscal.repository.ObrigacaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serviço de consulta do calendário de obrigações
+ * Combina as ocorrências gravadas com as projetadas a partir das séries ativas, sem inserir linhas;
+ * uma ocorrência projetada só é gravada quando alguém precisa editá-la ou concluí-la.
+ * Padrão: Service Layer Pattern + Lazy Materialization
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class CalendarioObrigacoesService {
+    
+    /**
+     * Maior período aceito em uma consulta, em dias
+     */
+    static final long PERIODO_MAXIMO_DIAS = 3660;
+    
+    /**
+     * Folga sobre o fim do período na busca das fontes: a próxima geração gravada foi ajustada com os
+     * feriados vigentes na gravação, e uma recarga posterior pode tê-la deslocado em alguns dias
+     */
+    static final int MARGEM_PROXIMA_GERACAO_DIAS = 10;
+    
+    private final ObrigacaoRepository obrigacaoRepository;
+    private final RecorrenciaService recorrenciaService;
+    private final HistoricoService historicoService;
+    
+    /**
+     * Lista as ocorrências com vencimento entre inicio e fim, gravadas e projetadas, em ordem de vencimento
+     */
+    @Transactional(readOnly = true)
+    public List<ObrigacaoResumo> listarOcorrencias(LocalDate inicio, LocalDate fim, Long clienteId) {
+        if (fim.isBefore(inicio) || ChronoUnit.DAYS.between(inicio, fim) > PERIODO_MAXIMO_DIAS) {
+            throw new RuntimeException("Período do calendário inválido");
+        }
+        
+        List<ObrigacaoResumo> ocorrencias = new ArrayList<>(clienteId != null
+                ? obrigacaoRepository.findResumoCalendarioDoCliente(inicio, fim, clienteId)
+                : obrigacaoRepository.findResumoCalendario(inicio, fim));
+        Set<String> materializadas = new HashSet<>();
+        for (ObrigacaoResumo gravada : ocorrencias) {
+            if (gravada.getSerieId() != null && gravada.getDataVencimentoOriginal() != null) {
+                materializadas.add(chave(gravada.getSerieId(), gravada.getDataVencimentoOriginal()));
+            }
+        }
+        
+        int projetadas = 0;
+        for (Obrigacao fonte : fontesPorSerie(fim, clienteId)) {
+            Long serieId = fonte.getSerie() != null ? fonte.getSerie().getId() : null;
+            for (Obrigacao projetada : recorrenciaService.projetarOcorrencias(fonte, inicio, fim)) {
+                if (serieId == null || !materializadas.contains(chave(serieId, projetada.getDataVencimentoOriginal()))) {
+                    ObrigacaoResumo resumo = ObrigacaoResumo.de(projetada);
+                    resumo.setVirtual(true);
+                    resumo.setObrigacaoOrigemId(fonte.getId());
+                    ocorrencias.add(resumo);
+                    projetadas++;
+                }
+            }
+        }
+        
+        ocorrencias.sort(Comparator.comparing(ObrigacaoResumo::getDataVencimento)
+                .thenComparing(ObrigacaoResumo::getNome));
+        
+        log.debug("Calendário entre {} e {}: {} ocorrências, {} projetadas", inicio, fim, ocorrencias.size(), projetadas);
+        return ocorrencias;
+    }
+    
+    /**
+     * Grava a ocorrência projetada da obrigação de origem com a data nominal informada
+     */
+    public Obrigacao materializar(Long obrigacaoOrigemId, LocalDate dataReferencia, String usuarioEditor) {
+        Obrigacao fonte = obrigacaoRepository.findDetalhadaById(obrigacaoOrigemId)
+                .orElseThrow(() -> new RuntimeException("Obrigação não encontrada"));
+        
+        if (fonte.getSerie() != null) {
+            Obrigacao existente = obrigacaoRepository
+                    .findFirstBySerieIdAndDataVencimentoOriginal(fonte.getSerie().getId(), dataReferencia).orElse(null);
+            if (existente != null) {
+                return existente;
+            }
+        }
+        
+        Obrigacao ocorrencia = recorrenciaService.materializarOcorrencia(fonte, dataReferencia, usuarioEditor);
+        historicoService.registrarCriacao(ocorrencia, usuarioEditor);
+        return ocorrencia;
+    }
+    
+    /**
+     * Fontes de projeção: por série, apenas a ocorrência mais recente que ainda aguarda geração
+     */
+    private List<Obrigacao> fontesPorSerie(LocalDate fim, Long clienteId) {
+        LocalDate limite = fim.plusDays(MARGEM_PROXIMA_GERACAO_DIAS);
+        List<Obrigacao> fontes = clienteId != null
+                ? obrigacaoRepository.findFontesRecorrenciaDoCliente(limite, clienteId)
+                : obrigacaoRepository.findFontesRecorrencia(limite);
+        
+        Map<Long, Obrigacao> maisRecentes = new LinkedHashMap<>();
+        List<Obrigacao> semSerie = new ArrayList<>();
+        for (Obrigacao fonte : fontes) {
+            if (fonte.getSerie() == null) {
+                semSerie.add(fonte);
+                continue;
+            }
+            maisRecentes.merge(fonte.getSerie().getId(), fonte,
+                    (atual, nova) -> dataNominal(nova).isAfter(dataNominal(atual)) ? nova : atual);
+        }
+        
+        semSerie.addAll(maisRecentes.values());
+        return semSerie;
+    }
+    
+    private static LocalDate dataNominal(Obrigacao obrigacao) {
+        return obrigacao.getDataVencimentoOriginal() != null
+                ? obrigacao.getDataVencimentoOriginal()
+                : obrigacao.getDataVencimento();
+    }
+    
+    private static String chave(Long serieId, LocalDate dataNominal) {
+        return serieId + ":" + dataNominal;
+    }
+}
@@ -1,193 +1,464 @@
 package com.fiscal.service;
 
+import com.fiscal.model.Feriado;
+import com.fiscal.model.ModoAjuste;
+import com.fiscal.model.Obrigacao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Serviço para gerenciamento de datas e feriados
- * Padrão: Service Layer Pattern + External Service Pattern
+ * Padrão: Service Layer Pattern + Strategy Pattern (FeriadoProvider)
  */
 @Service
 public class DataService {
     
     private static final Logger log = LoggerFactory.getLogger(DataService.class);
     
-    private final WebClient webClient;
-    private final Set<LocalDate> feriadosCache = new java.util.HashSet<>();
+    /** Flags por item do ajuste em lote */
+    public static final int AJUSTAR_FINAIS_SEMANA = 1;
+    public static final int AJUSTAR_FERIADOS = 1 << 1;
+    public static final int ANTECIPAR = 1 << 2;
     
-    public DataService() {
-        this.webClient = WebClientnew 
-                .baseUrl("https://api.calendario.com.br")
-                ;
+    private final FeriadoProvider feriadoProvider;
+    private final Map<RegiaoCalendario, Map<Integer, CalendarioDiasUteis>> calendarios = new ConcurrentHashMap<>();
+    
+    public DataService(FeriadoProvider feriadoProvider) {
+        this.feriadoProvider = feriadoProvider;
     }
     
     /**
      * Ajusta uma data de vencimento considerando fins de semana e feriados
      */
     public LocalDate ajustarDataVencimento(LocalDate data, boolean ajustarFinaisSemana, boolean ajustarFeriados) {
-        LocalDate dataAjustada = data;
+        return ajustarDataVencimento(data, ajustarFinaisSemana, ajustarFeriados, ModoAjuste.POSTERGAR);
+    }
+    
+    /**
+     * Ajusta uma data de vencimento postergando ou antecipando para o dia permitido mais próximo
+     */
+    public LocalDate ajustarDataVencimento(LocalDate data, boolean ajustarFinaisSemana, boolean ajustarFeriados, ModoAjuste modo) {
+        return ajustarDataVencimento(data, ajustarFinaisSemana, ajustarFeriados, modo, RegiaoCalendario.NACIONAL);
+    }
+    
+    /**
+     * Ajusta a data conforme as regras da obrigação e o calendário regional do cliente
+     */
+    public LocalDate ajustarDataVencimento(Obrigacao obrigacao, LocalDate data) {
+        return ajustarDataVencimento(
+                data,
+                Boolean.TRUE.equals(obrigacao.getAjustarFinaisSemana()),
+                Boolean.TRUE.equals(obrigacao.getAjustarFeriados()),
+                obrigacao.getModoAjuste(),
+                RegiaoCalendario.de(obrigacao.getCliente())
+        );
+    }
+    
+    /**
+     * Ajusta uma data de vencimento usando o calendário composto da região
+     */
+    public LocalDate ajustarDataVencimento(LocalDate data, boolean ajustarFinaisSemana, boolean ajustarFeriados,
+                                           ModoAjuste modo, RegiaoCalendario regiao) {
+        int flags = flagsAjuste(ajustarFinaisSemana, ajustarFeriados, modo);
+        if ((flags & (AJUSTAR_FINAIS_SEMANA | AJUSTAR_FERIADOS)) == 0) {
+            return data;
+        }
         
-        if (ajustarFinaisSemana) {
-            dataAjustada = ajustarFimDeSemana(dataAjustada);
+        long dia = data.toEpochDay();
+        return LocalDate.ofEpochDay(ajustarDia(calendario(data.getYear(), regiao), dia, flags, regiao));
+    }
+    
+    /**
+     * Combina as regras de ajuste de uma data nos flags usados pelo ajuste em lote
+     */
+    public static int flagsAjuste(boolean ajustarFinaisSemana, boolean ajustarFeriados, ModoAjuste modo) {
+        return (ajustarFinaisSemana ? AJUSTAR_FINAIS_SEMANA : 0)
+                | (ajustarFeriados ? AJUSTAR_FERIADOS : 0)
+                | (modo == ModoAjuste.ANTECIPAR ? ANTECIPAR : 0);
+    }
+    
+    /**
+     * Flags de ajuste de uma obrigação
+     */
+    public static int flagsAjuste(Obrigacao obrigacao) {
+        return flagsAjuste(Boolean.TRUE.equals(obrigacao.getAjustarFinaisSemana()),
+                Boolean.TRUE.equals(obrigacao.getAjustarFeriados()),
+                obrigacao.getModoAjuste());
+    }
+    
+    /**
+     * Ajusta em lote datas em epoch-day no calendário nacional
+     */
+    public long[] ajustarDatasVencimento(long[] dias, int[] flags) {
+        return ajustarDatasVencimento(dias, flags, RegiaoCalendario.NACIONAL);
+    }
+    
+    /**
+     * Ajusta em lote datas em epoch-day (LocalDate.toEpochDay) com flags por item
+     * Percorre o índice de dias úteis uma única vez, reaproveitando o calendário do ano
+     * corrente entre itens consecutivos, sem criar LocalDate por item. Entradas ordenadas
+     * por data trocam de calendário apenas na virada de ano.
+     */
+    public long[] ajustarDatasVencimento(long[] dias, int[] flags, RegiaoCalendario regiao) {
+        if (dias.length != flags.length) {
+            throw new IllegalArgumentException("Quantidade de datas e de flags deve ser igual");
         }
         
-        if (ajustarFeriados) {
-            dataAjustada = ajustarFeriados(dataAjustada);
+        long[] ajustados = new long[dias.length];
+        CalendarioDiasUteis calendario = null;
+        
+        for (int i = 0; i < dias.length; i++) {
+            long dia = dias[i];
+            int flagsItem = flags[i];
+            
+            if ((flagsItem & (AJUSTAR_FINAIS_SEMANA | AJUSTAR_FERIADOS)) == 0) {
+                ajustados[i] = dia;
+                continue;
+            }
+            if (calendario == null || !calendario.contem(dia)) {
+                calendario = calendario(LocalDate.ofEpochDay(dia).getYear(), regiao);
+            }
+            ajustados[i] = ajustarDia(calendario, dia, flagsItem, regiao);
         }
         
-        return dataAjustada;
+        return ajustados;
     }
     
     /**
-     * Ajusta data que cai em fim de semana para o próximo dia útil
+     * Ajusta um epoch-day usando o calendário do seu ano; só consulta outros anos na virada
      */
-    private LocalDate ajustarFimDeSemana(LocalDate data) {
-        DayOfWeek diaSemana = data.getDayOfWeek();
+    private long ajustarDia(CalendarioDiasUteis calendario, long dia, int flags, RegiaoCalendario regiao) {
+        boolean antecipar = (flags & ANTECIPAR) != 0;
+        long ajustado;
+        
+        if ((flags & AJUSTAR_FINAIS_SEMANA) != 0 && (flags & AJUSTAR_FERIADOS) != 0) {
+            ajustado = antecipar ? calendario.diaUtilAnterior(dia) : calendario.proximoDiaUtil(dia);
+            if (ajustado == CalendarioDiasUteis.NENHUM) {
+                ajustado = antecipar ? diaUtilAte(dia, regiao) : diaUtilAPartirDe(dia, regiao);
+            }
+            return ajustado;
+        }
         
-        if (diaSemana == DayOfWeek.SATURDAY) {
-            return data.plusDays(2); // Sábado -> Segunda
-        } else if (diaSemana == DayOfWeek.SUNDAY) {
-            return data.plusDays(1); // Domingo -> Segunda
+        if ((flags & AJUSTAR_FINAIS_SEMANA) != 0) {
+            return ajustarFimDeSemana(dia, antecipar);
         }
         
-        return data;
+        ajustado = antecipar ? calendario.anteriorNaoFeriado(dia) : calendario.proximoNaoFeriado(dia);
+        if (ajustado == CalendarioDiasUteis.NENHUM) {
+            ajustado = antecipar ? naoFeriadoAte(dia, regiao) : naoFeriadoAPartirDe(dia, regiao);
+        }
+        return ajustado;
     }
     
     /**
-     * Ajusta data que cai em feriado para o próximo dia útil
+     * Ajusta epoch-day que cai em fim de semana para a segunda (postergar) ou sexta (antecipar)
      */
-    private LocalDate ajustarFeriados(LocalDate data) {
-        if (isFeriado(data)) {
-            return ajustarFeriados(data.plusDays(1));
+    private static long ajustarFimDeSemana(long dia, boolean antecipar) {
+        int diaSemana = Math.floorMod(dia + 3, 7); // 0 = segunda ... 5 = sábado, 6 = domingo
+        
+        if (diaSemana == 5) {
+            return antecipar ? dia - 1 : dia + 2; // Sábado -> Sexta / Segunda
+        } else if (diaSemana == 6) {
+            return antecipar ? dia - 2 : dia + 1; // Domingo -> Sexta / Segunda
         }
-        return data;
+        
+        return dia;
     }
     
     /**
-     * Verifica se uma data é feriado nacional brasileiro
+     * Primeiro dia que não é feriado a partir do epoch-day (inclusive), atravessando anos se necessário
      */
-    public boolean isFeriado(LocalDate data) {
-        // Feriados fixos brasileiros
-        Set<LocalDate> feriadosFixos = Set.of(
-                LocalDate.of(data.getYear(), 1, 1),   // Confraternização Universal
-                LocalDate.of(data.getYear(), 4, 21),  // Tiradentes
-                LocalDate.of(data.getYear(), 5, 1),   // Dia do Trabalhador
-                LocalDate.of(data.getYear(), 9, 7),   // Independência do Brasil
-                LocalDate.of(data.getYear(), 10, 12), // Nossa Senhora Aparecida
-                LocalDate.of(data.getYear(), 11, 2),  // Finados
-                LocalDate.of(data.getYear(), 11, 15), // Proclamação da República
-                LocalDate.of(data.getYear(), 12, 25)  // Natal
-        );
+    private long naoFeriadoAPartirDe(long epochDay, RegiaoCalendario regiao) {
+        CalendarioDiasUteis calendario = calendario(LocalDate.ofEpochDay(epochDay).getYear(), regiao);
+        long dia = calendario.proximoNaoFeriado(epochDay);
         
-        if (feriadosFixos.contains(data)) {
-            return true;
+        while (dia == CalendarioDiasUteis.NENHUM) {
+            calendario = calendario(calendario.getAno() + 1, regiao);
+            dia = calendario.proximoNaoFeriado(calendario.getPrimeiroDia());
         }
         
-        // Verificar feriados móveis (Páscoa, Carnaval, etc.)
-        return isFeriadoMovel(data);
+        return dia;
     }
     
     /**
-     * Verifica se uma data é feriado móvel
+     * Último dia que não é feriado até o epoch-day (inclusive), atravessando anos se necessário
      */
-    private boolean isFeriadoMovel(LocalDate data) {
-        LocalDate pascoa = calcularPascoa(data.getYear());
+    private long naoFeriadoAte(long epochDay, RegiaoCalendario regiao) {
+        CalendarioDiasUteis calendario = calendario(LocalDate.ofEpochDay(epochDay).getYear(), regiao);
+        long dia = calendario.anteriorNaoFeriado(epochDay);
         
-        Set<LocalDate> feriadosMovel = Set.of(
-                pascoa.minusDays(47),  // Carnaval (segunda-feira)
-                pascoa.minusDays(46),  // Carnaval (terça-feira)
-                pascoa.minusDays(2),   // Sexta-feira Santa
-                pascoa,                // Páscoa
-                pascoa.plusDays(60)   // Corpus Christi
-        );
+        while (dia == CalendarioDiasUteis.NENHUM) {
+            calendario = calendario(calendario.getAno() - 1, regiao);
+            dia = calendario.anteriorNaoFeriado(calendario.getUltimoDia());
+        }
         
-        return feriadosMovel.contains(data);
+        return dia;
+    }
+    
+    /**
+     * Verifica se uma data é feriado nacional brasileiro
+     */
+    public boolean isFeriado(LocalDate data) {
+        return isFeriado(data, RegiaoCalendario.NACIONAL);
+    }
+    
+    /**
+     * Verifica se uma data é feriado nacional, estadual ou municipal na região
+     */
+    public boolean isFeriado(LocalDate data, RegiaoCalendario regiao) {
+        return calendario(data.getYear(), regiao).isFeriado(data.toEpochDay());
     }
     
     /**
-     * Calcula a data da Páscoa para um determinado ano
-     * Algoritmo de Gauss
+     * Obtém o índice nacional de dias úteis do ano
      */
-    private LocalDate calcularPascoa(int ano) {
-        int a = ano % 19;
-        int b = ano / 100;
-        int c = ano % 100;
-        int d = b / 4;
-        int e = b % 4;
-        int f = (b + 8) / 25;
-        int g = (b - f + 1) / 3;
-        int h = (19 * a + b - d - g + 15) % 30;
-        int i = c / 4;
-        int k = c % 4;
-        int l = (32 + 2 * e + 2 * i - h - k) % 7;
-        int m = (a + 11 * h + 22 * l) / 451;
-        int n = (h + l - 7 * m + 114) / 31;
-        int p = (h + l - 7 * m + 114) % 31;
+    public CalendarioDiasUteis calendario(int ano) {
+        return calendario(ano, RegiaoCalendario.NACIONAL);
+    }
+    
+    /**
+     * Obtém o índice de dias úteis do ano para a região, construído uma única vez e mantido em cache
+     * Clientes da mesma UF e município compartilham o mesmo índice. A leitura não bloqueia;
+     * o índice só é construído na primeira consulta da região no ano.
+     */
+    public CalendarioDiasUteis calendario(int ano, RegiaoCalendario regiao) {
+        Map<Integer, CalendarioDiasUteis> porAno = calendarios.get(regiao);
+        if (porAno == null) {
+            porAno = calendarios.computeIfAbsent(regiao, r -> new ConcurrentHashMap<>());
+        }
         
-        return LocalDate.of(ano, n, p + 1);
+        CalendarioDiasUteis calendario = porAno.get(ano);
+        return calendario != null ? calendario : porAno.computeIfAbsent(ano, a -> construirCalendario(a, regiao));
     }
     
     /**
-     * Busca feriados de um ano específico via API externa
+     * Constrói o índice de dias úteis compondo feriados nacionais, estaduais e municipais
      */
-    public void carregarFeriadosAno(int ano) {
-        try {
-            // Log removido temporariamente
-            
-            // Simulação de chamada para API de feriados
-            // Em produção, usar uma API real como a do IBGE ou similar
-            
-        } catch (Exception e) {
-            System.out.println("Erro ao carregar feriados para o ano {}: " + ano, e.getMessage());
+    private CalendarioDiasUteis construirCalendario(int ano, RegiaoCalendario regiao) {
+        FeriadosAno feriadosAno = feriadoProvider.feriados(ano);
+        BitSet feriados = feriadosAno.getNacionais();
+        
+        if (regiao.getUf() != null) {
+            feriados.or(feriadosAno.getEstaduais(regiao.getUf()));
         }
+        if (regiao.getCodigoMunicipio() != null) {
+            feriados.or(feriadosAno.getMunicipais(regiao.getCodigoMunicipio()));
+        }
+        
+        return new CalendarioDiasUteis(ano, feriados);
+    }
+    
+    /**
+     * Recarrega os feriados de um ano na fonte configurada
+     * O novo índice nacional é montado fora do cache e publicado com uma única troca de referência,
+     * sem bloquear leitores que estejam ajustando datas no mesmo momento. O arquivo relido vale para
+     * todos os anos: os índices dos demais anos e os regionais são descartados e recompostos na próxima consulta.
+     */
+    public void carregarFeriadosAno(int ano) {
+        feriadoProvider.recarregar(ano);
+        
+        calendarios.forEach((regiao, porAno) -> {
+            if (regiao.isNacional()) {
+                porAno.put(ano, construirCalendario(ano, regiao));
+                porAno.keySet().removeIf(outroAno -> outroAno != ano);
+            } else {
+                porAno.clear();
+            }
+        });
+        log.info("Calendário de dias úteis de {} atualizado", ano);
+    }
+    
+    /**
+     * Lista os feriados conhecidos de um ano
+     */
+    public List<Feriado> listarFeriados(int ano) {
+        return feriadoProvider.feriados(ano).getFeriados();
     }
     
     /**
      * Verifica se uma data é dia útil (não é fim de semana nem feriado)
      */
     public boolean isDiaUtil(LocalDate data) {
-        DayOfWeek diaSemana = data.getDayOfWeek();
-        return diaSemana != DayOfWeek.SATURDAY && 
-               diaSemana != DayOfWeek.SUNDAY && 
-               !isFeriado(data);
+        return isDiaUtil(data, RegiaoCalendario.NACIONAL);
+    }
+    
+    /**
+     * Verifica se uma data é dia útil no calendário da região
+     */
+    public boolean isDiaUtil(LocalDate data, RegiaoCalendario regiao) {
+        return calendario(data.getYear(), regiao).isDiaUtil(data.toEpochDay());
     }
     
     /**
      * Calcula o próximo dia útil a partir de uma data
      */
     public LocalDate proximoDiaUtil(LocalDate data) {
-        LocalDate proximaData = data.plusDays(1);
+        return LocalDate.ofEpochDay(diaUtilAPartirDe(data.toEpochDay() + 1, RegiaoCalendario.NACIONAL));
+    }
+    
+    /**
+     * Primeiro dia útil a partir do epoch-day (inclusive), atravessando anos se necessário
+     */
+    private long diaUtilAPartirDe(long epochDay, RegiaoCalendario regiao) {
+        CalendarioDiasUteis calendario = calendario(LocalDate.ofEpochDay(epochDay).getYear(), regiao);
+        long diaUtil = calendario.proximoDiaUtil(epochDay);
+        
+        while (diaUtil == CalendarioDiasUteis.NENHUM) {
+            calendario = calendario(calendario.getAno() + 1, regiao);
+            diaUtil = calendario.proximoDiaUtil(calendario.getPrimeiroDia());
+        }
+        
+        return diaUtil;
+    }
+    
+    /**
+     * Último dia útil até o epoch-day (inclusive), atravessando anos se necessário
+     */
+    private long diaUtilAte(long epochDay, RegiaoCalendario regiao) {
+        CalendarioDiasUteis calendario = calendario(LocalDate.ofEpochDay(epochDay).getYear(), regiao);
+        long diaUtil = calendario.diaUtilAnterior(epochDay);
+        
+        while (diaUtil == CalendarioDiasUteis.NENHUM) {
+            calendario = calendario(calendario.getAno() - 1, regiao);
+            diaUtil = calendario.diaUtilAnterior(calendario.getUltimoDia());
+        }
+        
+        return diaUtil;
+    }
+    
+    /**
+     * Soma n dias úteis a uma data; a própria data não é contada
+     */
+    public LocalDate plusDiasUteis(LocalDate data, int n) {
+        return plusDiasUteis(data, n, RegiaoCalendario.NACIONAL);
+    }
+    
+    /**
+     * Soma n dias úteis a uma data no calendário da região
+     */
+    public LocalDate plusDiasUteis(LocalDate data, int n, RegiaoCalendario regiao) {
+        if (n < 0) {
+            return minusDiasUteis(data, -n, regiao);
+        }
+        if (n == 0) {
+            return data;
+        }
+        
+        long dia = data.toEpochDay();
+        CalendarioDiasUteis calendario = calendario(data.getYear(), regiao);
+        // Ordem (0-based) do n-ésimo dia útil após a data dentro do calendário corrente
+        long alvo = (long) calendario.diasUteisAntes(dia) + (calendario.isDiaUtil(dia) ? 1 : 0) + n - 1;
+        
+        while (alvo >= calendario.getTotalDiasUteis()) {
+            alvo -= calendario.getTotalDiasUteis();
+            calendario = calendario(calendario.getAno() + 1, regiao);
+        }
+        
+        return LocalDate.ofEpochDay(calendario.diaUtilPorOrdem((int) alvo));
+    }
+    
+    /**
+     * Subtrai n dias úteis de uma data; a própria data não é contada
+     */
+    public LocalDate minusDiasUteis(LocalDate data, int n) {
+        return minusDiasUteis(data, n, RegiaoCalendario.NACIONAL);
+    }
+    
+    /**
+     * Subtrai n dias úteis de uma data no calendário da região
+     */
+    public LocalDate minusDiasUteis(LocalDate data, int n, RegiaoCalendario regiao) {
+        if (n < 0) {
+            return plusDiasUteis(data, -n, regiao);
+        }
+        if (n == 0) {
+            return data;
+        }
+        
+        CalendarioDiasUteis calendario = calendario(data.getYear(), regiao);
+        long alvo = (long) calendario.diasUteisAntes(data.toEpochDay()) - n;
         
-        while (!isDiaUtil(proximaData)) {
-            proximaData = proximaData.plusDays(1);
+        while (alvo < 0) {
+            calendario = calendario(calendario.getAno() - 1, regiao);
+            alvo += calendario.getTotalDiasUteis();
         }
         
-        return proximaData;
+        return LocalDate.ofEpochDay(calendario.diaUtilPorOrdem((int) alvo));
+    }
+    
+    /**
+     * Obtém o n-ésimo dia útil do mês; valores negativos contam a partir do fim (-1 = último)
+     */
+    public LocalDate nthDiaUtilDoMes(YearMonth mes, int n) {
+        return nthDiaUtilDoMes(mes, n, RegiaoCalendario.NACIONAL);
+    }
+    
+    /**
+     * Obtém o n-ésimo dia útil do mês no calendário da região
+     */
+    public LocalDate nthDiaUtilDoMes(YearMonth mes, int n, RegiaoCalendario regiao) {
+        if (n == 0) {
+            throw new IllegalArgumentException("A ordem do dia útil não pode ser zero");
+        }
+        
+        CalendarioDiasUteis calendario = calendario(mes.getYear(), regiao);
+        int antesDoMes = calendario.diasUteisAntes(mes.atDay(1).toEpochDay());
+        int noMes = calendario.contarDiasUteis(mes.atDay(1).toEpochDay(), mes.atEndOfMonth().toEpochDay());
+        
+        if (Math.abs(n) > noMes) {
+            throw new IllegalArgumentException(String.format("O mês %s possui apenas %d dias úteis", mes, noMes));
+        }
+        
+        int ordem = n > 0 ? antesDoMes + n - 1 : antesDoMes + noMes + n;
+        return LocalDate.ofEpochDay(calendario.diaUtilPorOrdem(ordem));
+    }
+    
+    /**
+     * Obtém o último dia útil do mês
+     */
+    public LocalDate ultimoDiaUtil(YearMonth mes) {
+        return nthDiaUtilDoMes(mes, -1);
+    }
+    
+    /**
+     * Obtém o último dia útil do mês no calendário da região
+     */
+    public LocalDate ultimoDiaUtil(YearMonth mes, RegiaoCalendario regiao) {
+        return nthDiaUtilDoMes(mes, -1, regiao);
     }
     
     /**
      * Calcula quantos dias úteis existem entre duas datas
      */
     public long calcularDiasUteis(LocalDate dataInicio, LocalDate dataFim) {
+        return calcularDiasUteis(dataInicio, dataFim, RegiaoCalendario.NACIONAL);
+    }
+    
+    /**
+     * Calcula quantos dias úteis existem entre duas datas no calendário da região
+     */
+    public long calcularDiasUteis(LocalDate dataInicio, LocalDate dataFim, RegiaoCalendario regiao) {
+        long inicio = dataInicio.toEpochDay();
+        long fim = dataFim.toEpochDay();
         long diasUteis = 0;
-        LocalDate dataAtual = dataInicio;
         
-        while (!dataAtual.isAfter(dataFim)) {
-            if (isDiaUtil(dataAtual)) {
-                diasUteis++;
+        for (int ano = dataInicio.getYear(); ano <= dataFim.getYear(); ano++) {
+            CalendarioDiasUteis calendario = calendario(ano, regiao);
+            long de = Math.max(inicio, calendario.getPrimeiroDia());
+            long ate = Math.min(fim, calendario.getUltimoDia());
+            if (de <= ate) {
+                diasUteis += calendario.contarDiasUteis(de, ate);
             }
-            dataAtual = dataAtual.plusDays(1);
         }
         
         return diasUteis;
     }
 }
-
-
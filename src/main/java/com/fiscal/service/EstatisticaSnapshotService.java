@@ -0,0 +1,177 @@
+package com.fiscal.service;
+
+import com.fiscal.model.DimensaoEstatistica;
+import com.fiscal.model.EstatisticaSnapshot;
+import com.fiscal.model.PeriodoEstatistica;
+import com.fiscal.repository.EstatisticaSnapshotRepository;
+import com.fiscal.repository.ObrigacaoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Serviço de snapshots de estatísticas
+ * Ao fim de cada mês (e, se habilitado, de cada dia) as contagens do período são gravadas em
+ * estatisticas_snapshot: vencimentos por tipo, cliente, responsável e situação, conclusões no prazo
+ * e em atraso e os totais de pendentes e vencidas. Os gráficos de tendência leem essa tabela; os meses
+ * sem snapshot (antes da implantação, ou com a aplicação parada no fim do mês) são preenchidos depois.
+ * Padrão: Service Layer Pattern + Snapshot Pattern
+ */
+@Service
+@Transactional
+public class EstatisticaSnapshotService {
+
+    /** Chave usada para obrigações sem cliente ou sem responsável */
+    static final String SEM_VINCULO = "SEM";
+
+    private final EstatisticaSnapshotRepository snapshotRepository;
+    private final ObrigacaoRepository obrigacaoRepository;
+    private final boolean diarioHabilitado;
+    private final int mesesRetroativos;
+
+    public EstatisticaSnapshotService(EstatisticaSnapshotRepository snapshotRepository,
+                                      ObrigacaoRepository obrigacaoRepository,
+                                      @Value("${app.estatisticas.snapshot-diario:false}") boolean diarioHabilitado,
+                                      @Value("${app.estatisticas.meses-retroativos:12}") int mesesRetroativos) {
+        this.snapshotRepository = snapshotRepository;
+        this.obrigacaoRepository = obrigacaoRepository;
+        this.diarioHabilitado = diarioHabilitado;
+        this.mesesRetroativos = Math.max(0, mesesRetroativos);
+    }
+
+    public boolean isDiarioHabilitado() {
+        return diarioHabilitado;
+    }
+
+    /**
+     * Grava (ou regrava) o snapshot do período que contém a data e retorna seus totais
+     */
+    public Map<String, Long> gerarSnapshot(PeriodoEstatistica periodo, LocalDate data) {
+        LocalDate inicio = inicioDoPeriodo(periodo, data);
+        Map<DimensaoEstatistica, Map<String, Long>> contagens = contar(periodo, inicio, true);
+        gravar(periodo, inicio, contagens);
+        return contagens.get(DimensaoEstatistica.TOTAL);
+    }
+
+    /**
+     * Grava o snapshot dos meses anteriores ao da data (até app.estatisticas.meses-retroativos) que ainda não têm um
+     * Os totais de pendentes e vencidas retratam o momento da gravação e ficam de fora desses meses.
+     */
+    public int preencherMesesSemSnapshot(LocalDate data) {
+        LocalDate atual = inicioDoPeriodo(PeriodoEstatistica.MENSAL, data);
+        LocalDate primeiro = atual.minusMonths(mesesRetroativos);
+        Set<LocalDate> gravados = new HashSet<>(snapshotRepository.findDatasReferencia(
+                PeriodoEstatistica.MENSAL, primeiro, atual.minusDays(1)));
+
+        int preenchidos = 0;
+        for (LocalDate mes = primeiro; mes.isBefore(atual); mes = mes.plusMonths(1)) {
+            if (!gravados.contains(mes)) {
+                gravar(PeriodoEstatistica.MENSAL, mes, contar(PeriodoEstatistica.MENSAL, mes, false));
+                preenchidos++;
+            }
+        }
+        return preenchidos;
+    }
+
+    /**
+     * Série de uma dimensão para gráficos: uma entrada por período, com a quantidade de cada chave
+     * O período em curso, que só ganha snapshot ao terminar, é contado na hora.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> buscarTendencia(PeriodoEstatistica periodo, DimensaoEstatistica dimensao,
+                                                      LocalDate inicio, LocalDate fim) {
+        Map<LocalDate, Map<String, Long>> porData = new TreeMap<>();
+        for (EstatisticaSnapshot snapshot : snapshotRepository
+                .findByPeriodoAndDimensaoAndDataReferenciaBetweenOrderByDataReferenciaAscChaveAsc(
+                        periodo, dimensao, inicioDoPeriodo(periodo, inicio), fim)) {
+            porData.computeIfAbsent(snapshot.getDataReferencia(), data -> new LinkedHashMap<>())
+                    .put(snapshot.getChave(), snapshot.getQuantidade());
+        }
+
+        LocalDate emCurso = inicioDoPeriodo(periodo, LocalDate.now());
+        if (!porData.containsKey(emCurso) && !emCurso.isBefore(inicioDoPeriodo(periodo, inicio)) && !emCurso.isAfter(fim)) {
+            Map<String, Long> valores = contar(periodo, emCurso, true).get(dimensao);
+            if (!valores.isEmpty()) {
+                porData.put(emCurso, valores);
+            }
+        }
+
+        List<Map<String, Object>> serie = new ArrayList<>();
+        porData.forEach((data, valores) -> {
+            Map<String, Object> ponto = new LinkedHashMap<>();
+            ponto.put("dataReferencia", data);
+            ponto.put("valores", valores);
+            serie.add(ponto);
+        });
+        return serie;
+    }
+
+    /**
+     * Contagens do período por dimensão; com situacaoAtual, o total inclui pendentes e vencidas de agora
+     */
+    private Map<DimensaoEstatistica, Map<String, Long>> contar(PeriodoEstatistica periodo, LocalDate inicio,
+                                                               boolean situacaoAtual) {
+        LocalDate fim = periodo == PeriodoEstatistica.MENSAL ? inicio.plusMonths(1).minusDays(1) : inicio;
+
+        Map<DimensaoEstatistica, Map<String, Long>> contagens = new EnumMap<>(DimensaoEstatistica.class);
+        for (DimensaoEstatistica dimensao : DimensaoEstatistica.values()) {
+            contagens.put(dimensao, new TreeMap<>());
+        }
+
+        long vencimentos = 0;
+        long concluidas = 0;
+        for (Object[] linha : obrigacaoRepository.contarVencimentosDoPeriodo(inicio, fim)) {
+            long quantidade = (Long) linha[4];
+            somar(contagens, DimensaoEstatistica.TIPO, String.valueOf(linha[0]), quantidade);
+            somar(contagens, DimensaoEstatistica.CLIENTE, linha[1] != null ? linha[1].toString() : SEM_VINCULO, quantidade);
+            somar(contagens, DimensaoEstatistica.RESPONSAVEL, linha[2] != null ? linha[2].toString() : SEM_VINCULO, quantidade);
+            somar(contagens, DimensaoEstatistica.STATUS, (String) linha[3], quantidade);
+            vencimentos += quantidade;
+            if ("CONCLUIDA".equals(linha[3])) {
+                concluidas += quantidade;
+            }
+        }
+        for (Object[] linha : obrigacaoRepository.contarConclusoesDoPeriodo(inicio, fim)) {
+            somar(contagens, DimensaoEstatistica.PRAZO, (String) linha[0], (Long) linha[1]);
+        }
+
+        Map<String, Long> totais = contagens.get(DimensaoEstatistica.TOTAL);
+        totais.put("VENCIMENTOS", vencimentos);
+        totais.put("CONCLUIDAS", concluidas);
+        if (situacaoAtual) {
+            totais.put("PENDENTES", obrigacaoRepository.countByConcluida(false));
+            totais.put("VENCIDAS", obrigacaoRepository.countVencidas(LocalDate.now()));
+        }
+        return contagens;
+    }
+
+    private void gravar(PeriodoEstatistica periodo, LocalDate inicio, Map<DimensaoEstatistica, Map<String, Long>> contagens) {
+        LocalDateTime agora = LocalDateTime.now();
+        // Regravar o período inteiro torna a geração idempotente
+        snapshotRepository.deleteSnapshot(periodo, inicio);
+        List<EstatisticaSnapshot> linhas = new ArrayList<>();
+        contagens.forEach((dimensao, valores) -> valores.forEach((chave, quantidade) ->
+                linhas.add(new EstatisticaSnapshot(periodo, inicio, dimensao, chave, quantidade, agora))));
+        snapshotRepository.saveAll(linhas);
+    }
+
+    private static LocalDate inicioDoPeriodo(PeriodoEstatistica periodo, LocalDate data) {
+        return periodo == PeriodoEstatistica.MENSAL ? data.withDayOfMonth(1) : data;
+    }
+
+    private static void somar(Map<DimensaoEstatistica, Map<String, Long>> contagens, DimensaoEstatistica dimensao,
+                              String chave, long quantidade) {
+        contagens.get(dimensao).merge(chave, quantidade, Long::sum);
+    }
+}
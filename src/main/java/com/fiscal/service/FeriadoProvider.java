@@ -0,0 +1,28 @@
+package com.fiscal.service;
+
+import java.util.Set;
+
+/**
+ * SPI para fontes de feriados nacionais, estaduais e municipais
+ * Implementações devem devolver snapshots imutáveis, seguros para leitura
+ * concorrente sem bloqueio.
+ * Padrão: Strategy Pattern + Service Provider Interface
+ */
+public interface FeriadoProvider {
+
+    /**
+     * Obtém o snapshot de feriados do ano
+     */
+    FeriadosAno feriados(int ano);
+
+    /**
+     * Relê a fonte de feriados e substitui atomicamente o snapshot do ano
+     * Os snapshots dos demais anos são descartados e expandidos de novo na próxima consulta.
+     */
+    FeriadosAno recarregar(int ano);
+
+    /**
+     * Anos já expandidos a partir da fonte atual
+     */
+    Set<Integer> anosCarregados();
+}
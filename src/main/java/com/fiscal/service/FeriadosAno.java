@@ -0,0 +1,87 @@
+package com.fiscal.service;
+
+import com.fiscal.model.Feriado;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot imutável dos feriados de um ano
+ * Os feriados ficam indexados como bitsets de deslocamento (0 = 1º de janeiro)
+ * por abrangência, prontos para compor calendários de dias úteis.
+ * Padrão: Immutable Object Pattern
+ */
+public final class FeriadosAno {
+
+    private static final BitSet VAZIO = new BitSet();
+
+    private final int ano;
+    private final List<Feriado> feriados;
+    private final BitSet nacionais = new BitSet();
+    private final Map<String, BitSet> estaduais = new HashMap<>();
+    private final Map<String, BitSet> municipais = new HashMap<>();
+
+    public FeriadosAno(int ano, List<Feriado> feriados) {
+        this.ano = ano;
+        this.feriados = List.copyOf(feriados);
+
+        long primeiroDia = LocalDate.of(ano, 1, 1).toEpochDay();
+        for (Feriado feriado : this.feriados) {
+            int deslocamento = (int) (feriado.getData().toEpochDay() - primeiroDia);
+            switch (feriado.getAbrangencia()) {
+                case NACIONAL:
+                    nacionais.set(deslocamento);
+                    break;
+                case ESTADUAL:
+                    estaduais.computeIfAbsent(feriado.getUf(), uf -> new BitSet()).set(deslocamento);
+                    break;
+                case MUNICIPAL:
+                    municipais.computeIfAbsent(feriado.getCodigoMunicipio(), codigo -> new BitSet()).set(deslocamento);
+                    break;
+            }
+        }
+    }
+
+    public int getAno() { return ano; }
+
+    public List<Feriado> getFeriados() { return feriados; }
+
+    public BitSet getNacionais() {
+        return (BitSet) nacionais.clone();
+    }
+
+    public BitSet getEstaduais(String uf) {
+        return (BitSet) estaduais.getOrDefault(uf, VAZIO).clone();
+    }
+
+    public BitSet getMunicipais(String codigoMunicipio) {
+        return (BitSet) municipais.getOrDefault(codigoMunicipio, VAZIO).clone();
+    }
+
+    /**
+     * Dias do ano (deslocamento a partir de 1º de janeiro) em que algum feriado,
+     * de qualquer abrangência, foi incluído ou removido em relação ao snapshot anterior
+     */
+    public BitSet diasAlterados(FeriadosAno anterior) {
+        BitSet alterados = getNacionais();
+        alterados.xor(anterior.nacionais);
+        acumularDiferencas(alterados, estaduais, anterior.estaduais);
+        acumularDiferencas(alterados, municipais, anterior.municipais);
+        return alterados;
+    }
+
+    private static void acumularDiferencas(BitSet alterados, Map<String, BitSet> atuais, Map<String, BitSet> anteriores) {
+        Set<String> chaves = new HashSet<>(atuais.keySet());
+        chaves.addAll(anteriores.keySet());
+        for (String chave : chaves) {
+            BitSet diferenca = (BitSet) atuais.getOrDefault(chave, VAZIO).clone();
+            diferenca.xor(anteriores.getOrDefault(chave, VAZIO));
+            alterados.or(diferenca);
+        }
+    }
+}
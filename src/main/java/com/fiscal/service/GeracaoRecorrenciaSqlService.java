@@ -0,0 +1,225 @@
+package com.fiscal.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estratégia de geração de recorrências em SQL para regras simples
+ * Obrigações MENSAL, TRIMESTRAL, SEMESTRAL e ANUAL sem RRULE, com dia fixo até 28 e ajuste completo
+ * (ou nenhum), são geradas por um único INSERT ... SELECT contra a tabela calendario_dias_uteis;
+ * as demais continuam no caminho Java.
+ * Padrão: Strategy Pattern + Set-Based Processing
+ */
+@Service
+public class GeracaoRecorrenciaSqlService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeracaoRecorrenciaSqlService.class);
+
+    /**
+     * Limite de passadas de recuperação; cada passada avança um período em todas as séries atrasadas
+     */
+    static final int MAXIMO_PASSADAS = 240;
+
+    /**
+     * Anos materializados além do atual: a ocorrência seguinte de uma regra anual fica até dois anos à frente
+     */
+    static final int ANOS_A_FRENTE = 3;
+
+    static final int ANOS_ATRAS = 5;
+
+    private static final String REGIAO = "CASE WHEN NULLIF(TRIM(c.uf), '') IS NULL AND NULLIF(TRIM(c.codigo_municipio_ibge), '') IS NULL "
+            + "THEN 'BR' ELSE CONCAT('BR/', COALESCE(UPPER(NULLIF(TRIM(c.uf), '')), '-'), '/', "
+            + "COALESCE(NULLIF(TRIM(c.codigo_municipio_ibge), ''), '-')) END";
+
+    private static final String PASSO = "CASE o.tipo_recorrencia WHEN 'MENSAL' THEN 1 WHEN 'TRIMESTRAL' THEN 3 "
+            + "WHEN 'SEMESTRAL' THEN 6 ELSE 12 END";
+
+    private static final String AJUSTADA_CP = ajustada("cp");
+    private static final String AJUSTADA_CQ = ajustada("cq");
+
+    private static final String INSERT_OCORRENCIAS = "INSERT INTO obrigacoes (nome, tipo, descricao, cliente_id, responsavel_id, "
+            + "serie_id, data_vencimento, data_vencimento_original, tipo_recorrencia, dias_recorrencia, dia_mes_recorrencia, "
+            + "regra_recorrencia, ajustar_finais_semana, ajustar_feriados, modo_ajuste, data_proxima_geracao, ativo, concluida, "
+            + "data_criacao, data_atualizacao, ultimo_editor, imposto_id, lote_geracao) "
+            + "SELECT s.nome, o.tipo, s.descricao, o.cliente_id, s.responsavel_id, o.serie_id, " + AJUSTADA_CP + ", cp.data, "
+            + "o.tipo_recorrencia, o.dias_recorrencia, o.dia_mes_recorrencia, NULL, o.ajustar_finais_semana, o.ajustar_feriados, "
+            + "o.modo_ajuste, " + AJUSTADA_CQ + ", TRUE, FALSE, ?, ?, 'Sistema', o.imposto_id, ? "
+            + "FROM obrigacoes o "
+            + "JOIN obrigacao_series s ON s.id = o.serie_id "
+            + "LEFT JOIN clientes c ON c.id = o.cliente_id "
+            + "JOIN calendario_dias_uteis cn ON cn.regiao = " + REGIAO + " AND cn.data = o.data_vencimento_original "
+            + "JOIN calendario_dias_uteis cp ON cp.regiao = cn.regiao AND cp.mes_indice = cn.mes_indice + " + PASSO + " AND cp.dia = cn.dia "
+            + "JOIN calendario_dias_uteis cq ON cq.regiao = cn.regiao AND cq.mes_indice = cn.mes_indice + 2 * " + PASSO + " AND cq.dia = cn.dia "
+            + "WHERE o.data_proxima_geracao IS NOT NULL AND o.ativo = TRUE AND s.ativo = TRUE "
+            + "AND o.regra_recorrencia IS NULL "
+            + "AND o.tipo_recorrencia IN ('MENSAL', 'TRIMESTRAL', 'SEMESTRAL', 'ANUAL') "
+            + "AND cn.dia <= 28 AND (o.dia_mes_recorrencia IS NULL OR o.dia_mes_recorrencia = cn.dia) "
+            + "AND COALESCE(o.ajustar_finais_semana, FALSE) = COALESCE(o.ajustar_feriados, FALSE) "
+            + "AND " + AJUSTADA_CP + " <= ? "
+            + "AND (s.data_ultima_geracao IS NULL OR s.data_ultima_geracao < cp.data) "
+            // Só a ocorrência mais recente de cada série gera a próxima
+            + "AND NOT EXISTS (SELECT 1 FROM obrigacoes h WHERE h.serie_id = o.serie_id AND h.data_proxima_geracao IS NOT NULL "
+            + "AND (h.data_vencimento_original > o.data_vencimento_original "
+            + "OR (h.data_vencimento_original = o.data_vencimento_original AND h.id > o.id))) "
+            + "AND NOT EXISTS (SELECT 1 FROM obrigacoes x WHERE x.serie_id = o.serie_id AND x.data_vencimento_original = cp.data)";
+
+    // As linhas de uma passada são identificadas pelo lote_geracao gravado no INSERT, e não pelo horário de criação
+    private static final String LIBERAR_ANTERIORES = "UPDATE obrigacoes SET data_proxima_geracao = NULL "
+            + "WHERE data_proxima_geracao IS NOT NULL AND (lote_geracao IS NULL OR lote_geracao <> ?) "
+            + "AND serie_id IN (SELECT x.serie_id FROM obrigacoes x WHERE x.lote_geracao = ?)";
+
+    private static final String AVANCAR_MARCAS = "UPDATE obrigacao_series SET data_ultima_geracao = "
+            + "(SELECT MAX(x.data_vencimento_original) FROM obrigacoes x WHERE x.serie_id = obrigacao_series.id "
+            + "AND x.lote_geracao = ?) "
+            + "WHERE id IN (SELECT x.serie_id FROM obrigacoes x WHERE x.lote_geracao = ?)";
+
+    private static final String INSERT_DIA = "INSERT INTO calendario_dias_uteis (regiao, data, ano, mes_indice, dia, dia_util, "
+            + "dia_util_seguinte, dia_util_anterior) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataService dataService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+
+    /**
+     * Calendário em memória usado na última materialização de cada região/ano; muda quando feriados são recarregados
+     */
+    private final Map<String, CalendarioDiasUteis> materializados = new ConcurrentHashMap<>();
+
+    public GeracaoRecorrenciaSqlService(JdbcTemplate jdbcTemplate,
+                                        DataService dataService,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.recorrencia.geracao-sql:true}") boolean habilitada) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataService = dataService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitada = habilitada;
+    }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Gera em SQL todas as ocorrências elegíveis com vencimento até a data; retorna o número de linhas inseridas
+     * Cada passada roda em sua própria transação e avança um período de todas as séries atrasadas.
+     */
+    public synchronized int gerarElegiveis(LocalDate ate) {
+        prepararCalendario(ate);
+
+        int total = 0;
+        for (int passada = 0; passada < MAXIMO_PASSADAS; passada++) {
+            Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+            String lote = UUID.randomUUID().toString();
+            Integer inseridas = transactionTemplate.execute(status -> {
+                int linhas = jdbcTemplate.update(INSERT_OCORRENCIAS, agora, agora, lote, Date.valueOf(ate));
+                if (linhas > 0) {
+                    jdbcTemplate.update(LIBERAR_ANTERIORES, lote, lote);
+                    jdbcTemplate.update(AVANCAR_MARCAS, lote, lote);
+                }
+                return linhas;
+            });
+            if (inseridas == null || inseridas == 0) {
+                break;
+            }
+            total += inseridas;
+        }
+
+        log.info("Geração de recorrências em SQL até {}: {} ocorrências inseridas", ate, total);
+        return total;
+    }
+
+    /**
+     * Materializa na tabela calendario_dias_uteis os anos e regiões que a geração pode consultar
+     */
+    void prepararCalendario(LocalDate ate) {
+        Set<RegiaoCalendario> regioes = new LinkedHashSet<>();
+        regioes.add(RegiaoCalendario.NACIONAL);
+        jdbcTemplate.query("SELECT DISTINCT uf, codigo_municipio_ibge FROM clientes",
+                rs -> { regioes.add(RegiaoCalendario.de(rs.getString(1), rs.getString(2))); });
+
+        LocalDate maisAntiga = jdbcTemplate.queryForObject(
+                "SELECT MIN(data_vencimento_original) FROM obrigacoes WHERE data_proxima_geracao IS NOT NULL AND ativo = TRUE",
+                LocalDate.class);
+        int anoFinal = ate.getYear() + ANOS_A_FRENTE;
+        int anoInicial = Math.max(maisAntiga != null ? maisAntiga.getYear() : ate.getYear(), ate.getYear() - ANOS_ATRAS);
+        anoInicial = Math.min(anoInicial, ate.getYear());
+
+        for (RegiaoCalendario regiao : regioes) {
+            for (int ano = anoInicial; ano <= anoFinal; ano++) {
+                materializarAno(regiao, ano);
+            }
+        }
+    }
+
+    /**
+     * Regrava os dias do ano da região quando o calendário em memória mudou desde a última materialização
+     */
+    private void materializarAno(RegiaoCalendario regiao, int ano) {
+        String chave = regiao + "|" + ano;
+        CalendarioDiasUteis calendario = dataService.calendario(ano, regiao);
+        if (materializados.get(chave) == calendario) {
+            return;
+        }
+
+        LocalDate primeiro = LocalDate.of(ano, 1, 1);
+        int dias = primeiro.lengthOfYear();
+        long[] datas = new long[dias];
+        for (int i = 0; i < dias; i++) {
+            datas[i] = primeiro.toEpochDay() + i;
+        }
+        int[] postergar = new int[dias];
+        int[] antecipar = new int[dias];
+        Arrays.fill(postergar, DataService.AJUSTAR_FINAIS_SEMANA | DataService.AJUSTAR_FERIADOS);
+        Arrays.fill(antecipar, DataService.AJUSTAR_FINAIS_SEMANA | DataService.AJUSTAR_FERIADOS | DataService.ANTECIPAR);
+        long[] seguintes = dataService.ajustarDatasVencimento(datas, postergar, regiao);
+        long[] anteriores = dataService.ajustarDatasVencimento(datas, antecipar, regiao);
+
+        List<Object[]> linhas = new ArrayList<>(dias);
+        String codigo = regiao.toString();
+        for (int i = 0; i < dias; i++) {
+            LocalDate data = LocalDate.ofEpochDay(datas[i]);
+            linhas.add(new Object[] {
+                    codigo,
+                    Date.valueOf(data),
+                    ano,
+                    (ano - 2000) * 12 + data.getMonthValue() - 1,
+                    data.getDayOfMonth(),
+                    seguintes[i] == datas[i],
+                    Date.valueOf(LocalDate.ofEpochDay(seguintes[i])),
+                    Date.valueOf(LocalDate.ofEpochDay(anteriores[i]))
+            });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM calendario_dias_uteis WHERE regiao = ? AND ano = ?", codigo, ano);
+            jdbcTemplate.batchUpdate(INSERT_DIA, linhas);
+        });
+        materializados.put(chave, calendario);
+        log.debug("Calendário de dias úteis materializado: {} {}", codigo, ano);
+    }
+
+    private static String ajustada(String alias) {
+        return "CASE WHEN COALESCE(o.ajustar_feriados, FALSE) = FALSE THEN " + alias + ".data "
+                + "WHEN o.modo_ajuste = 'ANTECIPAR' THEN " + alias + ".dia_util_anterior "
+                + "ELSE " + alias + ".dia_util_seguinte END";
+    }
+}
@@ -2,13 +2,19 @@ package com.fiscal.service;
 
 import com.fiscal.model.Obrigacao;
 import com.fiscal.model.HistoricoAlteracao;
+import com.fiscal.model.dto.CursorPaginacao;
+import com.fiscal.model.dto.PaginaCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Serviço para registrar alterações específicas no histórico
@@ -102,6 +108,29 @@ public class HistoricoService {
         historicoRepository.save(historico);
     }
     
+    /**
+     * Registra em lote o reajuste de vencimento causado por mudança no calendário de feriados
+     * Os registros são montados em memória e gravados de uma vez ao final do lote.
+     */
+    public void registrarReajustesVencimento(Map<Obrigacao, LocalDate> datasAnteriores, String usuarioEditor) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<HistoricoAlteracao> historicos = new ArrayList<>(datasAnteriores.size());
+        
+        datasAnteriores.forEach((obrigacao, dataAnterior) -> {
+            HistoricoAlteracao historico = new HistoricoAlteracao();
+            historico.setObrigacao(obrigacao);
+            historico.setCampoAlterado("dataVencimento");
+            historico.setValorAnterior(dataAnterior.toString());
+            historico.setValorNovo(obrigacao.getDataVencimento().toString());
+            historico.setUsuarioEditor(usuarioEditor);
+            historico.setDataAlteracao(agora);
+            historico.setObservacoes("Vencimento reajustado por alteração no calendário de feriados");
+            historicos.add(historico);
+        });
+        
+        historicoRepository.saveAll(historicos);
+    }
+    
     /**
      * Busca histórico de uma obrigação
      */
@@ -110,13 +139,48 @@ public class HistoricoService {
         return historicoRepository.findByObrigacaoIdOrderByDataAlteracaoDesc(obrigacaoId);
     }
     
+    /**
+     * Busca uma página do histórico de uma obrigação, partindo do cursor da página anterior
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<HistoricoAlteracao> buscarPaginaObrigacao(Long obrigacaoId, String cursor, Integer tamanho) {
+        int limite = PaginaCursor.tamanhoValido(tamanho);
+        PageRequest linhas = PageRequest.of(0, limite + 1);
+        List<HistoricoAlteracao> historico;
+        if (cursor == null || cursor.isBlank()) {
+            historico = historicoRepository.findPaginaPorObrigacao(obrigacaoId, linhas);
+        } else {
+            CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+            historico = historicoRepository.findPaginaPorObrigacaoApos(obrigacaoId, posicao.getValorDataHora(),
+                    posicao.getId(), linhas);
+        }
+        return PaginaCursor.de(historico, limite, h -> new CursorPaginacao(h.getDataAlteracao(), h.getId()));
+    }
+    
+    /**
+     * Busca uma página do histórico geral, partindo do cursor da página anterior
+     * Cada página custa o mesmo que a primeira: a consulta começa na chave do cursor, sem OFFSET nem contagem.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<HistoricoAlteracao> buscarPagina(String cursor, Integer tamanho) {
+        int limite = PaginaCursor.tamanhoValido(tamanho);
+        PageRequest linhas = PageRequest.of(0, limite + 1);
+        List<HistoricoAlteracao> historico;
+        if (cursor == null || cursor.isBlank()) {
+            historico = historicoRepository.findPagina(linhas);
+        } else {
+            CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+            historico = historicoRepository.findPaginaApos(posicao.getValorDataHora(), posicao.getId(), linhas);
+        }
+        return PaginaCursor.de(historico, limite, h -> new CursorPaginacao(h.getDataAlteracao(), h.getId()));
+    }
+    
     /**
      * Busca últimas alterações do sistema
      */
     @Transactional(readOnly = true)
     public List<HistoricoAlteracao> buscarUltimasAlteracoes(int limite) {
-        return historicoRepository.findUltimasAlteracoes(org.springframework.data.domain.PageRequest.of(0, limite))
-                .getContent();
+        return historicoRepository.findPagina(PageRequest.of(0, limite));
     }
 }
 
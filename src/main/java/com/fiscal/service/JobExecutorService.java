@@ -0,0 +1,201 @@
+package com.fiscal.service;
+
+import com.fiscal.model.ExecucaoJob;
+import com.fiscal.model.StatusExecucaoJob;
+import com.fiscal.repository.ExecucaoJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Serviço de execução de jobs agendados
+ * Cada job roda no seu próprio pool (app.jobs.{job}.threads) com tempo máximo (app.jobs.{job}.timeout),
+ * liberando a thread do agendador do Spring. Toda execução é gravada em execucoes_jobs e publicada
+ * no Micrometer: timer fiscal.jobs.execucao e contadores fiscal.jobs.itens.processados/falhos.
+ * Padrão: Command Pattern + Execution Audit
+ */
+@Service
+public class JobExecutorService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobExecutorService.class);
+
+    private static final int TAMANHO_MENSAGEM = 1000;
+
+    private final ExecucaoJobRepository execucaoRepository;
+    private final JobLeaseService leaseService;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, ThreadPoolExecutor> executores = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService vigia;
+
+    public JobExecutorService(ExecucaoJobRepository execucaoRepository,
+                              JobLeaseService leaseService,
+                              MeterRegistry meterRegistry,
+                              Environment environment,
+                              PlatformTransactionManager transactionManager) {
+        this.execucaoRepository = execucaoRepository;
+        this.leaseService = leaseService;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // O registro da execução não pode depender da transação do job
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.vigia = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "job-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Dispara o job no seu pool e retorna sem esperar; o futuro completa com o registro final da execução
+     * Se todas as threads do job estão ocupadas, a execução é registrada como ignorada.
+     */
+    public CompletableFuture<ExecucaoJob> executar(String job, Duration timeoutPadrao, Supplier<ResultadoJob> tarefa) {
+        Duration timeout = environment.getProperty("app.jobs." + job + ".timeout", Duration.class, timeoutPadrao);
+        ExecucaoJob execucao = transactionTemplate.execute(status ->
+                execucaoRepository.save(new ExecucaoJob(job, leaseService.getInstancia())));
+        CompletableFuture<ExecucaoJob> resultado = new CompletableFuture<>();
+        AtomicBoolean finalizada = new AtomicBoolean(false);
+        long inicio = System.nanoTime();
+
+        Future<?> futuro;
+        try {
+            futuro = executor(job).submit(() -> {
+                StatusExecucaoJob status;
+                ResultadoJob retorno = null;
+                String mensagem = null;
+                try {
+                    retorno = tarefa.get();
+                    status = retorno.isIgnorado() ? StatusExecucaoJob.IGNORADA : StatusExecucaoJob.SUCESSO;
+                    mensagem = retorno.getMensagem();
+                } catch (Exception e) {
+                    status = StatusExecucaoJob.FALHA;
+                    mensagem = e.getClass().getSimpleName() + ": " + e.getMessage();
+                    if (!finalizada.get()) {
+                        log.error("Job {} falhou: {}", job, e.getMessage(), e);
+                    }
+                }
+                // Após o tempo máximo a execução já foi registrada; o término tardio é descartado
+                if (finalizada.compareAndSet(false, true)) {
+                    resultado.complete(finalizar(execucao, status, retorno, mensagem, inicio));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finalizada.set(true);
+            resultado.complete(finalizar(execucao, StatusExecucaoJob.IGNORADA, null,
+                    "Execução anterior ainda em andamento", inicio));
+            return resultado;
+        }
+
+        ScheduledFuture<?> limite = vigia.schedule(() -> {
+            if (finalizada.compareAndSet(false, true)) {
+                futuro.cancel(true);
+                log.warn("Job {} excedeu o tempo máximo de {} e foi interrompido", job, timeout);
+                resultado.complete(finalizar(execucao, StatusExecucaoJob.TIMEOUT, null,
+                        "Tempo máximo de " + timeout + " excedido", inicio));
+            }
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        resultado.whenComplete((registro, erro) -> limite.cancel(false));
+
+        return resultado;
+    }
+
+    /**
+     * Últimas execuções de um job, ou de todos quando job é nulo
+     */
+    public List<ExecucaoJob> listarExecucoes(String job) {
+        return job == null || job.isBlank()
+                ? execucaoRepository.findTop50ByOrderByInicioDesc()
+                : execucaoRepository.findTop50ByJobOrderByInicioDesc(job);
+    }
+
+    /**
+     * Grava o desfecho da execução e publica as métricas
+     */
+    private ExecucaoJob finalizar(ExecucaoJob execucao, StatusExecucaoJob status, ResultadoJob retorno,
+                                  String mensagem, long inicio) {
+        long duracao = System.nanoTime() - inicio;
+        int processados = retorno != null ? retorno.getProcessados() : 0;
+        int falhas = retorno != null ? retorno.getFalhas() : 0;
+
+        execucao.setFim(LocalDateTime.now());
+        execucao.setStatus(status);
+        execucao.setItensProcessados(processados);
+        execucao.setItensFalhos(falhas);
+        execucao.setDuracaoMs(TimeUnit.NANOSECONDS.toMillis(duracao));
+        execucao.setMensagem(mensagem != null && mensagem.length() > TAMANHO_MENSAGEM
+                ? mensagem.substring(0, TAMANHO_MENSAGEM) : mensagem);
+
+        Timer.builder("fiscal.jobs.execucao")
+                .description("Duração das execuções de jobs agendados")
+                .tag("job", execucao.getJob())
+                .tag("status", status.name())
+                .register(meterRegistry)
+                .record(duracao, TimeUnit.NANOSECONDS);
+        Counter.builder("fiscal.jobs.itens.processados")
+                .tag("job", execucao.getJob())
+                .register(meterRegistry)
+                .increment(processados);
+        Counter.builder("fiscal.jobs.itens.falhos")
+                .tag("job", execucao.getJob())
+                .register(meterRegistry)
+                .increment(falhas);
+
+        log.info("Job {} finalizado: {} em {} ms, {} processados, {} falhos",
+                execucao.getJob(), status, execucao.getDuracaoMs(), processados, falhas);
+        try {
+            return transactionTemplate.execute(s -> execucaoRepository.save(execucao));
+        } catch (Exception e) {
+            log.error("Erro ao registrar execução do job {}: {}", execucao.getJob(), e.getMessage());
+            return execucao;
+        }
+    }
+
+    /**
+     * Pool dedicado do job, sem fila: um disparo com todas as threads ocupadas é recusado
+     */
+    private ThreadPoolExecutor executor(String job) {
+        return executores.computeIfAbsent(job, nome -> {
+            int threads = Math.max(1, environment.getProperty("app.jobs." + nome + ".threads", Integer.class, 1));
+            return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>(), r -> {
+                Thread thread = new Thread(r, "job-" + nome);
+                thread.setDaemon(true);
+                return thread;
+            });
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        vigia.shutdownNow();
+        executores.values().forEach(ThreadPoolExecutor::shutdownNow);
+    }
+}
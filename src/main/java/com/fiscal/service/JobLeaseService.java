@@ -0,0 +1,228 @@
+package com.fiscal.service;
+
+import com.fiscal.model.JobLease;
+import com.fiscal.repository.JobLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço de posse de jobs entre instâncias da aplicação
+ * Cada job agendado ou partição só roda na instância que detém a posse na tabela job_leases;
+ * a posse é renovada enquanto a tarefa roda e expira sozinha se a instância cair.
+ * Cada instância também mantém uma posse de presença, usada para dividir partições entre as ativas.
+ * Padrão: Lease Pattern + Leader Election
+ */
+@Service
+public class JobLeaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLeaseService.class);
+
+    static final String PREFIXO_INSTANCIA = "instancia:";
+
+    /**
+     * Presenças expiradas há mais que isso são removidas, limpando instâncias desligadas
+     */
+    private static final Duration RETENCAO_INSTANCIAS = Duration.ofDays(1);
+
+    private final JobLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String instancia;
+    private final Duration heartbeat;
+
+    private final ScheduledExecutorService renovacoes;
+
+    public JobLeaseService(JobLeaseRepository leaseRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.cluster.instancia:}") String instancia,
+                           @Value("${app.cluster.heartbeat:PT30S}") Duration heartbeat) {
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A posse precisa ser visível para as outras instâncias assim que adquirida
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.instancia = instancia == null || instancia.isBlank() ? gerarIdentificador() : instancia.trim();
+        this.heartbeat = heartbeat;
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "job-lease-renovacao");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.renovacoes = executor;
+        log.info("Instância do cluster: {}", this.instancia);
+    }
+
+    public String getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Tenta adquirir a posse do job pela duração informada; retorna false se outra instância a detém
+     */
+    public boolean adquirir(String nome, Duration duracao) {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime expiraEm = agora.plus(duracao);
+
+        Integer atualizadas = transactionTemplate.execute(status -> leaseRepository.adquirir(nome, instancia, agora, expiraEm));
+        if (atualizadas != null && atualizadas > 0) {
+            return true;
+        }
+
+        // Primeira execução do job: a chave primária decide entre instâncias que tentam criar ao mesmo tempo
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (leaseRepository.existsById(nome)) {
+                    return false;
+                }
+                leaseRepository.saveAndFlush(new JobLease(nome, instancia, expiraEm));
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Estende a posse; retorna false se ela expirou e pode ter sido assumida por outra instância
+     */
+    public boolean renovar(String nome, Duration duracao) {
+        LocalDateTime agora = LocalDateTime.now();
+        Integer atualizadas = transactionTemplate.execute(status -> leaseRepository.renovar(nome, instancia, agora, agora.plus(duracao)));
+        return atualizadas != null && atualizadas > 0;
+    }
+
+    public void liberar(String nome) {
+        transactionTemplate.executeWithoutResult(status -> leaseRepository.liberar(nome, instancia, LocalDateTime.now()));
+    }
+
+    /**
+     * Executa a tarefa somente se a posse for adquirida, renovando-a a cada terço da duração
+     * Sem liberação ao fim, a posse segura até expirar as instâncias cujo relógio dispara um pouco depois.
+     */
+    public <T> Optional<T> executarComLease(String nome, Duration duracao, boolean liberarAoFim, Supplier<T> tarefa) {
+        if (!adquirir(nome, duracao)) {
+            log.debug("Job {} em execução em outra instância; ignorado nesta", nome);
+            return Optional.empty();
+        }
+
+        long intervalo = Math.max(1, duracao.toMillis() / 3);
+        ScheduledFuture<?> renovacao = renovacoes.scheduleAtFixedRate(() -> {
+            try {
+                if (!renovar(nome, duracao)) {
+                    log.warn("Posse do job {} perdida durante a execução", nome);
+                }
+            } catch (Exception e) {
+                log.warn("Erro ao renovar posse do job {}: {}", nome, e.getMessage());
+            }
+        }, intervalo, intervalo, TimeUnit.MILLISECONDS);
+
+        try {
+            return Optional.ofNullable(tarefa.get());
+        } finally {
+            renovacao.cancel(false);
+            if (liberarAoFim) {
+                liberar(nome);
+            }
+        }
+    }
+
+    public boolean executarComLease(String nome, Duration duracao, boolean liberarAoFim, Runnable tarefa) {
+        return executarComLease(nome, duracao, liberarAoFim, () -> {
+            tarefa.run();
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    /**
+     * Aguarda outra instância liberar ou deixar expirar a posse, até o tempo máximo; retorna false se esgotou
+     */
+    public boolean aguardarLiberacao(String nome, Duration maximo) {
+        long limite = System.nanoTime() + maximo.toNanos();
+        while (System.nanoTime() < limite) {
+            Optional<JobLease> lease = leaseRepository.findById(nome);
+            if (lease.isEmpty() || lease.get().getExpiraEm().isBefore(LocalDateTime.now())) {
+                return true;
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Renova a presença desta instância; três heartbeats perdidos a tiram da divisão de partições
+     */
+    @Scheduled(fixedDelayString = "${app.cluster.heartbeat:PT30S}")
+    public void registrarPresenca() {
+        try {
+            adquirir(PREFIXO_INSTANCIA + instancia, heartbeat.multipliedBy(3));
+            transactionTemplate.executeWithoutResult(status -> leaseRepository.removerExpiradas(PREFIXO_INSTANCIA,
+                    LocalDateTime.now().minus(RETENCAO_INSTANCIAS)));
+        } catch (Exception e) {
+            log.warn("Erro ao registrar presença da instância {}: {}", instancia, e.getMessage());
+        }
+    }
+
+    /**
+     * Instâncias com presença vigente, em ordem estável; inclui sempre esta instância
+     */
+    public List<String> instanciasAtivas() {
+        List<String> ativas = leaseRepository.findVigentesPorPrefixo(PREFIXO_INSTANCIA, LocalDateTime.now()).stream()
+                .map(JobLease::getDono)
+                .distinct()
+                .collect(Collectors.toList());
+        if (!ativas.contains(instancia)) {
+            ativas.add(instancia);
+            ativas.sort(null);
+        }
+        return ativas;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        renovacoes.shutdownNow();
+        try {
+            liberar(PREFIXO_INSTANCIA + instancia);
+        } catch (Exception e) {
+            log.debug("Presença da instância {} não liberada: {}", instancia, e.getMessage());
+        }
+    }
+
+    private static String gerarIdentificador() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "localhost";
+        }
+        if (host.length() > 50) {
+            host = host.substring(0, 50);
+        }
+        return host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * Serviço para gerenciamento de notificações em tempo real
@@ -104,25 +105,84 @@ public class NotificacaoService {
     }
     
     /**
-     * Notifica alerta de vencimento próximo
+     * Notifica, em uma única mensagem, os alertas de vencimento acumulados de um responsável;
+     * sem responsável, o resumo vai para todos os usuários conectados
      */
-    public void notificarAlertaVencimento(Long obrigacaoId, String nomeObrigacao, int diasParaVencimento) {
-        // Log removido temporariamente
+    public void notificarResumoAlertas(Long responsavelId, Map<String, Object> resumo) {
+        NotificacaoTempoReal notificacao = new NotificacaoTempoReal();
+        notificacao.setTipo(NotificacaoTempoReal.TipoNotificacao.ALERTAS_VENCIMENTO);
+        notificacao.setMensagem(String.format("%s obrigação(ões) próxima(s) do vencimento, %s vencendo hoje",
+                resumo.get("total"), resumo.get("vencemHoje")));
+        notificacao.setUsuarioEditor("Sistema");
+        notificacao.setTimestamp(LocalDateTime.now());
+        notificacao.setDados(resumo);
+        
+        if (responsavelId == null) {
+            webSocketService.notificarTodos(notificacao);
+        } else {
+            webSocketService.notificarUsuario(String.valueOf(responsavelId), notificacao);
+        }
+    }
+    
+    /**
+     * Verifica se o responsável tem alguma sessão aberta para receber notificações dirigidas
+     */
+    public boolean isResponsavelConectado(Long responsavelId) {
+        return webSocketService.isUsuarioConectado(String.valueOf(responsavelId));
+    }
+    
+    /**
+     * Notifica, em uma única mensagem, o reajuste de vencimentos após mudança de feriados
+     */
+    public void notificarReajusteVencimentos(Map<String, Object> resumo, String usuarioEditor) {
+        NotificacaoTempoReal notificacao = new NotificacaoTempoReal();
+        notificacao.setTipo(NotificacaoTempoReal.TipoNotificacao.VENCIMENTOS_REAJUSTADOS);
+        notificacao.setMensagem(String.format("%s vencimento(s) reajustado(s) por alteração de feriados entre %s e %s",
+                resumo.get("reajustadas"), resumo.get("inicio"), resumo.get("fim")));
+        notificacao.setUsuarioEditor(usuarioEditor);
+        notificacao.setTimestamp(LocalDateTime.now());
+        notificacao.setDados(resumo);
         
-        String mensagem = diasParaVencimento <= 0 
-                ? String.format("ATENÇÃO: Obrigação VENCIDA - %s", nomeObrigacao)
-                : String.format("ALERTA: Obrigação vence em %d dias - %s", diasParaVencimento, nomeObrigacao);
+        webSocketService.notificarTodos(notificacao);
+    }
+    
+    /**
+     * Notifica, em uma única mensagem, as ocorrências geradas pelo processamento de recorrências
+     */
+    public void notificarRecorrenciasGeradas(Map<String, Object> resumo, String usuarioEditor) {
+        NotificacaoTempoReal notificacao = new NotificacaoTempoReal();
+        notificacao.setTipo(NotificacaoTempoReal.TipoNotificacao.RECORRENCIAS_GERADAS);
+        notificacao.setMensagem(String.format("%s nova(s) ocorrência(s) gerada(s) pelo processamento de recorrências",
+                resumo.get("geradas")));
+        notificacao.setUsuarioEditor(usuarioEditor);
+        notificacao.setTimestamp(LocalDateTime.now());
+        notificacao.setDados(resumo);
         
+        webSocketService.notificarTodos(notificacao);
+    }
+    
+    /**
+     * Notifica, em uma única mensagem, as obrigações que mudaram de urgência na virada do dia
+     */
+    public void notificarViradaUrgencias(Map<String, Object> resumo) {
         NotificacaoTempoReal notificacao = new NotificacaoTempoReal();
-        notificacao.setTipo(NotificacaoTempoReal.TipoNotificacao.OBRIGACAO_ATUALIZADA);
-        notificacao.setMensagem(mensagem);
-        notificacao.setObrigacaoId(obrigacaoId);
+        notificacao.setTipo(NotificacaoTempoReal.TipoNotificacao.URGENCIAS_ATUALIZADAS);
+        notificacao.setMensagem(String.format("%s obrigação(ões) mudaram de urgência em %s",
+                resumo.get("total"), resumo.get("data")));
         notificacao.setUsuarioEditor("Sistema");
         notificacao.setTimestamp(LocalDateTime.now());
+        notificacao.setDados(resumo);
         
         webSocketService.notificarTodos(notificacao);
     }
     
+    /**
+     * Envia a todos os usuários uma notificação já montada (ex.: relatório mensal do scheduler)
+     */
+    public void notificarTodos(NotificacaoTempoReal notificacao) {
+        webSocketService.notificarTodos(notificacao);
+    }
+    
     /**
      * Verifica se há usuários conectados para receber notificações
      */
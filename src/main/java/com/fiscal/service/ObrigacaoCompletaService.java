@@ -28,17 +28,20 @@ public class ObrigacaoCompletaService {
     private final NotificacaoService notificacaoService;
     private final DataService dataService;
     private final RecorrenciaService recorrenciaService;
+    private final AlertaVencimentoService alertaVencimentoService;
     
     public ObrigacaoCompletaService(ObrigacaoRepository obrigacaoRepository, 
                                    HistoricoService historicoService, 
                                    NotificacaoService notificacaoService, 
                                    DataService dataService, 
-                                   RecorrenciaService recorrenciaService) {
+                                   RecorrenciaService recorrenciaService,
+                                   AlertaVencimentoService alertaVencimentoService) {
         this.obrigacaoRepository = obrigacaoRepository;
         this.historicoService = historicoService;
         this.notificacaoService = notificacaoService;
         this.dataService = dataService;
         this.recorrenciaService = recorrenciaService;
+        this.alertaVencimentoService = alertaVencimentoService;
     }
     
     /**
@@ -46,17 +49,7 @@ public class ObrigacaoCompletaService {
      */
     @Transactional(readOnly = true)
     public Optional<Obrigacao> buscarPorId(Long id) {
-        return obrigacaoRepository.findById(id);
-    }
-    
-    /**
-     * Busca todas as obrigações com filtros
-     */
-    @Transactional(readOnly = true)
-    public List<Obrigacao> buscarComFiltros(Long clienteId, Long responsavelId, 
-                                          com.fiscal.model.TipoObrigacao tipo, Boolean concluida) {
-        return obrigacaoRepository.findWithFilters(clienteId, responsavelId, tipo, concluida, 
-                org.springframework.data.domain.PageRequest.of(0, 1000)).getContent();
+        return obrigacaoRepository.findDetalhadaById(id);
     }
     
     /**
@@ -97,18 +90,15 @@ public class ObrigacaoCompletaService {
     public Obrigacao atualizarDataVencimento(Long id, LocalDate novaData, String usuarioEditor) {
         // Log removido temporariamente
         
-        Obrigacao obrigacao = obrigacaoRepository.findById(id)
+        Obrigacao obrigacao = obrigacaoRepository.findDetalhadaById(id)
                 .orElseThrow(() -> new RuntimeException("Obrigação não encontrada"));
         
         LocalDate dataAnterior = obrigacao.getDataVencimento();
         
         // Ajustar nova data se necessário
-        LocalDate dataAjustada = dataService.ajustarDataVencimento(
-                novaData, 
-                obrigacao.getAjustarFinaisSemana(), 
-                obrigacao.getAjustarFeriados()
-        );
+        LocalDate dataAjustada = dataService.ajustarDataVencimento(obrigacao, novaData);
         
+        obrigacao.setDataVencimentoOriginal(novaData);
         obrigacao.setDataVencimento(dataAjustada);
         obrigacao.setUltimoEditor(usuarioEditor);
         
@@ -120,6 +110,7 @@ public class ObrigacaoCompletaService {
         
         // Notificar atualização
         notificacaoService.notificarAtualizacaoObrigacao(salva.getId(), salva.getNome(), usuarioEditor);
+        alertaVencimentoService.agendar(salva);
         
         System.out.println("Data de vencimento atualizada com sucesso: ID " + salva.getId());
         return salva;
@@ -131,7 +122,7 @@ public class ObrigacaoCompletaService {
     public Obrigacao concluirObrigacao(Long id, String usuarioEditor) {
         // Log removido temporariamente
         
-        Obrigacao obrigacao = obrigacaoRepository.findById(id)
+        Obrigacao obrigacao = obrigacaoRepository.findDetalhadaById(id)
                 .orElseThrow(() -> new RuntimeException("Obrigação não encontrada"));
         
         obrigacao.setConcluida(true);
@@ -145,6 +136,7 @@ public class ObrigacaoCompletaService {
         
         // Notificar conclusão
         notificacaoService.notificarConclusaoObrigacao(salva.getId(), salva.getNome(), usuarioEditor);
+        alertaVencimentoService.cancelar(salva.getId());
         
         System.out.println("Obrigação concluída com sucesso: ID " + salva.getId());
         return salva;
@@ -156,7 +148,7 @@ public class ObrigacaoCompletaService {
     public Obrigacao reabrirObrigacao(Long id, String usuarioEditor) {
         // Log removido temporariamente
         
-        Obrigacao obrigacao = obrigacaoRepository.findById(id)
+        Obrigacao obrigacao = obrigacaoRepository.findDetalhadaById(id)
                 .orElseThrow(() -> new RuntimeException("Obrigação não encontrada"));
         
         obrigacao.setConcluida(false);
@@ -170,6 +162,7 @@ public class ObrigacaoCompletaService {
         
         // Notificar reabertura
         notificacaoService.notificarAtualizacaoObrigacao(salva.getId(), salva.getNome(), usuarioEditor);
+        alertaVencimentoService.agendar(salva);
         
         System.out.println("Obrigação reaberta com sucesso: ID " + salva.getId());
         return salva;
@@ -194,6 +187,7 @@ public class ObrigacaoCompletaService {
         
         // Notificar exclusão
         notificacaoService.notificarExclusaoObrigacao(obrigacao.getId(), obrigacao.getNome(), usuarioEditor);
+        alertaVencimentoService.cancelar(obrigacao.getId());
         
         // Log removido temporariamente
     }
@@ -204,7 +198,7 @@ public class ObrigacaoCompletaService {
     public Obrigacao duplicarObrigacao(Long id, String usuarioEditor) {
         // Log removido temporariamente
         
-        Obrigacao obrigacaoOriginal = obrigacaoRepository.findById(id)
+        Obrigacao obrigacaoOriginal = obrigacaoRepository.findDetalhadaById(id)
                 .orElseThrow(() -> new RuntimeException("Obrigação não encontrada"));
         
         Obrigacao novaObrigacao = new Obrigacao();
@@ -213,6 +207,7 @@ public class ObrigacaoCompletaService {
         novaObrigacao.setDescricao(obrigacaoOriginal.getDescricao());
         novaObrigacao.setCliente(obrigacaoOriginal.getCliente());
         novaObrigacao.setResponsavel(obrigacaoOriginal.getResponsavel());
+        novaObrigacao.setImposto(obrigacaoOriginal.getImposto());
         novaObrigacao.setDataVencimento(obrigacaoOriginal.getDataVencimento().plusDays(1));
         novaObrigacao.setTipoRecorrencia(com.fiscal.model.TipoRecorrencia.UNICA);
         novaObrigacao.setAjustarFinaisSemana(obrigacaoOriginal.getAjustarFinaisSemana());
@@ -226,6 +221,7 @@ public class ObrigacaoCompletaService {
         
         // Notificar criação
         notificacaoService.notificarCriacaoObrigacao(salva.getId(), salva.getNome(), usuarioEditor);
+        alertaVencimentoService.agendar(salva);
         
         System.out.println("Obrigação duplicada com sucesso: ID " + salva.getId());
         return salva;
@@ -237,7 +233,7 @@ public class ObrigacaoCompletaService {
     public Obrigacao gerarProximaOcorrenciaManual(Long id, String usuarioEditor) {
         // Log removido temporariamente
         
-        Obrigacao obrigacao = obrigacaoRepository.findById(id)
+        Obrigacao obrigacao = obrigacaoRepository.findDetalhadaById(id)
                 .orElseThrow(() -> new RuntimeException("Obrigação não encontrada"));
         
         if (obrigacao.getTipoRecorrencia() == com.fiscal.model.TipoRecorrencia.UNICA) {
@@ -245,12 +241,16 @@ public class ObrigacaoCompletaService {
         }
         
         Obrigacao novaObrigacao = recorrenciaService.gerarProximaOcorrencia(obrigacao);
+        if (novaObrigacao == null) {
+            throw new RuntimeException("Recorrência encerrada para esta obrigação");
+        }
         
         // Registrar no histórico
         historicoService.registrarCriacao(novaObrigacao, usuarioEditor);
         
         // Notificar criação
         notificacaoService.notificarCriacaoObrigacao(novaObrigacao.getId(), novaObrigacao.getNome(), usuarioEditor);
+        alertaVencimentoService.agendar(novaObrigacao);
         
         System.out.println("Próxima ocorrência gerada manualmente: ID " + novaObrigacao.getId());
         return novaObrigacao;
@@ -267,13 +267,13 @@ public class ObrigacaoCompletaService {
         long obrigacoesConcluidas = obrigacaoRepository.countByConcluida(true);
         long obrigacoesVencidas = obrigacaoRepository.countVencidas(hoje);
         
-        List<Obrigacao> proximasVencimento = obrigacaoRepository.findProximasVencimento(hoje, hoje.plusDays(7));
+        long proximasVencimento = obrigacaoRepository.countProximasVencimento(hoje, hoje.plusDays(7));
         
         java.util.Map<String, Object> estatisticas = new java.util.HashMap<>();
         estatisticas.put("totalObrigacoes", totalObrigacoes);
         estatisticas.put("obrigacoesConcluidas", obrigacoesConcluidas);
         estatisticas.put("obrigacoesVencidas", obrigacoesVencidas);
-        estatisticas.put("proximasVencimento", proximasVencimento.size());
+        estatisticas.put("proximasVencimento", proximasVencimento);
         estatisticas.put("dataAtualizacao", java.time.LocalDateTime.now());
         
         return estatisticas;
@@ -0,0 +1,219 @@
+package com.fiscal.service;
+
+import com.fiscal.model.Obrigacao;
+import com.fiscal.model.ObrigacaoSerie;
+import com.fiscal.model.Responsavel;
+import com.fiscal.model.TipoRecorrencia;
+import com.fiscal.model.dto.EdicaoSerieRequest;
+import com.fiscal.repository.HistoricoAlteracaoRepository;
+import com.fiscal.repository.ObrigacaoRepository;
+import com.fiscal.repository.ObrigacaoSerieRepository;
+import com.fiscal.repository.ResponsavelRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serviço de séries de obrigações recorrentes
+ * Edições "desta e das próximas" e a desativação da série são aplicadas com um UPDATE por campo,
+ * precedido de um INSERT ... SELECT que grava o histórico de todas as ocorrências afetadas.
+ * Padrão: Service Layer Pattern + Bulk Update
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ObrigacaoSerieService {
+    
+    private final ObrigacaoSerieRepository serieRepository;
+    private final ObrigacaoRepository obrigacaoRepository;
+    private final HistoricoAlteracaoRepository historicoRepository;
+    private final ResponsavelRepository responsavelRepository;
+    
+    /**
+     * Garante que a obrigação recorrente pertence a uma série, criando-a a partir da própria ocorrência
+     */
+    public ObrigacaoSerie garantirSerie(Obrigacao obrigacao) {
+        if (obrigacao.getSerie() != null) {
+            return obrigacao.getSerie();
+        }
+        if (obrigacao.getTipoRecorrencia() == TipoRecorrencia.UNICA && obrigacao.getRegraRecorrencia() == null) {
+            return null;
+        }
+        
+        ObrigacaoSerie serie = new ObrigacaoSerie();
+        serie.setNome(obrigacao.getNome());
+        serie.setTipo(obrigacao.getTipo());
+        serie.setDescricao(obrigacao.getDescricao());
+        serie.setCliente(obrigacao.getCliente());
+        serie.setResponsavel(obrigacao.getResponsavel());
+        serie.setTipoRecorrencia(obrigacao.getTipoRecorrencia());
+        serie.setDiasRecorrencia(obrigacao.getDiasRecorrencia());
+        serie.setDiaMesRecorrencia(obrigacao.getDiaMesRecorrencia());
+        serie.setRegraRecorrencia(obrigacao.getRegraRecorrencia());
+        serie.setAjustarFinaisSemana(obrigacao.getAjustarFinaisSemana());
+        serie.setAjustarFeriados(obrigacao.getAjustarFeriados());
+        serie.setModoAjuste(obrigacao.getModoAjuste());
+        serie.setUltimoEditor(obrigacao.getUltimoEditor());
+        // A ocorrência que origina a série conta como o primeiro período gerado
+        LocalDate primeiraNominal = obrigacao.getDataVencimentoOriginal() != null
+                ? obrigacao.getDataVencimentoOriginal()
+                : obrigacao.getDataVencimento();
+        serie.setDataUltimaGeracao(primeiraNominal);
+        
+        // Sem dia informado, o dia do mês é fixado pela primeira data nominal: do contrário cada ocorrência
+        // herdaria o dia da anterior e 31/01 viraria 28/02 e depois 28/03
+        if (obrigacao.getRegraRecorrencia() == null && obrigacao.getDiaMesRecorrencia() == null
+                && RegraRecorrencia.usaDiaDoMes(obrigacao.getTipoRecorrencia(), obrigacao.getDiasRecorrencia())) {
+            serie.setDiaMesRecorrencia(primeiraNominal.getDayOfMonth());
+            obrigacao.setDiaMesRecorrencia(primeiraNominal.getDayOfMonth());
+        }
+        
+        ObrigacaoSerie salva = serieRepository.save(serie);
+        obrigacao.setSerie(salva);
+        return salva;
+    }
+    
+    /**
+     * Reserva a geração do período com a data nominal informada avançando a marca da série
+     * Retorna false se o período já foi gerado, inclusive por uma execução concorrente.
+     */
+    public boolean registrarGeracao(ObrigacaoSerie serie, LocalDate dataReferencia) {
+        return registrarGeracao(serie, dataReferencia, dataReferencia);
+    }
+    
+    /**
+     * Reserva de uma vez os períodos entre as datas nominais informadas
+     * Retorna false se qualquer um deles já foi gerado.
+     */
+    public boolean registrarGeracao(ObrigacaoSerie serie, LocalDate primeiraData, LocalDate ultimaData) {
+        if (serieRepository.avancarMarcaGeracao(serie.getId(), primeiraData, ultimaData) == 0) {
+            return false;
+        }
+        // Mantém a entidade gerenciada coerente com o UPDATE para não regravar a marca anterior
+        serie.setDataUltimaGeracao(ultimaData);
+        return true;
+    }
+    
+    /**
+     * Copia para uma nova ocorrência os dados que a série define para as próximas ocorrências
+     */
+    public void aplicarDefinicao(ObrigacaoSerie serie, Obrigacao ocorrencia) {
+        ocorrencia.setSerie(serie);
+        ocorrencia.setNome(serie.getNome());
+        ocorrencia.setDescricao(serie.getDescricao());
+        ocorrencia.setResponsavel(serie.getResponsavel());
+    }
+    
+    /**
+     * Edita as ocorrências pendentes da série com vencimento a partir da data informada
+     */
+    public Map<String, Object> editarFuturas(Long serieId, EdicaoSerieRequest request) {
+        ObrigacaoSerie serie = serieRepository.findById(serieId)
+                .orElseThrow(() -> new RuntimeException("Série não encontrada"));
+        LocalDate aPartirDe = request.getDataInicio() != null ? request.getDataInicio() : LocalDate.now();
+        return editar(serie, aPartirDe, request);
+    }
+    
+    /**
+     * Edita a ocorrência informada e todas as pendentes posteriores da mesma série
+     */
+    public Map<String, Object> editarFuturasAPartirDe(Long obrigacaoId, EdicaoSerieRequest request) {
+        Obrigacao obrigacao = obrigacaoRepository.findById(obrigacaoId)
+                .orElseThrow(() -> new RuntimeException("Obrigação não encontrada"));
+        ObrigacaoSerie serie = garantirSerie(obrigacao);
+        if (serie == null) {
+            throw new RuntimeException("Obrigação não pertence a uma série recorrente");
+        }
+        return editar(serie, obrigacao.getDataVencimento(), request);
+    }
+    
+    /**
+     * Desativa a série: ocorrências pendentes a partir da data deixam de valer e nenhuma nova é gerada
+     */
+    public Map<String, Object> desativarSerie(Long serieId, LocalDate aPartirDe, String usuarioEditor) {
+        ObrigacaoSerie serie = serieRepository.findById(serieId)
+                .orElseThrow(() -> new RuntimeException("Série não encontrada"));
+        LocalDate inicio = aPartirDe != null ? aPartirDe : LocalDate.now();
+        LocalDateTime agora = LocalDateTime.now();
+        
+        serie.setAtivo(false);
+        serie.setUltimoEditor(usuarioEditor);
+        serieRepository.save(serie);
+        
+        int historico = historicoRepository.registrarDesativacaoDaSerie(serieId, inicio, usuarioEditor, agora,
+                "Série desativada a partir de " + inicio);
+        int atualizadas = obrigacaoRepository.desativarSerie(serieId, inicio, usuarioEditor, agora);
+        
+        log.info("Série {} desativada a partir de {}: {} ocorrências desativadas", serieId, inicio, historico);
+        
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("serieId", serieId);
+        resumo.put("aPartirDe", inicio);
+        resumo.put("desativadas", historico);
+        resumo.put("atualizadas", atualizadas);
+        return resumo;
+    }
+    
+    /**
+     * Aplica cada campo informado à série e, em lote, às ocorrências pendentes
+     * O histórico é gravado antes do UPDATE para capturar o valor anterior de cada linha.
+     */
+    private Map<String, Object> editar(ObrigacaoSerie serie, LocalDate aPartirDe, EdicaoSerieRequest request) {
+        Long serieId = serie.getId();
+        String usuario = request.getUsuarioEditor();
+        LocalDateTime agora = LocalDateTime.now();
+        String observacoes = "Edição da série a partir de " + aPartirDe;
+        
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("serieId", serieId);
+        resumo.put("aPartirDe", aPartirDe);
+        
+        Responsavel responsavel = null;
+        if (request.getResponsavelId() != null) {
+            responsavel = responsavelRepository.findById(request.getResponsavelId())
+                    .orElseThrow(() -> new RuntimeException("Responsável não encontrado"));
+            historicoRepository.registrarResponsavelDaSerie(serieId, aPartirDe, responsavel.getId(),
+                    responsavel.getNome(), usuario, agora, observacoes);
+            resumo.put("responsavel", obrigacaoRepository.atualizarResponsavelDaSerie(serieId, aPartirDe,
+                    responsavel, usuario, agora));
+        }
+        
+        if (request.getNome() != null && !request.getNome().isBlank()) {
+            historicoRepository.registrarNomeDaSerie(serieId, aPartirDe, request.getNome(), usuario, agora, observacoes);
+            resumo.put("nome", obrigacaoRepository.atualizarNomeDaSerie(serieId, aPartirDe, request.getNome(),
+                    usuario, agora));
+        }
+        
+        if (request.getDescricao() != null) {
+            historicoRepository.registrarDescricaoDaSerie(serieId, aPartirDe, request.getDescricao(), usuario, agora,
+                    observacoes);
+            resumo.put("descricao", obrigacaoRepository.atualizarDescricaoDaSerie(serieId, aPartirDe,
+                    request.getDescricao(), usuario, agora));
+        }
+        
+        // Os UPDATEs limpam o contexto de persistência; a série é relida para não regravar valores antigos
+        ObrigacaoSerie atual = serieRepository.findById(serieId)
+                .orElseThrow(() -> new RuntimeException("Série não encontrada"));
+        if (responsavel != null) {
+            atual.setResponsavel(responsavel);
+        }
+        if (resumo.containsKey("nome")) {
+            atual.setNome(request.getNome());
+        }
+        if (resumo.containsKey("descricao")) {
+            atual.setDescricao(request.getDescricao());
+        }
+        atual.setUltimoEditor(usuario);
+        serieRepository.save(atual);
+        
+        log.info("Série {} editada a partir de {}: {}", serieId, aPartirDe, resumo);
+        return resumo;
+    }
+}
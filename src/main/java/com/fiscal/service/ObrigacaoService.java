@@ -1,11 +1,23 @@
 package com.fiscal.service;
 
 import com.fiscal.model.*;
+import com.fiscal.model.dto.ClienteResumo;
+import com.fiscal.model.dto.CursorPaginacao;
+import com.fiscal.model.dto.FiltroObrigacao;
 import com.fiscal.model.dto.ObrigacaoRequest;
 import com.fiscal.model.dto.ObrigacaoResponse;
+import com.fiscal.model.dto.ObrigacaoResumo;
+import com.fiscal.model.dto.PaginaCursor;
+import com.fiscal.model.dto.ResponsavelResumo;
+import com.fiscal.repository.ClienteRepository;
+import com.fiscal.repository.ImpostoRepository;
 import com.fiscal.repository.ObrigacaoRepository;
+import com.fiscal.repository.ObrigacaoResumoRepository;
+import com.fiscal.repository.ObrigacaoSpecifications;
+import com.fiscal.repository.ResponsavelRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,9 +37,15 @@ import java.util.stream.Collectors;
 public class ObrigacaoService {
     
     private final ObrigacaoRepository obrigacaoRepository;
+    private final ObrigacaoResumoRepository obrigacaoResumoRepository;
+    private final ClienteRepository clienteRepository;
+    private final ResponsavelRepository responsavelRepository;
     private final HistoricoService historicoService;
     private final RecorrenciaService recorrenciaService;
     private final DataService dataService;
+    private final ObrigacaoSerieService serieService;
+    private final ImpostoRepository impostoRepository;
+    private final AlertaVencimentoService alertaVencimentoService;
     
     /**
      * Cria uma nova obrigação
@@ -35,37 +53,43 @@ public class ObrigacaoService {
     public ObrigacaoResponse criarObrigacao(ObrigacaoRequest request) {
         System.out.println("Criando nova obrigação: " + request.getNome());
         
-        Obrigacao obrigacao = // Obrigacao.new 
-                .nome(request.getNome())
-                .tipo(request.getTipo())
-                .descricao(request.getDescricao())
-                .dataVencimento(request.getDataVencimento())
-                .tipoRecorrencia(request.getTipoRecorrencia())
-                .diasRecorrencia(request.getDiasRecorrencia())
-                .diaMesRecorrencia(request.getDiaMesRecorrencia())
-                .ajustarFinaisSemana(request.getAjustarFinaisSemana() != null ? request.getAjustarFinaisSemana() : true)
-                .ajustarFeriados(request.getAjustarFeriados() != null ? request.getAjustarFeriados() : true)
-                .ultimoEditor(request.getUsuarioEditor())
-                ;
-        
-        // Ajustar data de vencimento se necessário
-        LocalDate dataAjustada = dataService.ajustarDataVencimento(
-                obrigacao.getDataVencimento(), 
-                obrigacao.getAjustarFinaisSemana(), 
-                obrigacao.getAjustarFeriados()
-        );
+        Obrigacao obrigacao = new Obrigacao();
+        obrigacao.setNome(request.getNome());
+        obrigacao.setTipo(request.getTipo());
+        obrigacao.setDescricao(request.getDescricao());
+        obrigacao.setDataVencimento(request.getDataVencimento());
+        obrigacao.setTipoRecorrencia(request.getTipoRecorrencia());
+        obrigacao.setDiasRecorrencia(request.getDiasRecorrencia());
+        obrigacao.setDiaMesRecorrencia(request.getDiaMesRecorrencia());
+        obrigacao.setRegraRecorrencia(request.getRegraRecorrencia());
+        obrigacao.setAjustarFinaisSemana(request.getAjustarFinaisSemana() != null ? request.getAjustarFinaisSemana() : true);
+        obrigacao.setAjustarFeriados(request.getAjustarFeriados() != null ? request.getAjustarFeriados() : true);
+        obrigacao.setModoAjuste(request.getModoAjuste() != null ? request.getModoAjuste() : ModoAjuste.POSTERGAR);
+        obrigacao.setUltimoEditor(request.getUsuarioEditor());
+        
+        // Cliente define o calendário regional de feriados usado no ajuste
+        vincularClienteResponsavel(obrigacao, request);
+        
+        // Ajustar data de vencimento se necessário, preservando a data nominal
+        obrigacao.setDataVencimentoOriginal(obrigacao.getDataVencimento());
+        normalizarRegraRecorrencia(obrigacao);
+        LocalDate dataAjustada = dataService.ajustarDataVencimento(obrigacao, obrigacao.getDataVencimento());
         obrigacao.setDataVencimento(dataAjustada);
         
         // Calcular próxima data de geração para recorrências
-        if (obrigacao.getTipoRecorrencia() != TipoRecorrencia.UNICA) {
+        if (obrigacao.getTipoRecorrencia() != TipoRecorrencia.UNICA || obrigacao.getRegraRecorrencia() != null) {
             LocalDate proximaGeracao = recorrenciaService.calcularProximaDataGeracao(obrigacao);
             obrigacao.setDataProximaGeracao(proximaGeracao);
+            
+            // A série guarda a definição herdada pelas próximas ocorrências
+            serieService.garantirSerie(obrigacao);
         }
         
         Obrigacao salva = obrigacaoRepository.save(obrigacao);
         
         // Registrar no histórico
         historicoService.registrarCriacao(salva, request.getUsuarioEditor());
+        alertaVencimentoService.agendar(salva);
         
         System.out.println("Obrigação criada com sucesso: ID " + salva.getId());
         return converterParaResponse(salva);
@@ -77,33 +101,42 @@ public class ObrigacaoService {
     public ObrigacaoResponse atualizarObrigacao(Long id, ObrigacaoRequest request) {
         // Log removido temporariamente
         
-        Obrigacao obrigacao = obrigacaoRepository.findById(id)
+        Obrigacao obrigacao = obrigacaoRepository.findDetalhadaById(id)
                 .orElseThrow(() -> new RuntimeException("Obrigação não encontrada"));
         
         // Registrar alterações no histórico
         historicoService.registrarAlteracoes(obrigacao, request);
         
+        // O formulário devolve o vencimento ajustado; sem mudança, a data nominal da ocorrência é mantida
+        LocalDate dataNominal = request.getDataVencimento();
+        if (dataNominal != null && dataNominal.equals(obrigacao.getDataVencimento())
+                && obrigacao.getDataVencimentoOriginal() != null) {
+            dataNominal = obrigacao.getDataVencimentoOriginal();
+        }
+        
         // Atualizar campos
         obrigacao.setNome(request.getNome());
         obrigacao.setTipo(request.getTipo());
         obrigacao.setDescricao(request.getDescricao());
-        obrigacao.setDataVencimento(request.getDataVencimento());
+        obrigacao.setDataVencimento(dataNominal);
         obrigacao.setTipoRecorrencia(request.getTipoRecorrencia());
         obrigacao.setDiasRecorrencia(request.getDiasRecorrencia());
         obrigacao.setDiaMesRecorrencia(request.getDiaMesRecorrencia());
+        obrigacao.setRegraRecorrencia(request.getRegraRecorrencia());
         obrigacao.setAjustarFinaisSemana(request.getAjustarFinaisSemana());
         obrigacao.setAjustarFeriados(request.getAjustarFeriados());
+        obrigacao.setModoAjuste(request.getModoAjuste() != null ? request.getModoAjuste() : ModoAjuste.POSTERGAR);
         obrigacao.setUltimoEditor(request.getUsuarioEditor());
+        vincularClienteResponsavel(obrigacao, request);
         
-        // Ajustar data de vencimento se necessário
-        LocalDate dataAjustada = dataService.ajustarDataVencimento(
-                obrigacao.getDataVencimento(), 
-                obrigacao.getAjustarFinaisSemana(), 
-                obrigacao.getAjustarFeriados()
-        );
+        // Ajustar data de vencimento se necessário, preservando a data nominal
+        obrigacao.setDataVencimentoOriginal(obrigacao.getDataVencimento());
+        normalizarRegraRecorrencia(obrigacao);
+        LocalDate dataAjustada = dataService.ajustarDataVencimento(obrigacao, obrigacao.getDataVencimento());
         obrigacao.setDataVencimento(dataAjustada);
         
         Obrigacao salva = obrigacaoRepository.save(obrigacao);
+        alertaVencimentoService.agendar(salva);
         
         System.out.println("Obrigação atualizada com sucesso: ID " + salva.getId());
         return converterParaResponse(salva);
@@ -115,7 +148,7 @@ public class ObrigacaoService {
     public ObrigacaoResponse concluirObrigacao(Long id, String usuarioEditor) {
         // Log removido temporariamente
         
-        Obrigacao obrigacao = obrigacaoRepository.findById(id)
+        Obrigacao obrigacao = obrigacaoRepository.findDetalhadaById(id)
                 .orElseThrow(() -> new RuntimeException("Obrigação não encontrada"));
         
         obrigacao.setConcluida(true);
@@ -126,6 +159,7 @@ public class ObrigacaoService {
         
         // Registrar no histórico
         historicoService.registrarConclusao(salva, usuarioEditor);
+        alertaVencimentoService.cancelar(salva.getId());
         
         System.out.println("Obrigação concluída com sucesso: ID " + salva.getId());
         return converterParaResponse(salva);
@@ -135,77 +169,102 @@ public class ObrigacaoService {
      * Busca obrigações próximas do vencimento
      */
     @Transactional(readOnly = true)
-    public List<ObrigacaoResponse> buscarProximasVencimento(int dias) {
+    public List<ObrigacaoResumo> buscarProximasVencimento(int dias) {
         LocalDate hoje = LocalDate.now();
-        LocalDate dataLimite = hoje.plusDays(dias);
-        
-        List<Obrigacao> obrigacoes = obrigacaoRepository.findProximasVencimento(hoje, dataLimite);
-        
-        return obrigacoes.stream()
-                .map(this::converterParaResponse)
-                .collect(Collectors.toList());
+        return obrigacaoRepository.findResumoProximasVencimento(hoje, hoje.plusDays(dias));
     }
     
     /**
      * Busca obrigações vencidas
      */
     @Transactional(readOnly = true)
-    public List<ObrigacaoResponse> buscarVencidas() {
-        List<Obrigacao> obrigacoes = obrigacaoRepository.findVencidas(LocalDate.now());
-        
-        return obrigacoes.stream()
-                .map(this::converterParaResponse)
-                .collect(Collectors.toList());
+    public List<ObrigacaoResumo> buscarVencidas() {
+        return obrigacaoRepository.findResumoVencidas(LocalDate.now());
     }
     
     /**
-     * Converte entidade para DTO de resposta
+     * Busca uma página de obrigações com os filtros informados, em ordem de vencimento
+     * A página seguinte parte da chave (dataVencimento, id) do cursor, sem OFFSET nem contagem.
      */
-    private ObrigacaoResponse converterParaResponse(Obrigacao obrigacao) {
-        long diasParaVencimento = ChronoUnit.DAYS.between(LocalDate.now(), obrigacao.getDataVencimento());
+    @Transactional(readOnly = true)
+    public PaginaCursor<ObrigacaoResumo> buscarPagina(FiltroObrigacao filtro, String cursor, Integer tamanho) {
+        int limite = PaginaCursor.tamanhoValido(tamanho);
+        Specification<Obrigacao> criterio = ObrigacaoSpecifications.comFiltro(filtro, LocalDate.now());
+        if (cursor != null && !cursor.isBlank()) {
+            CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+            criterio = criterio.and(ObrigacaoSpecifications.aposCursor(posicao.getValorData(), posicao.getId()));
+        }
         
-        String statusUrgencia = calcularStatusUrgencia(diasParaVencimento);
-        
-        return ObrigacaoResponsenew 
-                .id(obrigacao.getId())
-                .nome(obrigacao.getNome())
-                .tipo(obrigacao.getTipo())
-                .descricao(obrigacao.getDescricao())
-                .cliente(obrigacao.getCliente())
-                .responsavel(obrigacao.getResponsavel())
-                .dataVencimento(obrigacao.getDataVencimento())
-                .tipoRecorrencia(obrigacao.getTipoRecorrencia())
-                .diasRecorrencia(obrigacao.getDiasRecorrencia())
-                .diaMesRecorrencia(obrigacao.getDiaMesRecorrencia())
-                .ajustarFinaisSemana(obrigacao.getAjustarFinaisSemana())
-                .ajustarFeriados(obrigacao.getAjustarFeriados())
-                .dataProximaGeracao(obrigacao.getDataProximaGeracao())
-                .ativo(obrigacao.getAtivo())
-                .concluida(obrigacao.getConcluida())
-                .dataConclusao(obrigacao.getDataConclusao())
-                .dataCriacao(obrigacao.getDataCriacao())
-                .dataAtualizacao(obrigacao.getDataAtualizacao())
-                .ultimoEditor(obrigacao.getUltimoEditor())
-                .diasParaVencimento(diasParaVencimento)
-                .statusUrgencia(statusUrgencia)
-                ;
+        List<ObrigacaoResumo> linhas = obrigacaoResumoRepository.buscar(criterio,
+                ObrigacaoSpecifications.ORDEM_VENCIMENTO, limite + 1);
+        
+        return PaginaCursor.de(linhas, limite,
+                resumo -> new CursorPaginacao(resumo.getDataVencimento(), resumo.getId()));
     }
     
     /**
-     * Calcula status de urgência baseado nos dias para vencimento
+     * Valida a RRULE informada e grava sua forma canônica, fixando DTSTART na data nominal
      */
-    private String calcularStatusUrgencia(long diasParaVencimento) {
-        if (diasParaVencimento < 0) {
-            return "VENCIDA";
-        } else if (diasParaVencimento <= 3) {
-            return "CRÍTICA";
-        } else if (diasParaVencimento <= 7) {
-            return "URGENTE";
-        } else if (diasParaVencimento <= 15) {
-            return "ATENÇÃO";
-        } else {
-            return "NORMAL";
+    private void normalizarRegraRecorrencia(Obrigacao obrigacao) {
+        String regra = obrigacao.getRegraRecorrencia();
+        if (regra == null || regra.isBlank()) {
+            obrigacao.setRegraRecorrencia(null);
+            return;
         }
+        obrigacao.setRegraRecorrencia(recorrenciaService.compilar(regra, obrigacao.getDataVencimento()).toString());
+    }
+    
+    /**
+     * Vincula cliente, responsável e imposto informados na requisição
+     */
+    private void vincularClienteResponsavel(Obrigacao obrigacao, ObrigacaoRequest request) {
+        obrigacao.setCliente(request.getClienteId() == null ? null
+                : clienteRepository.findById(request.getClienteId())
+                        .orElseThrow(() -> new RuntimeException("Cliente não encontrado")));
+        obrigacao.setResponsavel(request.getResponsavelId() == null ? null
+                : responsavelRepository.findById(request.getResponsavelId())
+                        .orElseThrow(() -> new RuntimeException("Responsável não encontrado")));
+        obrigacao.setImposto(request.getImpostoId() == null ? null
+                : impostoRepository.findById(request.getImpostoId())
+                        .orElseThrow(() -> new RuntimeException("Imposto não encontrado")));
+    }
+    
+    /**
+     * Converte entidade para DTO de resposta
+     */
+    private ObrigacaoResponse converterParaResponse(Obrigacao obrigacao) {
+        long diasParaVencimento = ChronoUnit.DAYS.between(LocalDate.now(), obrigacao.getDataVencimento());
+        
+        String statusUrgencia = StatusUrgencia.de(diasParaVencimento).getDescricao();
+        
+        ObrigacaoResponse response = new ObrigacaoResponse();
+        response.setId(obrigacao.getId());
+        response.setNome(obrigacao.getNome());
+        response.setTipo(obrigacao.getTipo());
+        response.setDescricao(obrigacao.getDescricao());
+        response.setCliente(ClienteResumo.de(obrigacao.getCliente()));
+        response.setResponsavel(ResponsavelResumo.de(obrigacao.getResponsavel()));
+        response.setDataVencimento(obrigacao.getDataVencimento());
+        response.setDataVencimentoOriginal(obrigacao.getDataVencimentoOriginal());
+        response.setTipoRecorrencia(obrigacao.getTipoRecorrencia());
+        response.setDiasRecorrencia(obrigacao.getDiasRecorrencia());
+        response.setDiaMesRecorrencia(obrigacao.getDiaMesRecorrencia());
+        response.setRegraRecorrencia(obrigacao.getRegraRecorrencia());
+        response.setSerieId(obrigacao.getSerie() != null ? obrigacao.getSerie().getId() : null);
+        response.setImpostoId(obrigacao.getImposto() != null ? obrigacao.getImposto().getId() : null);
+        response.setAjustarFinaisSemana(obrigacao.getAjustarFinaisSemana());
+        response.setAjustarFeriados(obrigacao.getAjustarFeriados());
+        response.setModoAjuste(obrigacao.getModoAjuste());
+        response.setDataProximaGeracao(obrigacao.getDataProximaGeracao());
+        response.setAtivo(obrigacao.getAtivo());
+        response.setConcluida(obrigacao.getConcluida());
+        response.setDataConclusao(obrigacao.getDataConclusao());
+        response.setDataCriacao(obrigacao.getDataCriacao());
+        response.setDataAtualizacao(obrigacao.getDataAtualizacao());
+        response.setUltimoEditor(obrigacao.getUltimoEditor());
+        response.setDiasParaVencimento(diasParaVencimento);
+        response.setStatusUrgencia(statusUrgencia);
+        return response;
     }
 }
 
@@ -0,0 +1,311 @@
+package com.fiscal.service;
+
+import com.fiscal.model.Obrigacao;
+import com.fiscal.repository.ObrigacaoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serviço de processamento em lotes da geração diária de recorrências
+ * Os ids pendentes são divididos em lotes, cada lote roda em uma transação curta em um pool limitado
+ * de threads; se um lote falha, suas obrigações são refeitas uma a uma para isolar a que falhou.
+ * Regras simples são geradas antes em SQL; o caminho em Java trata apenas as que restarem.
+ * Em cluster, os ids são divididos em partições por posse, espalhadas entre as instâncias ativas.
+ * Padrão: Service Layer Pattern + Batch Processing
+ */
+@Service
+public class ProcessamentoRecorrenciasService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessamentoRecorrenciasService.class);
+
+    static final String JOB_GERACAO_SQL = "recorrencias-sql";
+    static final String JOB_PARTICAO = "recorrencias-particao-";
+
+    private static final Duration DURACAO_POSSE = Duration.ofMinutes(5);
+    private static final Duration ESPERA_GERACAO_SQL = Duration.ofMinutes(30);
+
+    private final ObrigacaoRepository obrigacaoRepository;
+    private final RecorrenciaService recorrenciaService;
+    private final NotificacaoService notificacaoService;
+    private final GeracaoRecorrenciaSqlService geracaoSqlService;
+    private final JobLeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+    private final int threads;
+    private final int particoes;
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean(false);
+    private volatile Progresso progresso;
+
+    public ProcessamentoRecorrenciasService(ObrigacaoRepository obrigacaoRepository,
+                                            RecorrenciaService recorrenciaService,
+                                            NotificacaoService notificacaoService,
+                                            GeracaoRecorrenciaSqlService geracaoSqlService,
+                                            JobLeaseService leaseService,
+                                            PlatformTransactionManager transactionManager,
+                                            @Value("${app.recorrencia.tamanho-lote:200}") int tamanhoLote,
+                                            @Value("${app.recorrencia.threads:4}") int threads,
+                                            @Value("${app.recorrencia.particoes:8}") int particoes) {
+        this.obrigacaoRepository = obrigacaoRepository;
+        this.recorrenciaService = recorrenciaService;
+        this.notificacaoService = notificacaoService;
+        this.geracaoSqlService = geracaoSqlService;
+        this.leaseService = leaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.threads = Math.max(1, threads);
+        this.particoes = Math.max(1, particoes);
+    }
+
+    /**
+     * Gera as próximas ocorrências de todas as obrigações com geração prevista até a data
+     * Retorna null se já houver um processamento em andamento.
+     */
+    public Map<String, Object> processar(LocalDate hoje, String usuarioEditor) {
+        if (!emExecucao.compareAndSet(false, true)) {
+            log.warn("Processamento de recorrências já em andamento; execução ignorada");
+            return null;
+        }
+
+        try {
+            int geradasSql = gerarEmSql(hoje);
+            List<Long> ids = obrigacaoRepository.findIdsParaGerarProximaOcorrencia(hoje);
+            List<List<Long>> grupos = particionar(ids);
+            int lotes = grupos.stream().mapToInt(grupo -> (grupo.size() + tamanhoLote - 1) / tamanhoLote).sum();
+            Progresso atual = new Progresso(hoje, ids.size(), lotes);
+            atual.geradasSql = geradasSql;
+            atual.geradas.addAndGet(geradasSql);
+            progresso = atual;
+
+            if (!ids.isEmpty()) {
+                executarParticoes(grupos, atual);
+            }
+            atual.concluir();
+
+            Map<String, Object> resumo = atual.resumo();
+            log.info("Processamento de recorrências concluído: {}", resumo);
+            if (atual.geradas.get() > 0) {
+                notificacaoService.notificarRecorrenciasGeradas(resumo, usuarioEditor);
+            }
+            return resumo;
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    /**
+     * Gera as regras simples em um INSERT ... SELECT; em caso de erro tudo fica para o caminho em Java
+     * Só uma instância roda a geração em SQL; as demais esperam ela terminar antes de buscar os ids.
+     */
+    private int gerarEmSql(LocalDate hoje) {
+        if (!geracaoSqlService.isHabilitada()) {
+            return 0;
+        }
+        try {
+            Optional<Integer> geradas = leaseService.executarComLease(JOB_GERACAO_SQL, DURACAO_POSSE, true,
+                    () -> geracaoSqlService.gerarElegiveis(hoje));
+            if (geradas.isPresent()) {
+                return geradas.get();
+            }
+            if (!leaseService.aguardarLiberacao(JOB_GERACAO_SQL, ESPERA_GERACAO_SQL)) {
+                log.warn("Geração de recorrências em SQL de outra instância não terminou a tempo");
+            }
+            return 0;
+        } catch (Exception e) {
+            log.error("Geração de recorrências em SQL falhou; usando o processamento em lotes: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Divide os ids em partições fixas pelo resto do id, estáveis entre instâncias
+     */
+    private List<List<Long>> particionar(List<Long> ids) {
+        List<List<Long>> grupos = new ArrayList<>(particoes);
+        for (int i = 0; i < particoes; i++) {
+            grupos.add(new ArrayList<>());
+        }
+        for (Long id : ids) {
+            grupos.get((int) Math.floorMod(id, (long) particoes)).add(id);
+        }
+        return grupos;
+    }
+
+    /**
+     * Processa as partições cuja posse conseguir adquirir
+     * Cada instância começa pela sua fatia das partições e depois tenta as restantes,
+     * assumindo o trabalho de instâncias ocupadas ou que caíram.
+     */
+    private void executarParticoes(List<List<Long>> grupos, Progresso atual) {
+        List<String> instancias = leaseService.instanciasAtivas();
+        int inicio = instancias.indexOf(leaseService.getInstancia()) * particoes / instancias.size();
+
+        for (int i = 0; i < particoes; i++) {
+            int particao = (inicio + i) % particoes;
+            List<Long> grupo = grupos.get(particao);
+            if (grupo.isEmpty()) {
+                continue;
+            }
+            // Os ids são relidos com a posse: outra instância pode ter concluído a partição e liberado
+            boolean processada = leaseService.executarComLease(JOB_PARTICAO + particao, DURACAO_POSSE, true, () -> {
+                List<Long> pendentes = obrigacaoRepository.findIdsParaGerarProximaOcorrenciaNaParticao(
+                        atual.dataReferencia, particoes, particao);
+                atual.outrasInstancias.addAndGet(Math.max(0, grupo.size() - pendentes.size()));
+                if (!pendentes.isEmpty()) {
+                    executarLotes(pendentes, atual);
+                }
+            });
+            if (!processada) {
+                atual.outrasInstancias.addAndGet(grupo.size());
+            }
+        }
+    }
+
+    /**
+     * Progresso do processamento atual ou do último concluído
+     */
+    public Map<String, Object> obterProgresso() {
+        Progresso atual = progresso;
+        return atual != null ? atual.resumo() : Map.of("status", "NUNCA_EXECUTADO");
+    }
+
+    /**
+     * Distribui os lotes no pool; a fila limitada faz a thread chamadora processar quando o pool está cheio
+     */
+    private void executarLotes(List<Long> ids, Progresso atual) {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                r -> {
+                    Thread thread = new Thread(r, "recorrencia-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try {
+            List<Future<?>> pendentes = new ArrayList<>();
+            for (int inicio = 0; inicio < ids.size(); inicio += tamanhoLote) {
+                List<Long> lote = ids.subList(inicio, Math.min(inicio + tamanhoLote, ids.size()));
+                pendentes.add(executor.submit(() -> processarLote(lote, atual)));
+            }
+            for (Future<?> pendente : pendentes) {
+                try {
+                    pendente.get();
+                } catch (Exception e) {
+                    log.error("Erro inesperado em lote de recorrências", e);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Processa o lote em uma transação; em caso de falha refaz cada obrigação em transação própria
+     */
+    private void processarLote(List<Long> ids, Progresso atual) {
+        try {
+            int[] resultado = transactionTemplate.execute(status -> gerar(obrigacaoRepository.findParaGeracaoPorIds(ids), atual.dataReferencia));
+            atual.registrar(resultado);
+        } catch (Exception e) {
+            log.warn("Lote de {} recorrências falhou ({}); reprocessando individualmente", ids.size(), e.getMessage());
+            for (Long id : ids) {
+                try {
+                    int[] resultado = transactionTemplate.execute(status -> gerar(obrigacaoRepository.findParaGeracaoPorIds(List.of(id)), atual.dataReferencia));
+                    atual.registrar(resultado);
+                } catch (Exception erro) {
+                    atual.falhas.incrementAndGet();
+                    log.error("Erro ao processar recorrência para obrigação ID {}", id, erro);
+                }
+            }
+        }
+        atual.lotesConcluidos.incrementAndGet();
+        log.debug("Lote de recorrências concluído: {}/{}", atual.lotesConcluidos.get(), atual.lotes);
+    }
+
+    /**
+     * Gera todas as ocorrências pendentes até a data de cada obrigação; retorna {geradas, encerradas}
+     * Após uma indisponibilidade, uma única execução recupera todos os períodos perdidos.
+     */
+    private int[] gerar(List<Obrigacao> obrigacoes, LocalDate ate) {
+        int geradas = 0;
+        int encerradas = 0;
+        for (Obrigacao obrigacao : obrigacoes) {
+            int periodos = recorrenciaService.gerarOcorrenciasPendentes(obrigacao, ate);
+            geradas += periodos;
+            if (obrigacao.getDataProximaGeracao() == null && periodos == 0) {
+                encerradas++;
+            }
+        }
+        return new int[] {geradas, encerradas};
+    }
+
+    /**
+     * Contadores de um processamento, atualizados pelas threads do pool
+     */
+    private static final class Progresso {
+        private final LocalDate dataReferencia;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final int total;
+        private final int lotes;
+        private final AtomicInteger lotesConcluidos = new AtomicInteger();
+        private final AtomicInteger geradas = new AtomicInteger();
+        private final AtomicInteger encerradas = new AtomicInteger();
+        private final AtomicInteger falhas = new AtomicInteger();
+        private final AtomicInteger outrasInstancias = new AtomicInteger();
+        private volatile int geradasSql;
+        private volatile LocalDateTime fim;
+
+        private Progresso(LocalDate dataReferencia, int total, int lotes) {
+            this.dataReferencia = dataReferencia;
+            this.total = total;
+            this.lotes = lotes;
+        }
+
+        private void registrar(int[] resultado) {
+            geradas.addAndGet(resultado[0]);
+            encerradas.addAndGet(resultado[1]);
+        }
+
+        private void concluir() {
+            fim = LocalDateTime.now();
+        }
+
+        private Map<String, Object> resumo() {
+            Map<String, Object> resumo = new LinkedHashMap<>();
+            resumo.put("status", fim != null ? "CONCLUIDO" : "EM_ANDAMENTO");
+            resumo.put("dataReferencia", dataReferencia);
+            resumo.put("inicio", inicio);
+            resumo.put("fim", fim);
+            resumo.put("total", total);
+            resumo.put("lotes", lotes);
+            resumo.put("lotesConcluidos", lotesConcluidos.get());
+            resumo.put("geradas", geradas.get());
+            resumo.put("geradasSql", geradasSql);
+            resumo.put("encerradas", encerradas.get());
+            resumo.put("falhas", falhas.get());
+            resumo.put("outrasInstancias", outrasInstancias.get());
+            return resumo;
+        }
+    }
+}
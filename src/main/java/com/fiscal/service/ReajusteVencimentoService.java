@@ -0,0 +1,265 @@
+package com.fiscal.service;
+
+import com.fiscal.model.ExecucaoJob;
+import com.fiscal.model.Obrigacao;
+import com.fiscal.model.StatusExecucaoJob;
+import com.fiscal.repository.ExecucaoJobRepository;
+import com.fiscal.repository.ObrigacaoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Serviço de reajuste incremental de vencimentos quando o calendário de feriados muda
+ * Apenas obrigações com data nominal ou ajustada dentro da janela alterada são lidas,
+ * em lotes por id, cada lote em sua própria transação.
+ * Cada recarga fica registrada em execucoes_jobs; as demais instâncias consultam o registro
+ * e relêem o arquivo de feriados, sem reajustar de novo os vencimentos já gravados.
+ * Padrão: Service Layer Pattern + Batch Processing
+ */
+@Service
+public class ReajusteVencimentoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReajusteVencimentoService.class);
+
+    static final int TAMANHO_LOTE = 500;
+
+    static final String JOB_RECARGA_FERIADOS = "recarga-feriados";
+
+    /**
+     * Folga aplicada à janela: uma data nominal fora da janela ainda pode ter sido
+     * empurrada por fins de semana e feriados consecutivos para dentro dela
+     */
+    static final int MARGEM_DIAS = 10;
+
+    private final ObrigacaoRepository obrigacaoRepository;
+    private final HistoricoService historicoService;
+    private final NotificacaoService notificacaoService;
+    private final DataService dataService;
+    private final FeriadoProvider feriadoProvider;
+    private final AlertaVencimentoService alertaVencimentoService;
+    private final ExecucaoJobRepository execucaoRepository;
+    private final JobLeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Id do registro da última recarga de feriados já refletida no calendário desta instância
+     */
+    private volatile long ultimaRecargaAplicada;
+
+    public ReajusteVencimentoService(ObrigacaoRepository obrigacaoRepository,
+                                     HistoricoService historicoService,
+                                     NotificacaoService notificacaoService,
+                                     DataService dataService,
+                                     FeriadoProvider feriadoProvider,
+                                     AlertaVencimentoService alertaVencimentoService,
+                                     ExecucaoJobRepository execucaoRepository,
+                                     JobLeaseService leaseService,
+                                     PlatformTransactionManager transactionManager) {
+        this.obrigacaoRepository = obrigacaoRepository;
+        this.historicoService = historicoService;
+        this.notificacaoService = notificacaoService;
+        this.dataService = dataService;
+        this.feriadoProvider = feriadoProvider;
+        this.alertaVencimentoService = alertaVencimentoService;
+        this.execucaoRepository = execucaoRepository;
+        this.leaseService = leaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Recarrega o arquivo de feriados e reajusta somente os vencimentos afetados pelas datas alteradas
+     * O arquivo vale para todos os anos: cada ano já expandido (e o informado) é comparado com o snapshot
+     * anterior, em todas as abrangências, e cada ano alterado é reajustado na faixa entre o primeiro
+     * e o último dia modificado.
+     */
+    public Map<String, Object> recarregarFeriados(int ano, String usuarioEditor) {
+        Map<Integer, FeriadosAno> anteriores = new TreeMap<>();
+        for (int anoCarregado : feriadoProvider.anosCarregados()) {
+            anteriores.put(anoCarregado, feriadoProvider.feriados(anoCarregado));
+        }
+        anteriores.computeIfAbsent(ano, feriadoProvider::feriados);
+
+        LocalDateTime inicioRecarga = LocalDateTime.now();
+        dataService.carregarFeriadosAno(ano);
+
+        List<Map<String, Object>> faixas = new ArrayList<>();
+        int analisadas = 0;
+        int reajustadas = 0;
+        for (Map.Entry<Integer, FeriadosAno> anterior : anteriores.entrySet()) {
+            int anoAlterado = anterior.getKey();
+            BitSet alterados = feriadoProvider.feriados(anoAlterado).diasAlterados(anterior.getValue());
+            if (alterados.isEmpty()) {
+                continue;
+            }
+
+            LocalDate inicio = LocalDate.ofYearDay(anoAlterado, alterados.nextSetBit(0) + 1);
+            LocalDate fim = LocalDate.ofYearDay(anoAlterado, alterados.length());
+            Map<String, Object> faixa = reajustar(inicio, fim, usuarioEditor);
+            analisadas += (Integer) faixa.get("analisadas");
+            reajustadas += (Integer) faixa.get("reajustadas");
+            faixas.add(faixa);
+        }
+
+        if (faixas.isEmpty()) {
+            log.info("Nenhum feriado de {} foi alterado; vencimentos mantidos", anteriores.keySet());
+        }
+        registrarRecarga(inicioRecarga, reajustadas, anteriores.keySet());
+
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("ano", ano);
+        resumo.put("anosComparados", List.copyOf(anteriores.keySet()));
+        resumo.put("faixas", faixas);
+        resumo.put("analisadas", analisadas);
+        resumo.put("reajustadas", reajustadas);
+        return resumo;
+    }
+
+    /**
+     * Registra a recarga para que as outras instâncias releiam o arquivo
+     */
+    private void registrarRecarga(LocalDateTime inicio, int reajustadas, Iterable<Integer> anos) {
+        ExecucaoJob execucao = new ExecucaoJob(JOB_RECARGA_FERIADOS, leaseService.getInstancia());
+        LocalDateTime fim = LocalDateTime.now();
+        execucao.setInicio(inicio);
+        execucao.setFim(fim);
+        execucao.setStatus(StatusExecucaoJob.SUCESSO);
+        execucao.setItensProcessados(reajustadas);
+        execucao.setDuracaoMs(Duration.between(inicio, fim).toMillis());
+        execucao.setMensagem("Anos comparados: " + anos);
+        ultimaRecargaAplicada = Math.max(ultimaRecargaAplicada, execucaoRepository.save(execucao).getId());
+    }
+
+    /**
+     * O arquivo lido ao iniciar já contém as recargas anteriores
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void marcarRecargasAplicadas() {
+        execucaoRepository.findFirstByJobAndStatusOrderByInicioDesc(JOB_RECARGA_FERIADOS, StatusExecucaoJob.SUCESSO)
+                .ifPresent(ultima -> ultimaRecargaAplicada = Math.max(ultimaRecargaAplicada, ultima.getId()));
+    }
+
+    /**
+     * Relê o arquivo de feriados quando outra instância registrou uma recarga
+     * Os vencimentos já foram reajustados no banco pela instância que recarregou; aqui só o calendário em memória muda.
+     */
+    @Scheduled(fixedDelayString = "${app.feriados.intervalo-verificacao:PT1M}")
+    public void aplicarRecargasDeOutrasInstancias() {
+        execucaoRepository.findFirstByJobAndStatusOrderByInicioDesc(JOB_RECARGA_FERIADOS, StatusExecucaoJob.SUCESSO)
+                .filter(ultima -> ultima.getId() > ultimaRecargaAplicada)
+                .ifPresent(ultima -> {
+                    ultimaRecargaAplicada = ultima.getId();
+                    if (!leaseService.getInstancia().equals(ultima.getInstancia())) {
+                        dataService.carregarFeriadosAno(LocalDate.now().getYear());
+                        log.info("Feriados relidos após recarga da instância {}", ultima.getInstancia());
+                    }
+                });
+    }
+
+    /**
+     * Recalcula os vencimentos das obrigações cuja data nominal ou ajustada cai entre inicio e fim
+     * O custo é proporcional ao número de obrigações na janela, não ao tamanho da tabela.
+     */
+    public Map<String, Object> reajustar(LocalDate inicio, LocalDate fim, String usuarioEditor) {
+        LocalDate janelaInicio = inicio.minusDays(MARGEM_DIAS);
+        LocalDate janelaFim = fim.plusDays(MARGEM_DIAS);
+
+        long ultimoId = 0;
+        int analisadas = 0;
+        int reajustadas = 0;
+
+        while (true) {
+            ResultadoLote lote = processarLote(janelaInicio, janelaFim, ultimoId, usuarioEditor);
+            if (lote.lidas == 0) {
+                break;
+            }
+            analisadas += lote.lidas;
+            reajustadas += lote.reajustadas;
+            ultimoId = lote.ultimoId;
+            if (lote.lidas < TAMANHO_LOTE) {
+                break;
+            }
+        }
+
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("inicio", inicio);
+        resumo.put("fim", fim);
+        resumo.put("analisadas", analisadas);
+        resumo.put("reajustadas", reajustadas);
+
+        log.info("Reajuste de vencimentos entre {} e {}: {} analisadas, {} reajustadas", inicio, fim, analisadas, reajustadas);
+        if (reajustadas > 0) {
+            notificacaoService.notificarReajusteVencimentos(resumo, usuarioEditor);
+        }
+
+        return resumo;
+    }
+
+    /**
+     * Lê, recalcula e grava um lote em uma transação própria
+     * Obrigações alteradas são gravadas pelo dirty checking no commit e o histórico em uma única chamada.
+     */
+    private ResultadoLote processarLote(LocalDate inicio, LocalDate fim, long ultimoId, String usuarioEditor) {
+        return transactionTemplate.execute(status -> {
+            List<Obrigacao> obrigacoes = obrigacaoRepository.findParaReajuste(inicio, fim, ultimoId,
+                    PageRequest.of(0, TAMANHO_LOTE));
+            if (obrigacoes.isEmpty()) {
+                return new ResultadoLote(0, 0, ultimoId);
+            }
+
+            Map<Obrigacao, LocalDate> datasAnteriores = new IdentityHashMap<>();
+            for (Obrigacao obrigacao : obrigacoes) {
+                LocalDate nominal = obrigacao.getDataVencimentoOriginal() != null
+                        ? obrigacao.getDataVencimentoOriginal()
+                        : obrigacao.getDataVencimento();
+                LocalDate ajustada = dataService.ajustarDataVencimento(obrigacao, nominal);
+
+                if (!ajustada.equals(obrigacao.getDataVencimento())) {
+                    datasAnteriores.put(obrigacao, obrigacao.getDataVencimento());
+                    obrigacao.setDataVencimento(ajustada);
+                    obrigacao.setUltimoEditor(usuarioEditor);
+                }
+            }
+
+            if (!datasAnteriores.isEmpty()) {
+                historicoService.registrarReajustesVencimento(datasAnteriores, usuarioEditor);
+                datasAnteriores.keySet().forEach(alertaVencimentoService::agendar);
+            }
+
+            return new ResultadoLote(obrigacoes.size(), datasAnteriores.size(),
+                    obrigacoes.get(obrigacoes.size() - 1).getId());
+        });
+    }
+
+    /**
+     * Contadores de um lote processado
+     */
+    private static final class ResultadoLote {
+        private final int lidas;
+        private final int reajustadas;
+        private final long ultimoId;
+
+        private ResultadoLote(int lidas, int reajustadas, long ultimoId) {
+            this.lidas = lidas;
+            this.reajustadas = reajustadas;
+            this.ultimoId = ultimoId;
+        }
+    }
+}
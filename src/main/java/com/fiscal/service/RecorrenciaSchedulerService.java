@@ -1,29 +1,59 @@
 package com.fiscal.service;
 
-import com.fiscal.model.Obrigacao;
-import com.fiscal.repository.ObrigacaoRepository;
+import com.fiscal.model.PeriodoEstatistica;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Map;
 
 /**
  * Serviço para processamento automático de recorrências
+ * Os jobs disparam em todas as instâncias; a posse em job_leases faz cada um rodar em uma só,
+ * e a geração de recorrências divide suas partições entre as instâncias ativas. A virada do dia
+ * roda em todas, pois cada instância notifica apenas as sessões conectadas a ela.
+ * Cada disparo roda no pool do job pelo JobExecutorService, que registra a execução e as métricas.
+ * Os alertas de vencimento são disparados no horário exato pelo AlertaVencimentoService.
  * Padrão: Service Layer Pattern + Scheduled Task Pattern
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional
 public class RecorrenciaSchedulerService {
     
-    private final RecorrenciaService recorrenciaService;
-    private final ObrigacaoRepository obrigacaoRepository;
+    static final String JOB_RECORRENCIAS = "recorrencias-diarias";
+    static final String JOB_LIMPEZA = "limpeza-historico";
+    static final String JOB_RELATORIO = "relatorio-mensal";
+    static final String JOB_ESTATISTICAS_DIARIAS = "estatisticas-diarias";
+    static final String JOB_ESTATISTICAS_RETROATIVAS = "estatisticas-retroativas";
+    static final String JOB_VIRADA_DIA = "virada-dia";
+    
+    /**
+     * Posse mantida após o job terminar, menor que o intervalo entre execuções,
+     * para que instâncias com relógio um pouco atrasado não repitam o mesmo disparo
+     */
+    static final Duration POSSE_MENSAL = Duration.ofHours(1);
+    static final Duration POSSE_DIARIA = Duration.ofMinutes(30);
+    
+    /**
+     * Tempos máximos padrão, configuráveis por app.jobs.{job}.timeout
+     */
+    static final Duration TIMEOUT_RECORRENCIAS = Duration.ofHours(2);
+    static final Duration TIMEOUT_MENSAL = Duration.ofMinutes(30);
+    static final Duration TIMEOUT_VIRADA = Duration.ofMinutes(5);
+    
+    private final ProcessamentoRecorrenciasService processamentoRecorrenciasService;
     private final NotificacaoService notificacaoService;
+    private final JobLeaseService leaseService;
+    private final JobExecutorService jobExecutor;
+    private final ArquivoHistoricoService arquivoHistoricoService;
+    private final EstatisticaSnapshotService estatisticaSnapshotService;
+    private final ViradaUrgenciaService viradaUrgenciaService;
     
     /**
      * Processa recorrências automaticamente todos os dias às 6:00
@@ -31,140 +61,102 @@ public class RecorrenciaSchedulerService {
      */
     @Scheduled(cron = "0 0 6 * * *")
     public void processarRecorrenciasDiarias() {
-        // Log removido temporariamente
-        
-        try {
-            List<Obrigacao> obrigacoesParaProcessar = obrigacaoRepository.findParaGerarProximaOcorrencia(LocalDate.now());
-            
-            if (obrigacoesParaProcessar.isEmpty()) {
-                // Log removido temporariamente
-                return;
-            }
-            
-            int processadas = 0;
-            for (Obrigacao obrigacao : obrigacoesParaProcessar) {
-                try {
-                    Obrigacao novaObrigacao = recorrenciaService.gerarProximaOcorrencia(obrigacao);
-                    
-                    // Notificar criação da nova obrigação
-                    notificacaoService.notificarCriacaoObrigacao(
-                            novaObrigacao.getId(),
-                            novaObrigacao.getNome(),
-                            "Sistema"
-                    );
-                    
-                    processadas++;
-                    System.out.println("Recorrência processada para obrigação ID: " + obrigacao.getId());
-                    
-                } catch (Exception e) {
-                    System.out.println("Erro ao processar recorrência para obrigação ID " + obrigacao.getId() + ": " + e.getMessage());
-                }
-            }
-            
-            // Log removido temporariamente
-            
-        } catch (Exception e) {
-            System.out.println("Erro no processamento diário de recorrências: " + e.getMessage());
+        jobExecutor.executar(JOB_RECORRENCIAS, TIMEOUT_RECORRENCIAS, this::gerarRecorrencias);
+    }
+    
+    private ResultadoJob gerarRecorrencias() {
+        // Cada lote roda em sua própria transação no ProcessamentoRecorrenciasService,
+        // que divide as partições entre as instâncias ativas
+        Map<String, Object> resumo = processamentoRecorrenciasService.processar(LocalDate.now(), "Sistema");
+        if (resumo == null) {
+            return ResultadoJob.ignorado("Processamento de recorrências já em andamento");
         }
+        return ResultadoJob.de((Integer) resumo.get("geradas"), (Integer) resumo.get("falhas"));
     }
     
     /**
-     * Verifica obrigações próximas do vencimento e envia alertas
-     * Executa a cada 4 horas
+     * Envia aos clientes as obrigações que mudaram de urgência com a virada do dia
+     * Executa todos os dias às 0:00:05, sem posse: o job só lê, e cada instância envia às suas próprias sessões
      */
-    @Scheduled(cron = "0 0 */4 * * *")
-    public void verificarAlertasVencimento() {
-        // Log removido temporariamente
-        
-        try {
-            LocalDate hoje = LocalDate.now();
-            
-            // Verificar obrigações que vencem hoje
-            List<Obrigacao> venceHoje = obrigacaoRepository.findProximasVencimento(hoje, hoje);
-            for (Obrigacao obrigacao : venceHoje) {
-                if (!obrigacao.getConcluida()) {
-                    notificacaoService.notificarAlertaVencimento(
-                            obrigacao.getId(),
-                            obrigacao.getNome(),
-                            0
-                    );
-                }
-            }
-            
-            // Verificar obrigações que vencem em 3 dias
-            List<Obrigacao> venceEm3Dias = obrigacaoRepository.findProximasVencimento(hoje.plusDays(1), hoje.plusDays(3));
-            for (Obrigacao obrigacao : venceEm3Dias) {
-                if (!obrigacao.getConcluida()) {
-                    long diasParaVencimento = java.time.temporal.ChronoUnit.DAYS.between(hoje, obrigacao.getDataVencimento());
-                    notificacaoService.notificarAlertaVencimento(
-                            obrigacao.getId(),
-                            obrigacao.getNome(),
-                            (int) diasParaVencimento
-                    );
-                }
-            }
-            
-            // Log removido temporariamente
-            
-        } catch (Exception e) {
-            System.out.println("Erro na verificação de alertas: " + e.getMessage());
-        }
+    @Scheduled(cron = "5 0 0 * * *")
+    public void virarDia() {
+        jobExecutor.executar(JOB_VIRADA_DIA, TIMEOUT_VIRADA, () -> {
+            Map<String, Object> resumo = viradaUrgenciaService.virarDia(LocalDate.now());
+            return ResultadoJob.de((Integer) resumo.get("total"), 0);
+        });
     }
     
     /**
-     * Limpa dados antigos do histórico (manter apenas últimos 2 anos)
+     * Arquiva e remove do banco o histórico antigo (mantém os últimos app.historico.retencao.anos)
      * Executa mensalmente no dia 1 às 2:00
      */
     @Scheduled(cron = "0 0 2 1 * *")
     public void limparHistoricoAntigo() {
-        // Log removido temporariamente
-        
-        try {
-            LocalDate dataLimite = LocalDate.now().minusYears(2);
-            
-            // Implementar limpeza de histórico antigo
-            // Por enquanto, apenas log
-            // Log removido temporariamente
-            
-        } catch (Exception e) {
-            System.out.println("Erro na limpeza de histórico: " + e.getMessage());
-        }
+        jobExecutor.executar(JOB_LIMPEZA, TIMEOUT_MENSAL, () -> leaseService
+                .executarComLease(JOB_LIMPEZA, POSSE_MENSAL, false, this::executarLimpezaHistorico)
+                .orElse(ResultadoJob.ignorado()));
+    }
+    
+    private ResultadoJob executarLimpezaHistorico() {
+        // Lotes curtos, cada um arquivado em disco antes de sair do banco
+        return ResultadoJob.de(arquivoHistoricoService.aplicarRetencao(), 0);
     }
     
     /**
-     * Gera relatório mensal de estatísticas
+     * Grava o snapshot de estatísticas do mês e notifica o resumo
      * Executa no último dia do mês às 23:00
      */
     @Scheduled(cron = "0 0 23 L * *")
     public void gerarRelatorioMensal() {
-        // Log removido temporariamente
+        jobExecutor.executar(JOB_RELATORIO, TIMEOUT_MENSAL, () -> leaseService
+                .executarComLease(JOB_RELATORIO, POSSE_MENSAL, false, this::enviarRelatorioMensal)
+                .orElse(ResultadoJob.ignorado()));
+    }
+    
+    private ResultadoJob enviarRelatorioMensal() {
+        estatisticaSnapshotService.preencherMesesSemSnapshot(LocalDate.now());
+        Map<String, Long> totais = estatisticaSnapshotService.gerarSnapshot(PeriodoEstatistica.MENSAL, LocalDate.now());
+        
+        // Notificar estatísticas via WebSocket
+        com.fiscal.model.dto.NotificacaoTempoReal notificacao = new com.fiscal.model.dto.NotificacaoTempoReal();
+        notificacao.setTipo(com.fiscal.model.dto.NotificacaoTempoReal.TipoNotificacao.OBRIGACAO_ATUALIZADA);
+        notificacao.setMensagem(String.format("Relatório mensal: %d vencimentos no mês, %d concluídos, %d pendentes, %d vencidas",
+                totais.get("VENCIMENTOS"), totais.get("CONCLUIDAS"), totais.get("PENDENTES"), totais.get("VENCIDAS")));
+        notificacao.setUsuarioEditor("Sistema");
+        notificacao.setTimestamp(java.time.LocalDateTime.now());
+        notificacao.setDados(totais);
         
-        try {
-            LocalDate hoje = LocalDate.now();
-            LocalDate inicioMes = hoje.withDayOfMonth(1);
-            LocalDate fimMes = hoje.withDayOfMonth(hoje.lengthOfMonth());
-            
-            // Estatísticas do mês
-            long totalObrigacoes = obrigacaoRepository.countByConcluida(false);
-            long obrigacoesConcluidas = obrigacaoRepository.countByConcluida(true);
-            long obrigacoesVencidas = obrigacaoRepository.countVencidas(hoje);
-            
-            // Log removido temporariamente
-            
-            // Notificar estatísticas via WebSocket
-            com.fiscal.model.dto.NotificacaoTempoReal notificacao = new com.fiscal.model.dto.NotificacaoTempoReal();
-            notificacao.setTipo(com.fiscal.model.dto.NotificacaoTempoReal.TipoNotificacao.OBRIGACAO_ATUALIZADA);
-            notificacao.setMensagem(String.format("Relatório mensal: %d obrigações, %d concluídas, %d vencidas", 
-                    totalObrigacoes, obrigacoesConcluidas, obrigacoesVencidas));
-            notificacao.setUsuarioEditor("Sistema");
-            notificacao.setTimestamp(java.time.LocalDateTime.now());
-            
-            notificacaoService.notificarTodos(notificacao);
-            
-        } catch (Exception e) {
-            System.out.println("Erro na geração do relatório mensal: " + e.getMessage());
+        notificacaoService.notificarTodos(notificacao);
+        
+        return ResultadoJob.de(1, 0);
+    }
+    
+    /**
+     * Grava os snapshots mensais que faltam (meses anteriores à implantação ou perdidos com a aplicação parada)
+     * Executa ao iniciar a aplicação
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherEstatisticasMensais() {
+        jobExecutor.executar(JOB_ESTATISTICAS_RETROATIVAS, TIMEOUT_MENSAL, () -> leaseService
+                .executarComLease(JOB_ESTATISTICAS_RETROATIVAS, POSSE_DIARIA, false,
+                        () -> ResultadoJob.de(estatisticaSnapshotService.preencherMesesSemSnapshot(LocalDate.now()), 0))
+                .orElse(ResultadoJob.ignorado()));
+    }
+    
+    /**
+     * Grava o snapshot diário de estatísticas, quando habilitado (app.estatisticas.snapshot-diario)
+     * Executa todos os dias às 23:50
+     */
+    @Scheduled(cron = "0 50 23 * * *")
+    public void gerarEstatisticasDiarias() {
+        if (!estatisticaSnapshotService.isDiarioHabilitado()) {
+            return;
         }
+        jobExecutor.executar(JOB_ESTATISTICAS_DIARIAS, TIMEOUT_MENSAL, () -> leaseService
+                .executarComLease(JOB_ESTATISTICAS_DIARIAS, POSSE_DIARIA, false, () -> {
+                    estatisticaSnapshotService.gerarSnapshot(PeriodoEstatistica.DIARIO, LocalDate.now());
+                    return ResultadoJob.de(1, 0);
+                })
+                .orElse(ResultadoJob.ignorado()));
     }
 }
-
-
@@ -1,7 +1,9 @@
 package com.fiscal.service;
 
 import com.fiscal.model.Obrigacao;
+import com.fiscal.model.ObrigacaoSerie;
 import com.fiscal.model.TipoRecorrencia;
+import com.fiscal.repository.ObrigacaoLoteRepository;
 import com.fiscal.repository.ObrigacaoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,7 +12,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
 
 /**
  * Serviço para gerenciamento de recorrências
@@ -22,37 +31,59 @@ import java.util.List;
 @Transactional
 public class RecorrenciaService {
     
+    /**
+     * Maior deslocamento, em dias, que o ajuste aplica a um vencimento nominal (fim de semana
+     * emendado a feriados); datas nominais além do período por mais que isso não caem nele
+     */
+    static final int MAIOR_DESLOCAMENTO_AJUSTE_DIAS = 10;
+    
     private final ObrigacaoRepository obrigacaoRepository;
     private final DataService dataService;
+    private final ObrigacaoSerieService serieService;
+    private final ObrigacaoLoteRepository obrigacaoLoteRepository;
+    
+    /**
+     * Regras compiladas por texto canônico; séries com a mesma configuração compartilham o avaliador
+     */
+    private final Map<String, RegraRecorrencia> regrasCompiladas = new ConcurrentHashMap<>();
     
     /**
      * Calcula a próxima data de geração para uma obrigação recorrente
+     * Corresponde ao vencimento ajustado da ocorrência seguinte à data nominal da obrigação;
+     * null quando a série terminou (COUNT/UNTIL).
      */
     public LocalDate calcularProximaDataGeracao(Obrigacao obrigacao) {
-        LocalDate hoje = LocalDate.now();
-        LocalDate proximaData;
-        
-        switch (obrigacao.getTipoRecorrencia()) {
-            case MENSAL:
-                proximaData = calcularProximaDataMensal(obrigacao, hoje);
-                break;
-            case TRIMESTRAL:
-                proximaData = calcularProximaDataTrimestral(obrigacao, hoje);
-                break;
-            case SEMESTRAL:
-                proximaData = calcularProximaDataSemestral(obrigacao, hoje);
-                break;
-            case ANUAL:
-                proximaData = calcularProximaDataAnual(obrigacao, hoje);
-                break;
-            case CUSTOMIZADA:
-                proximaData = calcularProximaDataCustomizada(obrigacao, hoje);
-                break;
-            default:
-                proximaData = hoje.plusMonths(1);
+        LocalDate proximaNominal = calcularNovaDataVencimento(obrigacao);
+        return proximaNominal != null ? dataService.ajustarDataVencimento(obrigacao, proximaNominal) : null;
+    }
+    
+    /**
+     * Obtém a regra compilada da obrigação: a RRULE informada ou a equivalente ao tipo legado
+     * Sem dia do mês na ocorrência vale o fixado na série, e não o da data nominal, que pode ter sido encurtada.
+     */
+    public RegraRecorrencia regraDe(Obrigacao obrigacao) {
+        if (obrigacao.getRegraRecorrencia() != null && !obrigacao.getRegraRecorrencia().isBlank()) {
+            return compilar(obrigacao.getRegraRecorrencia(), dataNominal(obrigacao));
         }
         
-        return proximaData;
+        Integer diaMes = obrigacao.getDiaMesRecorrencia();
+        if (diaMes == null && obrigacao.getSerie() != null) {
+            diaMes = obrigacao.getSerie().getDiaMesRecorrencia();
+        }
+        String regra = RegraRecorrencia.paraTipo(obrigacao.getTipoRecorrencia(), obrigacao.getDiasRecorrencia(),
+                diaMes, dataNominal(obrigacao));
+        return regra != null ? compilar(regra, null) : null;
+    }
+    
+    /**
+     * Compila a regra uma única vez; a leitura do cache não bloqueia
+     * A chave é só o texto da regra: a referência entra como DTSTART quando a regra não o define
+     * e é ignorada quando define, para que as obrigações de uma mesma regra dividam a entrada.
+     */
+    public RegraRecorrencia compilar(String regra, LocalDate referencia) {
+        String chave = RegraRecorrencia.comInicio(regra, referencia);
+        RegraRecorrencia compilada = regrasCompiladas.get(chave);
+        return compilada != null ? compilada : regrasCompiladas.computeIfAbsent(chave, RegraRecorrencia::compilar);
     }
     
     /**
@@ -61,22 +92,38 @@ public class RecorrenciaService {
     public Obrigacao gerarProximaOcorrencia(Obrigacao obrigacaoOriginal) {
         System.out.println("Gerando próxima ocorrência para obrigação ID: " + obrigacaoOriginal.getId());
         
-        LocalDate novaDataVencimento = calcularNovaDataVencimento(obrigacaoOriginal);
-        
-        Obrigacao novaObrigacao = // Obrigacao.new 
-                .nome(obrigacaoOriginal.getNome())
-                .tipo(obrigacaoOriginal.getTipo())
-                .descricao(obrigacaoOriginal.getDescricao())
-                .cliente(obrigacaoOriginal.getCliente())
-                .responsavel(obrigacaoOriginal.getResponsavel())
-                .dataVencimento(novaDataVencimento)
-                .tipoRecorrencia(obrigacaoOriginal.getTipoRecorrencia())
-                .diasRecorrencia(obrigacaoOriginal.getDiasRecorrencia())
-                .diaMesRecorrencia(obrigacaoOriginal.getDiaMesRecorrencia())
-                .ajustarFinaisSemana(obrigacaoOriginal.getAjustarFinaisSemana())
-                .ajustarFeriados(obrigacaoOriginal.getAjustarFeriados())
-                .ultimoEditor("Sistema")
-                ;
+        // Obrigações anteriores às séries passam a ter uma na primeira geração
+        ObrigacaoSerie serie = serieService.garantirSerie(obrigacaoOriginal);
+        
+        LocalDate novaDataNominal = serie != null && !Boolean.TRUE.equals(serie.getAtivo())
+                ? null
+                : calcularNovaDataVencimento(obrigacaoOriginal);
+        if (novaDataNominal == null) {
+            // Série encerrada por COUNT/UNTIL ou desativada
+            obrigacaoOriginal.setDataProximaGeracao(null);
+            obrigacaoRepository.save(obrigacaoOriginal);
+            System.out.println("Recorrência encerrada para obrigação ID: " + obrigacaoOriginal.getId());
+            return null;
+        }
+        
+        // A marca da série é a chave de idempotência: só quem a avança grava o período
+        if (serie != null && !serieService.registrarGeracao(serie, novaDataNominal)) {
+            Obrigacao existente = obrigacaoRepository
+                    .findFirstBySerieIdAndDataVencimentoOriginal(serie.getId(), novaDataNominal).orElse(null);
+            obrigacaoOriginal.setDataProximaGeracao(null);
+            obrigacaoRepository.save(obrigacaoOriginal);
+            System.out.println("Período " + novaDataNominal + " já gerado para a série ID: " + serie.getId());
+            return existente;
+        }
+        
+        // Uma ocorrência já materializada pelo calendário passa a ser a ocorrência gerada
+        Obrigacao novaObrigacao = serie != null
+                ? obrigacaoRepository.findFirstBySerieIdAndDataVencimentoOriginal(serie.getId(), novaDataNominal).orElse(null)
+                : null;
+        if (novaObrigacao == null) {
+            novaObrigacao = novaOcorrencia(obrigacaoOriginal, serie, novaDataNominal);
+            novaObrigacao.setDataVencimento(dataService.ajustarDataVencimento(novaObrigacao, novaDataNominal));
+        }
         
         // Calcular próxima data de geração
         LocalDate proximaGeracao = calcularProximaDataGeracao(novaObrigacao);
@@ -84,8 +131,8 @@ public class RecorrenciaService {
         
         Obrigacao salva = obrigacaoRepository.save(novaObrigacao);
         
-        // Atualizar data de próxima geração da obrigação original
-        obrigacaoOriginal.setDataProximaGeracao(proximaGeracao);
+        // A nova ocorrência passa a ser a responsável pela próxima geração da série
+        obrigacaoOriginal.setDataProximaGeracao(null);
         obrigacaoRepository.save(obrigacaoOriginal);
         
         System.out.println("Nova ocorrência gerada com sucesso: ID " + salva.getId());
@@ -93,121 +140,278 @@ public class RecorrenciaService {
     }
     
     /**
-     * Processa todas as obrigações que precisam gerar próxima ocorrência
+     * Gera de uma vez todas as ocorrências da série com vencimento até a data informada
+     * Recupera períodos perdidos por indisponibilidade: as datas são calculadas e ajustadas em lote,
+     * a marca da série avança uma única vez e as linhas são inseridas em batches JDBC.
+     * Retorna o número de períodos gerados.
      */
-    public void processarRecorrencias() {
-        // Log removido temporariamente
+    public int gerarOcorrenciasPendentes(Obrigacao cabeca, LocalDate ate) {
+        ObrigacaoSerie serie = serieService.garantirSerie(cabeca);
+        RegraRecorrencia regra = regraDe(cabeca);
+        if (serie == null || regra == null || !Boolean.TRUE.equals(serie.getAtivo())) {
+            cabeca.setDataProximaGeracao(null);
+            obrigacaoRepository.save(cabeca);
+            return 0;
+        }
         
-        List<Obrigacao> obrigacoesParaProcessar = obrigacaoRepository.findParaGerarProximaOcorrencia(LocalDate.now());
+        // Nominais até a margem cobrem todo vencimento ajustado até a data; a primeira além dela define a próxima geração
+        long limiteNominal = ate.toEpochDay() + MAIOR_DESLOCAMENTO_AJUSTE_DIAS;
+        long[] nominais = new long[16];
+        int total = 0;
+        PrimitiveIterator.OfLong ocorrencias = regra.ocorrencias(dataNominal(cabeca).toEpochDay(), calendarios(cabeca));
+        while (ocorrencias.hasNext()) {
+            long dia = ocorrencias.nextLong();
+            if (total == nominais.length) {
+                nominais = Arrays.copyOf(nominais, total * 2);
+            }
+            nominais[total++] = dia;
+            if (dia > limiteNominal) {
+                break;
+            }
+        }
         
-        for (Obrigacao obrigacao : obrigacoesParaProcessar) {
-            try {
-                gerarProximaOcorrencia(obrigacao);
-            } catch (Exception e) {
-                System.out.println("Erro ao processar recorrência para obrigação ID {}: " + obrigacao.getId(), e.getMessage());
+        nominais = Arrays.copyOf(nominais, total);
+        int[] flags = new int[total];
+        Arrays.fill(flags, DataService.flagsAjuste(cabeca));
+        long[] ajustados = dataService.ajustarDatasVencimento(nominais, flags, RegiaoCalendario.de(cabeca.getCliente()));
+        
+        // O ajuste preserva a ordem, então os pendentes formam um prefixo
+        long limite = ate.toEpochDay();
+        int pendentes = 0;
+        while (pendentes < total && ajustados[pendentes] <= limite) {
+            pendentes++;
+        }
+        LocalDate proximaGeracao = pendentes < total ? LocalDate.ofEpochDay(ajustados[pendentes]) : null;
+        
+        if (pendentes == 0) {
+            cabeca.setDataProximaGeracao(proximaGeracao);
+            obrigacaoRepository.save(cabeca);
+            return 0;
+        }
+        
+        LocalDate primeira = LocalDate.ofEpochDay(nominais[0]);
+        LocalDate ultima = LocalDate.ofEpochDay(nominais[pendentes - 1]);
+        cabeca.setDataProximaGeracao(null);
+        obrigacaoRepository.save(cabeca);
+        if (!serieService.registrarGeracao(serie, primeira, ultima)) {
+            System.out.println("Períodos a partir de " + primeira + " já gerados para a série ID: " + serie.getId());
+            return 0;
+        }
+        
+        // Ocorrências materializadas pelo calendário são mantidas; a última delas pode virar a cabeça da série
+        Map<LocalDate, Obrigacao> existentes = new HashMap<>();
+        for (Obrigacao existente : obrigacaoRepository.findBySerieIdAndDataVencimentoOriginalBetween(serie.getId(), primeira, ultima)) {
+            existentes.put(existente.getDataVencimentoOriginal(), existente);
+        }
+        
+        List<Obrigacao> novas = new ArrayList<>(pendentes);
+        for (int i = 0; i < pendentes; i++) {
+            LocalDate nominal = LocalDate.ofEpochDay(nominais[i]);
+            LocalDate proxima = i == pendentes - 1 ? proximaGeracao : null;
+            Obrigacao existente = existentes.get(nominal);
+            if (existente != null) {
+                existente.setDataProximaGeracao(proxima);
+                continue;
             }
+            Obrigacao ocorrencia = novaOcorrencia(cabeca, serie, nominal);
+            ocorrencia.setDataVencimento(LocalDate.ofEpochDay(ajustados[i]));
+            ocorrencia.setDataProximaGeracao(proxima);
+            novas.add(ocorrencia);
         }
+        obrigacaoLoteRepository.inserir(novas);
         
-        System.out.println("Processamento de recorrências concluído. {} obrigações processadas", obrigacoesParaProcessar.size());
+        System.out.println(pendentes + " ocorrência(s) gerada(s) até " + ate + " para a série ID: " + serie.getId());
+        return pendentes;
     }
     
     /**
-     * Calcula próxima data para recorrência mensal
+     * Projeta, sem gravar, as ocorrências da série com vencimento ajustado entre inicio e fim
+     * Parte da data nominal da fonte, que deve ser a ocorrência mais recente da série;
+     * as ocorrências retornadas não têm id.
      */
-    private LocalDate calcularProximaDataMensal(Obrigacao obrigacao, LocalDate hoje) {
-        LocalDate proximaData = hoje.plusMonths(1);
+    @Transactional(readOnly = true)
+    public List<Obrigacao> projetarOcorrencias(Obrigacao fonte, LocalDate inicio, LocalDate fim) {
+        RegraRecorrencia regra = regraDe(fonte);
+        ObrigacaoSerie serie = fonte.getSerie();
+        if (regra == null || (serie != null && !Boolean.TRUE.equals(serie.getAtivo()))) {
+            return List.of();
+        }
         
-        if (obrigacao.getDiaMesRecorrencia() != null) {
-            proximaData = proximaData.withDayOfMonth(obrigacao.getDiaMesRecorrencia());
+        // O ajuste desloca o vencimento em poucos dias; datas nominais além da margem não alcançam o período
+        long limiteNominal = fim.toEpochDay() + MAIOR_DESLOCAMENTO_AJUSTE_DIAS;
+        long[] nominais = new long[16];
+        int total = 0;
+        PrimitiveIterator.OfLong ocorrencias = regra.ocorrencias(dataNominal(fonte).toEpochDay(), calendarios(fonte));
+        while (ocorrencias.hasNext()) {
+            long dia = ocorrencias.nextLong();
+            if (dia > limiteNominal) {
+                break;
+            }
+            if (total == nominais.length) {
+                nominais = Arrays.copyOf(nominais, total * 2);
+            }
+            nominais[total++] = dia;
         }
+        if (total == 0) {
+            return List.of();
+        }
+        
+        nominais = Arrays.copyOf(nominais, total);
+        int[] flags = new int[total];
+        Arrays.fill(flags, DataService.flagsAjuste(fonte));
+        long[] ajustados = dataService.ajustarDatasVencimento(nominais, flags, RegiaoCalendario.de(fonte.getCliente()));
         
-        return dataService.ajustarDataVencimento(proximaData, obrigacao.getAjustarFinaisSemana(), obrigacao.getAjustarFeriados());
+        long inicioDia = inicio.toEpochDay();
+        long fimDia = fim.toEpochDay();
+        List<Obrigacao> projetadas = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (ajustados[i] >= inicioDia && ajustados[i] <= fimDia) {
+                Obrigacao ocorrencia = novaOcorrencia(fonte, serie, LocalDate.ofEpochDay(nominais[i]));
+                ocorrencia.setDataVencimento(LocalDate.ofEpochDay(ajustados[i]));
+                projetadas.add(ocorrencia);
+            }
+        }
+        return projetadas;
     }
     
     /**
-     * Calcula próxima data para recorrência trimestral
+     * Grava uma ocorrência futura da série, normalmente para editá-la ou concluí-la antes da geração
+     * A geração automática reaproveita a ocorrência materializada em vez de criar outra.
      */
-    private LocalDate calcularProximaDataTrimestral(Obrigacao obrigacao, LocalDate hoje) {
-        LocalDate proximaData = hoje.plusMonths(3);
+    public Obrigacao materializarOcorrencia(Obrigacao fonte, LocalDate dataNominal, String usuarioEditor) {
+        ObrigacaoSerie serie = serieService.garantirSerie(fonte);
+        if (serie == null || !Boolean.TRUE.equals(serie.getAtivo())) {
+            throw new RuntimeException("Obrigação não possui recorrência ativa");
+        }
+        
+        LocalDate nominalFonte = dataNominal(fonte);
+        RegraRecorrencia regra = regraDe(fonte);
+        LocalDate ocorrenciaPrevista = regra != null ? regra.proxima(dataNominal.minusDays(1), calendarios(fonte)) : null;
+        if (!dataNominal.isAfter(nominalFonte) || !dataNominal.equals(ocorrenciaPrevista)) {
+            throw new RuntimeException("Data não corresponde a uma ocorrência futura da série");
+        }
         
-        if (obrigacao.getDiaMesRecorrencia() != null) {
-            proximaData = proximaData.withDayOfMonth(obrigacao.getDiaMesRecorrencia());
+        Obrigacao existente = obrigacaoRepository.findFirstBySerieIdAndDataVencimentoOriginal(serie.getId(), dataNominal)
+                .orElse(null);
+        if (existente != null) {
+            return existente;
         }
         
-        return dataService.ajustarDataVencimento(proximaData, obrigacao.getAjustarFinaisSemana(), obrigacao.getAjustarFeriados());
+        Obrigacao ocorrencia = novaOcorrencia(fonte, serie, dataNominal);
+        ocorrencia.setUltimoEditor(usuarioEditor);
+        ocorrencia.setDataVencimento(dataService.ajustarDataVencimento(ocorrencia, dataNominal));
+        Obrigacao salva = obrigacaoRepository.save(ocorrencia);
+        
+        System.out.println("Ocorrência materializada: ID " + salva.getId() + " em " + salva.getDataVencimento());
+        return salva;
     }
     
     /**
-     * Calcula próxima data para recorrência semestral
+     * Processa todas as obrigações que precisam gerar próxima ocorrência
      */
-    private LocalDate calcularProximaDataSemestral(Obrigacao obrigacao, LocalDate hoje) {
-        LocalDate proximaData = hoje.plusMonths(6);
+    public void processarRecorrencias() {
+        // Log removido temporariamente
         
-        if (obrigacao.getDiaMesRecorrencia() != null) {
-            proximaData = proximaData.withDayOfMonth(obrigacao.getDiaMesRecorrencia());
+        List<Obrigacao> obrigacoesParaProcessar = obrigacaoRepository.findParaGerarProximaOcorrencia(LocalDate.now());
+        
+        for (Obrigacao obrigacao : obrigacoesParaProcessar) {
+            try {
+                gerarProximaOcorrencia(obrigacao);
+            } catch (Exception e) {
+                System.out.println("Erro ao processar recorrência para obrigação ID " + obrigacao.getId() + ": " + e.getMessage());
+            }
         }
         
-        return dataService.ajustarDataVencimento(proximaData, obrigacao.getAjustarFinaisSemana(), obrigacao.getAjustarFeriados());
+        System.out.println("Processamento de recorrências concluído. " + obrigacoesParaProcessar.size() + " obrigações processadas");
     }
     
     /**
-     * Calcula próxima data para recorrência anual
+     * Projeta os próximos vencimentos ajustados de uma obrigação recorrente
+     * As datas nominais são geradas primeiro e ajustadas em uma única chamada em lote.
      */
-    private LocalDate calcularProximaDataAnual(Obrigacao obrigacao, LocalDate hoje) {
-        LocalDate proximaData = hoje.plusYears(1);
+    @Transactional(readOnly = true)
+    public List<LocalDate> projetarVencimentos(Obrigacao obrigacao, int quantidade) {
+        RegraRecorrencia regra = regraDe(obrigacao);
+        if (regra == null || quantidade <= 0) {
+            return List.of();
+        }
+        
+        long[] nominais = new long[quantidade];
+        int[] flags = new int[quantidade];
+        int flagsObrigacao = DataService.flagsAjuste(obrigacao);
         
-        if (obrigacao.getDiaMesRecorrencia() != null) {
-            proximaData = proximaData.withDayOfMonth(obrigacao.getDiaMesRecorrencia());
+        PrimitiveIterator.OfLong ocorrencias = regra.ocorrencias(dataNominal(obrigacao).toEpochDay(), calendarios(obrigacao));
+        int total = 0;
+        while (total < quantidade && ocorrencias.hasNext()) {
+            nominais[total] = ocorrencias.nextLong();
+            flags[total] = flagsObrigacao;
+            total++;
         }
+        if (total < quantidade) {
+            nominais = Arrays.copyOf(nominais, total);
+            flags = Arrays.copyOf(flags, total);
+        }
+        
+        long[] ajustados = dataService.ajustarDatasVencimento(nominais, flags, RegiaoCalendario.de(obrigacao.getCliente()));
         
-        return dataService.ajustarDataVencimento(proximaData, obrigacao.getAjustarFinaisSemana(), obrigacao.getAjustarFeriados());
+        List<LocalDate> vencimentos = new ArrayList<>(total);
+        for (long dia : ajustados) {
+            vencimentos.add(LocalDate.ofEpochDay(dia));
+        }
+        return vencimentos;
     }
     
     /**
-     * Calcula próxima data para recorrência customizada
+     * Calcula a nova data nominal de vencimento baseada na recorrência
+     * Parte da data nominal da ocorrência anterior para que ajustes não se acumulem.
      */
-    private LocalDate calcularProximaDataCustomizada(Obrigacao obrigacao, LocalDate hoje) {
-        if (obrigacao.getDiasRecorrencia() != null) {
-            LocalDate proximaData = hoje.plusDays(obrigacao.getDiasRecorrencia());
-            return dataService.ajustarDataVencimento(proximaData, obrigacao.getAjustarFinaisSemana(), obrigacao.getAjustarFeriados());
+    private LocalDate calcularNovaDataVencimento(Obrigacao obrigacaoOriginal) {
+        RegraRecorrencia regra = regraDe(obrigacaoOriginal);
+        if (regra == null) {
+            return null;
         }
-        
-        return hoje.plusMonths(1);
+        return regra.proxima(dataNominal(obrigacaoOriginal), calendarios(obrigacaoOriginal));
     }
     
     /**
-     * Calcula nova data de vencimento baseada na recorrência
+     * Monta uma ocorrência da série com a data nominal informada, ainda sem vencimento ajustado
      */
-    private LocalDate calcularNovaDataVencimento(Obrigacao obrigacaoOriginal) {
-        LocalDate dataOriginal = obrigacaoOriginal.getDataVencimento();
-        LocalDate novaData;
+    private Obrigacao novaOcorrencia(Obrigacao obrigacaoOriginal, ObrigacaoSerie serie, LocalDate dataNominal) {
+        Obrigacao novaObrigacao = new Obrigacao();
+        novaObrigacao.setNome(obrigacaoOriginal.getNome());
+        novaObrigacao.setTipo(obrigacaoOriginal.getTipo());
+        novaObrigacao.setDescricao(obrigacaoOriginal.getDescricao());
+        novaObrigacao.setCliente(obrigacaoOriginal.getCliente());
+        novaObrigacao.setResponsavel(obrigacaoOriginal.getResponsavel());
+        novaObrigacao.setImposto(obrigacaoOriginal.getImposto());
+        novaObrigacao.setDataVencimento(dataNominal);
+        novaObrigacao.setTipoRecorrencia(obrigacaoOriginal.getTipoRecorrencia());
+        novaObrigacao.setDiasRecorrencia(obrigacaoOriginal.getDiasRecorrencia());
+        novaObrigacao.setDiaMesRecorrencia(obrigacaoOriginal.getDiaMesRecorrencia());
+        novaObrigacao.setRegraRecorrencia(obrigacaoOriginal.getRegraRecorrencia());
+        novaObrigacao.setAjustarFinaisSemana(obrigacaoOriginal.getAjustarFinaisSemana());
+        novaObrigacao.setAjustarFeriados(obrigacaoOriginal.getAjustarFeriados());
+        novaObrigacao.setModoAjuste(obrigacaoOriginal.getModoAjuste());
+        novaObrigacao.setUltimoEditor("Sistema");
         
-        switch (obrigacaoOriginal.getTipoRecorrencia()) {
-            case MENSAL:
-                novaData = dataOriginal.plusMonths(1);
-                break;
-            case TRIMESTRAL:
-                novaData = dataOriginal.plusMonths(3);
-                break;
-            case SEMESTRAL:
-                novaData = dataOriginal.plusMonths(6);
-                break;
-            case ANUAL:
-                novaData = dataOriginal.plusYears(1);
-                break;
-            case CUSTOMIZADA:
-                if (obrigacaoOriginal.getDiasRecorrencia() != null) {
-                    novaData = dataOriginal.plusDays(obrigacaoOriginal.getDiasRecorrencia());
-                } else {
-                    novaData = dataOriginal.plusMonths(1);
-                }
-                break;
-            default:
-                novaData = dataOriginal.plusMonths(1);
+        if (serie != null) {
+            serieService.aplicarDefinicao(serie, novaObrigacao);
         }
-        
-        return dataService.ajustarDataVencimento(novaData, obrigacaoOriginal.getAjustarFinaisSemana(), obrigacaoOriginal.getAjustarFeriados());
+        novaObrigacao.setDataVencimentoOriginal(dataNominal);
+        return novaObrigacao;
+    }
+    
+    private static LocalDate dataNominal(Obrigacao obrigacao) {
+        return obrigacao.getDataVencimentoOriginal() != null
+                ? obrigacao.getDataVencimentoOriginal()
+                : obrigacao.getDataVencimento();
+    }
+    
+    /**
+     * Calendários de dias úteis da região do cliente, usados por regras com X-BYDIAUTIL
+     */
+    private IntFunction<CalendarioDiasUteis> calendarios(Obrigacao obrigacao) {
+        RegiaoCalendario regiao = RegiaoCalendario.de(obrigacao.getCliente());
+        return ano -> dataService.calendario(ano, regiao);
     }
 }
-
-
@@ -0,0 +1,67 @@
+package com.fiscal.service;
+
+import com.fiscal.model.Cliente;
+
+import java.util.Objects;
+
+/**
+ * Região usada para compor o calendário de dias úteis: nacional + UF + município (IBGE)
+ * Padrão: Value Object Pattern
+ */
+public final class RegiaoCalendario {
+
+    public static final RegiaoCalendario NACIONAL = new RegiaoCalendario(null, null);
+
+    private final String uf;
+    private final String codigoMunicipio;
+
+    private RegiaoCalendario(String uf, String codigoMunicipio) {
+        this.uf = uf;
+        this.codigoMunicipio = codigoMunicipio;
+    }
+
+    /**
+     * Obtém a região de uma UF e município; sem nenhum dos dois, a região é a nacional
+     */
+    public static RegiaoCalendario de(String uf, String codigoMunicipio) {
+        String ufNormalizada = uf == null || uf.isBlank() ? null : uf.trim().toUpperCase();
+        String municipio = codigoMunicipio == null || codigoMunicipio.isBlank() ? null : codigoMunicipio.trim();
+        if (ufNormalizada == null && municipio == null) {
+            return NACIONAL;
+        }
+        return new RegiaoCalendario(ufNormalizada, municipio);
+    }
+
+    /**
+     * Obtém a região do cliente; clientes sem localização usam o calendário nacional
+     */
+    public static RegiaoCalendario de(Cliente cliente) {
+        return cliente == null ? NACIONAL : de(cliente.getUf(), cliente.getCodigoMunicipioIbge());
+    }
+
+    public boolean isNacional() {
+        return uf == null && codigoMunicipio == null;
+    }
+
+    public String getUf() { return uf; }
+
+    public String getCodigoMunicipio() { return codigoMunicipio; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RegiaoCalendario)) return false;
+        RegiaoCalendario outra = (RegiaoCalendario) o;
+        return Objects.equals(uf, outra.uf) && Objects.equals(codigoMunicipio, outra.codigoMunicipio);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(uf, codigoMunicipio);
+    }
+
+    @Override
+    public String toString() {
+        return isNacional() ? "BR" : "BR/" + (uf != null ? uf : "-") + "/" + (codigoMunicipio != null ? codigoMunicipio : "-");
+    }
+}
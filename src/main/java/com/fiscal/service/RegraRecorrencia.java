@@ -0,0 +1,695 @@
+package com.fiscal.service;
+
+import com.fiscal.model.TipoRecorrencia;
+
+import java.time.LocalDate;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Regra de recorrência no formato RRULE (RFC 5545) compilada em um avaliador imutável
+ * Subconjunto suportado: FREQ (DAILY, WEEKLY, MONTHLY, YEARLY), INTERVAL, COUNT, UNTIL,
+ * BYMONTH, BYMONTHDAY (negativos contam do fim do mês), BYDAY (ordinal relativo ao mês),
+ * BYSETPOS e DTSTART, além da extensão X-BYDIAUTIL (n-ésimo dia útil do mês; -1 = último).
+ * Datas inexistentes (ex.: dia 31 em abril) são ignoradas, como na RFC; use
+ * BYMONTHDAY=31,-1;BYSETPOS=1 para "dia 31 ou o último dia do mês".
+ * As datas trafegam como epoch-day; o avaliador salta direto para o período da data
+ * consultada, sem percorrer a série desde o início (exceto quando há COUNT).
+ * Padrão: Interpreter Pattern + Immutable Object Pattern
+ */
+public final class RegraRecorrencia {
+
+    public static final long NENHUM = Long.MIN_VALUE;
+
+    public enum Frequencia { DAILY, WEEKLY, MONTHLY, YEARLY }
+
+    private static final String[] DIAS_SEMANA = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final LocalDate REFERENCIA = LocalDate.of(2000, 1, 1);
+    private static final Pattern PARTE_DTSTART = Pattern.compile("(?i)(^|[;:])\\s*DTSTART\\s*=");
+
+    private final Frequencia frequencia;
+    private final int intervalo;
+    private final long inicio;
+    private final int inicioAno;
+    private final int inicioMes;
+    private final int inicioDia;
+    private final int contagem;
+    private final long ate;
+    private final int meses;
+    private final int[] diasDoMes;
+    private final int diasSemana;
+    private final int[] ordinaisSemana;
+    private final int[] diasOrdinais;
+    private final int[] posicoes;
+    private final int[] diasUteis;
+    private final String texto;
+
+    private RegraRecorrencia(Frequencia frequencia, int intervalo, LocalDate inicio, int contagem, LocalDate ate,
+                             int meses, int[] diasDoMes, int diasSemana, int[] ordinaisSemana, int[] diasOrdinais,
+                             int[] posicoes, int[] diasUteis) {
+        this.frequencia = frequencia;
+        this.intervalo = intervalo;
+        this.inicio = inicio.toEpochDay();
+        this.inicioAno = inicio.getYear();
+        this.inicioMes = inicio.getMonthValue();
+        this.inicioDia = inicio.getDayOfMonth();
+        this.contagem = contagem;
+        this.ate = ate != null ? ate.toEpochDay() : Long.MAX_VALUE;
+        this.meses = meses;
+        this.diasDoMes = diasDoMes;
+        this.diasSemana = diasSemana;
+        this.ordinaisSemana = ordinaisSemana;
+        this.diasOrdinais = diasOrdinais;
+        this.posicoes = posicoes;
+        this.diasUteis = diasUteis;
+        this.texto = formatar(inicio, ate);
+    }
+
+    /**
+     * Compila uma regra RRULE; DTSTART é obrigatório quando não há data de referência
+     */
+    public static RegraRecorrencia compilar(String regra) {
+        return compilar(regra, null);
+    }
+
+    /**
+     * Compila uma regra RRULE usando a data de referência como DTSTART quando a regra não o define
+     */
+    public static RegraRecorrencia compilar(String regra, LocalDate referencia) {
+        if (regra == null || regra.isBlank()) {
+            throw new IllegalArgumentException("Regra de recorrência vazia");
+        }
+
+        String corpo = regra.trim();
+        if (corpo.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            corpo = corpo.substring(6);
+        }
+
+        Frequencia frequencia = null;
+        int intervalo = 1;
+        LocalDate inicio = referencia;
+        int contagem = 0;
+        LocalDate ate = null;
+        int meses = 0;
+        int[] diasDoMes = new int[0];
+        int diasSemana = 0;
+        List<int[]> ordinais = new ArrayList<>();
+        int[] posicoes = new int[0];
+        int[] diasUteis = new int[0];
+
+        for (String parte : corpo.split(";")) {
+            if (parte.isBlank()) {
+                continue;
+            }
+            int igual = parte.indexOf('=');
+            if (igual <= 0) {
+                throw new IllegalArgumentException("Parte inválida na regra de recorrência: " + parte);
+            }
+            String chave = parte.substring(0, igual).trim().toUpperCase(Locale.ROOT);
+            String valor = parte.substring(igual + 1).trim().toUpperCase(Locale.ROOT);
+
+            switch (chave) {
+                case "FREQ":
+                    frequencia = Frequencia.valueOf(valor);
+                    break;
+                case "INTERVAL":
+                    intervalo = Integer.parseInt(valor);
+                    break;
+                case "DTSTART":
+                    inicio = lerData(valor);
+                    break;
+                case "COUNT":
+                    contagem = Integer.parseInt(valor);
+                    break;
+                case "UNTIL":
+                    ate = lerData(valor);
+                    break;
+                case "BYMONTH":
+                    for (int mes : lerInteiros(valor, 1, 12, false)) {
+                        meses |= 1 << mes;
+                    }
+                    break;
+                case "BYMONTHDAY":
+                    diasDoMes = lerInteiros(valor, 1, 31, true);
+                    break;
+                case "BYDAY":
+                    for (String dia : valor.split(",")) {
+                        int diaSemana = dia.length() < 2 ? -1 : Arrays.asList(DIAS_SEMANA).indexOf(dia.substring(dia.length() - 2));
+                        if (diaSemana < 0) {
+                            throw new IllegalArgumentException("Dia da semana inválido: " + dia);
+                        }
+                        String ordinal = dia.substring(0, dia.length() - 2);
+                        if (ordinal.isEmpty()) {
+                            diasSemana |= 1 << diaSemana;
+                        } else {
+                            ordinais.add(new int[]{Integer.parseInt(ordinal.replace("+", "")), diaSemana});
+                        }
+                    }
+                    break;
+                case "BYSETPOS":
+                    posicoes = lerInteiros(valor, 1, 366, true);
+                    break;
+                case "X-BYDIAUTIL":
+                    diasUteis = lerInteiros(valor, 1, 23, true);
+                    break;
+                case "WKST":
+                    if (!"MO".equals(valor)) {
+                        throw new IllegalArgumentException("Apenas WKST=MO é suportado");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Parte não suportada na regra de recorrência: " + chave);
+            }
+        }
+
+        if (frequencia == null) {
+            throw new IllegalArgumentException("Regra de recorrência sem FREQ: " + regra);
+        }
+        if (inicio == null) {
+            throw new IllegalArgumentException("Regra de recorrência sem DTSTART: " + regra);
+        }
+        if (intervalo < 1 || contagem < 0) {
+            throw new IllegalArgumentException("INTERVAL e COUNT devem ser positivos: " + regra);
+        }
+        if (diasUteis.length > 0 && (frequencia == Frequencia.DAILY || frequencia == Frequencia.WEEKLY)) {
+            throw new IllegalArgumentException("X-BYDIAUTIL exige FREQ=MONTHLY ou YEARLY: " + regra);
+        }
+
+        int[] ordinaisSemana = new int[ordinais.size()];
+        int[] diasOrdinais = new int[ordinais.size()];
+        for (int i = 0; i < ordinais.size(); i++) {
+            ordinaisSemana[i] = ordinais.get(i)[0];
+            diasOrdinais[i] = ordinais.get(i)[1];
+        }
+
+        return new RegraRecorrencia(frequencia, intervalo, inicio, contagem, ate, meses, diasDoMes,
+                diasSemana, ordinaisSemana, diasOrdinais, posicoes, diasUteis);
+    }
+
+    /**
+     * Texto da regra com DTSTART: a própria regra quando já o define, senão a regra com a data de referência
+     * Duas obrigações com a mesma regra e o mesmo início chegam ao mesmo texto, que serve de chave de cache.
+     */
+    public static String comInicio(String regra, LocalDate referencia) {
+        if (regra == null || regra.isBlank()) {
+            throw new IllegalArgumentException("Regra de recorrência vazia");
+        }
+        String corpo = regra.trim();
+        if (referencia == null || PARTE_DTSTART.matcher(corpo).find()) {
+            return corpo;
+        }
+        return corpo + ";DTSTART=" + referencia.format(FORMATO_DATA);
+    }
+
+    /**
+     * Converte os tipos de recorrência legados em uma regra RRULE equivalente
+     * O DTSTART é normalizado para 2000 preservando apenas o alinhamento do intervalo,
+     * de forma que obrigações com a mesma configuração compartilham a mesma regra compilada.
+     */
+    public static String paraTipo(TipoRecorrencia tipo, Integer diasRecorrencia, Integer diaMesRecorrencia,
+                                  LocalDate referencia) {
+        if (tipo == TipoRecorrencia.UNICA) {
+            return null;
+        }
+
+        int dia = diaMesRecorrencia != null ? diaMesRecorrencia : referencia.getDayOfMonth();
+        String diaDoMes = dia <= 28 ? "BYMONTHDAY=" + dia : "BYMONTHDAY=" + dia + ",-1;BYSETPOS=1";
+
+        switch (tipo) {
+            case MENSAL:
+                return "FREQ=MONTHLY;" + diaDoMes + ";DTSTART=20000101";
+            case TRIMESTRAL:
+                return "FREQ=MONTHLY;INTERVAL=3;" + diaDoMes + ";DTSTART=" + inicioAlinhadoMes(referencia, 3);
+            case SEMESTRAL:
+                return "FREQ=MONTHLY;INTERVAL=6;" + diaDoMes + ";DTSTART=" + inicioAlinhadoMes(referencia, 6);
+            case ANUAL:
+                return "FREQ=YEARLY;BYMONTH=" + referencia.getMonthValue() + ";" + diaDoMes + ";DTSTART=20000101";
+            case CUSTOMIZADA:
+                if (diasRecorrencia != null && diasRecorrencia > 0) {
+                    long deslocamento = Math.floorMod(referencia.toEpochDay() - REFERENCIA.toEpochDay(), diasRecorrencia);
+                    return "FREQ=DAILY;INTERVAL=" + diasRecorrencia + ";DTSTART="
+                            + REFERENCIA.plusDays(deslocamento).format(FORMATO_DATA);
+                }
+                return "FREQ=MONTHLY;" + diaDoMes + ";DTSTART=20000101";
+            default:
+                throw new IllegalArgumentException("Tipo de recorrência não suportado: " + tipo);
+        }
+    }
+
+    /**
+     * Indica se a regra equivalente ao tipo legado depende do dia do mês (diaMesRecorrencia ou o da data de referência)
+     */
+    public static boolean usaDiaDoMes(TipoRecorrencia tipo, Integer diasRecorrencia) {
+        if (tipo == null || tipo == TipoRecorrencia.UNICA) {
+            return false;
+        }
+        return tipo != TipoRecorrencia.CUSTOMIZADA || diasRecorrencia == null || diasRecorrencia <= 0;
+    }
+
+    private static String inicioAlinhadoMes(LocalDate referencia, int intervalo) {
+        long meses = (referencia.getYear() - 2000L) * 12 + referencia.getMonthValue() - 1;
+        return REFERENCIA.plusMonths(Math.floorMod(meses, intervalo)).format(FORMATO_DATA);
+    }
+
+    /**
+     * Primeira ocorrência estritamente posterior à data, ou null quando a série terminou
+     */
+    public LocalDate proxima(LocalDate apos, IntFunction<CalendarioDiasUteis> calendarios) {
+        long dia = proxima(apos.toEpochDay(), calendarios);
+        return dia == NENHUM ? null : LocalDate.ofEpochDay(dia);
+    }
+
+    /**
+     * Primeira ocorrência (epoch-day) estritamente posterior ao dia, ou NENHUM
+     * Os calendários de dias úteis só são consultados por regras com X-BYDIAUTIL.
+     */
+    public long proxima(long apos, IntFunction<CalendarioDiasUteis> calendarios) {
+        PrimitiveIterator.OfLong ocorrencias = ocorrencias(apos, calendarios);
+        return ocorrencias.hasNext() ? ocorrencias.nextLong() : NENHUM;
+    }
+
+    /**
+     * Itera as ocorrências posteriores ao dia, em ordem; cada passo avalia no máximo um período novo
+     */
+    public PrimitiveIterator.OfLong ocorrencias(long apos, IntFunction<CalendarioDiasUteis> calendarios) {
+        return new Cursor(apos, calendarios);
+    }
+
+    public Frequencia getFrequencia() { return frequencia; }
+
+    public int getIntervalo() { return intervalo; }
+
+    public LocalDate getInicio() { return LocalDate.ofEpochDay(inicio); }
+
+    public boolean isUsaDiasUteis() { return diasUteis.length > 0; }
+
+    @Override
+    public String toString() {
+        return texto;
+    }
+
+    /**
+     * Índice do período (a partir de DTSTART) que contém o dia
+     */
+    private long periodo(long dia) {
+        switch (frequencia) {
+            case DAILY:
+                return dia - inicio;
+            case WEEKLY:
+                return Math.floorDiv(dia + 3, 7) - Math.floorDiv(inicio + 3, 7);
+            case MONTHLY:
+                return indiceMes(dia) - ((long) inicioAno * 12 + inicioMes - 1);
+            default:
+                return anoDe(dia) - inicioAno;
+        }
+    }
+
+    /**
+     * Candidatos ordenados e sem repetição de um período, já filtrados e com BYSETPOS aplicado
+     */
+    private int expandir(long periodo, IntFunction<CalendarioDiasUteis> calendarios, long[] candidatos) {
+        int n = 0;
+
+        switch (frequencia) {
+            case DAILY: {
+                long dia = inicio + periodo;
+                int mes = mesDe(dia);
+                if (mesPermitido(mes) && diaDoMesPermitido(dia) && (diasSemana == 0 || (diasSemana & 1 << diaSemana(dia)) != 0)) {
+                    candidatos[n++] = dia;
+                }
+                return n;
+            }
+            case WEEKLY: {
+                long segunda = (Math.floorDiv(inicio + 3, 7) + periodo) * 7 - 3;
+                int dias = diasSemana != 0 ? diasSemana : 1 << diaSemana(inicio);
+                for (int d = 0; d < 7; d++) {
+                    long dia = segunda + d;
+                    if ((dias & 1 << d) != 0 && mesPermitido(mesDe(dia)) && diaDoMesPermitido(dia)) {
+                        candidatos[n++] = dia;
+                    }
+                }
+                break;
+            }
+            case MONTHLY: {
+                long indice = (long) inicioAno * 12 + inicioMes - 1 + periodo;
+                int ano = (int) Math.floorDiv(indice, 12);
+                int mes = Math.floorMod(indice, 12) + 1;
+                if (mesPermitido(mes)) {
+                    n = expandirMes(ano, mes, calendarios, candidatos, n);
+                }
+                break;
+            }
+            default: {
+                int ano = (int) (inicioAno + periodo);
+                for (int mes = 1; mes <= 12; mes++) {
+                    if (meses != 0 ? (meses & 1 << mes) != 0 : mes == inicioMes) {
+                        n = expandirMes(ano, mes, calendarios, candidatos, n);
+                    }
+                }
+                break;
+            }
+        }
+
+        n = ordenarSemRepeticao(candidatos, n);
+        return posicoes.length > 0 ? aplicarPosicoes(candidatos, n) : n;
+    }
+
+    /**
+     * Acrescenta os dias de um mês que atendem às partes BYxxx da regra
+     */
+    private int expandirMes(int ano, int mes, IntFunction<CalendarioDiasUteis> calendarios, long[] candidatos, int n) {
+        int totalDias = IsoChronology.INSTANCE.isLeapYear(ano) ? diasNoMesBissexto(mes) : diasNoMes(mes);
+        long primeiro = diaEpoch(ano, mes, 1);
+
+        if (diasUteis.length > 0) {
+            CalendarioDiasUteis calendario = calendarios.apply(ano);
+            int antes = calendario.diasUteisAntes(primeiro);
+            int noMes = calendario.contarDiasUteis(primeiro, primeiro + totalDias - 1);
+            for (int ordem : diasUteis) {
+                int posicao = ordem > 0 ? ordem - 1 : noMes + ordem;
+                if (posicao >= 0 && posicao < noMes) {
+                    long dia = calendario.diaUtilPorOrdem(antes + posicao);
+                    if (diaDoMesPermitido(dia) && diaSemanaPermitido(dia, primeiro, totalDias)) {
+                        candidatos[n++] = dia;
+                    }
+                }
+            }
+        } else if (diasDoMes.length > 0) {
+            for (int diaDoMes : diasDoMes) {
+                int dia = diaDoMes > 0 ? diaDoMes : totalDias + diaDoMes + 1;
+                if (dia >= 1 && dia <= totalDias && diaSemanaPermitido(primeiro + dia - 1, primeiro, totalDias)) {
+                    candidatos[n++] = primeiro + dia - 1;
+                }
+            }
+        } else if (diasSemana != 0 || diasOrdinais.length > 0) {
+            for (int d = 0; d < totalDias; d++) {
+                if (diaSemanaPermitido(primeiro + d, primeiro, totalDias)) {
+                    candidatos[n++] = primeiro + d;
+                }
+            }
+        } else if (inicioDia <= totalDias) {
+            candidatos[n++] = primeiro + inicioDia - 1;
+        }
+
+        return n;
+    }
+
+    private boolean mesPermitido(int mes) {
+        return meses == 0 || (meses & 1 << mes) != 0;
+    }
+
+    private boolean diaDoMesPermitido(long dia) {
+        if (diasDoMes.length == 0) {
+            return true;
+        }
+        long indice = indiceMes(dia);
+        int ano = (int) Math.floorDiv(indice, 12);
+        int mes = Math.floorMod(indice, 12) + 1;
+        int diaDoMes = (int) (dia - diaEpoch(ano, mes, 1)) + 1;
+        int totalDias = IsoChronology.INSTANCE.isLeapYear(ano) ? diasNoMesBissexto(mes) : diasNoMes(mes);
+        for (int permitido : diasDoMes) {
+            if (permitido == diaDoMes || totalDias + permitido + 1 == diaDoMes) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Aplica BYDAY ao dia; ordinais (ex.: -1FR) são contados dentro do mês
+     */
+    private boolean diaSemanaPermitido(long dia, long primeiro, int totalDias) {
+        if (diasSemana == 0 && diasOrdinais.length == 0) {
+            return true;
+        }
+        int diaSemana = diaSemana(dia);
+        if ((diasSemana & 1 << diaSemana) != 0) {
+            return true;
+        }
+        int deslocamento = (int) (dia - primeiro);
+        for (int i = 0; i < diasOrdinais.length; i++) {
+            if (diasOrdinais[i] == diaSemana
+                    && (ordinaisSemana[i] == deslocamento / 7 + 1 || ordinaisSemana[i] == -((totalDias - 1 - deslocamento) / 7 + 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int aplicarPosicoes(long[] candidatos, int n) {
+        long[] selecionados = new long[posicoes.length];
+        int m = 0;
+        for (int posicao : posicoes) {
+            int indice = posicao > 0 ? posicao - 1 : n + posicao;
+            if (indice >= 0 && indice < n) {
+                selecionados[m++] = candidatos[indice];
+            }
+        }
+        System.arraycopy(selecionados, 0, candidatos, 0, m);
+        return ordenarSemRepeticao(candidatos, m);
+    }
+
+    private static int ordenarSemRepeticao(long[] valores, int n) {
+        if (n < 2) {
+            return n;
+        }
+        Arrays.sort(valores, 0, n);
+        int m = 1;
+        for (int i = 1; i < n; i++) {
+            if (valores[i] != valores[m - 1]) {
+                valores[m++] = valores[i];
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Cursor sobre as ocorrências; mantém o período corrente e seus candidatos
+     */
+    private final class Cursor implements PrimitiveIterator.OfLong {
+        private final IntFunction<CalendarioDiasUteis> calendarios;
+        private final long apos;
+        private final long[] candidatos = new long[(frequencia == Frequencia.YEARLY ? 12 : 1)
+                * Math.max(31, Math.max(diasDoMes.length, diasUteis.length))];
+        private long periodoAtual;
+        private int total;
+        private int indice;
+        private int emitidas;
+        private long proximo = NENHUM;
+        private boolean terminado;
+
+        private Cursor(long apos, IntFunction<CalendarioDiasUteis> calendarios) {
+            this.calendarios = calendarios;
+            this.apos = apos;
+            // Com COUNT é preciso contar as ocorrências desde DTSTART
+            long primeiro = contagem > 0 ? 0 : Math.max(0, periodo(Math.max(apos, inicio)));
+            long resto = primeiro % intervalo;
+            this.periodoAtual = resto == 0 ? primeiro : primeiro + intervalo - resto;
+            carregarPeriodo();
+        }
+
+        /**
+         * Avança até um período com candidatos; um ciclo gregoriano inteiro de períodos vazios esgota a regra
+         */
+        private void carregarPeriodo() {
+            long vazios = 0;
+            while (true) {
+                total = expandir(periodoAtual, calendarios, candidatos);
+                indice = 0;
+                if (total > 0) {
+                    return;
+                }
+                if (++vazios >= periodosNoCiclo()) {
+                    terminado = true;
+                    return;
+                }
+                periodoAtual += intervalo;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (proximo == NENHUM && !terminado) {
+                if (indice >= total) {
+                    periodoAtual += intervalo;
+                    carregarPeriodo();
+                    continue;
+                }
+                long dia = candidatos[indice++];
+                if (dia < inicio) {
+                    continue;
+                }
+                if (dia > ate || (contagem > 0 && emitidas >= contagem)) {
+                    terminado = true;
+                    break;
+                }
+                emitidas++;
+                if (dia > apos) {
+                    proximo = dia;
+                }
+            }
+            return proximo != NENHUM;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long dia = proximo;
+            proximo = NENHUM;
+            return dia;
+        }
+    }
+
+    /**
+     * Representação canônica da regra, usada como chave de cache
+     */
+    private String formatar(LocalDate dataInicio, LocalDate dataAte) {
+        StringBuilder sb = new StringBuilder("FREQ=").append(frequencia);
+        if (intervalo != 1) {
+            sb.append(";INTERVAL=").append(intervalo);
+        }
+        if (meses != 0) {
+            sb.append(";BYMONTH=");
+            String separador = "";
+            for (int mes = 1; mes <= 12; mes++) {
+                if ((meses & 1 << mes) != 0) {
+                    sb.append(separador).append(mes);
+                    separador = ",";
+                }
+            }
+        }
+        if (diasDoMes.length > 0) {
+            sb.append(";BYMONTHDAY=").append(juntar(diasDoMes));
+        }
+        if (diasSemana != 0 || diasOrdinais.length > 0) {
+            sb.append(";BYDAY=");
+            String separador = "";
+            for (int i = 0; i < diasOrdinais.length; i++) {
+                sb.append(separador).append(ordinaisSemana[i]).append(DIAS_SEMANA[diasOrdinais[i]]);
+                separador = ",";
+            }
+            for (int d = 0; d < 7; d++) {
+                if ((diasSemana & 1 << d) != 0) {
+                    sb.append(separador).append(DIAS_SEMANA[d]);
+                    separador = ",";
+                }
+            }
+        }
+        if (posicoes.length > 0) {
+            sb.append(";BYSETPOS=").append(juntar(posicoes));
+        }
+        if (diasUteis.length > 0) {
+            sb.append(";X-BYDIAUTIL=").append(juntar(diasUteis));
+        }
+        if (contagem > 0) {
+            sb.append(";COUNT=").append(contagem);
+        }
+        if (dataAte != null) {
+            sb.append(";UNTIL=").append(dataAte.format(FORMATO_DATA));
+        }
+        return sb.append(";DTSTART=").append(dataInicio.format(FORMATO_DATA)).toString();
+    }
+
+    private static String juntar(int[] valores) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(valores[i]);
+        }
+        return sb.toString();
+    }
+
+    private static int[] lerInteiros(String valor, int minimo, int maximo, boolean aceitaNegativo) {
+        String[] partes = valor.split(",");
+        int[] numeros = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            int numero = Integer.parseInt(partes[i].trim().replace("+", ""));
+            int absoluto = Math.abs(numero);
+            if (absoluto < minimo || absoluto > maximo || (numero < 0 && !aceitaNegativo)) {
+                throw new IllegalArgumentException("Valor fora do intervalo na regra de recorrência: " + numero);
+            }
+            numeros[i] = numero;
+        }
+        return Arrays.stream(numeros).distinct().toArray();
+    }
+
+    private static LocalDate lerData(String valor) {
+        String data = valor.contains("T") ? valor.substring(0, valor.indexOf('T')) : valor;
+        return data.contains("-") ? LocalDate.parse(data) : LocalDate.parse(data, FORMATO_DATA);
+    }
+
+    /**
+     * Períodos em 400 anos (146097 dias), após os quais o calendário gregoriano se repete
+     * Com INTERVAL os períodos visitados também se repetem dentro deste número de passos, então uma regra
+     * sem ocorrência ao longo dele não terá nenhuma (ex.: 30 de fevereiro); 29 de fevereiro ainda é achado
+     * após os 8 anos sem bissexto da virada de século.
+     */
+    private long periodosNoCiclo() {
+        switch (frequencia) {
+            case DAILY:
+                return 146097;
+            case WEEKLY:
+                return 146097 / 7;
+            case MONTHLY:
+                return 400 * 12;
+            default:
+                return 400;
+        }
+    }
+
+    // Aritmética de calendário sobre epoch-day, sem alocação (algoritmos civis de H. Hinnant)
+
+    private static int diaSemana(long dia) {
+        return Math.floorMod(dia + 3, 7); // 0 = segunda ... 6 = domingo
+    }
+
+    private static long diaEpoch(int ano, int mes, int dia) {
+        long a = mes <= 2 ? ano - 1 : ano;
+        long era = Math.floorDiv(a, 400);
+        long anoDaEra = a - era * 400;
+        long diaDoAno = (153L * (mes > 2 ? mes - 3 : mes + 9) + 2) / 5 + dia - 1;
+        long diaDaEra = anoDaEra * 365 + anoDaEra / 4 - anoDaEra / 100 + diaDoAno;
+        return era * 146097 + diaDaEra - 719468;
+    }
+
+    private static long indiceMes(long dia) {
+        long z = dia + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long diaDaEra = z - era * 146097;
+        long anoDaEra = (diaDaEra - diaDaEra / 1460 + diaDaEra / 36524 - diaDaEra / 146096) / 365;
+        long diaDoAno = diaDaEra - (365 * anoDaEra + anoDaEra / 4 - anoDaEra / 100);
+        long mp = (5 * diaDoAno + 2) / 153;
+        long mes = mp < 10 ? mp + 3 : mp - 9;
+        long ano = anoDaEra + era * 400 + (mes <= 2 ? 1 : 0);
+        return ano * 12 + mes - 1;
+    }
+
+    private static int mesDe(long dia) {
+        return Math.floorMod(indiceMes(dia), 12) + 1;
+    }
+
+    private static int anoDe(long dia) {
+        return (int) Math.floorDiv(indiceMes(dia), 12);
+    }
+
+    private static int diasNoMes(int mes) {
+        return mes == 2 ? 28 : (mes == 4 || mes == 6 || mes == 9 || mes == 11) ? 30 : 31;
+    }
+
+    private static int diasNoMesBissexto(int mes) {
+        return mes == 2 ? 29 : diasNoMes(mes);
+    }
+}
@@ -0,0 +1,45 @@
+package com.fiscal.service;
+
+/**
+ * Resultado de uma execução de job: itens processados e itens com falha
+ * Padrão: Value Object Pattern
+ */
+public final class ResultadoJob {
+
+    private static final ResultadoJob IGNORADO = new ResultadoJob(0, 0, true, "Execução em andamento em outra instância");
+
+    private final int processados;
+    private final int falhas;
+    private final boolean ignorado;
+    private final String mensagem;
+
+    private ResultadoJob(int processados, int falhas, boolean ignorado, String mensagem) {
+        this.processados = processados;
+        this.falhas = falhas;
+        this.ignorado = ignorado;
+        this.mensagem = mensagem;
+    }
+
+    public static ResultadoJob de(int processados, int falhas) {
+        return new ResultadoJob(processados, falhas, false, null);
+    }
+
+    /**
+     * Job que não rodou nesta instância, por exemplo por não ter a posse
+     */
+    public static ResultadoJob ignorado() {
+        return IGNORADO;
+    }
+
+    public static ResultadoJob ignorado(String mensagem) {
+        return new ResultadoJob(0, 0, true, mensagem);
+    }
+
+    public int getProcessados() { return processados; }
+
+    public int getFalhas() { return falhas; }
+
+    public boolean isIgnorado() { return ignorado; }
+
+    public String getMensagem() { return mensagem; }
+}
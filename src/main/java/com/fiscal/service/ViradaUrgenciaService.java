@@ -0,0 +1,60 @@
+package com.fiscal.service;
+
+import com.fiscal.model.StatusUrgencia;
+import com.fiscal.repository.ObrigacaoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serviço da virada do dia das urgências
+ * Uma obrigação só muda de urgência no dia em que os dias até o vencimento atingem o limite de uma
+ * situação (15, 7, 3 ou -1); por isso basta consultar essas datas de vencimento no índice e enviar
+ * uma única mensagem com os ids agrupados pela nova situação.
+ * Padrão: Service Layer Pattern
+ */
+@Service
+public class ViradaUrgenciaService {
+
+    private final ObrigacaoRepository obrigacaoRepository;
+    private final NotificacaoService notificacaoService;
+
+    public ViradaUrgenciaService(ObrigacaoRepository obrigacaoRepository, NotificacaoService notificacaoService) {
+        this.obrigacaoRepository = obrigacaoRepository;
+        this.notificacaoService = notificacaoService;
+    }
+
+    /**
+     * Calcula as mudanças de urgência do dia e notifica os clientes; retorna o resumo enviado
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> virarDia(LocalDate hoje) {
+        List<LocalDate> datasLimite = new ArrayList<>();
+        for (StatusUrgencia status : StatusUrgencia.values()) {
+            if (status != StatusUrgencia.NORMAL) {
+                datasLimite.add(hoje.plusDays(status.getLimiteDias()));
+            }
+        }
+
+        Map<String, List<Long>> mudancas = new LinkedHashMap<>();
+        int total = 0;
+        for (Object[] linha : obrigacaoRepository.findIdsComVencimentoEm(datasLimite)) {
+            long dias = ChronoUnit.DAYS.between(hoje, (LocalDate) linha[1]);
+            mudancas.computeIfAbsent(StatusUrgencia.de(dias).getDescricao(), status -> new ArrayList<>()).add((Long) linha[0]);
+            total++;
+        }
+
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("data", hoje);
+        resumo.put("total", total);
+        resumo.put("mudancas", mudancas);
+        notificacaoService.notificarViradaUrgencias(resumo);
+        return resumo;
+    }
+}
@@ -1,9 +1,13 @@
 package com.fiscal.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fiscal.model.dto.NotificacaoTempoReal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.util.Map;
@@ -11,6 +15,8 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Serviço WebSocket para colaboração em tempo real
+ * A sessão se identifica pelo parâmetro responsavelId na URL ou por uma mensagem
+ * {"tipo":"IDENTIFICAR","responsavelId":...}, permitindo notificações dirigidas a um responsável.
  * Padrão: Service Layer Pattern + Observer Pattern
  */
 @Service
@@ -19,20 +25,30 @@ public class WebSocketService implements WebSocketHandler {
     
     private final Map<String, WebSocketSession> sessoes = new ConcurrentHashMap<>();
     private final Map<String, String> usuariosConectados = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    
+    public WebSocketService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
     
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         String sessionId = session.getId();
         sessoes.put(sessionId, session);
         
+        if (session.getUri() != null) {
+            identificarSessao(sessionId, UriComponentsBuilder.fromUri(session.getUri()).build()
+                    .getQueryParams().getFirst("responsavelId"));
+        }
+        
         // Log removido temporariamente
         
         // Notificar outros usuários sobre nova conexão
-        notificarUsuarios(NotificacaoTempoRealnew 
-                .tipo(NotificacaoTempoReal.TipoNotificacao.USUARIO_CONECTADO)
-                .mensagem("Usuário conectado")
-                .timestamp(java.time.LocalDateTime.now())
-                , sessionId);
+        NotificacaoTempoReal notificacao = new NotificacaoTempoReal();
+        notificacao.setTipo(NotificacaoTempoReal.TipoNotificacao.USUARIO_CONECTADO);
+        notificacao.setMensagem("Usuário conectado");
+        notificacao.setTimestamp(java.time.LocalDateTime.now());
+        notificarUsuarios(notificacao, sessionId);
     }
     
     @Override
@@ -49,7 +65,7 @@ public class WebSocketService implements WebSocketHandler {
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         String sessionId = session.getId();
-        System.out.println("Erro de transporte WebSocket para sessão {}: " + sessionId, exception.getMessage());
+        System.out.println("Erro de transporte WebSocket para sessão " + sessionId + ": " + exception.getMessage());
         
         // Remover sessão em caso de erro
         removerSessao(sessionId);
@@ -61,11 +77,11 @@ public class WebSocketService implements WebSocketHandler {
         // Log removido temporariamente
         
         // Notificar outros usuários sobre desconexão
-        notificarUsuarios(NotificacaoTempoRealnew 
-                .tipo(NotificacaoTempoReal.TipoNotificacao.USUARIO_DESCONECTADO)
-                .mensagem("Usuário desconectado")
-                .timestamp(java.time.LocalDateTime.now())
-                , sessionId);
+        NotificacaoTempoReal notificacao = new NotificacaoTempoReal();
+        notificacao.setTipo(NotificacaoTempoReal.TipoNotificacao.USUARIO_DESCONECTADO);
+        notificacao.setMensagem("Usuário desconectado");
+        notificacao.setTimestamp(java.time.LocalDateTime.now());
+        notificarUsuarios(notificacao, sessionId);
         
         removerSessao(sessionId);
     }
@@ -87,7 +103,7 @@ public class WebSocketService implements WebSocketHandler {
                     session.sendMessage(new TextMessage(converterParaJson(notificacao)));
                 }
             } catch (IOException e) {
-                System.out.println("Erro ao enviar notificação para sessão {}: " + session.getId(), e.getMessage());
+                System.out.println("Erro ao enviar notificação para sessão " + session.getId() + ": " + e.getMessage());
             }
         });
     }
@@ -96,7 +112,7 @@ public class WebSocketService implements WebSocketHandler {
      * Envia notificação para todos os usuários exceto o remetente
      */
     public void notificarUsuarios(NotificacaoTempoReal notificacao, String sessionIdRemetente) {
-        System.out.println("Enviando notificação para usuários (exceto {}): " + sessionIdRemetente, notificacao.getTipo());
+        System.out.println("Enviando notificação para usuários (exceto " + sessionIdRemetente + "): " + notificacao.getTipo());
         
         sessoes.entrySet().stream()
                 .filter(entry -> !entry.getKey().equals(sessionIdRemetente))
@@ -107,7 +123,7 @@ public class WebSocketService implements WebSocketHandler {
                             session.sendMessage(new TextMessage(converterParaJson(notificacao)));
                         }
                     } catch (IOException e) {
-                        System.out.println("Erro ao enviar notificação para sessão {}: " + entry.getKey(), e.getMessage());
+                        System.out.println("Erro ao enviar notificação para sessão " + entry.getKey() + ": " + e.getMessage());
                     }
                 });
     }
@@ -116,7 +132,7 @@ public class WebSocketService implements WebSocketHandler {
      * Envia notificação para um usuário específico
      */
     public void notificarUsuario(String usuarioId, NotificacaoTempoReal notificacao) {
-        System.out.println("Enviando notificação para usuário {}: " + usuarioId, notificacao.getTipo());
+        System.out.println("Enviando notificação para usuário " + usuarioId + ": " + notificacao.getTipo());
         
         usuariosConectados.entrySet().stream()
                 .filter(entry -> entry.getValue().equals(usuarioId))
@@ -127,7 +143,7 @@ public class WebSocketService implements WebSocketHandler {
                         try {
                             session.sendMessage(new TextMessage(converterParaJson(notificacao)));
                         } catch (IOException e) {
-                            System.out.println("Erro ao enviar notificação para usuário {}: " + usuarioId, e.getMessage());
+                            System.out.println("Erro ao enviar notificação para usuário " + usuarioId + ": " + e.getMessage());
                         }
                     }
                 });
@@ -138,12 +154,24 @@ public class WebSocketService implements WebSocketHandler {
      */
     private void processarMensagem(String sessionId, String payload) {
         try {
-            // Aqui você pode implementar lógica para processar diferentes tipos de mensagem
-            // Por exemplo, identificar usuário, processar comandos, etc.
-            // Log removido temporariamente
-            
+            JsonNode mensagem = objectMapper.readTree(payload);
+            if ("IDENTIFICAR".equals(mensagem.path("tipo").asText())) {
+                identificarSessao(sessionId, mensagem.path("responsavelId").asText(null));
+            }
         } catch (Exception e) {
-            System.out.println("Erro ao processar mensagem da sessão {}: " + sessionId, e.getMessage());
+            System.out.println("Erro ao processar mensagem da sessão " + sessionId + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Associa a sessão ao responsável informado, que passa a receber as notificações dirigidas a ele;
+     * sem responsável, a sessão deixa de recebê-las
+     */
+    private void identificarSessao(String sessionId, String responsavelId) {
+        if (responsavelId != null && !responsavelId.isBlank()) {
+            usuariosConectados.put(sessionId, responsavelId.trim());
+        } else {
+            usuariosConectados.remove(sessionId);
         }
     }
     
@@ -159,15 +187,11 @@ public class WebSocketService implements WebSocketHandler {
      * Converte notificação para JSON
      */
     private String converterParaJson(NotificacaoTempoReal notificacao) {
-        // Implementação simples - em produção usar Jackson ou Gson
-        return String.format(
-                "{\"tipo\":\"%s\",\"mensagem\":\"%s\",\"timestamp\":\"%s\",\"obrigacaoId\":%s,\"usuarioEditor\":\"%s\"}",
-                notificacao.getTipo(),
-                notificacao.getMensagem(),
-                notificacao.getTimestamp(),
-                notificacao.getObrigacaoId() != null ? notificacao.getObrigacaoId() : "null",
-                notificacao.getUsuarioEditor() != null ? notificacao.getUsuarioEditor() : ""
-        );
+        try {
+            return objectMapper.writeValueAsString(notificacao);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar notificação", e);
+        }
     }
     
     /**
@@ -183,6 +207,13 @@ public class WebSocketService implements WebSocketHandler {
     public boolean temUsuariosConectados() {
         return !sessoes.isEmpty();
     }
+    
+    /**
+     * Verifica se o responsável tem alguma sessão aberta
+     */
+    public boolean isUsuarioConectado(String usuarioId) {
+        return usuariosConectados.containsValue(usuarioId);
+    }
 }
 
 
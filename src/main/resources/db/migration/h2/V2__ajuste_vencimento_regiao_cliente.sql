@@ -0,0 +1,17 @@
+-- Colunas do ajuste de vencimento por dias úteis, da região do cliente e da regra de recorrência.
+-- Todas aceitam nulo: as linhas existentes seguem com o comportamento anterior até serem editadas.
+
+alter table obrigacoes
+    add column modo_ajuste varchar(20) check (modo_ajuste in ('POSTERGAR','ANTECIPAR'));
+
+alter table obrigacoes
+    add column data_vencimento_original date;
+
+alter table obrigacoes
+    add column regra_recorrencia varchar(255);
+
+alter table clientes
+    add column uf varchar(2);
+
+alter table clientes
+    add column codigo_municipio_ibge varchar(7);
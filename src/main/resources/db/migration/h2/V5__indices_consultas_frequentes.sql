@@ -0,0 +1,25 @@
+-- Índices das consultas mais frequentes sobre obrigações.
+-- O H2 não tem índices parciais: as versões do PostgreSQL entram aqui sem a cláusula WHERE.
+
+CREATE INDEX IF NOT EXISTS idx_obrigacoes_pendentes_vencimento
+    ON obrigacoes (ativo, concluida, data_vencimento);
+
+CREATE INDEX IF NOT EXISTS idx_obrigacoes_proxima_geracao
+    ON obrigacoes (data_proxima_geracao);
+
+CREATE INDEX IF NOT EXISTS idx_obrigacoes_cliente_vencimento
+    ON obrigacoes (cliente_id, data_vencimento);
+
+CREATE INDEX IF NOT EXISTS idx_obrigacoes_responsavel_vencimento
+    ON obrigacoes (responsavel_id, data_vencimento);
+
+-- Consultas por faixa das V2 a V4: reajuste pela data nominal, ocorrências da série por vencimento
+-- e estatísticas de conclusão
+CREATE INDEX IF NOT EXISTS idx_obrigacoes_data_vencimento_original
+    ON obrigacoes (data_vencimento_original);
+
+CREATE INDEX IF NOT EXISTS idx_obrigacoes_serie_vencimento
+    ON obrigacoes (serie_id, data_vencimento);
+
+CREATE INDEX IF NOT EXISTS idx_obrigacoes_data_conclusao
+    ON obrigacoes (data_conclusao);
@@ -0,0 +1,3 @@
+-- Busca com filtro por tipo (ObrigacaoSpecifications e findByTipoAndAtivoTrueOrderByDataVencimentoAsc)
+CREATE INDEX IF NOT EXISTS idx_obrigacoes_tipo_vencimento
+    ON obrigacoes (tipo, data_vencimento);
@@ -0,0 +1,4 @@
+-- Passada da geração de recorrências em SQL que inseriu cada linha; as linhas gravadas pela aplicação ficam nulas.
+
+alter table obrigacoes
+    add column lote_geracao varchar(36);
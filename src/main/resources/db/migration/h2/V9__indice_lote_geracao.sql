@@ -0,0 +1,3 @@
+-- Linhas de uma passada da geração em SQL (LIBERAR_ANTERIORES e AVANCAR_MARCAS)
+CREATE INDEX IF NOT EXISTS idx_obrigacoes_lote_geracao
+    ON obrigacoes (lote_geracao);
@@ -0,0 +1,7 @@
+-- O registro de envio passa a considerar o vencimento: adiada a obrigação, os limiares voltam a valer para a nova data.
+
+alter table alertas_enviados
+    drop constraint uk_alertas_enviados_obrigacao_limiar;
+
+alter table alertas_enviados
+    add constraint uk_alertas_enviados_obrigacao_limiar_vencimento unique (obrigacao_id, limiar_dias, data_vencimento);
@@ -0,0 +1,13 @@
+-- Séries criadas sem dia do mês passam a fixá-lo pela primeira data nominal, para que o vencimento não derive
+-- (31/01 → 28/02 → 28/03) quando cada ocorrência herda o dia da anterior.
+
+update obrigacao_series s
+   set dia_mes_recorrencia = (
+           select extract(day from min(coalesce(o.data_vencimento_original, o.data_vencimento)))
+             from obrigacoes o
+            where o.serie_id = s.id)
+ where s.dia_mes_recorrencia is null
+   and s.regra_recorrencia is null
+   and (s.tipo_recorrencia in ('MENSAL','TRIMESTRAL','SEMESTRAL','ANUAL')
+        or (s.tipo_recorrencia = 'CUSTOMIZADA' and coalesce(s.dias_recorrencia, 0) <= 0))
+   and exists (select 1 from obrigacoes o where o.serie_id = s.id);
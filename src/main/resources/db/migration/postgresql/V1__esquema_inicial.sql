@@ -0,0 +1,132 @@
+-- Esquema inicial: as tabelas que a versão anterior criava com ddl-auto=update a partir das entidades.
+-- Bancos já existentes são marcados nesta versão (baseline) e recebem o restante a partir da V2.
+
+create table clientes (
+    ativo boolean not null,
+    data_atualizacao timestamp(6),
+    data_criacao timestamp(6) not null,
+    id bigserial not null,
+    cnpj_cpf varchar(18),
+    telefone varchar(20),
+    observacoes varchar(500),
+    email varchar(255),
+    nome varchar(255) not null,
+    primary key (id)
+);
+
+create table historico_alteracoes (
+    data_alteracao timestamp(6) not null,
+    id bigserial not null,
+    obrigacao_id bigint not null,
+    ip_usuario varchar(45),
+    campo_alterado varchar(100) not null,
+    observacoes varchar(500),
+    valor_anterior varchar(1000),
+    valor_novo varchar(1000),
+    usuario_editor varchar(255),
+    primary key (id)
+);
+
+create table impostos (
+    ajustar_feriados boolean,
+    ajustar_finais_semana boolean,
+    ativo boolean not null,
+    dia_vencimento integer,
+    mes_vencimento integer,
+    prazo_antecedencia_dias integer,
+    data_atualizacao timestamp(6),
+    data_criacao timestamp(6) not null,
+    id bigserial not null,
+    codigo varchar(10),
+    descricao varchar(500),
+    nome varchar(255) not null,
+    tipo varchar(255) not null check (tipo in ('FEDERAL','ESTADUAL','MUNICIPAL','CONTRIBUIÇÃO','TAXA','OUTROS')),
+    tipo_recorrencia varchar(255) not null check (tipo_recorrencia in ('MENSAL','BIMESTRAL','TRIMESTRAL','SEMESTRAL','ANUAL','PERSONALIZADA')),
+    ultimo_editor varchar(255),
+    primary key (id)
+);
+
+create table obrigacoes (
+    ajustar_feriados boolean,
+    ajustar_finais_semana boolean,
+    ativo boolean not null,
+    concluida boolean,
+    data_conclusao date,
+    data_proxima_geracao date,
+    data_vencimento date not null,
+    dia_mes_recorrencia integer,
+    dias_recorrencia integer,
+    cliente_id bigint,
+    data_atualizacao timestamp(6),
+    data_criacao timestamp(6) not null,
+    id bigserial not null,
+    responsavel_id bigint,
+    descricao varchar(500),
+    nome varchar(255) not null,
+    tipo varchar(255) not null check (tipo in ('IMPOSTO','PARCELAMENTO','DECLARACAO','DOCUMENTO','OUTROS')),
+    tipo_recorrencia varchar(255) not null check (tipo_recorrencia in ('UNICA','MENSAL','TRIMESTRAL','SEMESTRAL','ANUAL','CUSTOMIZADA')),
+    ultimo_editor varchar(255),
+    primary key (id)
+);
+
+create table parcelamentos (
+    ajustar_feriados boolean,
+    ajustar_finais_semana boolean,
+    ativo boolean not null,
+    data_fim date,
+    data_inicio date not null,
+    dia_vencimento integer,
+    numero_parcelas integer not null,
+    parcela_atual integer,
+    valor_parcela numeric(15,2),
+    valor_total numeric(15,2),
+    cliente_id bigint,
+    data_atualizacao timestamp(6),
+    data_criacao timestamp(6) not null,
+    id bigserial not null,
+    responsavel_id bigint,
+    descricao varchar(500),
+    observacoes varchar(1000),
+    nome varchar(255) not null,
+    status varchar(255) not null check (status in ('ATIVO','CONCLUIDO','SUSPENSO','CANCELADO')),
+    tipo_recorrencia varchar(255) not null check (tipo_recorrencia in ('MENSAL','BIMESTRAL','TRIMESTRAL','SEMESTRAL','ANUAL')),
+    ultimo_editor varchar(255),
+    primary key (id)
+);
+
+create table responsaveis (
+    ativo boolean not null,
+    data_atualizacao timestamp(6),
+    data_criacao timestamp(6) not null,
+    id bigserial not null,
+    telefone varchar(20),
+    cargo varchar(100),
+    email varchar(255),
+    nome varchar(255) not null,
+    primary key (id)
+);
+
+alter table if exists historico_alteracoes
+   add constraint FKcvybkb79xma4u9etssrdqbc74
+   foreign key (obrigacao_id)
+   references obrigacoes;
+
+alter table if exists obrigacoes
+   add constraint FKorkoqisvfxlwumwbcm9wq7nvu
+   foreign key (cliente_id)
+   references clientes;
+
+alter table if exists obrigacoes
+   add constraint FKswguvxri8b969iqsw7ch4facx
+   foreign key (responsavel_id)
+   references responsaveis;
+
+alter table if exists parcelamentos
+   add constraint FKbnp87ff7ntodjir9qbxq6480s
+   foreign key (cliente_id)
+   references clientes;
+
+alter table if exists parcelamentos
+   add constraint FK97v8sxt0qijv4iav7d3l1dpbw
+   foreign key (responsavel_id)
+   references responsaveis;
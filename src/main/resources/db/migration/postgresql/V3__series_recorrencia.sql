@@ -0,0 +1,63 @@
+-- Séries de obrigações recorrentes, chave de idempotência da geração e calendário de dias úteis
+-- usado pela geração em SQL.
+
+create table obrigacao_series (
+    ajustar_feriados boolean,
+    ajustar_finais_semana boolean,
+    ativo boolean not null,
+    data_ultima_geracao date,
+    dia_mes_recorrencia integer,
+    dias_recorrencia integer,
+    cliente_id bigint,
+    data_atualizacao timestamp(6),
+    data_criacao timestamp(6) not null,
+    id bigserial not null,
+    responsavel_id bigint,
+    modo_ajuste varchar(20) check (modo_ajuste in ('POSTERGAR','ANTECIPAR')),
+    descricao varchar(500),
+    nome varchar(255) not null,
+    regra_recorrencia varchar(255),
+    tipo varchar(255) not null check (tipo in ('IMPOSTO','PARCELAMENTO','DECLARACAO','DOCUMENTO','OUTROS')),
+    tipo_recorrencia varchar(255) not null check (tipo_recorrencia in ('UNICA','MENSAL','TRIMESTRAL','SEMESTRAL','ANUAL','CUSTOMIZADA')),
+    ultimo_editor varchar(255),
+    primary key (id)
+);
+
+alter table if exists obrigacao_series
+   add constraint FKsai7w8faxta5nsyv5ogvh6aiq
+   foreign key (cliente_id)
+   references clientes;
+
+alter table if exists obrigacao_series
+   add constraint FKd5ftrprmwxjibr017cw164p2r
+   foreign key (responsavel_id)
+   references responsaveis;
+
+alter table obrigacoes
+    add column serie_id bigint;
+
+alter table if exists obrigacoes
+   add constraint FKqgcb4xpxdwlt9sv96nhydlqu5
+   foreign key (serie_id)
+   references obrigacao_series;
+
+-- Uma ocorrência por série e data nominal; linhas sem série (serie_id nulo) não conflitam
+alter table obrigacoes
+    add constraint uk_obrigacoes_serie_data_referencia unique (serie_id, data_vencimento_original);
+
+create table calendario_dias_uteis (
+    ano integer not null,
+    data date not null,
+    dia integer not null,
+    dia_util boolean not null,
+    dia_util_anterior date not null,
+    dia_util_seguinte date not null,
+    mes_indice integer not null,
+    id bigserial not null,
+    regiao varchar(20) not null,
+    primary key (id),
+    constraint uk_calendario_regiao_data unique (regiao, data)
+);
+
+create index idx_calendario_regiao_mes_dia
+   on calendario_dias_uteis (regiao, mes_indice, dia);
@@ -0,0 +1,66 @@
+-- Leases e execuções dos jobs agendados, registro de alertas enviados (com o imposto da obrigação,
+-- que define a antecedência) e snapshots das estatísticas.
+
+create table job_leases (
+    adquirido_em timestamp(6),
+    expira_em timestamp(6) not null,
+    dono varchar(100) not null,
+    nome varchar(100) not null,
+    primary key (nome)
+);
+
+create index idx_job_leases_expira_em
+   on job_leases (expira_em);
+
+create table execucoes_jobs (
+    itens_falhos integer,
+    itens_processados integer,
+    duracao_ms bigint,
+    fim timestamp(6),
+    id bigserial not null,
+    inicio timestamp(6) not null,
+    status varchar(20) not null check (status in ('EM_EXECUCAO','SUCESSO','FALHA','TIMEOUT','IGNORADA')),
+    instancia varchar(100),
+    job varchar(100) not null,
+    mensagem varchar(1000),
+    primary key (id)
+);
+
+create index idx_execucoes_jobs_job_inicio
+   on execucoes_jobs (job, inicio);
+
+alter table obrigacoes
+    add column imposto_id bigint;
+
+alter table if exists obrigacoes
+   add constraint FKbdsawjojhxxm03ys5y72873ug
+   foreign key (imposto_id)
+   references impostos;
+
+create table alertas_enviados (
+    data_vencimento date not null,
+    limiar_dias integer not null,
+    data_envio timestamp(6) not null,
+    id bigserial not null,
+    obrigacao_id bigint not null,
+    instancia varchar(100),
+    primary key (id),
+    constraint uk_alertas_enviados_obrigacao_limiar unique (obrigacao_id, limiar_dias)
+);
+
+alter table if exists alertas_enviados
+   add constraint FK3wbhgljre6dlcg8k51k2vvtl
+   foreign key (obrigacao_id)
+   references obrigacoes;
+
+create table estatisticas_snapshot (
+    data_referencia date not null,
+    data_geracao timestamp(6) not null,
+    id bigserial not null,
+    quantidade bigint not null,
+    periodo varchar(10) not null check (periodo in ('DIARIO','MENSAL')),
+    dimensao varchar(20) not null check (dimensao in ('TOTAL','TIPO','CLIENTE','RESPONSAVEL','STATUS','PRAZO')),
+    chave varchar(50) not null,
+    primary key (id),
+    constraint uk_estatisticas_snapshot_chave unique (periodo, dimensao, data_referencia, chave)
+);
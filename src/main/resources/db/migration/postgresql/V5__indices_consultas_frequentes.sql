@@ -0,0 +1,37 @@
+-- Índices das consultas mais frequentes sobre obrigações e histórico.
+-- CONCURRENTLY não bloqueia escritas nas tabelas já populadas; o Flyway executa estes comandos fora de transação.
+
+-- findProximasVencimento e findVencidas: igualdade em ativo/concluida e faixa ordenada por vencimento
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_pendentes_vencimento
+    ON obrigacoes (ativo, concluida, data_vencimento);
+
+-- findParaGerarProximaOcorrencia e findIdsParaGerarProximaOcorrencia*: só as obrigações ativas com geração agendada.
+-- O filtro por data_proxima_geracao, e não por tipo_recorrencia <> 'UNICA', atende também as consultas que aceitam
+-- obrigações UNICA com regra de recorrência; as demais UNICA não têm data de geração e ficam fora do índice.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_proxima_geracao
+    ON obrigacoes (data_proxima_geracao)
+    WHERE ativo = true AND data_proxima_geracao IS NOT NULL;
+
+-- findByClienteIdAndAtivoTrueOrderByDataVencimentoAsc: filtro e ordenação lidos direto do índice
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_cliente_vencimento
+    ON obrigacoes (cliente_id, data_vencimento)
+    WHERE ativo = true;
+
+-- findByResponsavelIdAndAtivoTrueOrderByDataVencimentoAsc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_responsavel_vencimento
+    ON obrigacoes (responsavel_id, data_vencimento)
+    WHERE ativo = true;
+
+-- Consultas por faixa das V2 a V4: reajuste pela data nominal, ocorrências da série por vencimento
+-- e estatísticas de conclusão
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_data_vencimento_original
+    ON obrigacoes (data_vencimento_original);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_serie_vencimento
+    ON obrigacoes (serie_id, data_vencimento);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_data_conclusao
+    ON obrigacoes (data_conclusao);
+
+-- findByObrigacaoIdOrderByDataAlteracaoDesc: idx_historico_obrigacao_data_id (V7) é percorrido de trás para frente,
+-- sem precisar de uma cópia em ordem decrescente
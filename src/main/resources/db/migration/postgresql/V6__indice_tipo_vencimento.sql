@@ -0,0 +1,4 @@
+-- Busca com filtro por tipo (ObrigacaoSpecifications e findByTipoAndAtivoTrueOrderByDataVencimentoAsc)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_tipo_vencimento
+    ON obrigacoes (tipo, data_vencimento)
+    WHERE ativo = true;
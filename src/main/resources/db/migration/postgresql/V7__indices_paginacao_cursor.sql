@@ -0,0 +1,20 @@
+-- Chaves da paginação por cursor: cada índice termina no id, que desempata a ordenação,
+-- para que qualquer página comece direto na chave do cursor, sem ordenar nem descartar linhas.
+-- Os índices de uma coluna que o ddl-auto=update chegou a criar são prefixos dos novos e saem, se existirem,
+-- depois que estes estão prontos.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_vencimento_id
+    ON obrigacoes (data_vencimento, id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_obrigacoes_data_vencimento;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historico_obrigacao_data_id
+    ON historico_alteracoes (obrigacao_id, data_alteracao, id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_historico_obrigacao_data;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historico_data_id
+    ON historico_alteracoes (data_alteracao, id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_historico_data_alteracao;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clientes_nome_id
+    ON clientes (nome, id)
+    WHERE ativo = true;
@@ -0,0 +1,4 @@
+-- Linhas de uma passada da geração em SQL (LIBERAR_ANTERIORES e AVANCAR_MARCAS); só as geradas em SQL entram no índice
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_obrigacoes_lote_geracao
+    ON obrigacoes (lote_geracao)
+    WHERE lote_geracao IS NOT NULL;
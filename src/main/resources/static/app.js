@@ -25,12 +25,15 @@ class SistemaFiscal {
     // WebSocket para colaboração em tempo real
     configurarWebSocket() {
         const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
-        const wsUrl = `${protocol}//${window.location.host}/api/ws`;
+        // Identifica a sessão para receber os resumos de alertas do responsável
+        const responsavelId = localStorage.getItem('responsavelId');
+        const wsUrl = `${protocol}//${window.location.host}/api/ws/websocket` + (responsavelId ? `?responsavelId=${encodeURIComponent(responsavelId)}` : '');
         
         this.websocket = new WebSocket(wsUrl);
         
         this.websocket.onopen = () => {
             console.log('WebSocket conectado');
+            this.identificarSessao();
             this.mostrarNotificacao('Conectado ao sistema', 'success');
         };
         
@@ -52,6 +55,25 @@ class SistemaFiscal {
         };
     }
 
+    // Associa a sessão ao responsável escolhido; sem responsável, a sessão deixa de receber alertas dirigidos
+    identificarSessao() {
+        if (this.websocket && this.websocket.readyState === WebSocket.OPEN) {
+            this.websocket.send(JSON.stringify({
+                tipo: 'IDENTIFICAR',
+                responsavelId: localStorage.getItem('responsavelId')
+            }));
+        }
+    }
+
+    selecionarResponsavelAtual(responsavelId) {
+        if (responsavelId) {
+            localStorage.setItem('responsavelId', responsavelId);
+        } else {
+            localStorage.removeItem('responsavelId');
+        }
+        this.identificarSessao();
+    }
+
     // Carregar dados iniciais
     async carregarDadosIniciais() {
         try {
@@ -123,6 +145,10 @@ class SistemaFiscal {
             this.salvarObrigacao();
         });
 
+        document.getElementById('responsavelAtual').addEventListener('change', (e) => {
+            this.selecionarResponsavelAtual(e.target.value);
+        });
+
         // Eventos de filtros
         document.querySelectorAll('.form-select').forEach(select => {
             select.addEventListener('change', () => {
@@ -433,6 +459,10 @@ class SistemaFiscal {
 
     // Processar notificação WebSocket
     processarNotificacao(notificacao) {
+        if (notificacao.tipo === 'URGENCIAS_ATUALIZADAS') {
+            this.aplicarViradaUrgencias(notificacao.dados);
+            return;
+        }
         this.mostrarNotificacao(notificacao.mensagem, 'info');
         
         // Atualizar dados se necessário
@@ -446,6 +476,23 @@ class SistemaFiscal {
         }
     }
 
+    // Virada do dia: recalcula os dias localmente e aplica só as urgências que mudaram
+    aplicarViradaUrgencias(dados) {
+        const hoje = new Date(`${dados.data}T00:00:00`);
+        this.obrigacoes.forEach(obrigacao => {
+            const vencimento = new Date(`${obrigacao.dataVencimento}T00:00:00`);
+            obrigacao.diasParaVencimento = Math.round((vencimento - hoje) / 86400000);
+        });
+        Object.entries(dados.mudancas).forEach(([status, ids]) => {
+            const alterados = new Set(ids);
+            this.obrigacoes
+                .filter(obrigacao => alterados.has(obrigacao.id))
+                .forEach(obrigacao => { obrigacao.statusUrgencia = status; });
+        });
+        this.atualizarDashboard();
+        this.atualizarCalendario();
+    }
+
     // Utilitários
     getCorTipo(tipo) {
         const cores = {
@@ -491,6 +538,10 @@ class SistemaFiscal {
         
         select.innerHTML = '<option value="">Selecione um responsável</option>' + options;
         filtroSelect.innerHTML = '<option value="">Todos os responsáveis</option>' + options;
+        
+        const atualSelect = document.getElementById('responsavelAtual');
+        atualSelect.innerHTML = '<option value="">Nenhum responsável</option>' + options;
+        atualSelect.value = localStorage.getItem('responsavelId') || '';
     }
 
     // Filtros
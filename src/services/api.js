@@ -72,6 +72,14 @@ export const obrigacaoService = {
     const response = await api.get('/obrigacoes/estatisticas')
     return response.data
   },
+
+  // Buscar série de estatísticas gravada nos snapshots (periodo: MENSAL ou DIARIO)
+  async getTendencia(periodo = 'MENSAL', dimensao = 'TOTAL', quantidade = 12) {
+    const response = await api.get('/obrigacoes/estatisticas/tendencia', {
+      params: { periodo, dimensao, quantidade },
+    })
+    return response.data
+  },
 }
 
 // Serviços para Clientes
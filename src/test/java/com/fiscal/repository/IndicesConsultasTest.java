@@ -0,0 +1,220 @@
+package com.fiscal.repository;
+
+import com.fiscal.model.TipoObrigacao;
+import com.fiscal.model.dto.FiltroObrigacao;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Confere, pelo EXPLAIN do SQL que o Hibernate gera, que as consultas quentes usam os índices das migrações
+ * Roda num PostgreSQL embutido com o esquema do Flyway (db/migration/postgresql), onde existem os índices parciais.
+ * O plano é genérico (parâmetros em aberto) e sem varredura sequencial, para não depender do volume da massa.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true",
+        "spring.flyway.locations=classpath:db/migration/{vendor}",
+        "spring.flyway.postgresql.transactional-lock=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.fiscal.repository.IndicesConsultasTest$SqlCapturado"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ObrigacaoResumoRepository.class, IndicesConsultasTest.PostgresEmbutido.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndicesConsultasTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2025, 6, 15);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmbeddedPostgres embeddedPostgres;
+
+    @Autowired
+    private ObrigacaoRepository obrigacaoRepository;
+
+    @Autowired
+    private ObrigacaoResumoRepository obrigacaoResumoRepository;
+
+    @Autowired
+    private HistoricoAlteracaoRepository historicoAlteracaoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @BeforeAll
+    void popularBanco() {
+        jdbcTemplate.execute("INSERT INTO clientes (ativo, data_criacao, nome) " +
+                "SELECT true, now(), 'Cliente ' || x FROM generate_series(1, 200) x");
+        jdbcTemplate.execute("INSERT INTO responsaveis (ativo, data_criacao, nome) " +
+                "SELECT true, now(), 'Responsável ' || x FROM generate_series(1, 20) x");
+        jdbcTemplate.execute("INSERT INTO obrigacoes (ativo, concluida, data_vencimento, data_proxima_geracao, " +
+                "data_criacao, nome, tipo, tipo_recorrencia, cliente_id, responsavel_id) " +
+                "SELECT x % 20 <> 0, x % 3 = 0, DATE '2024-06-01' + x % 730, " +
+                "CASE WHEN x % 4 = 0 THEN DATE '2024-05-01' + x % 730 END, " +
+                "now(), 'Obrigação ' || x, " +
+                "(ARRAY['IMPOSTO', 'PARCELAMENTO', 'DECLARACAO', 'DOCUMENTO', 'OUTROS'])[1 + x % 5], " +
+                "CASE WHEN x % 4 = 0 THEN 'MENSAL' ELSE 'UNICA' END, 1 + x % 200, 1 + x % 20 " +
+                "FROM generate_series(1, 20000) x");
+        jdbcTemplate.execute("INSERT INTO historico_alteracoes (obrigacao_id, campo_alterado, data_alteracao) " +
+                "SELECT 1 + x % 20000, 'nome', TIMESTAMP '2025-01-01' + x * INTERVAL '1 minute' " +
+                "FROM generate_series(1, 50000) x");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void vencidasEProximasUsamIndiceDePendentes() {
+        assertThat(plano(() -> obrigacaoRepository.findResumoVencidas(HOJE)))
+                .contains("idx_obrigacoes_pendentes_vencimento");
+        assertThat(plano(() -> obrigacaoRepository.findProximasVencimento(HOJE, HOJE.plusDays(30))))
+                .contains("idx_obrigacoes_pendentes_vencimento");
+    }
+
+    @Test
+    void geracaoDeOcorrenciasUsaIndiceDeProximaGeracao() {
+        assertThat(plano(() -> obrigacaoRepository.findIdsParaGerarProximaOcorrencia(HOJE)))
+                .contains("idx_obrigacoes_proxima_geracao");
+        assertThat(plano(() -> obrigacaoRepository.findParaGerarProximaOcorrencia(HOJE)))
+                .contains("idx_obrigacoes_proxima_geracao");
+    }
+
+    @Test
+    void listagensPorClienteResponsavelETipoUsamIndicesComVencimento() {
+        assertThat(plano(() -> obrigacaoRepository.findByClienteIdAndAtivoTrueOrderByDataVencimentoAsc(7L)))
+                .contains("idx_obrigacoes_cliente_vencimento");
+        assertThat(plano(() -> obrigacaoRepository.findByResponsavelIdAndAtivoTrueOrderByDataVencimentoAsc(3L)))
+                .contains("idx_obrigacoes_responsavel_vencimento");
+        assertThat(plano(() -> obrigacaoRepository.findByTipoAndAtivoTrueOrderByDataVencimentoAsc(TipoObrigacao.IMPOSTO)))
+                .contains("idx_obrigacoes_tipo_vencimento");
+    }
+
+    @Test
+    void paginaSeguinteDeObrigacoesUsaIndiceDoCursor() {
+        assertThat(plano(() -> obrigacaoResumoRepository.buscar(
+                ObrigacaoSpecifications.comFiltro(new FiltroObrigacao(), HOJE)
+                        .and(ObrigacaoSpecifications.aposCursor(HOJE, 1200L)),
+                ObrigacaoSpecifications.ORDEM_VENCIMENTO, 21)))
+                .contains("idx_obrigacoes_vencimento_id");
+    }
+
+    @Test
+    void paginasDoHistoricoUsamIndicesDoCursor() {
+        LocalDateTime chave = LocalDateTime.of(2025, 1, 5, 12, 0);
+        assertThat(plano(() -> historicoAlteracaoRepository.findPaginaPorObrigacaoApos(42L, chave, 9000L, PageRequest.ofSize(21))))
+                .contains("idx_historico_obrigacao_data_id");
+        assertThat(plano(() -> historicoAlteracaoRepository.findPaginaApos(chave, 9000L, PageRequest.ofSize(21))))
+                .contains("idx_historico_data_id");
+    }
+
+    @Test
+    void historicoDaObrigacaoUsaIndicePorObrigacaoEData() {
+        assertThat(plano(() -> historicoAlteracaoRepository.findByObrigacaoIdOrderByDataAlteracaoDesc(42L)))
+                .contains("idx_historico_obrigacao_data_id");
+        assertThat(plano(() -> historicoAlteracaoRepository.findPaginaPorObrigacao(42L, PageRequest.ofSize(21))))
+                .contains("idx_historico_obrigacao_data_id");
+    }
+
+    @Test
+    void paginaSeguinteDeClientesUsaIndiceDoCursor() {
+        assertThat(plano(() -> clienteRepository.findPaginaComFiltrosApos(null, null, "Cliente 50", 50L, PageRequest.ofSize(21))))
+                .contains("idx_clientes_nome_id");
+    }
+
+    /**
+     * Executa a consulta e devolve o plano genérico do primeiro SQL que ela enviou ao banco
+     */
+    private String plano(Runnable consulta) {
+        SqlCapturado.SQL.clear();
+        consulta.run();
+        assertThat(SqlCapturado.SQL).isNotEmpty();
+        String sql = numerarParametros(SqlCapturado.SQL.get(0));
+        // Protocolo simples: no estendido o driver exigiria valores para os "$n"
+        String url = embeddedPostgres.getJdbcUrl("postgres", "postgres") + "&preferQueryMode=simple";
+        try (Connection conexao = DriverManager.getConnection(url);
+             Statement comando = conexao.createStatement()) {
+            comando.execute("SET enable_seqscan = off");
+            StringBuilder plano = new StringBuilder();
+            try (ResultSet linhas = comando.executeQuery("EXPLAIN (GENERIC_PLAN) " + sql)) {
+                while (linhas.next()) {
+                    plano.append(linhas.getString(1)).append('\n');
+                }
+            }
+            return plano.toString();
+        } catch (SQLException e) {
+            throw new IllegalStateException("EXPLAIN falhou para: " + sql, e);
+        }
+    }
+
+    /**
+     * Troca os "?" do JDBC pelos "$n" que o EXPLAIN (GENERIC_PLAN) aceita sem valores
+     */
+    private static String numerarParametros(String sql) {
+        StringBuilder numerado = new StringBuilder();
+        int parametro = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numerado.append('$').append(++parametro);
+            } else {
+                numerado.append(c);
+            }
+        }
+        return numerado.toString();
+    }
+
+    /**
+     * Guarda o SQL preparado pelo Hibernate
+     */
+    public static class SqlCapturado implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class PostgresEmbutido {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.fiscal.service;
+
+import com.fiscal.model.Feriado;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Feriados móveis calculados a partir da Páscoa e limites do deslocamento aceito no arquivo
+ */
+class ArquivoFeriadoProviderTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void pascoaPeloAlgoritmoDeGauss() {
+        assertThat(ArquivoFeriadoProvider.calcularPascoa(2024)).isEqualTo(LocalDate.of(2024, 3, 31));
+        assertThat(ArquivoFeriadoProvider.calcularPascoa(2025)).isEqualTo(LocalDate.of(2025, 4, 20));
+        assertThat(ArquivoFeriadoProvider.calcularPascoa(2026)).isEqualTo(LocalDate.of(2026, 4, 5));
+        // Extremos: a mais tardia (25/04) e a mais cedo (22/03)
+        assertThat(ArquivoFeriadoProvider.calcularPascoa(2038)).isEqualTo(LocalDate.of(2038, 4, 25));
+        assertThat(ArquivoFeriadoProvider.calcularPascoa(2285)).isEqualTo(LocalDate.of(2285, 3, 22));
+    }
+
+    @Test
+    void feriadosMoveisDoArquivoEmpacotado() {
+        ArquivoFeriadoProvider provider = new ArquivoFeriadoProvider(new DefaultResourceLoader(),
+                "classpath:feriados/feriados.csv");
+
+        assertThat(datas(provider, 2025, "Carnaval")).containsExactly(LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 4));
+        assertThat(datas(provider, 2025, "Sexta-feira Santa")).containsExactly(LocalDate.of(2025, 4, 18));
+        assertThat(datas(provider, 2025, "Corpus Christi")).containsExactly(LocalDate.of(2025, 6, 19));
+        assertThat(datas(provider, 2024, "Carnaval")).containsExactly(LocalDate.of(2024, 2, 12), LocalDate.of(2024, 2, 13));
+        assertThat(datas(provider, 2024, "Corpus Christi")).containsExactly(LocalDate.of(2024, 5, 30));
+    }
+
+    @Test
+    void deslocamentosNosLimitesFicamNoAnoDaPascoa() throws IOException {
+        ArquivoFeriadoProvider provider = provider("NACIONAL;;;PASCOA-80;Limite inferior",
+                "NACIONAL;;;PASCOA+250;Limite superior");
+
+        assertThat(datas(provider, 2285, "Limite inferior")).containsExactly(LocalDate.of(2285, 1, 1));
+        assertThat(datas(provider, 2038, "Limite superior")).containsExactly(LocalDate.of(2038, 12, 31));
+        for (int ano = 1900; ano <= 2300; ano++) {
+            for (Feriado feriado : provider.feriados(ano).getFeriados()) {
+                assertThat(feriado.getData().getYear()).as("%s em %d", feriado.getDescricao(), ano).isEqualTo(ano);
+            }
+        }
+    }
+
+    @Test
+    void deslocamentoForaDosLimitesEhRejeitado() throws IOException {
+        assertThatThrownBy(() -> provider("NACIONAL;;;PASCOA-81;Antes"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("fora do ano da Páscoa");
+        assertThatThrownBy(() -> provider("NACIONAL;;;PASCOA+251;Depois"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("fora do ano da Páscoa");
+    }
+
+    private ArquivoFeriadoProvider provider(String... linhas) throws IOException {
+        Path arquivo = Files.createTempFile(diretorio, "feriados", ".csv");
+        Files.write(arquivo, List.of(linhas));
+        return new ArquivoFeriadoProvider(new DefaultResourceLoader(), arquivo.toUri().toString());
+    }
+
+    private static List<LocalDate> datas(ArquivoFeriadoProvider provider, int ano, String descricao) {
+        return provider.feriados(ano).getFeriados().stream()
+                .filter(f -> f.getDescricao().startsWith(descricao))
+                .map(Feriado::getData)
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.fiscal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiscal.model.dto.HistoricoArquivado;
+import com.fiscal.repository.HistoricoAlteracaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Gravação dos lotes como membros gzip, índice por balde e leitura de volta do arquivo
+ */
+class ArquivoHistoricoServiceTest {
+
+    private static final LocalDateTime LIMITE = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    @TempDir
+    Path diretorio;
+
+    private HistoricoAlteracaoRepository historicoRepository;
+    private ArquivoHistoricoService arquivoService;
+
+    @BeforeEach
+    void montar() {
+        historicoRepository = mock(HistoricoAlteracaoRepository.class);
+        when(historicoRepository.findMaxIdAnteriorA(LIMITE)).thenReturn(3L);
+        // Lotes de dois: ids 1 e 2, depois o id 3; as obrigações 1 e 65 caem no mesmo balde
+        when(historicoRepository.findLoteParaArquivo(eq(0L), eq(3L), eq(LIMITE), any()))
+                .thenReturn(List.of(linha(1L, 1L, "2022-03-01T10:00"), linha(2L, 65L, "2022-03-02T10:00")));
+        when(historicoRepository.findLoteParaArquivo(eq(2L), eq(3L), eq(LIMITE), any()))
+                .thenReturn(List.<Object[]>of(linha(3L, 1L, "2022-05-01T10:00")));
+        when(historicoRepository.deleteByIdIn(anyList())).thenAnswer(i -> ((List<?>) i.getArgument(0)).size());
+
+        arquivoService = new ArquivoHistoricoService(historicoRepository, new ObjectMapper().findAndRegisterModules(),
+                mock(PlatformTransactionManager.class), diretorio.toString(), 2, 2, Duration.ZERO);
+    }
+
+    @Test
+    void lotesArquivadosVoltamPorObrigacaoDoMaisRecenteAoMaisAntigo() throws IOException {
+        assertThat(arquivoService.arquivarAnteriores(LIMITE)).isEqualTo(3);
+
+        assertThat(ids(arquivoService.buscarArquivado(1L))).containsExactly(3L, 1L);
+        assertThat(ids(arquivoService.buscarArquivado(65L))).containsExactly(2L);
+        assertThat(arquivoService.buscarArquivado(2L)).isEmpty();
+        assertThat(arquivoService.buscarArquivado(1L).get(0).getDataAlteracao())
+                .isEqualTo(LocalDateTime.parse("2022-05-01T10:00"));
+
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertThat(arquivos.map(a -> a.getFileName().toString()))
+                    .hasSize(2)
+                    .anyMatch(nome -> nome.endsWith(".ndjson.gz"))
+                    .anyMatch(nome -> nome.endsWith(".b01.idx"));
+        }
+    }
+
+    @Test
+    void loteArquivadoDeNovoNaoRepeteAlteracoesNaLeitura() {
+        // Queda entre a gravação e a remoção: a execução seguinte arquiva os mesmos lotes outra vez
+        arquivoService.arquivarAnteriores(LIMITE);
+        arquivoService.arquivarAnteriores(LIMITE);
+
+        assertThat(ids(arquivoService.buscarArquivado(1L))).containsExactly(3L, 1L);
+        assertThat(ids(arquivoService.buscarArquivado(65L))).containsExactly(2L);
+    }
+
+    @Test
+    void linhaDeIndiceIncompletaEIgnorada() throws IOException {
+        arquivoService.arquivarAnteriores(LIMITE);
+        Path indice;
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            indice = arquivos.filter(a -> a.getFileName().toString().endsWith(".b01.idx")).findFirst().orElseThrow();
+        }
+        Files.writeString(indice, Files.readString(indice) + "1;999");
+
+        assertThat(ids(arquivoService.buscarArquivado(1L))).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void semDiretorioNaoHaArquivado() {
+        ArquivoHistoricoService semArquivo = new ArquivoHistoricoService(historicoRepository, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), diretorio.resolve("inexistente").toString(), 2, 2, Duration.ZERO);
+
+        assertThat(semArquivo.buscarArquivado(1L)).isEmpty();
+    }
+
+    private static Object[] linha(Long id, Long obrigacaoId, String dataAlteracao) {
+        return new Object[] {id, obrigacaoId, "status", "PENDENTE", "CONCLUIDA", "ana", "127.0.0.1",
+                LocalDateTime.parse(dataAlteracao), null};
+    }
+
+    private static List<Long> ids(List<HistoricoArquivado> registros) {
+        List<Long> ids = new ArrayList<>();
+        registros.forEach(r -> ids.add(r.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,128 @@
+package com.fiscal.service;
+
+import com.fiscal.model.Feriado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Aritmética de dias úteis sobre o calendário nacional do arquivo empacotado, com atenção à virada do ano
+ */
+class DataServiceTest {
+
+    private DataService dataService;
+    private Set<LocalDate> feriadosNacionais;
+
+    @BeforeEach
+    void montar() {
+        ArquivoFeriadoProvider provider = new ArquivoFeriadoProvider(new DefaultResourceLoader(),
+                "classpath:feriados/feriados.csv");
+        dataService = new DataService(provider);
+
+        feriadosNacionais = new HashSet<>();
+        for (int ano = 2021; ano <= 2028; ano++) {
+            for (Feriado feriado : provider.feriados(ano).getFeriados()) {
+                if (feriado.getAbrangencia() == Feriado.Abrangencia.NACIONAL) {
+                    feriadosNacionais.add(feriado.getData());
+                }
+            }
+        }
+    }
+
+    // Soma e subtração
+
+    @Test
+    void somaAtravessaFimDeSemanaEConfraternizacao() {
+        LocalDate sexta = LocalDate.of(2024, 12, 27);
+
+        assertThat(dataService.plusDiasUteis(sexta, 2)).isEqualTo(LocalDate.of(2024, 12, 31));
+        assertThat(dataService.plusDiasUteis(sexta, 3)).isEqualTo(LocalDate.of(2025, 1, 2));
+        assertThat(dataService.plusDiasUteis(LocalDate.of(2024, 12, 31), 1)).isEqualTo(LocalDate.of(2025, 1, 2));
+        // Sábado de 31/12 e domingo de 01/01: o primeiro dia útil é a segunda
+        assertThat(dataService.plusDiasUteis(LocalDate.of(2022, 12, 31), 1)).isEqualTo(LocalDate.of(2023, 1, 2));
+    }
+
+    @Test
+    void subtracaoVoltaParaOAnoAnterior() {
+        assertThat(dataService.minusDiasUteis(LocalDate.of(2025, 1, 2), 1)).isEqualTo(LocalDate.of(2024, 12, 31));
+        assertThat(dataService.minusDiasUteis(LocalDate.of(2025, 1, 2), 3)).isEqualTo(LocalDate.of(2024, 12, 27));
+        // A partir de um feriado a própria data não conta
+        assertThat(dataService.minusDiasUteis(LocalDate.of(2025, 1, 1), 1)).isEqualTo(LocalDate.of(2024, 12, 31));
+        assertThat(dataService.minusDiasUteis(LocalDate.of(2023, 1, 2), 1)).isEqualTo(LocalDate.of(2022, 12, 30));
+    }
+
+    @Test
+    void sinalNegativoInverteOSentidoEZeroDevolveAData() {
+        LocalDate data = LocalDate.of(2025, 1, 2);
+
+        assertThat(dataService.plusDiasUteis(data, -3)).isEqualTo(dataService.minusDiasUteis(data, 3));
+        assertThat(dataService.minusDiasUteis(data, -3)).isEqualTo(dataService.plusDiasUteis(data, 3));
+        assertThat(dataService.plusDiasUteis(LocalDate.of(2025, 1, 1), 0)).isEqualTo(LocalDate.of(2025, 1, 1));
+    }
+
+    @Test
+    void somaESubtracaoConferemComContagemDiaADiaPorMaisDeUmAno() {
+        for (LocalDate inicio = LocalDate.of(2023, 12, 20); inicio.isBefore(LocalDate.of(2024, 1, 10)); inicio = inicio.plusDays(1)) {
+            for (int n : new int[] {1, 5, 22, 250, 260, 400}) {
+                assertThat(dataService.plusDiasUteis(inicio, n)).as("%s + %d", inicio, n).isEqualTo(contar(inicio, n, 1));
+                assertThat(dataService.minusDiasUteis(inicio, n)).as("%s - %d", inicio, n).isEqualTo(contar(inicio, n, -1));
+            }
+        }
+    }
+
+    // N-ésimo dia útil do mês
+
+    @Test
+    void primeiroEUltimoDiaUtilNaViradaDoAno() {
+        assertThat(dataService.nthDiaUtilDoMes(YearMonth.of(2024, 12), -1)).isEqualTo(LocalDate.of(2024, 12, 31));
+        assertThat(dataService.nthDiaUtilDoMes(YearMonth.of(2025, 1), 1)).isEqualTo(LocalDate.of(2025, 1, 2));
+        assertThat(dataService.nthDiaUtilDoMes(YearMonth.of(2026, 1), 1)).isEqualTo(LocalDate.of(2026, 1, 2));
+        assertThat(dataService.nthDiaUtilDoMes(YearMonth.of(2023, 1), 1)).isEqualTo(LocalDate.of(2023, 1, 2));
+        assertThat(dataService.nthDiaUtilDoMes(YearMonth.of(2022, 12), -1)).isEqualTo(LocalDate.of(2022, 12, 30));
+        assertThat(dataService.ultimoDiaUtil(YearMonth.of(2025, 12))).isEqualTo(LocalDate.of(2025, 12, 31));
+    }
+
+    @Test
+    void carnavalEmpurraOPrimeiroDiaUtilDeMarco() {
+        // Páscoa em 20/04/2025: carnaval em 03 e 04/03, logo depois do fim de semana
+        assertThat(dataService.nthDiaUtilDoMes(YearMonth.of(2025, 3), 1)).isEqualTo(LocalDate.of(2025, 3, 5));
+        assertThat(dataService.nthDiaUtilDoMes(YearMonth.of(2025, 3), -1)).isEqualTo(LocalDate.of(2025, 3, 31));
+    }
+
+    @Test
+    void ordemInvalidaNoMesEhRejeitada() {
+        assertThatThrownBy(() -> dataService.nthDiaUtilDoMes(YearMonth.of(2025, 1), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Janeiro de 2025 tem 22 dias úteis
+        assertThat(dataService.nthDiaUtilDoMes(YearMonth.of(2025, 1), 22)).isEqualTo(LocalDate.of(2025, 1, 31));
+        assertThatThrownBy(() -> dataService.nthDiaUtilDoMes(YearMonth.of(2025, 1), 23))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("22 dias úteis");
+        assertThatThrownBy(() -> dataService.nthDiaUtilDoMes(YearMonth.of(2025, 1), -23))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Referência ingênua: anda um dia por vez e conta os que não são fim de semana nem feriado nacional
+     */
+    private LocalDate contar(LocalDate inicio, int n, int passo) {
+        LocalDate data = inicio;
+        int contados = 0;
+        while (contados < n) {
+            data = data.plusDays(passo);
+            if (data.getDayOfWeek() != DayOfWeek.SATURDAY && data.getDayOfWeek() != DayOfWeek.SUNDAY
+                    && !feriadosNacionais.contains(data)) {
+                contados++;
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,85 @@
+package com.fiscal.service;
+
+import com.fiscal.model.ModoAjuste;
+import com.fiscal.model.Obrigacao;
+import com.fiscal.model.TipoObrigacao;
+import com.fiscal.model.TipoRecorrencia;
+import com.fiscal.repository.HistoricoAlteracaoRepository;
+import com.fiscal.repository.ObrigacaoLoteRepository;
+import com.fiscal.repository.ObrigacaoRepository;
+import com.fiscal.repository.ObrigacaoSerieRepository;
+import com.fiscal.repository.ResponsavelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Geração encadeada das ocorrências de uma série, com repositórios simulados
+ */
+class RecorrenciaServiceTest {
+
+    private ObrigacaoSerieRepository serieRepository;
+    private RecorrenciaService recorrenciaService;
+
+    @BeforeEach
+    void montar() {
+        ObrigacaoRepository obrigacaoRepository = mock(ObrigacaoRepository.class);
+        serieRepository = mock(ObrigacaoSerieRepository.class);
+        DataService dataService = mock(DataService.class);
+
+        when(obrigacaoRepository.save(any(Obrigacao.class))).thenAnswer(i -> i.getArgument(0));
+        when(serieRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(serieRepository.avancarMarcaGeracao(isNull(), any(), any())).thenReturn(1);
+        // Sem ajuste: o vencimento é a própria data nominal
+        when(dataService.ajustarDataVencimento(any(Obrigacao.class), any(LocalDate.class))).thenAnswer(i -> i.getArgument(1));
+
+        ObrigacaoSerieService serieService = new ObrigacaoSerieService(serieRepository, obrigacaoRepository,
+                mock(HistoricoAlteracaoRepository.class), mock(ResponsavelRepository.class));
+        recorrenciaService = new RecorrenciaService(obrigacaoRepository, dataService, serieService,
+                mock(ObrigacaoLoteRepository.class));
+    }
+
+    @Test
+    void mensalSemDiaInformadoVoltaAoDia31DepoisDeFevereiro() {
+        Obrigacao janeiro = mensal(LocalDate.of(2024, 1, 31));
+
+        Obrigacao fevereiro = recorrenciaService.gerarProximaOcorrencia(janeiro);
+        Obrigacao marco = recorrenciaService.gerarProximaOcorrencia(fevereiro);
+        Obrigacao abril = recorrenciaService.gerarProximaOcorrencia(marco);
+
+        assertThat(fevereiro.getDataVencimento()).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(marco.getDataVencimento()).isEqualTo(LocalDate.of(2024, 3, 31));
+        assertThat(abril.getDataVencimento()).isEqualTo(LocalDate.of(2024, 4, 30));
+        assertThat(janeiro.getSerie().getDiaMesRecorrencia()).isEqualTo(31);
+    }
+
+    @Test
+    void ocorrenciaSemDiaUsaODiaFixadoNaSerie() {
+        Obrigacao janeiro = mensal(LocalDate.of(2025, 1, 31));
+        Obrigacao fevereiro = recorrenciaService.gerarProximaOcorrencia(janeiro);
+        // Edição que não reenviou o dia do mês
+        fevereiro.setDiaMesRecorrencia(null);
+
+        assertThat(fevereiro.getDataVencimento()).isEqualTo(LocalDate.of(2025, 2, 28));
+        assertThat(recorrenciaService.gerarProximaOcorrencia(fevereiro).getDataVencimento())
+                .isEqualTo(LocalDate.of(2025, 3, 31));
+    }
+
+    private static Obrigacao mensal(LocalDate vencimento) {
+        Obrigacao obrigacao = new Obrigacao();
+        obrigacao.setNome("DCTFWeb");
+        obrigacao.setTipo(TipoObrigacao.DECLARACAO);
+        obrigacao.setDataVencimento(vencimento);
+        obrigacao.setDataVencimentoOriginal(vencimento);
+        obrigacao.setTipoRecorrencia(TipoRecorrencia.MENSAL);
+        obrigacao.setModoAjuste(ModoAjuste.POSTERGAR);
+        return obrigacao;
+    }
+}
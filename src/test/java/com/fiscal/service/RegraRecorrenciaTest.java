@@ -0,0 +1,179 @@
+package com.fiscal.service;
+
+import com.fiscal.model.TipoRecorrencia;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Leitura das regras RRULE e expansão das ocorrências
+ */
+class RegraRecorrenciaTest {
+
+    /** Calendários só com fins de semana, para as regras com X-BYDIAUTIL */
+    private static final IntFunction<CalendarioDiasUteis> SEM_FERIADOS = ano -> new CalendarioDiasUteis(ano, new BitSet());
+
+    // Leitura
+
+    @Test
+    void formaCanonicaIgnoraPrefixoCaixaEOrdemDasPartes() {
+        RegraRecorrencia regra = RegraRecorrencia.compilar("rrule:dtstart=20250110;bymonthday=10;freq=monthly;interval=1");
+
+        assertThat(regra.toString()).isEqualTo("FREQ=MONTHLY;BYMONTHDAY=10;DTSTART=20250110");
+        assertThat(regra.getFrequencia()).isEqualTo(RegraRecorrencia.Frequencia.MONTHLY);
+        assertThat(regra.getInicio()).isEqualTo(LocalDate.of(2025, 1, 10));
+    }
+
+    @Test
+    void referenciaSoEntraComoInicioQuandoARegraNaoTemDtstart() {
+        LocalDate referencia = LocalDate.of(2025, 3, 5);
+
+        assertThat(RegraRecorrencia.compilar("FREQ=WEEKLY", referencia).getInicio()).isEqualTo(referencia);
+        assertThat(RegraRecorrencia.compilar("FREQ=WEEKLY;DTSTART=2024-01-01", referencia).getInicio())
+                .isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(RegraRecorrencia.comInicio(" FREQ=WEEKLY ", referencia)).isEqualTo("FREQ=WEEKLY;DTSTART=20250305");
+        assertThat(RegraRecorrencia.comInicio("FREQ=WEEKLY;dtstart=20240101", referencia)).isEqualTo("FREQ=WEEKLY;dtstart=20240101");
+    }
+
+    @Test
+    void rejeitaRegrasInvalidas() {
+        assertThatThrownBy(() -> RegraRecorrencia.compilar(" ")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RegraRecorrencia.compilar("BYMONTHDAY=10;DTSTART=20250101"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("sem FREQ");
+        assertThatThrownBy(() -> RegraRecorrencia.compilar("FREQ=MONTHLY"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("sem DTSTART");
+        assertThatThrownBy(() -> RegraRecorrencia.compilar("FREQ=MONTHLY;BYMONTHDAY=32;DTSTART=20250101"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("fora do intervalo");
+        assertThatThrownBy(() -> RegraRecorrencia.compilar("FREQ=MONTHLY;BYMONTH=-1;DTSTART=20250101"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RegraRecorrencia.compilar("FREQ=MONTHLY;BYDAY=XX;DTSTART=20250101"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Dia da semana");
+        assertThatThrownBy(() -> RegraRecorrencia.compilar("FREQ=MONTHLY;BYHOUR=9;DTSTART=20250101"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("não suportada");
+        assertThatThrownBy(() -> RegraRecorrencia.compilar("FREQ=DAILY;X-BYDIAUTIL=5;DTSTART=20250101"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("X-BYDIAUTIL");
+        assertThatThrownBy(() -> RegraRecorrencia.compilar("FREQ=WEEKLY;WKST=SU;DTSTART=20250101"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RegraRecorrencia.compilar("FREQ=DAILY;INTERVAL=0;DTSTART=20250101"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Expansão
+
+    @Test
+    void dia31OuUltimoDiaDoMes() {
+        RegraRecorrencia regra = RegraRecorrencia.compilar("FREQ=MONTHLY;BYMONTHDAY=31,-1;BYSETPOS=1;DTSTART=20240101");
+
+        assertThat(ocorrencias(regra, LocalDate.of(2023, 12, 31), 5)).containsExactly(
+                LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31),
+                LocalDate.of(2024, 4, 30), LocalDate.of(2024, 5, 31));
+    }
+
+    @Test
+    void diasInexistentesSaoIgnorados() {
+        RegraRecorrencia regra = RegraRecorrencia.compilar("FREQ=MONTHLY;BYMONTHDAY=31;DTSTART=20250101");
+
+        assertThat(ocorrencias(regra, LocalDate.of(2025, 1, 31), 2))
+                .containsExactly(LocalDate.of(2025, 3, 31), LocalDate.of(2025, 5, 31));
+    }
+
+    @Test
+    void ultimaSextaFeiraDoMes() {
+        RegraRecorrencia regra = RegraRecorrencia.compilar("FREQ=MONTHLY;BYDAY=-1FR;DTSTART=20250101");
+
+        assertThat(ocorrencias(regra, LocalDate.of(2025, 1, 1), 3)).containsExactly(
+                LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 28));
+    }
+
+    @Test
+    void semanalEmDiasEscolhidosComIntervalo() {
+        RegraRecorrencia regra = RegraRecorrencia.compilar("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;DTSTART=20250106");
+
+        assertThat(ocorrencias(regra, LocalDate.of(2025, 1, 5), 4)).containsExactly(
+                LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 8), LocalDate.of(2025, 1, 20), LocalDate.of(2025, 1, 22));
+    }
+
+    @Test
+    void trimestralPulaParaOPeriodoDaDataConsultada() {
+        RegraRecorrencia regra = RegraRecorrencia.compilar("FREQ=MONTHLY;INTERVAL=3;BYMONTHDAY=15;DTSTART=20000115");
+
+        assertThat(regra.proxima(LocalDate.of(2025, 5, 20), SEM_FERIADOS)).isEqualTo(LocalDate.of(2025, 7, 15));
+    }
+
+    @Test
+    void countContaDesdeOInicioEUntilEncerraASerie() {
+        RegraRecorrencia contada = RegraRecorrencia.compilar("FREQ=MONTHLY;COUNT=3;BYMONTHDAY=5;DTSTART=20250105");
+        RegraRecorrencia limitada = RegraRecorrencia.compilar("FREQ=YEARLY;UNTIL=20270101;DTSTART=20250301");
+
+        assertThat(ocorrencias(contada, LocalDate.of(2025, 1, 10), 5))
+                .containsExactly(LocalDate.of(2025, 2, 5), LocalDate.of(2025, 3, 5));
+        assertThat(contada.proxima(LocalDate.of(2025, 3, 5), SEM_FERIADOS)).isNull();
+        assertThat(ocorrencias(limitada, LocalDate.of(2024, 1, 1), 5))
+                .containsExactly(LocalDate.of(2025, 3, 1), LocalDate.of(2026, 3, 1));
+    }
+
+    @Test
+    void quintoDiaUtilEUltimoDiaUtil() {
+        RegraRecorrencia quinto = RegraRecorrencia.compilar("FREQ=MONTHLY;X-BYDIAUTIL=5;DTSTART=20250101");
+        RegraRecorrencia ultimo = RegraRecorrencia.compilar("FREQ=MONTHLY;X-BYDIAUTIL=-1;DTSTART=20250101");
+
+        assertThat(quinto.isUsaDiasUteis()).isTrue();
+        assertThat(ocorrencias(quinto, LocalDate.of(2025, 1, 1), 2))
+                .containsExactly(LocalDate.of(2025, 1, 7), LocalDate.of(2025, 2, 7));
+        assertThat(ocorrencias(ultimo, LocalDate.of(2025, 5, 1), 1)).containsExactly(LocalDate.of(2025, 5, 30));
+    }
+
+    @Test
+    void diarioEm29DeFevereiroAtravessaAViradaDeSeculo() {
+        RegraRecorrencia regra = RegraRecorrencia.compilar("FREQ=DAILY;BYMONTH=2;BYMONTHDAY=29;DTSTART=20240101");
+
+        assertThat(regra.proxima(LocalDate.of(2024, 3, 1), SEM_FERIADOS)).isEqualTo(LocalDate.of(2028, 2, 29));
+        assertThat(regra.proxima(LocalDate.of(2096, 3, 1), SEM_FERIADOS)).isEqualTo(LocalDate.of(2104, 2, 29));
+    }
+
+    @Test
+    void regraSemNenhumaDataPossivelTermina() {
+        RegraRecorrencia diaria = RegraRecorrencia.compilar("FREQ=DAILY;BYMONTH=2;BYMONTHDAY=30;DTSTART=20250101");
+        RegraRecorrencia anual = RegraRecorrencia.compilar("FREQ=YEARLY;BYMONTH=4;BYMONTHDAY=31;DTSTART=20250101");
+
+        assertThat(diaria.proxima(LocalDate.of(2025, 1, 1), SEM_FERIADOS)).isNull();
+        assertThat(anual.proxima(LocalDate.of(2025, 1, 1), SEM_FERIADOS)).isNull();
+    }
+
+    @Test
+    void tiposLegadosCompartilhamARegraNormalizada() {
+        String marco = RegraRecorrencia.paraTipo(TipoRecorrencia.MENSAL, null, null, LocalDate.of(2025, 3, 31));
+        String junho = RegraRecorrencia.paraTipo(TipoRecorrencia.MENSAL, null, null, LocalDate.of(2025, 6, 30));
+
+        assertThat(marco).isEqualTo("FREQ=MONTHLY;BYMONTHDAY=31,-1;BYSETPOS=1;DTSTART=20000101");
+        assertThat(junho).isEqualTo("FREQ=MONTHLY;BYMONTHDAY=30,-1;BYSETPOS=1;DTSTART=20000101");
+        assertThat(RegraRecorrencia.paraTipo(TipoRecorrencia.UNICA, null, null, LocalDate.of(2025, 3, 31))).isNull();
+        assertThat(RegraRecorrencia.compilar(marco).proxima(LocalDate.of(2025, 3, 31), SEM_FERIADOS))
+                .isEqualTo(LocalDate.of(2025, 4, 30));
+    }
+
+    @Test
+    void customizadaMantemOAlinhamentoDoIntervalo() {
+        String regra = RegraRecorrencia.paraTipo(TipoRecorrencia.CUSTOMIZADA, 10, null, LocalDate.of(2025, 3, 7));
+
+        assertThat(RegraRecorrencia.compilar(regra).proxima(LocalDate.of(2025, 3, 7), SEM_FERIADOS))
+                .isEqualTo(LocalDate.of(2025, 3, 17));
+    }
+
+    private static List<LocalDate> ocorrencias(RegraRecorrencia regra, LocalDate apos, int limite) {
+        List<LocalDate> datas = new ArrayList<>();
+        PrimitiveIterator.OfLong cursor = regra.ocorrencias(apos.toEpochDay(), SEM_FERIADOS);
+        while (cursor.hasNext() && datas.size() < limite) {
+            datas.add(LocalDate.ofEpochDay(cursor.nextLong()));
+        }
+        return datas;
+    }
+}